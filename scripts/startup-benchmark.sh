@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and resident memory of the JVM jar, the JVM jar with a
+# CDS archive and the native image. Each variant is started RUNS times; the
+# script records the time until /actuator/health reports UP and the VmRSS of
+# the process at that moment.
+#
+# Prerequisites: a reachable PostgreSQL (DB_URL, DB_USERNAME, DB_PASSWORD),
+# JWT_SECRET_KEY set, and the artifacts built with
+#   ./mvnw -DskipTests package              (jar)
+#   ./mvnw -Pnative -DskipTests package     (native, needs GraalVM)
+#
+# Usage: scripts/startup-benchmark.sh [jvm|cds|native ...]
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+PORT="${PORT:-8086}"
+RUNS="${RUNS:-5}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+JAR="${JAR:-$(ls "$ROOT"/target/salesmanagement-*.jar 2>/dev/null | grep -v plain | head -n 1)}"
+NATIVE="${NATIVE:-$ROOT/target/salesmanagement}"
+WORK="$ROOT/target/startup-benchmark"
+HEALTH_URL="http://localhost:${PORT}/sales-management/actuator/health"
+
+now_ms() { date +%s%3N; }
+
+rss_kb() { awk '/VmRSS/ { print $2 }' "/proc/$1/status" 2>/dev/null || echo 0; }
+
+# Starts the command, waits for health UP and prints "<startup ms> <rss kb>".
+measure() {
+  local start pid elapsed rss
+  start=$(now_ms)
+  "$@" --server.port="$PORT" >"$WORK/last-run.log" 2>&1 &
+  pid=$!
+  while ! curl -fs "$HEALTH_URL" 2>/dev/null | grep -q '"UP"'; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "process exited before becoming healthy, see $WORK/last-run.log" >&2
+      return 1
+    fi
+    if (( $(now_ms) - start > TIMEOUT_SECONDS * 1000 )); then
+      kill "$pid"; echo "timed out waiting for $HEALTH_URL" >&2
+      return 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(rss_kb "$pid")
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+# Extracts the jar into the layout required by CDS and records the archive
+# with a training run that stops once the context has refreshed.
+prepare_cds() {
+  rm -rf "$WORK/cds"
+  java -Djarmode=tools -jar "$JAR" extract --destination "$WORK/cds" >/dev/null
+  java -XX:ArchiveClassesAtExit="$WORK/cds/application.jsa" -Dspring.context.exit=onRefresh \
+    -jar "$WORK/cds/$(basename "$JAR")" >"$WORK/cds-training.log" 2>&1
+}
+
+run_variant() {
+  local name=$1 total_ms=0 total_rss=0 result ms rss
+  shift
+  for ((i = 1; i <= RUNS; i++)); do
+    result=$(measure "$@")
+    read -r ms rss <<<"$result"
+    total_ms=$(( total_ms + ms ))
+    total_rss=$(( total_rss + rss ))
+    printf '%-7s run %d: %6d ms %8d KB\n' "$name" "$i" "$ms" "$rss"
+  done
+  printf '%-7s avg  : %6d ms %8d KB\n\n' "$name" $(( total_ms / RUNS )) $(( total_rss / RUNS ))
+}
+
+mkdir -p "$WORK"
+variants=("$@")
+[[ ${#variants[@]} -eq 0 ]] && variants=(jvm cds native)
+
+for variant in "${variants[@]}"; do
+  case "$variant" in
+    jvm)
+      run_variant jvm java -jar "$JAR" ;;
+    cds)
+      prepare_cds
+      run_variant cds java -XX:SharedArchiveFile="$WORK/cds/application.jsa" -jar "$WORK/cds/$(basename "$JAR")" ;;
+    native)
+      [[ -x "$NATIVE" ]] || { echo "native binary $NATIVE not found, build with -Pnative" >&2; exit 1; }
+      run_variant native "$NATIVE" ;;
+    *)
+      echo "unknown variant $variant (expected jvm, cds or native)" >&2; exit 1 ;;
+  esac
+done
@@ -2,10 +2,14 @@ package com.supermarket.salesmanagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// An R2DBC ConnectionFactory bean would switch off the JDBC DataSource; the reactive read server owns its pool
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @EnableFeignClients
+@EnableScheduling
 public class SalesmanagementApplication {
 
 	public static void main(String[] args) {
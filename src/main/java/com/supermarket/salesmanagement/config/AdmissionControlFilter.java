@@ -0,0 +1,132 @@
+package com.supermarket.salesmanagement.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.salesmanagement.service.admission.AdmissionLimiter;
+import com.supermarket.salesmanagement.service.admission.AdmissionRejectedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Puts the order and invoice APIs behind the {@link AdmissionLimiter}. A request is
+ * queued under the shop it acts on, the shopId query parameter or the shopId field of
+ * its JSON body, in that order; one that names no shop is queued under its
+ * authenticated caller. Nothing the client sends only for queueing is trusted.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final AdmissionLimiter admissionLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.admission.max-body-bytes:1048576}")
+    private long maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = IdempotencyFilter.path(request);
+        // Event streams stay open for minutes and say nothing about request latency
+        return !(path.startsWith("/api/v1/sales-orders") || path.startsWith("/api/v1/invoices"))
+                || path.endsWith("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpServletRequest admitted = request;
+        String shop = shopId(request.getParameter("shopId"));
+        if (shop == null && hasJsonBody(request)) {
+            CachedBodyHttpServletRequest cachedRequest;
+            try {
+                cachedRequest = CachedBodyHttpServletRequest.of(request, maxBodyBytes);
+            } catch (CachedBodyHttpServletRequest.BodyTooLargeException e) {
+                response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                response.setContentType("text/plain;charset=UTF-8");
+                response.getWriter().write(e.getMessage());
+                return;
+            }
+            shop = shopFromBody(cachedRequest.getBody());
+            admitted = cachedRequest;
+        }
+
+        AdmissionLimiter.Permit permit;
+        try {
+            permit = admissionLimiter.acquire(shop != null ? shop : callerKey());
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(e.getStatus().value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write(e.getMessage());
+            return;
+        }
+
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(admitted, response);
+            dropped = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            permit.release(dropped);
+        }
+    }
+
+    private static boolean hasJsonBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return ("POST".equals(request.getMethod()) || "PUT".equals(request.getMethod()))
+                && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private String shopFromBody(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode shopId = objectMapper.readTree(body).get("shopId");
+            return shopId != null && shopId.isTextual() ? shopId(shopId.asText()) : null;
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller; queue them as unknown
+            log.debug("Could not read shopId from request body: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // Only a well-formed shop id becomes a queue, in one canonical spelling
+    private static String shopId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value.trim()).toString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String callerKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                ? "caller:" + authentication.getName()
+                : AdmissionLimiter.UNKNOWN_SHOP;
+    }
+}
@@ -0,0 +1,107 @@
+package com.supermarket.salesmanagement.config;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request whose body has been read up front so filters can inspect it and still
+ * hand an unread stream to the rest of the chain. Reading stops at a size limit, so a
+ * client cannot make a filter buffer an arbitrarily large body.
+ */
+class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    private CachedBodyHttpServletRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+
+    /**
+     * @throws BodyTooLargeException if the declared or actual body exceeds {@code maxBytes}
+     */
+    static CachedBodyHttpServletRequest of(HttpServletRequest request, long maxBytes) throws IOException {
+        if (request instanceof CachedBodyHttpServletRequest cached) {
+            if (cached.body.length > maxBytes) {
+                throw new BodyTooLargeException(maxBytes);
+            }
+            return cached;
+        }
+        long declared = request.getContentLengthLong();
+        if (declared > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+        // Chunked bodies declare no length, so the limit is enforced while copying too
+        ByteArrayOutputStream out = new ByteArrayOutputStream(declared > 0 ? (int) declared : 256);
+        InputStream in = request.getInputStream();
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new BodyTooLargeException(maxBytes);
+            }
+            out.write(buffer, 0, read);
+        }
+        return new CachedBodyHttpServletRequest(request, out.toByteArray());
+    }
+
+    byte[] getBody() {
+        return body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        return new BufferedReader(new InputStreamReader(getInputStream(),
+                encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+    }
+
+    static class BodyTooLargeException extends IOException {
+        BodyTooLargeException(long maxBytes) {
+            super("Request body exceeds " + maxBytes + " bytes");
+        }
+    }
+}
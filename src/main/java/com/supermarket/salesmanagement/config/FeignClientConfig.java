@@ -1,6 +1,7 @@
 package com.supermarket.salesmanagement.config;
 
 import feign.RequestInterceptor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -8,6 +9,7 @@ import org.springframework.security.core.Authentication;
 
 
 @Configuration
+@Slf4j
 public class FeignClientConfig {
 
     @Bean
@@ -17,10 +19,9 @@ public class FeignClientConfig {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (authentication != null && authentication.getCredentials() != null) {
                 String jwtToken = (String) authentication.getCredentials();
-                System.out.println("Adding JWT token to Feign request: {}" + jwtToken); // Add logging
                 requestTemplate.header("Authorization", "Bearer " + jwtToken);
             } else {
-                System.out.println("No valid authentication or credentials found in SecurityContextHolder");
+                log.debug("No credentials to forward for {} {}", requestTemplate.method(), requestTemplate.path());
             }
         };
     }
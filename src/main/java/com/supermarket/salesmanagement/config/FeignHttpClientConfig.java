@@ -0,0 +1,108 @@
+package com.supermarket.salesmanagement.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled Apache HttpClient 5 transport for the Feign clients. Spring Cloud OpenFeign
+ * builds the client itself from spring.cloud.openfeign.httpclient; this adds the
+ * pieces it has no properties for: per-downstream pool sizes, a keep-alive cap
+ * and idle connection eviction. Connect and read timeouts are per client under
+ * spring.cloud.openfeign.client.config.
+ */
+@Configuration
+@Slf4j
+public class FeignHttpClientConfig {
+    private static final DefaultConnectionKeepAliveStrategy SERVER_KEEP_ALIVE = DefaultConnectionKeepAliveStrategy.INSTANCE;
+
+    @Value("${application.http-client.keep-alive-seconds:30}")
+    private long keepAliveSeconds;
+
+    @Value("${application.http-client.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Value("${application.http-client.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Bean
+    public PoolingHttpClientConnectionManager hc5ConnectionManager(
+            FeignHttpClientProperties properties,
+            @Value("${application.customer.service.url}") String customerUrl,
+            @Value("${application.customer.service.max-connections:0}") int customerConnections,
+            @Value("${application.product.service.url}") String productUrl,
+            @Value("${application.product.service.max-connections:0}") int productConnections,
+            @Value("${application.shop.service.url}") String shopUrl,
+            @Value("${application.shop.service.max-connections:0}") int shopConnections,
+            @Value("${application.price.service.url}") String priceUrl,
+            @Value("${application.price.service.max-connections:0}") int priceConnections) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectionTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getHc5().getSocketTimeout(), properties.getHc5().getSocketTimeoutUnit()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive(), properties.getTimeToLiveUnit()))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityMs))
+                        .build())
+                .build();
+
+        // Clients on the same scheme, host and port share one route, so their limits add up
+        Map<HttpRoute, Integer> perRoute = new LinkedHashMap<>();
+        List.of(Map.entry(customerUrl, customerConnections), Map.entry(productUrl, productConnections),
+                        Map.entry(shopUrl, shopConnections), Map.entry(priceUrl, priceConnections))
+                .forEach(limit -> {
+                    if (limit.getValue() > 0) {
+                        perRoute.merge(route(limit.getKey()), limit.getValue(), Integer::sum);
+                    }
+                });
+        perRoute.forEach(connectionManager::setMaxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer keepAliveCustomizer() {
+        return builder -> {
+            // Honour shorter server keep-alives but never reuse a connection idle longer than ours
+            builder.setKeepAliveStrategy((response, context) -> {
+                TimeValue serverKeepAlive = SERVER_KEEP_ALIVE.getKeepAliveDuration(response, context);
+                return serverKeepAlive.toSeconds() < keepAliveSeconds ? serverKeepAlive : TimeValue.ofSeconds(keepAliveSeconds);
+            });
+            builder.evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds));
+            if (!compressionEnabled) {
+                builder.disableContentCompression();
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(PoolingHttpClientConnectionManager hc5ConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(hc5ConnectionManager, "feign");
+    }
+
+    static HttpRoute route(String url) {
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+        return new HttpRoute(new HttpHost(uri.getScheme(), uri.getHost(), port), null, secure);
+    }
+}
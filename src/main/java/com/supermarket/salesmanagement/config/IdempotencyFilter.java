@@ -0,0 +1,132 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.service.deadline.RequestDeadline;
+import com.supermarket.salesmanagement.service.idempotency.IdempotencyService;
+import com.supermarket.salesmanagement.service.idempotency.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Makes order and invoice creation, and invoice payments, safe to retry. A POST carrying an
+ * Idempotency-Key runs once per authenticated principal and key; retries with
+ * the same body get the stored response back, retries with a different body are
+ * rejected with 422.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of("/api/v1/sales-orders", "/api/v1/invoices", "/api/v1/checkout");
+    private static final Pattern PAYMENTS_PATH = Pattern.compile("/api/v1/invoices/[^/]+/payments");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyService idempotencyService;
+
+    @Value("${application.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.idempotency.max-body-bytes:1048576}")
+    private long maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !(IDEMPOTENT_PATHS.contains(path(request)) || PAYMENTS_PATH.matcher(path(request)).matches());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            // Rejected further down the chain; nothing worth remembering
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        CachedBodyHttpServletRequest cachedRequest;
+        try {
+            cachedRequest = CachedBodyHttpServletRequest.of(request, maxBodyBytes);
+        } catch (CachedBodyHttpServletRequest.BodyTooLargeException e) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large for an idempotent request");
+            return;
+        }
+        String principal = authentication.getName();
+        String fingerprint = IdempotencyService.fingerprint(request.getMethod(), path(request), cachedRequest.getBody());
+
+        IdempotencyService.Decision decision = idempotencyService.begin(principal, key, fingerprint);
+        switch (decision.getType()) {
+            case REPLAY -> replay(response, decision.getResponse());
+            case MISMATCH -> writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used with a different request");
+            case IN_PROGRESS -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            }
+            case PROCEED -> proceed(cachedRequest, response, filterChain, principal, key, fingerprint);
+        }
+    }
+
+    private void proceed(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String principal, String key, String fingerprint) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            // The work has committed; recording it must not fail because the request ran out of time,
+            // or a retry would run it again
+            RequestDeadline.suspendWhile(() -> idempotencyService.complete(principal, key, new StoredResponse(
+                    fingerprint, responseWrapper.getStatus(), responseWrapper.getContentType(),
+                    responseWrapper.getContentAsByteArray())));
+        } catch (ServletException | IOException | RuntimeException | Error e) {
+            RequestDeadline.suspendWhile(() -> idempotencyService.abort(principal, key, e));
+            throw e;
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getBody() != null) {
+            response.setContentLength(stored.getBody().length);
+            response.getOutputStream().write(stored.getBody());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    static String path(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
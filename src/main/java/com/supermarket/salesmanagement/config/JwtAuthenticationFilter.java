@@ -34,11 +34,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String jwt = authHeader.substring(7);
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSignInKey())
-                    .build()
-                    .parseClaimsJws(jwt)
-                    .getBody();
+            Claims claims = parseToken(jwt);
             String username = claims.getSubject();
             List<String> authorities = claims.get("authorities", List.class);
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -57,6 +53,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Verifies the token's signature and expiry and returns its claims; also used by the
+     * reactive read server, which does not run through this filter.
+     */
+    public Claims parseToken(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(getSignInKey())
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+
     private Key getSignInKey() {
         byte[] keyBytes = java.util.Base64.getDecoder().decode(secretKey);
         return Keys.hmacShaKeyFor(keyBytes);
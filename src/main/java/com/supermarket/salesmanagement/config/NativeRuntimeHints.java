@@ -0,0 +1,81 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.dto.response.CustomerResponse;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.PriceListResponse;
+import com.supermarket.salesmanagement.dto.response.ProductResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.dto.response.ShopResponse;
+import com.supermarket.salesmanagement.event.OrderStatusEvent;
+import com.supermarket.salesmanagement.model.Money;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the GraalVM native image ({@code -Pnative}).
+ * Controller payloads, JPA entities and Feign interfaces are detected by Spring AOT;
+ * what is registered here is what it cannot see or may miss:
+ * <ul>
+ *     <li>DTOs Jackson binds where AOT does not look: Feign responses, the order and
+ *     invoice responses controllers return inside {@code Page}, and
+ *     {@link OrderStatusEvent}, written to SSE streams</li>
+ *     <li>the jjwt implementation classes that jjwt-api loads by name, and its service files</li>
+ *     <li>the JCache region factory and Ehcache provider Hibernate instantiates by name,
+ *     and {@code ehcache.xml}</li>
+ *     <li>{@link Money}, which the second-level cache serialises and the converter calls</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@RegisterReflectionForBinding({
+        CustomerResponse.class,
+        ProductResponse.class,
+        ShopResponse.class,
+        PriceListResponse.class,
+        SalesOrderResponse.class,
+        InvoiceResponse.class,
+        OrderStatusEvent.class
+})
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer"
+    );
+
+    private static final List<String> CACHE_TYPES = List.of(
+            "org.hibernate.cache.jcache.internal.JCacheRegionFactory",
+            "org.ehcache.jsr107.EhcacheCachingProvider"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (String type : CACHE_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources().registerPattern("ehcache.xml");
+
+        hints.reflection().registerType(TypeReference.of(Money.class), MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.serialization().registerType(Money.class);
+    }
+}
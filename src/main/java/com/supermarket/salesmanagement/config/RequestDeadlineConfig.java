@@ -0,0 +1,61 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.service.deadline.DeadlineClient;
+import com.supermarket.salesmanagement.service.deadline.DeadlineConnections;
+import feign.Capability;
+import feign.Client;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Applies the request deadline set by {@link RequestDeadlineFilter} to the two places
+ * a request waits on others: Feign calls, through {@link DeadlineClient}, and JDBC
+ * statements, through connections wrapped by {@link DeadlineConnections}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestDeadlineConfig {
+
+    @Bean
+    public Capability deadlineCapability() {
+        return new DeadlineCapability();
+    }
+
+    @Bean
+    public static BeanPostProcessor deadlineDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                // A class proxy keeps the bean assignable to its own type (HikariDataSource, ShardRoutingDataSource)
+                ProxyFactory proxy = new ProxyFactory(bean);
+                proxy.setProxyTargetClass(true);
+                proxy.addAdvice((MethodInterceptor) invocation -> {
+                    Object result = invocation.proceed();
+                    return result instanceof Connection connection
+                            && invocation.getMethod().getName().equals("getConnection")
+                            ? DeadlineConnections.wrap(connection)
+                            : result;
+                });
+                return proxy.getProxy();
+            }
+        };
+    }
+
+    // Feign calls enrich(...) reflectively, which fails on an anonymous (non-public) class
+    public static class DeadlineCapability implements Capability {
+        @Override
+        public Client enrich(Client client) {
+            return new DeadlineClient(client);
+        }
+    }
+}
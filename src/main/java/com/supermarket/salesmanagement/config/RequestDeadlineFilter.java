@@ -0,0 +1,113 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.service.deadline.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gives every API request a deadline: the budget the caller sends in
+ * X-Request-Timeout-Ms (capped at max-ms), otherwise the first matching per-endpoint
+ * default, otherwise default-ms. It runs first so time spent queueing in admission
+ * control counts against the budget. A request that arrives with no time left is
+ * answered 504 without doing any work.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final long defaultMillis;
+    private final long maxMillis;
+    private final List<EndpointBudget> endpointBudgets;
+
+    public RequestDeadlineFilter(@Value("${application.deadline.enabled:true}") boolean enabled,
+                                 @Value("${application.deadline.default-ms:5000}") long defaultMillis,
+                                 @Value("${application.deadline.max-ms:30000}") long maxMillis,
+                                 @Value("${application.deadline.endpoints:}") String endpoints) {
+        this.enabled = enabled;
+        this.defaultMillis = defaultMillis;
+        this.maxMillis = maxMillis;
+        this.endpointBudgets = parseEndpoints(endpoints);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = IdempotencyFilter.path(request);
+        // Event streams are meant to stay open
+        return !path.startsWith("/api/") || path.endsWith("/stream");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long budgetMillis;
+        try {
+            budgetMillis = budgetMillis(request);
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, TIMEOUT_HEADER + " must be a number of milliseconds");
+            return;
+        }
+        if (budgetMillis <= 0) {
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Request deadline exceeded before processing started");
+            return;
+        }
+        RequestDeadline.start(Duration.ofMillis(budgetMillis));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    private long budgetMillis(HttpServletRequest request) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header != null) {
+            return Math.min(Long.parseLong(header.trim()), maxMillis);
+        }
+        String path = IdempotencyFilter.path(request);
+        for (EndpointBudget budget : endpointBudgets) {
+            if (budget.method().equals(request.getMethod()) && pathMatcher.match(budget.pattern(), path)) {
+                return budget.millis();
+            }
+        }
+        return defaultMillis;
+    }
+
+    // Comma-separated "<METHOD> <path pattern>=<ms>", e.g. "POST /api/v1/sales-orders/*/confirm=8000"
+    private static List<EndpointBudget> parseEndpoints(String endpoints) {
+        List<EndpointBudget> budgets = new ArrayList<>();
+        for (String entry : endpoints.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] endpointAndMillis = entry.trim().split("=", 2);
+            String[] methodAndPattern = endpointAndMillis[0].trim().split("\\s+", 2);
+            if (endpointAndMillis.length != 2 || methodAndPattern.length != 2) {
+                throw new IllegalArgumentException("Invalid deadline endpoint '" + entry + "', expected <METHOD> <pattern>=<ms>");
+            }
+            budgets.add(new EndpointBudget(methodAndPattern[0].toUpperCase(), methodAndPattern[1],
+                    Long.parseLong(endpointAndMillis[1].trim())));
+        }
+        return List.copyOf(budgets);
+    }
+
+    private record EndpointBudget(String method, String pattern, long millis) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.supermarket.salesmanagement.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,9 +15,16 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final AdmissionControlFilter admissionControlFilter;
+    private final IdempotencyFilter idempotencyFilter;
+    private final RequestDeadlineFilter requestDeadlineFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, AdmissionControlFilter admissionControlFilter,
+                          IdempotencyFilter idempotencyFilter, RequestDeadlineFilter requestDeadlineFilter) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.admissionControlFilter = admissionControlFilter;
+        this.idempotencyFilter = idempotencyFilter;
+        this.requestDeadlineFilter = requestDeadlineFilter;
     }
 
     @Bean
@@ -24,15 +32,22 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of long-lived SSE responses; the request was authorized when it started
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
-                                "/swagger-ui.html"
+                                "/swagger-ui.html",
+                                "/actuator/health/**"
                         ).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("MANAGE_APPLICATION")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(requestDeadlineFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(admissionControlFilter, JwtAuthenticationFilter.class)
+                .addFilterAfter(idempotencyFilter, AdmissionControlFilter.class);
         return http.build();
     }
 }
\ No newline at end of file
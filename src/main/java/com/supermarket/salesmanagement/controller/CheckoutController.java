@@ -0,0 +1,27 @@
+package com.supermarket.salesmanagement.controller;
+
+import com.supermarket.salesmanagement.dto.request.CheckoutRequest;
+import com.supermarket.salesmanagement.dto.response.CheckoutResponse;
+import com.supermarket.salesmanagement.service.CheckoutService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/checkout")
+@RequiredArgsConstructor
+public class CheckoutController {
+    private final CheckoutService checkoutService;
+
+    @PostMapping
+    @PreAuthorize("hasAuthority('CREATE_SALES_ORDER') and hasAuthority('CREATE_INVOICE') "
+            + "and hasAuthority('UPDATE_INVOICE') and hasAuthority('CONFIRM_SALES_ORDER')")
+    public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest request) {
+        return ResponseEntity.ok(checkoutService.checkout(request));
+    }
+}
@@ -2,8 +2,15 @@ package com.supermarket.salesmanagement.controller;
 
 import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
 import com.supermarket.salesmanagement.dto.request.InvoiceUpdateRequest;
+import com.supermarket.salesmanagement.dto.request.PaymentCreateRequest;
 import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.PaymentResponse;
 import com.supermarket.salesmanagement.service.InvoiceService;
+import com.supermarket.salesmanagement.service.archive.OrderArchiveService;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import com.supermarket.salesmanagement.service.payment.InvoicePaymentService;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.sharding.ShardedEntity;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -12,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -19,35 +27,61 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class InvoiceController {
     private final InvoiceService invoiceService;
+    private final ShardRouter shardRouter;
+    private final DraftBasketService draftBasketService;
+    private final OrderArchiveService orderArchiveService;
+    private final InvoicePaymentService invoicePaymentService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_INVOICE')")
     public ResponseEntity<InvoiceResponse> createInvoice(@Valid @RequestBody InvoiceCreateRequest request) {
-        return ResponseEntity.ok(invoiceService.createInvoice(request));
+        // Invoicing moves the order to PENDING, so a basket still being scanned is written back first
+        return ResponseEntity.ok(draftBasketService.flushThen(request.getSalesOrderId(),
+                () -> shardRouter.createWith(ShardedEntity.SALES_ORDER, request.getSalesOrderId(),
+                        ShardedEntity.INVOICE, () -> invoiceService.createInvoice(request), InvoiceResponse::getId)));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('READ_INVOICE')")
     public ResponseEntity<InvoiceResponse> getInvoiceById(@PathVariable UUID id) {
-        return ResponseEntity.ok(invoiceService.getInvoiceById(id));
+        return ResponseEntity.ok(orderArchiveService.readThroughInvoice(id,
+                () -> shardRouter.onEntity(ShardedEntity.INVOICE, id, () -> invoiceService.getInvoiceById(id))));
     }
 
     @GetMapping
     @PreAuthorize("hasAuthority('READ_INVOICE')")
     public ResponseEntity<Page<InvoiceResponse>> getAllInvoices(Pageable pageable) {
-        return ResponseEntity.ok(invoiceService.getAllInvoices(pageable));
+        return ResponseEntity.ok(shardRouter.scatterPage(pageable, invoiceService::getAllInvoices));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('UPDATE_INVOICE')")
     public ResponseEntity<InvoiceResponse> updateInvoice(@PathVariable UUID id, @Valid @RequestBody InvoiceUpdateRequest request) {
-        return ResponseEntity.ok(invoiceService.updateInvoice(id, request));
+        return ResponseEntity.ok(shardRouter.onEntity(ShardedEntity.INVOICE, id,
+                () -> invoiceService.updateInvoice(id, request)));
+    }
+
+    @PostMapping("/{id}/payments")
+    @PreAuthorize("hasAuthority('UPDATE_INVOICE')")
+    public ResponseEntity<PaymentResponse> recordPayment(@PathVariable UUID id, @Valid @RequestBody PaymentCreateRequest request) {
+        return ResponseEntity.ok(shardRouter.onEntity(ShardedEntity.INVOICE, id,
+                () -> invoicePaymentService.recordPayment(id, request)));
+    }
+
+    @GetMapping("/{id}/payments")
+    @PreAuthorize("hasAuthority('READ_INVOICE')")
+    public ResponseEntity<List<PaymentResponse>> getPayments(@PathVariable UUID id) {
+        return ResponseEntity.ok(shardRouter.onEntity(ShardedEntity.INVOICE, id,
+                () -> invoicePaymentService.getPayments(id)));
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('DELETE_INVOICE')")
     public ResponseEntity<Void> deleteInvoice(@PathVariable UUID id) {
-        invoiceService.deleteInvoice(id);
+        shardRouter.onEntity(ShardedEntity.INVOICE, id, () -> {
+            invoiceService.deleteInvoice(id);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.supermarket.salesmanagement.controller;
+
+import com.supermarket.salesmanagement.dto.response.SalesLineAnalyticsResponse;
+import com.supermarket.salesmanagement.service.analytics.GroupBy;
+import com.supermarket.salesmanagement.service.analytics.SalesAnalyticsService;
+import com.supermarket.salesmanagement.service.analytics.SalesLineQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/sales-analytics")
+@RequiredArgsConstructor
+public class SalesAnalyticsController {
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @GetMapping("/lines")
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public ResponseEntity<SalesLineAnalyticsResponse> aggregateLines(
+            @RequestParam(required = false) UUID productId,
+            @RequestParam(required = false) UUID shopId,
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NONE") GroupBy groupBy,
+            @RequestParam(defaultValue = "100") int limit) {
+        SalesLineQuery query = SalesLineQuery.builder()
+                .productId(productId)
+                .shopId(shopId)
+                .customerId(customerId)
+                .from(from)
+                .to(to)
+                .groupBy(groupBy)
+                .build();
+        return ResponseEntity.ok(salesAnalyticsService.aggregate(query, limit));
+    }
+}
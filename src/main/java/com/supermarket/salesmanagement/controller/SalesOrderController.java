@@ -1,54 +1,151 @@
 package com.supermarket.salesmanagement.controller;
 
+import com.supermarket.salesmanagement.dto.request.SalesOrderBulkStatusRequest;
 import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
 import com.supermarket.salesmanagement.dto.request.SalesOrderItemAddRequest;
 import com.supermarket.salesmanagement.dto.request.SalesOrderUpdateRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse;
 import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderSummaryResponse;
+import com.supermarket.salesmanagement.event.OrderStatusStreamHub;
+import com.supermarket.salesmanagement.service.SalesOrderBulkStatusService;
+import com.supermarket.salesmanagement.service.SalesOrderProjectionService;
 import com.supermarket.salesmanagement.service.SalesOrderService;
+import com.supermarket.salesmanagement.service.archive.OrderArchiveService;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.sharding.ShardedEntity;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDate;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/v1/sales-orders")
 @RequiredArgsConstructor
 public class SalesOrderController {
     private final SalesOrderService salesOrderService;
+    private final SalesOrderBulkStatusService salesOrderBulkStatusService;
+    private final SalesOrderProjectionService salesOrderProjectionService;
+    private final OrderStatusStreamHub orderStatusStreamHub;
+    private final ShardRouter shardRouter;
+    private final DraftBasketService draftBasketService;
+    private final OrderArchiveService orderArchiveService;
 
     @PostMapping
     @PreAuthorize("hasAuthority('CREATE_SALES_ORDER')")
     public ResponseEntity<SalesOrderResponse> createSalesOrder(@Valid @RequestBody SalesOrderCreateRequest request) {
-        return ResponseEntity.ok(salesOrderService.createSalesOrder(request));
+        return ResponseEntity.ok(shardRouter.createOnShop(request.getShopId(),
+                () -> salesOrderService.createSalesOrder(request), SalesOrderResponse::getId));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
-    public ResponseEntity<SalesOrderResponse> getSalesOrderById(@PathVariable UUID id) {
-        return ResponseEntity.ok(salesOrderService.getSalesOrderById(id));
+    public ResponseEntity<SalesOrderResponse> getSalesOrderById(
+            @PathVariable UUID id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate orderDate) {
+        return ResponseEntity.ok(draftBasketService.find(id).orElseGet(() -> orderArchiveService.readThroughOrder(id,
+                () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                        () -> salesOrderService.getSalesOrderById(id, orderDate)))));
+    }
+
+    @GetMapping(value = "/{id}", params = "view=summary")
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public ResponseEntity<SalesOrderSummaryResponse> getSalesOrderSummaryById(@PathVariable UUID id) {
+        return ResponseEntity.ok(draftBasketService.find(id).map(SalesOrderProjectionService::summaryOf)
+                .orElseGet(() -> orderArchiveService.readThroughOrder(id,
+                        () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                                () -> salesOrderProjectionService.getSummaryById(id)),
+                        SalesOrderProjectionService::summaryOf)));
+    }
+
+    @GetMapping(value = "/{id}", params = {"fields", "view!=summary"})
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public ResponseEntity<Map<String, Object>> getSalesOrderFieldsById(@PathVariable UUID id, @RequestParam String fields) {
+        return ResponseEntity.ok(draftBasketService.find(id).map(order -> SalesOrderProjectionService.select(fields, order))
+                .orElseGet(() -> orderArchiveService.readThroughOrder(id,
+                        () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                                () -> salesOrderProjectionService.getFieldsById(id, fields)),
+                        order -> SalesOrderProjectionService.select(fields, order))));
     }
 
     @GetMapping
     @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
-    public ResponseEntity<Page<SalesOrderResponse>> getAllSalesOrders(Pageable pageable) {
-        return ResponseEntity.ok(salesOrderService.getAllSalesOrders(pageable));
+    public ResponseEntity<Page<SalesOrderResponse>> getAllSalesOrders(
+            @RequestParam(required = false) UUID shopId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Pageable pageable) {
+        return ResponseEntity.ok(route(shopId, from, to, pageable,
+                salesOrderService::getSalesOrdersByDate, salesOrderService::getAllSalesOrders));
+    }
+
+    @GetMapping(params = "view=summary")
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public ResponseEntity<Page<SalesOrderSummaryResponse>> getSalesOrderSummaries(
+            @RequestParam(required = false) UUID shopId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Pageable pageable) {
+        return ResponseEntity.ok(route(shopId, from, to, pageable,
+                salesOrderProjectionService::getSummariesByDate, salesOrderProjectionService::getAllSummaries));
+    }
+
+    @GetMapping(params = {"fields", "view!=summary"})
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public ResponseEntity<Page<Map<String, Object>>> getSalesOrderFields(
+            @RequestParam String fields,
+            @RequestParam(required = false) UUID shopId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Pageable pageable) {
+        return ResponseEntity.ok(route(shopId, from, to, pageable,
+                (shop, fromDate, toDate, page) -> salesOrderProjectionService.getFieldsByDate(shop, fromDate, toDate,
+                        fields, page),
+                page -> salesOrderProjectionService.getAllFields(fields, page)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public SseEmitter streamShopOrderStatus(@RequestParam UUID shopId,
+                                            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderStatusStreamHub.subscribeShop(shopId, lastEventId);
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('READ_SALES_ORDER')")
+    public SseEmitter streamOrderStatus(@PathVariable UUID id,
+                                        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        shardRouter.onEntity(ShardedEntity.SALES_ORDER, id, () -> salesOrderService.getSalesOrderById(id));
+        return orderStatusStreamHub.subscribeOrder(id, lastEventId);
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('UPDATE_SALES_ORDER')")
     public ResponseEntity<SalesOrderResponse> updateSalesOrder(@PathVariable UUID id, @Valid @RequestBody SalesOrderUpdateRequest request) {
-        return ResponseEntity.ok(salesOrderService.updateSalesOrder(id, request));
+        shardRouter.requireSameShard(id, request.getShopId());
+        return ResponseEntity.ok(draftBasketService.flushThen(id, () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                () -> salesOrderService.updateSalesOrder(id, request))));
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasAuthority('DELETE_SALES_ORDER')")
     public ResponseEntity<Void> deleteSalesOrder(@PathVariable UUID id) {
-        salesOrderService.deleteSalesOrder(id);
+        draftBasketService.flushThen(id, () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id, () -> {
+            salesOrderService.deleteSalesOrder(id);
+            return null;
+        }));
         return ResponseEntity.noContent().build();
     }
 
@@ -56,18 +153,51 @@ public class SalesOrderController {
     @PostMapping("/{id}/items")
     @PreAuthorize("hasAuthority('UPDATE_SALES_ORDER')")
     public ResponseEntity<SalesOrderResponse> addSalesOrderItem(@PathVariable UUID id, @Valid @RequestBody SalesOrderItemAddRequest request) {
-        return ResponseEntity.ok(salesOrderService.addSalesOrderItem(id, request));
+        if (draftBasketService.isEnabled()) {
+            return ResponseEntity.ok(draftBasketService.addItem(id, request));
+        }
+        return ResponseEntity.ok(shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                () -> salesOrderService.addSalesOrderItem(id, request)));
+    }
+
+    @PostMapping("/bulk-status")
+    @PreAuthorize("hasAuthority('UPDATE_SALES_ORDER') and "
+            + "(#request.targetStatus?.name() != 'CONFIRMED' or hasAuthority('CONFIRM_SALES_ORDER'))")
+    public ResponseEntity<SalesOrderBulkStatusResponse> transitionSalesOrders(@Valid @RequestBody SalesOrderBulkStatusRequest request) {
+        return ResponseEntity.ok(salesOrderBulkStatusService.transition(request));
     }
 
     @PostMapping("/{id}/confirm")
     @PreAuthorize("hasAuthority('CONFIRM_SALES_ORDER')")
     public ResponseEntity<SalesOrderResponse> confirmSalesOrder(@PathVariable UUID id) {
-        return ResponseEntity.ok(salesOrderService.confirmOrderAfterPayment(id));
+        return ResponseEntity.ok(draftBasketService.flushThen(id, () -> shardRouter.onEntity(ShardedEntity.SALES_ORDER, id,
+                () -> salesOrderService.confirmOrderAfterPayment(id))));
     }
 
     @DeleteMapping("/{orderId}/items/{itemId}")
     @PreAuthorize("hasAuthority('UPDATE_SALES_ORDER')")
     public ResponseEntity<SalesOrderResponse> deleteSalesOrderItem(@PathVariable UUID orderId, @PathVariable UUID itemId) {
-        return ResponseEntity.ok(salesOrderService.deleteSalesOrderItem(orderId, itemId));
+        if (draftBasketService.isEnabled()) {
+            return ResponseEntity.ok(draftBasketService.deleteItem(orderId, itemId));
+        }
+        return ResponseEntity.ok(shardRouter.onEntity(ShardedEntity.SALES_ORDER, orderId,
+                () -> salesOrderService.deleteSalesOrderItem(orderId, itemId)));
+    }
+
+    // A shop lives on one shard; any other listing is gathered from every shard and merged
+    private <T> Page<T> route(UUID shopId, LocalDate from, LocalDate to, Pageable pageable,
+                              DateBoundedQuery<T> byDate, Function<Pageable, Page<T>> all) {
+        if (shopId != null) {
+            return shardRouter.onShop(shopId, () -> byDate.find(shopId, from, to, pageable));
+        }
+        if (from != null || to != null) {
+            return shardRouter.scatterPage(pageable, page -> byDate.find(null, from, to, page));
+        }
+        return shardRouter.scatterPage(pageable, all);
+    }
+
+    @FunctionalInterface
+    private interface DateBoundedQuery<T> {
+        Page<T> find(UUID shopId, LocalDate from, LocalDate to, Pageable pageable);
     }
-}
\ No newline at end of file
+}
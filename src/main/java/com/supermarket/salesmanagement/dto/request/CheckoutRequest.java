@@ -0,0 +1,33 @@
+package com.supermarket.salesmanagement.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class CheckoutRequest {
+    @NotNull(message = "Customer ID is mandatory")
+    private UUID customerId;
+
+    @NotNull(message = "Shop ID is mandatory")
+    private UUID shopId;
+
+    // Today when not given
+    private LocalDate orderDate;
+
+    // The order date when not given
+    private LocalDate invoiceDate;
+
+    @Size(max = 20, message = "Payment method must be at most 20 characters")
+    private String paymentMethod = "CASH";
+
+    @Valid
+    @NotEmpty(message = "Order items cannot be empty")
+    private List<SalesOrderCreateRequest.OrderItemRequest> items;
+}
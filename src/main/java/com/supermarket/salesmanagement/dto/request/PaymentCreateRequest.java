@@ -0,0 +1,24 @@
+package com.supermarket.salesmanagement.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class PaymentCreateRequest {
+    // Negative to reverse part of an earlier payment
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+
+    @Size(max = 20, message = "Payment method must be at most 20 characters")
+    private String method;
+
+    @Size(max = 100, message = "Payment reference must be at most 100 characters")
+    private String reference;
+
+    // Now when not given
+    private LocalDateTime paidAt;
+}
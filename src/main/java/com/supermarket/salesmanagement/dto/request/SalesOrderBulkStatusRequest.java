@@ -0,0 +1,26 @@
+package com.supermarket.salesmanagement.dto.request;
+
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves many orders to one status. Orders are given either as explicit IDs or as a
+ * filter on one shop, optionally narrowed by current status and order date.
+ */
+@Data
+public class SalesOrderBulkStatusRequest {
+    @NotNull(message = "Target status is required")
+    private OrderStatus targetStatus;
+
+    private List<UUID> orderIds;
+
+    private UUID shopId;
+    private OrderStatus currentStatus;
+    private LocalDate from;
+    private LocalDate to;
+}
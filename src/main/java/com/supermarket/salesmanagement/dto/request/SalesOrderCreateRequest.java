@@ -1,6 +1,7 @@
 package com.supermarket.salesmanagement.dto.request;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
@@ -35,6 +36,7 @@ public class SalesOrderCreateRequest {
 
         @NotNull(message = "Unit price is mandatory")
         @Positive(message = "Unit price must be positive")
+        @Digits(integer = 10, fraction = 2, message = "Unit price must be in whole cents")
         private BigDecimal unitPrice;
     }
 }
\ No newline at end of file
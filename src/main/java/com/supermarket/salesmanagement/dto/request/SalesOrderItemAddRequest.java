@@ -1,5 +1,6 @@
 package com.supermarket.salesmanagement.dto.request;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
@@ -18,5 +19,6 @@ public class SalesOrderItemAddRequest {
 
     @NotNull(message = "Unit price is required")
     @Positive(message = "Unit price must be greater than zero")
+    @Digits(integer = 10, fraction = 2, message = "Unit price must be in whole cents")
     private BigDecimal unitPrice;
 }
\ No newline at end of file
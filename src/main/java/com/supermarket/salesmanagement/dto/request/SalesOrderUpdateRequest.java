@@ -1,6 +1,7 @@
 package com.supermarket.salesmanagement.dto.request;
 
 import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
@@ -23,6 +24,7 @@ public class SalesOrderUpdateRequest {
         @Positive(message = "Quantity must be positive")
         private Integer quantity;
         @Positive(message = "Unit price must be positive")
+        @Digits(integer = 10, fraction = 2, message = "Unit price must be in whole cents")
         private BigDecimal unitPrice;
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.supermarket.salesmanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResponse {
+    private SalesOrderResponse order;
+    private InvoiceResponse invoice;
+}
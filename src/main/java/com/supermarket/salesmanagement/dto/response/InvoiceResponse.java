@@ -3,6 +3,7 @@ package com.supermarket.salesmanagement.dto.response;
 import com.supermarket.salesmanagement.model.enums.PaymentStatus;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -11,8 +12,11 @@ import java.util.UUID;
 public class InvoiceResponse {
     private UUID id;
     private UUID salesOrderId;
+    private Long invoiceNumber;
     private LocalDate invoiceDate;
     private PaymentStatus paymentStatus;
+    private BigDecimal amountDue;
+    private BigDecimal amountPaid;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
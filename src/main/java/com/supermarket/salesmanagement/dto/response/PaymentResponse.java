@@ -0,0 +1,19 @@
+package com.supermarket.salesmanagement.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class PaymentResponse {
+    private UUID id;
+    private UUID invoiceId;
+    private BigDecimal amount;
+    private BigDecimal amountPaidAfter;
+    private String method;
+    private String reference;
+    private LocalDateTime paidAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.supermarket.salesmanagement.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class SalesLineAnalyticsResponse {
+    private LocalDateTime asOf;
+    private int lineCount;
+    private long tookMicros;
+    private List<Group> groups;
+
+    @Data
+    public static class Group {
+        private String key;
+        private long units;
+        private BigDecimal revenue;
+        private long lines;
+    }
+}
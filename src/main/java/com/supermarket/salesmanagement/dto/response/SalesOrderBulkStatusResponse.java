@@ -0,0 +1,33 @@
+package com.supermarket.salesmanagement.dto.response;
+
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class SalesOrderBulkStatusResponse {
+    private OrderStatus targetStatus;
+    private int updated;
+    private int rejected;
+    private int notFound;
+    // A filter matched more orders than one request may change; repeat the request for the rest
+    private boolean truncated;
+    private List<Result> results;
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        REJECTED,
+        NOT_FOUND
+    }
+
+    @Data
+    public static class Result {
+        private UUID id;
+        private Outcome outcome;
+        private OrderStatus previousStatus;
+        private String message;
+    }
+}
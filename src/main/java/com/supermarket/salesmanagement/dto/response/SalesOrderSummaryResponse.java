@@ -0,0 +1,17 @@
+package com.supermarket.salesmanagement.dto.response;
+
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class SalesOrderSummaryResponse {
+    private UUID id;
+    private UUID shopId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDate orderDate;
+}
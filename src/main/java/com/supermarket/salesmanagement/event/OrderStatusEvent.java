@@ -8,10 +8,12 @@ import java.util.UUID;
 @Data
 public class OrderStatusEvent {
     private UUID orderId;
+    private UUID shopId;
     private OrderStatus status;
 
-    public OrderStatusEvent(UUID orderId, OrderStatus status) {
+    public OrderStatusEvent(UUID orderId, UUID shopId, OrderStatus status) {
         this.orderId = orderId;
+        this.shopId = shopId;
         this.status = status;
     }
 }
\ No newline at end of file
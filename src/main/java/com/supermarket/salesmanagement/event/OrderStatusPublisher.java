@@ -1,13 +1,157 @@
 package com.supermarket.salesmanagement.event;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes order status changes once the work that produced them is committed.
+ * Events raised inside a transaction are collected for that transaction and
+ * coalesced per order, so consumers see one event per order carrying its final
+ * status, and nothing at all when the transaction rolls back. Committed events
+ * go through a bounded queue to a single dispatcher thread that delivers them in
+ * batches, preserving the order in which transactions committed.
+ */
 @Component
 @Slf4j
 public class OrderStatusPublisher {
+    private final OrderStatusStreamHub orderStatusStreamHub;
+    private final BlockingQueue<OrderStatusEvent> queue;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final Thread dispatcher;
+    private volatile boolean running = true;
+
+    public OrderStatusPublisher(OrderStatusStreamHub orderStatusStreamHub,
+                                @Value("${application.events.queue-capacity:10000}") int queueCapacity,
+                                @Value("${application.events.batch-size:100}") int batchSize,
+                                @Value("${application.events.offer-timeout-ms:1000}") long offerTimeoutMs) {
+        this.orderStatusStreamHub = orderStatusStreamHub;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.dispatcher = new Thread(this::dispatchLoop, "order-event-dispatch");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
     public void publishOrderStatusEvent(OrderStatusEvent event) {
-        // In a real implementation, this would publish to a message broker (e.g., RabbitMQ, Kafka)
-        log.info("Order status event published: Order ID {}, Status {}", event.getOrderId(), event.getStatus());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(event));
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(event);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    // Waits for room at most once per batch; the caller thread then delivers the rest itself
+    private void enqueue(Collection<OrderStatusEvent> events) {
+        List<OrderStatusEvent> pending = new ArrayList<>(events);
+        int queuedCount = 0;
+        for (OrderStatusEvent event : pending) {
+            boolean queued;
+            try {
+                queued = queue.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+            if (!queued) {
+                break;
+            }
+            queuedCount++;
+        }
+        if (queuedCount < pending.size()) {
+            List<OrderStatusEvent> overflow = pending.subList(queuedCount, pending.size());
+            // Better late and possibly out of order than lost
+            log.warn("Order event queue full, delivering {} events on the caller thread", overflow.size());
+            deliver(overflow);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<OrderStatusEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    queue.drainTo(batch);
+                    deliver(batch);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to deliver {} order status events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<OrderStatusEvent> batch) {
+        for (OrderStatusEvent event : batch) {
+            // In a real implementation, this would publish to a message broker (e.g., RabbitMQ, Kafka)
+            log.info("Order status event published: Order ID {}, Status {}", event.getOrderId(), event.getStatus());
+            orderStatusStreamHub.publish(event);
+        }
+    }
+
+    /**
+     * Events of one transaction, keyed by order so later changes replace earlier ones.
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+        private final Map<UUID, OrderStatusEvent> byOrder = new LinkedHashMap<>();
+
+        void add(OrderStatusEvent event) {
+            byOrder.put(event.getOrderId(), event);
+        }
+
+        @Override
+        public void suspend() {
+            // A REQUIRES_NEW transaction must collect its own events, not add to ours
+            TransactionSynchronizationManager.unbindResource(OrderStatusPublisher.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(OrderStatusPublisher.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            enqueue(byOrder.values());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OrderStatusPublisher.this);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,309 @@
+package com.supermarket.salesmanagement.event;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans {@link OrderStatusEvent}s out to Server-Sent Events subscribers, per shop
+ * or per order. Connections are held as async requests, so an idle subscriber
+ * costs an emitter and a small bounded queue but no thread; queues are drained on
+ * a shared executor. Recent events are kept in a ring buffer so a reconnecting
+ * client can resume from its Last-Event-ID. A subscriber that falls a full
+ * buffer behind is disconnected and expected to resume the same way.
+ */
+@Component
+@Slf4j
+public class OrderStatusStreamHub implements MeterBinder {
+    static final String STATUS_EVENT = "order-status";
+    static final String RESYNC_EVENT = "resync";
+    private static final Object HEARTBEAT = new Object();
+
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Executor dispatcher;
+    private final EventRing ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<Subscriber>> byShop = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OrderStatusStreamHub(@Value("${application.stream.buffer-size:64}") int bufferSize,
+                                @Value("${application.stream.replay-size:1024}") int replaySize,
+                                @Value("${application.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${application.stream.dispatch-threads:4}") int dispatchThreads) {
+        this(bufferSize, replaySize, timeoutMs, new ThreadPoolExecutor(dispatchThreads, dispatchThreads,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "order-stream-dispatch");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    OrderStatusStreamHub(int bufferSize, int replaySize, long timeoutMs, Executor dispatcher) {
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.dispatcher = dispatcher;
+        this.ring = new EventRing(replaySize);
+    }
+
+    public SseEmitter subscribeShop(UUID shopId, String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMs), shopId, null, lastEventId);
+    }
+
+    public SseEmitter subscribeOrder(UUID orderId, String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMs), null, orderId, lastEventId);
+    }
+
+    public void publish(OrderStatusEvent event) {
+        Envelope envelope = ring.append(event);
+        deliver(byShop.get(event.getShopId()), envelope);
+        deliver(byOrder.get(event.getOrderId()), envelope);
+    }
+
+    @Scheduled(fixedDelayString = "${application.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            // A full buffer already has something to send
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("order.stream.subscribers", this, OrderStatusStreamHub::getSubscriberCount).register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, UUID shopId, UUID orderId, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, shopId, orderId, bufferSize);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(error -> unregister(subscriber));
+
+        // Register before reading the ring so nothing published in between is lost;
+        // events that end up both in the replay and in the queue are sent once.
+        subscribers.add(subscriber);
+        if (shopId != null) {
+            byShop.computeIfAbsent(shopId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        if (orderId != null) {
+            byOrder.computeIfAbsent(orderId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        Long resumeAfter = parseEventId(lastEventId);
+        if (resumeAfter != null) {
+            EventRing.Replay replay = ring.since(resumeAfter);
+            subscriber.resync = replay.gap();
+            for (Envelope envelope : replay.envelopes()) {
+                if (subscriber.matches(envelope.event())) {
+                    subscriber.replay.add(envelope);
+                }
+            }
+        }
+        subscriber.ready = true;
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    private void deliver(Set<Subscriber> targets, Envelope envelope) {
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            if (subscriber.queue.offer(envelope)) {
+                scheduleDrain(subscriber);
+            } else {
+                log.debug("Disconnecting slow order stream subscriber after {} buffered events", bufferSize);
+                unregister(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        // Until the replay is in place, live events only accumulate in the queue
+        if (subscriber.ready && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.resync) {
+                subscriber.resync = false;
+                subscriber.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("Events were missed, reload current state"));
+            }
+            Envelope replayed;
+            while ((replayed = subscriber.replay.poll()) != null) {
+                send(subscriber, replayed);
+            }
+            Object next;
+            while ((next = subscriber.queue.poll()) != null) {
+                if (next == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    send(subscriber, (Envelope) next);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            unregister(subscriber);
+            subscriber.queue.clear();
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if (!subscriber.queue.isEmpty() && subscribers.contains(subscriber)) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private static void send(Subscriber subscriber, Envelope envelope) throws IOException {
+        if (envelope.id() <= subscriber.lastSentId) {
+            return;
+        }
+        subscriber.emitter.send(SseEmitter.event()
+                .id(Long.toString(envelope.id()))
+                .name(STATUS_EVENT)
+                .data(envelope.event(), MediaType.APPLICATION_JSON));
+        subscriber.lastSentId = envelope.id();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        if (subscriber.shopId != null) {
+            byShop.computeIfPresent(subscriber.shopId, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        if (subscriber.orderId != null) {
+            byOrder.computeIfPresent(subscriber.orderId, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    record Envelope(long id, OrderStatusEvent event) {
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final UUID shopId;
+        private final UUID orderId;
+        private final BlockingQueue<Object> queue;
+        private final Deque<Envelope> replay = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean ready;
+        private volatile boolean resync;
+        // Only touched by the drain in progress, which the draining flag makes exclusive
+        private long lastSentId;
+
+        private Subscriber(SseEmitter emitter, UUID shopId, UUID orderId, int bufferSize) {
+            this.emitter = emitter;
+            this.shopId = shopId;
+            this.orderId = orderId;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean matches(OrderStatusEvent event) {
+            return (shopId != null && shopId.equals(event.getShopId()))
+                    || (orderId != null && orderId.equals(event.getOrderId()));
+        }
+    }
+
+    /**
+     * Fixed-size ring of the most recent events, numbered from 1.
+     */
+    static final class EventRing {
+        private final Envelope[] slots;
+        private long lastId;
+
+        EventRing(int size) {
+            this.slots = new Envelope[size];
+        }
+
+        synchronized Envelope append(OrderStatusEvent event) {
+            Envelope envelope = new Envelope(++lastId, event);
+            slots[(int) (envelope.id() % slots.length)] = envelope;
+            return envelope;
+        }
+
+        /**
+         * Events after the given id. Reports a gap when some of them have been
+         * overwritten, or when the id is from before a restart.
+         */
+        synchronized Replay since(long afterId) {
+            if (afterId > lastId) {
+                return new Replay(Collections.emptyList(), true);
+            }
+            long oldest = Math.max(1, lastId - slots.length + 1);
+            List<Envelope> envelopes = new ArrayList<>();
+            for (long id = Math.max(afterId + 1, oldest); id <= lastId; id++) {
+                envelopes.add(slots[(int) (id % slots.length)]);
+            }
+            return new Replay(envelopes, afterId + 1 < oldest);
+        }
+
+        record Replay(List<Envelope> envelopes, boolean gap) {
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.supermarket.salesmanagement.exception;
 
+import com.supermarket.salesmanagement.service.deadline.DeadlineExceededException;
+import com.supermarket.salesmanagement.service.deadline.RequestDeadline;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -26,8 +29,22 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<String> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return new ResponseEntity<>("Invalid " + ex.getName() + ": " + ex.getValue(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> handleDeadlineExceeded(DeadlineExceededException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleGeneralException(Exception ex) {
+        // Typically a statement cancelled by its query timeout or a downstream call cut short
+        if (RequestDeadline.expired()) {
+            return new ResponseEntity<>("Request deadline exceeded: " + ex.getMessage(), HttpStatus.GATEWAY_TIMEOUT);
+        }
         return new ResponseEntity<>("An unexpected error occurred: " + ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.supermarket.salesmanagement.exception;
+
+/**
+ * A requested order or invoice does not exist. Answered like any other
+ * {@link CustomException}; the type lets read-through fallbacks tell a miss from
+ * a rejected request.
+ */
+public class NotFoundException extends CustomException {
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
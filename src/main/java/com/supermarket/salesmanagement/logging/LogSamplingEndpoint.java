@@ -0,0 +1,75 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@code /actuator/logsampling}: shows and changes the debug log sampling configured in
+ * logback-spring.xml without a restart. Levels themselves are changed through
+ * {@code /actuator/loggers}.
+ */
+@Component
+@Endpoint(id = "logsampling")
+public class LogSamplingEndpoint implements MeterBinder {
+
+    @ReadOperation
+    public Map<String, Object> sampling() {
+        return filter().map(LogSamplingEndpoint::describe).orElseGet(() -> Map.of("configured", false));
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Integer maxPerSecond,
+                                         @Nullable String categories) {
+        filter().ifPresent(filter -> {
+            if (enabled != null) {
+                filter.setEnabled(enabled);
+            }
+            if (maxPerSecond != null) {
+                filter.setMaxPerSecond(maxPerSecond);
+            }
+            if (categories != null) {
+                filter.setCategories(categories);
+            }
+        });
+        return sampling();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        filter().ifPresent(filter -> FunctionCounter.builder("logging.sampled.suppressed", filter, SamplingTurboFilter::getSuppressed)
+                .description("Debug log events dropped by per-logger sampling")
+                .register(registry));
+    }
+
+    private static Map<String, Object> describe(SamplingTurboFilter filter) {
+        Map<String, Object> sampling = new LinkedHashMap<>();
+        sampling.put("configured", true);
+        sampling.put("enabled", filter.isEnabled());
+        sampling.put("maxPerSecond", filter.getMaxPerSecond());
+        sampling.put("categories", filter.getCategories());
+        sampling.put("suppressed", filter.getSuppressed());
+        return sampling;
+    }
+
+    private static Optional<SamplingTurboFilter> filter() {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return Optional.empty();
+        }
+        return context.getTurboFilterList().stream()
+                .filter(SamplingTurboFilter.class::isInstance)
+                .map(SamplingTurboFilter.class::cast)
+                .findFirst();
+    }
+}
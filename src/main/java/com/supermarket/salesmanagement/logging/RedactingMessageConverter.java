@@ -0,0 +1,15 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Logback {@code %redact} conversion word: the formatted message with secrets masked.
+ */
+public class RedactingMessageConverter extends ClassicConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return SecretRedactor.redact(event.getFormattedMessage());
+    }
+}
@@ -0,0 +1,16 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import org.springframework.boot.logging.logback.ExtendedWhitespaceThrowableProxyConverter;
+
+/**
+ * Logback {@code %redactEx} conversion word: Spring Boot's {@code %wEx} stack trace with
+ * secrets masked, since exception messages often carry the request that failed.
+ */
+public class RedactingThrowableProxyConverter extends ExtendedWhitespaceThrowableProxyConverter {
+
+    @Override
+    protected String throwableProxyToString(IThrowableProxy throwableProxy) {
+        return SecretRedactor.redact(super.throwableProxyToString(throwableProxy));
+    }
+}
@@ -0,0 +1,100 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate-limits enabled DEBUG and TRACE events per logger for the configured categories
+ * (logger name prefixes), so turning on debug logging for a hot path cannot flood the
+ * appender. Each logger may emit {@code maxPerSecond} events per second; the rest are
+ * dropped and counted. Level checks such as {@code isDebugEnabled()} are not sampled.
+ * All settings can be changed at runtime through {@link LogSamplingEndpoint}.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private static final Window NOT_SAMPLED = new Window();
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+
+    private volatile boolean enabled = true;
+    private volatile int maxPerSecond = 100;
+    private volatile List<String> categories = List.of();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!enabled || format == null || level == null || level.isGreaterOrEqual(Level.INFO)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), name -> sampled(name) ? new Window() : NOT_SAMPLED);
+        if (window == NOT_SAMPLED || window.tryAcquire(System.currentTimeMillis() / 1000, maxPerSecond)) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean sampled(String loggerName) {
+        for (String category : categories) {
+            if (loggerName.equals(category) || loggerName.startsWith(category + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /** Comma-separated logger name prefixes. */
+    public void setCategories(String categories) {
+        this.categories = Arrays.stream(categories.split(","))
+                .map(String::trim)
+                .filter(category -> !category.isEmpty())
+                .toList();
+        windows.clear();
+    }
+
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    private static final class Window {
+        private long second;
+        private int count;
+
+        synchronized boolean tryAcquire(long now, int max) {
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            return count++ < max;
+        }
+    }
+}
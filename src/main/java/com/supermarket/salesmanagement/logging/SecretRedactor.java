@@ -0,0 +1,36 @@
+package com.supermarket.salesmanagement.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks credentials that end up in log messages: bearer tokens, bare JWTs and
+ * password/secret/token/api key assignments in query strings, JSON or toString output.
+ */
+public final class SecretRedactor {
+    static final String MASK = "****";
+
+    private static final Pattern SECRETS = Pattern.compile(
+            "(?i)(bearer\\s+)[A-Za-z0-9\\-._~+/]+=*"
+                    + "|eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*"
+                    + "|((?:password|secret|token|api[-_]?key)[\"']?\\s*[:=]\\s*[\"']?)[^\\s\"',&;)}]+");
+
+    private SecretRedactor() {
+    }
+
+    public static String redact(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+        Matcher matcher = SECRETS.matcher(message);
+        if (!matcher.find()) {
+            return message;
+        }
+        StringBuilder redacted = new StringBuilder(message.length());
+        do {
+            String prefix = matcher.group(1) != null ? matcher.group(1) : matcher.group(2) != null ? matcher.group(2) : "";
+            matcher.appendReplacement(redacted, Matcher.quoteReplacement(prefix + MASK));
+        } while (matcher.find());
+        return matcher.appendTail(redacted).toString();
+    }
+}
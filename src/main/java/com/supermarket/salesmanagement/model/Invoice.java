@@ -3,7 +3,10 @@ package com.supermarket.salesmanagement.model;
 import com.supermarket.salesmanagement.model.enums.PaymentStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,19 +14,30 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "invoices")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "invoices")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+// Updates write only changed columns, so saving an invoice never overwrites the balance kept by the payment ledger
+@DynamicUpdate
 public class Invoice {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @Column(name = "sales_order_id", nullable = false)
     private UUID salesOrderId;
 
+    // Shop of the order when the invoice was created; numbers are sequential per shop
+    @Column(name = "shop_id", updatable = false)
+    private UUID shopId;
+
+    @Column(name = "invoice_number", updatable = false)
+    private Long invoiceNumber;
+
     @Column(name = "invoice_date", nullable = false)
     private LocalDate invoiceDate;
 
@@ -31,6 +45,14 @@ public class Invoice {
     @Column(name = "payment_status", nullable = false)
     private PaymentStatus paymentStatus;
 
+    // Order total when the invoice was issued; null on invoices from before the payment ledger
+    @Column(name = "amount_due", updatable = false)
+    private Money amountDue;
+
+    // Paid-to-date balance, only changed by InvoicePaymentService's in-place increment
+    @Column(name = "amount_paid", nullable = false, updatable = false)
+    private Money amountPaid;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,50 @@
+package com.supermarket.salesmanagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of the append-only payment ledger of an invoice. A negative amount
+ * reverses an earlier payment; entries are never changed or deleted.
+ */
+@Entity
+@Table(name = "invoice_payments")
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoicePayment {
+    @Id
+    @TimeOrderedId
+    private UUID id;
+
+    @Column(name = "invoice_id", nullable = false)
+    private UUID invoiceId;
+
+    @Column(name = "amount", nullable = false)
+    private Money amount;
+
+    // The invoice's paid-to-date balance right after this entry was applied
+    @Column(name = "amount_paid_after", nullable = false)
+    private Money amountPaidAfter;
+
+    @Column(name = "method")
+    private String method;
+
+    @Column(name = "reference")
+    private String reference;
+
+    @Column(name = "paid_at", nullable = false)
+    private LocalDateTime paidAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
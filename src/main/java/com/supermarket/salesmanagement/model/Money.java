@@ -0,0 +1,128 @@
+package com.supermarket.salesmanagement.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount held as a long count of minor units (cents).
+ * Used for all line and order arithmetic. Every operation is exact: additions and
+ * multiplications throw {@link ArithmeticException} on overflow, amounts with
+ * fractions of a cent are rejected, and the only operations that may lose precision
+ * ({@link #of(BigDecimal, RoundingMode)} and {@link #dividedBy(long, RoundingMode)})
+ * take an explicit rounding rule.
+ * Values are converted back to {@link BigDecimal} at the persistence and JSON boundaries.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0L);
+
+    private static final long serialVersionUID = 1L;
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts a decimal amount exactly; one with fractions of a cent throws
+     * {@link ArithmeticException}.
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, RoundingMode.UNNECESSARY);
+    }
+
+    public static Money of(BigDecimal amount, RoundingMode roundingMode) {
+        return ofMinor(amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact());
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long quantity) {
+        return ofMinor(Math.multiplyExact(minorUnits, quantity));
+    }
+
+    public Money dividedBy(long divisor, RoundingMode roundingMode) {
+        return ofMinor(divide(minorUnits, divisor, roundingMode));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money money && minorUnits == money.minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        if (divisor == 0L) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (dividend == Long.MIN_VALUE && divisor == -1L) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0L) {
+            return quotient;
+        }
+
+        int sign = (dividend < 0L) == (divisor < 0L) ? 1 : -1;
+        long absRemainder = Math.abs(remainder);
+        long rest = Math.abs(divisor) - absRemainder;
+        boolean increment = switch (roundingMode) {
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sign < 0;
+            case CEILING -> sign > 0;
+            case HALF_UP -> absRemainder >= rest;
+            case HALF_DOWN -> absRemainder > rest;
+            case HALF_EVEN -> absRemainder > rest || (absRemainder == rest && (quotient & 1L) != 0L);
+        };
+        return increment ? quotient + sign : quotient;
+    }
+}
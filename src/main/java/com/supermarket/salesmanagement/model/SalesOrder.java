@@ -2,7 +2,9 @@ package com.supermarket.salesmanagement.model;
 
 import lombok.*;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,12 +14,15 @@ import com.supermarket.salesmanagement.model.enums.OrderStatus;
 
 @Entity
 @Table(name = "sales_orders")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sales-orders")
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class SalesOrder {
     @Id
+    @TimeOrderedId
     private UUID id;
 
     @Column(name = "customer_id", nullable = false)
@@ -40,9 +45,11 @@ public class SalesOrder {
     private LocalDateTime updatedAt;
 
     @Column(name = "total_amount", nullable = false)
-    private BigDecimal totalAmount; // Added field
+    private Money totalAmount; // Added field
 
     @OneToMany(mappedBy = "salesOrder", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sales-order-item-collections")
+    @BatchSize(size = 50) // a page of orders loads its items in one query instead of one per order
     private List<SalesOrderItem> items = new ArrayList<>();
 
     @PrePersist
@@ -50,10 +57,7 @@ public class SalesOrder {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         if (this.totalAmount == null) {
-            this.totalAmount = BigDecimal.ZERO; // Default for DRAFT
-        }
-        if (this.id == null) {
-            this.id = UUID.randomUUID();
+            this.totalAmount = Money.ZERO; // Default for DRAFT
         }
     }
 
@@ -64,8 +68,10 @@ public class SalesOrder {
 
     // Helper method to calculate total_amount from items
     public void calculateTotalAmount() {
-        this.totalAmount = items.stream()
-                .map(SalesOrderItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long total = 0L;
+        for (SalesOrderItem item : items) {
+            total = Math.addExact(total, item.getTotalPrice().getMinorUnits());
+        }
+        this.totalAmount = Money.ofMinor(total);
     }
 }
\ No newline at end of file
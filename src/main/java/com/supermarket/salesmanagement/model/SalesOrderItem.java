@@ -2,14 +2,18 @@ package com.supermarket.salesmanagement.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "sales_order_items")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "sales-order-items")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,13 +21,17 @@ import java.util.UUID;
 @Builder
 public class SalesOrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sales_order_id", nullable = false)
     private SalesOrder salesOrder;
 
+    // Copy of the order's date so items share the monthly partition of their order
+    @Column(name = "order_date", nullable = false)
+    private LocalDate orderDate;
+
     @Column(name = "product_id", nullable = false)
     private UUID productId;
 
@@ -31,10 +39,10 @@ public class SalesOrderItem {
     private Integer quantity;
 
     @Column(name = "unit_price", nullable = false)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @Column(name = "total_price", nullable = false)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
 
     @CreationTimestamp
     @Column(name = "created_at")
@@ -43,4 +51,12 @@ public class SalesOrderItem {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void syncOrderDate() {
+        if (salesOrder != null) {
+            this.orderDate = salesOrder.getOrderDate();
+        }
+    }
 }
\ No newline at end of file
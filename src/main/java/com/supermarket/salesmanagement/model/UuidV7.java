@@ -0,0 +1,62 @@
+package com.supermarket.salesmanagement.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (version 7, RFC 9562) for primary keys. The first 48 bits are the
+ * Unix time in milliseconds, so new rows land on the right-hand edge of the primary key
+ * index instead of on a random leaf page. The 12 {@code rand_a} bits hold a counter
+ * that starts at a random value each millisecond and keeps IDs from this JVM strictly
+ * increasing; if the clock steps back or the counter runs out, the last timestamp is
+ * carried forward instead. The remaining 62 bits are random, which keeps IDs from
+ * different instances unique without coordination.
+ * <p>
+ * v7 IDs are ordinary UUIDs and live alongside the version 4 IDs already stored.
+ */
+public final class UuidV7 {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    // The counter starts in the lower half of its range so a millisecond has at least 2048 IDs
+    private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+
+    // Timestamp in milliseconds shifted left by COUNTER_BITS, plus the counter
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis();
+        long last;
+        long next;
+        do {
+            last = LAST.get();
+            if (now > last >>> COUNTER_BITS) {
+                next = (now << COUNTER_BITS) | RANDOM.nextInt(COUNTER_SEED_BOUND);
+            } else {
+                // Same millisecond, or the clock went back: a counter overflow carries into the timestamp
+                next = last + 1;
+            }
+        } while (!LAST.compareAndSet(last, next));
+        return of(next >>> COUNTER_BITS, next & COUNTER_MASK, RANDOM.nextLong());
+    }
+
+    /**
+     * Milliseconds since the epoch encoded in a version 7 UUID.
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    static UUID of(long timestampMillis, long counter, long random) {
+        long msb = (timestampMillis << 16) | 0x7000L | (counter & COUNTER_MASK);
+        long lsb = (random & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
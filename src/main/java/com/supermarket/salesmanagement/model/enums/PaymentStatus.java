@@ -1,7 +1,19 @@
 package com.supermarket.salesmanagement.model.enums;
 
+import com.supermarket.salesmanagement.model.Money;
+
 public enum PaymentStatus {
     PAID,
     UNPAID,
-    PARTIALLY_PAID
+    PARTIALLY_PAID;
+
+    /**
+     * Status of an invoice with the given balance; InvoicePaymentService applies the same rule in SQL.
+     */
+    public static PaymentStatus of(Money amountDue, Money amountPaid) {
+        if (amountPaid.compareTo(amountDue) >= 0) {
+            return PAID;
+        }
+        return amountPaid.isPositive() ? PARTIALLY_PAID : UNPAID;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.supermarket.salesmanagement.reactive;
+
+import com.supermarket.salesmanagement.config.JwtAuthenticationFilter;
+import com.supermarket.salesmanagement.config.RequestDeadlineFilter;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.service.archive.OrderArchiveService;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import io.jsonwebtoken.Claims;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.pool.PoolAcquirePendingLimitException;
+import reactor.pool.PoolAcquireTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Handlers of the reactive read server. They answer the way the servlet endpoints do:
+ * a basket being scanned wins over the database, an order or invoice missing from the
+ * hot tables is looked up in the archive, the same JWT authorities are required and
+ * errors carry the same statuses and messages. Only the archive lookup, which reads
+ * segment files, leaves the event loop.
+ */
+@Slf4j
+public class ReactiveReadHandler {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final ReactiveReadRepository repository;
+    private final DraftBasketService draftBasketService;
+    private final OrderArchiveService orderArchiveService;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final long defaultDeadlineMillis;
+    private final long maxDeadlineMillis;
+    private final long retryAfterSeconds;
+
+    public ReactiveReadHandler(ReactiveReadRepository repository, DraftBasketService draftBasketService,
+                               OrderArchiveService orderArchiveService, JwtAuthenticationFilter jwtAuthenticationFilter,
+                               long defaultDeadlineMillis, long maxDeadlineMillis, long retryAfterSeconds) {
+        this.repository = repository;
+        this.draftBasketService = draftBasketService;
+        this.orderArchiveService = orderArchiveService;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.defaultDeadlineMillis = defaultDeadlineMillis;
+        this.maxDeadlineMillis = maxDeadlineMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Mono<ServerResponse> getSalesOrderById(ServerRequest request) {
+        return ok(id(request).flatMap(id -> {
+            Optional<SalesOrderResponse> basket = draftBasketService.find(id);
+            if (basket.isPresent()) {
+                return Mono.just(basket.get());
+            }
+            return repository.findOrder(id)
+                    .switchIfEmpty(fromArchive(() -> orderArchiveService.findOrder(id)))
+                    .switchIfEmpty(Mono.error(() -> new NotFoundException("Sales order with ID " + id + " not found")));
+        }), request);
+    }
+
+    public Mono<ServerResponse> getInvoiceById(ServerRequest request) {
+        return ok(id(request).flatMap(id -> repository.findInvoice(id)
+                .switchIfEmpty(fromArchive(() -> orderArchiveService.findInvoice(id)))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Invoice with ID " + id + " not found")))), request);
+    }
+
+    public Mono<ServerResponse> getAllInvoices(ServerRequest request) {
+        return ok(Mono.defer(() -> repository.findInvoices(pageable(request))), request);
+    }
+
+    /**
+     * Lets the request through only with a valid bearer token carrying the authority:
+     * 401 for a token that does not verify, 403 without a token or the authority, as the
+     * servlet security chain answers.
+     */
+    public HandlerFilterFunction<ServerResponse, ServerResponse> requireAuthority(String authority) {
+        return (request, next) -> {
+            String header = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith("Bearer ")) {
+                return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+            }
+            List<?> authorities;
+            try {
+                Claims claims = jwtAuthenticationFilter.parseToken(header.substring(7));
+                authorities = claims.getSubject() != null ? claims.get("authorities", List.class) : null;
+            } catch (Exception e) {
+                return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            if (authorities == null || !authorities.contains(authority)) {
+                return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+            }
+            return next.handle(request);
+        };
+    }
+
+    // Parsed on subscription so a malformed id is answered 400 like other rejected requests
+    private static Mono<UUID> id(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return Mono.fromCallable(() -> {
+            try {
+                return UUID.fromString(id);
+            } catch (IllegalArgumentException e) {
+                throw new CustomException("Invalid id: " + id);
+            }
+        });
+    }
+
+    private <T> Mono<ServerResponse> ok(Mono<T> body, ServerRequest request) {
+        long budgetMillis;
+        try {
+            budgetMillis = budgetMillis(request);
+        } catch (NumberFormatException e) {
+            return text(HttpStatus.BAD_REQUEST,
+                    RequestDeadlineFilter.TIMEOUT_HEADER + " must be a number of milliseconds");
+        }
+        if (budgetMillis <= 0) {
+            return text(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded before processing started");
+        }
+        return body.timeout(Duration.ofMillis(budgetMillis))
+                .flatMap(value -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(value))
+                .onErrorResume(this::error);
+    }
+
+    private Mono<ServerResponse> error(Throwable error) {
+        if (error instanceof CustomException) {
+            return text(HttpStatus.BAD_REQUEST, error.getMessage());
+        }
+        if (error instanceof TimeoutException || error instanceof R2dbcTimeoutException) {
+            return text(HttpStatus.GATEWAY_TIMEOUT, "Request deadline exceeded: " + error.getMessage());
+        }
+        if (error instanceof PoolAcquirePendingLimitException || error instanceof PoolAcquireTimeoutException) {
+            // Too many reads already waiting for a connection; shed like admission control does
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .bodyValue("Too many concurrent reads, retry later");
+        }
+        log.warn("Reactive read failed", error);
+        return text(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + error.getMessage());
+    }
+
+    private static Mono<ServerResponse> text(HttpStatus status, String message) {
+        return ServerResponse.status(status).contentType(MediaType.TEXT_PLAIN).bodyValue(message);
+    }
+
+    private static <T> Mono<T> fromArchive(Supplier<Optional<T>> lookup) {
+        return Mono.defer(() -> Mono.justOrEmpty(lookup.get())).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private long budgetMillis(ServerRequest request) {
+        String header = request.headers().firstHeader(RequestDeadlineFilter.TIMEOUT_HEADER);
+        return header != null ? Math.min(Long.parseLong(header.trim()), maxDeadlineMillis) : defaultDeadlineMillis;
+    }
+
+    // page, size and sort=property[,asc|desc] as Spring Data's Pageable resolver reads them
+    private static Pageable pageable(ServerRequest request) {
+        int page = Math.max(0, intParam(request, "page", 0));
+        int size = intParam(request, "size", DEFAULT_PAGE_SIZE);
+        size = size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String sort : request.queryParams().getOrDefault("sort", List.of())) {
+            String[] parts = sort.split(",");
+            Sort.Direction direction = parts.length > 1
+                    ? Sort.Direction.fromOptionalString(parts[parts.length - 1]).orElse(null)
+                    : null;
+            int properties = direction != null ? parts.length - 1 : parts.length;
+            for (int i = 0; i < properties; i++) {
+                if (!parts[i].isBlank()) {
+                    orders.add(new Sort.Order(direction != null ? direction : Sort.Direction.ASC, parts[i].trim()));
+                }
+            }
+        }
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        try {
+            return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
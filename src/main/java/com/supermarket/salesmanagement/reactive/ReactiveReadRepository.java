@@ -0,0 +1,171 @@
+package com.supermarket.salesmanagement.reactive;
+
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * The order and invoice reads of the reactive read server as non-blocking R2DBC
+ * queries, mapped straight to the response DTOs the servlet endpoints return.
+ */
+public class ReactiveReadRepository {
+    private static final String ORDER_SQL = """
+            SELECT o.id, o.customer_id, o.shop_id, o.order_date, o.status, o.total_amount, o.created_at, o.updated_at,
+                   i.id AS item_id, i.product_id, i.quantity, i.unit_price, i.total_price,
+                   i.created_at AS item_created_at, i.updated_at AS item_updated_at
+            FROM sales_orders o
+            LEFT JOIN sales_order_items i ON i.sales_order_id = o.id AND i.order_date = o.order_date
+            WHERE o.id = $1
+            ORDER BY i.id
+            """;
+    private static final String INVOICE_COLUMNS = """
+            SELECT id, sales_order_id, invoice_number, invoice_date, payment_status, amount_due, amount_paid,
+                   created_at, updated_at
+            FROM invoices
+            """;
+    private static final String INVOICE_SQL = INVOICE_COLUMNS + "WHERE id = $1";
+    private static final String COUNT_INVOICES_SQL = "SELECT count(*) FROM invoices";
+    // Sortable InvoiceResponse properties, as the JPA repository accepts them
+    private static final Map<String, String> INVOICE_SORT_COLUMNS = Map.of(
+            "id", "id",
+            "salesOrderId", "sales_order_id",
+            "invoiceNumber", "invoice_number",
+            "invoiceDate", "invoice_date",
+            "paymentStatus", "payment_status",
+            "amountDue", "amount_due",
+            "amountPaid", "amount_paid",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * The order with its items from one joined query; empty if the hot tables do not have it.
+     */
+    public Mono<SalesOrderResponse> findOrder(UUID id) {
+        return databaseClient.sql(ORDER_SQL)
+                .bind(0, id)
+                .map(ReactiveReadRepository::toOrderRow)
+                .all()
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    SalesOrderResponse order = rows.get(0).order();
+                    // An order without items still comes back as one row, with a null item
+                    order.setItems(rows.stream().map(OrderRow::item).filter(Objects::nonNull).toList());
+                    return Mono.just(order);
+                });
+    }
+
+    public Mono<InvoiceResponse> findInvoice(UUID id) {
+        return databaseClient.sql(INVOICE_SQL)
+                .bind(0, id)
+                .map(ReactiveReadRepository::toInvoice)
+                .one();
+    }
+
+    /**
+     * A page of invoices. Like Spring Data, the count query is skipped when the page
+     * itself shows where the rows end.
+     */
+    public Mono<Page<InvoiceResponse>> findInvoices(Pageable pageable) {
+        String sql = INVOICE_COLUMNS + orderBy(pageable.getSort()) + " LIMIT $1 OFFSET $2";
+        return databaseClient.sql(sql)
+                .bind(0, pageable.getPageSize())
+                .bind(1, pageable.getOffset())
+                .map(ReactiveReadRepository::toInvoice)
+                .all()
+                .collectList()
+                .flatMap(content -> {
+                    if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+                        return Mono.just(new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+                    }
+                    return databaseClient.sql(COUNT_INVOICES_SQL)
+                            .map(row -> row.get(0, Long.class))
+                            .one()
+                            .map(total -> new PageImpl<>(content, pageable, total));
+                });
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> columns = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = INVOICE_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new CustomException("Invoices cannot be sorted by '" + order.getProperty() + "'");
+            }
+            columns.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return "ORDER BY " + String.join(", ", columns);
+    }
+
+    // Rows are only readable inside the mapping function, so each is copied out right away
+    private static OrderRow toOrderRow(Readable row) {
+        SalesOrderResponse order = new SalesOrderResponse();
+        order.setId(row.get("id", UUID.class));
+        order.setCustomerId(row.get("customer_id", UUID.class));
+        order.setShopId(row.get("shop_id", UUID.class));
+        order.setOrderDate(row.get("order_date", LocalDate.class));
+        order.setStatus(OrderStatus.valueOf(row.get("status", String.class)));
+        order.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        order.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        order.setTotalAmount(row.get("total_amount", BigDecimal.class));
+        UUID itemId = row.get("item_id", UUID.class);
+        if (itemId == null) {
+            return new OrderRow(order, null);
+        }
+        SalesOrderResponse.OrderItemResponse item = new SalesOrderResponse.OrderItemResponse();
+        item.setId(itemId);
+        item.setProductId(row.get("product_id", UUID.class));
+        item.setQuantity(row.get("quantity", Integer.class));
+        item.setUnitPrice(row.get("unit_price", BigDecimal.class));
+        item.setTotalPrice(row.get("total_price", BigDecimal.class));
+        item.setCreatedAt(row.get("item_created_at", LocalDateTime.class));
+        item.setUpdatedAt(row.get("item_updated_at", LocalDateTime.class));
+        return new OrderRow(order, item);
+    }
+
+    private static InvoiceResponse toInvoice(Readable row) {
+        InvoiceResponse response = new InvoiceResponse();
+        response.setId(row.get("id", UUID.class));
+        response.setSalesOrderId(row.get("sales_order_id", UUID.class));
+        response.setInvoiceNumber(row.get("invoice_number", Long.class));
+        response.setInvoiceDate(row.get("invoice_date", LocalDate.class));
+        response.setPaymentStatus(PaymentStatus.valueOf(row.get("payment_status", String.class)));
+        response.setAmountDue(row.get("amount_due", BigDecimal.class));
+        response.setAmountPaid(row.get("amount_paid", BigDecimal.class));
+        response.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        response.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        return response;
+    }
+
+    private record OrderRow(SalesOrderResponse order, SalesOrderResponse.OrderItemResponse item) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.supermarket.salesmanagement.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.salesmanagement.config.JwtAuthenticationFilter;
+import com.supermarket.salesmanagement.service.archive.OrderArchiveService;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import com.supermarket.salesmanagement.sharding.ShardingProperties;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactoryProvider;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.path;
+
+/**
+ * Serves the high fan-in order and invoice reads (GET sales-orders/{id}, invoices and
+ * invoices/{id}) from a second, non-blocking HTTP server on its own port, under the
+ * same context path, with the same DTOs and JSON. Reads are R2DBC queries on a small
+ * pool of their own, so thousands of concurrent reads cost event-loop callbacks and
+ * queued pool acquisitions instead of a Tomcat thread and a JDBC connection each.
+ * Everything else, including all writes, stays on the servlet stack. Shard routing
+ * is not supported, so the server refuses to start with sharding enabled.
+ */
+@Component
+@Slf4j
+public class ReactiveReadServer {
+    private final boolean enabled;
+    private final int port;
+    private final String contextPath;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int poolSize;
+    private final int maxPendingAcquires;
+    private final long acquireTimeoutMillis;
+    private final long statementTimeoutMillis;
+    private final long defaultDeadlineMillis;
+    private final long maxDeadlineMillis;
+    private final long retryAfterSeconds;
+    private final ShardingProperties shardingProperties;
+    private final ObjectMapper objectMapper;
+    private final DraftBasketService draftBasketService;
+    private final OrderArchiveService orderArchiveService;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private ConnectionPool connectionPool;
+    private DisposableServer server;
+
+    public ReactiveReadServer(@Value("${application.reactive-read.enabled:false}") boolean enabled,
+                              @Value("${application.reactive-read.port:8087}") int port,
+                              @Value("${server.servlet.context-path:}") String contextPath,
+                              @Value("${application.reactive-read.url:}") String url,
+                              @Value("${spring.datasource.url}") String jdbcUrl,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password,
+                              @Value("${application.reactive-read.pool-size:10}") int poolSize,
+                              @Value("${application.reactive-read.max-pending-acquires:10000}") int maxPendingAcquires,
+                              @Value("${application.reactive-read.acquire-timeout-ms:2000}") long acquireTimeoutMillis,
+                              @Value("${application.reactive-read.statement-timeout-ms:5000}") long statementTimeoutMillis,
+                              @Value("${application.deadline.default-ms:5000}") long defaultDeadlineMillis,
+                              @Value("${application.deadline.max-ms:30000}") long maxDeadlineMillis,
+                              @Value("${application.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                              ShardingProperties shardingProperties,
+                              ObjectMapper objectMapper,
+                              DraftBasketService draftBasketService,
+                              OrderArchiveService orderArchiveService,
+                              JwtAuthenticationFilter jwtAuthenticationFilter) {
+        this.enabled = enabled;
+        this.port = port;
+        this.contextPath = contextPath;
+        this.url = url.isBlank() ? r2dbcUrl(jdbcUrl) : url;
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.maxPendingAcquires = maxPendingAcquires;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.statementTimeoutMillis = statementTimeoutMillis;
+        this.defaultDeadlineMillis = defaultDeadlineMillis;
+        this.maxDeadlineMillis = maxDeadlineMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shardingProperties = shardingProperties;
+        this.objectMapper = objectMapper;
+        this.draftBasketService = draftBasketService;
+        this.orderArchiveService = orderArchiveService;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || server != null) {
+            return;
+        }
+        if (shardingProperties.isEnabled()) {
+            throw new IllegalStateException("application.reactive-read cannot be enabled together with application.sharding");
+        }
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .option(PostgresqlConnectionFactoryProvider.STATEMENT_TIMEOUT, Duration.ofMillis(statementTimeoutMillis))
+                .option(PostgresqlConnectionFactoryProvider.APPLICATION_NAME, "sales-management-reactive-read")
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive-read")
+                .initialSize(Math.min(2, poolSize))
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofMillis(acquireTimeoutMillis))
+                .maxIdleTime(Duration.ofMinutes(10))
+                // Beyond this many waiting reads new ones fail fast with 503 instead of queueing
+                .customizer(pool -> pool.maxPendingAcquire(maxPendingAcquires))
+                .build());
+        ReactiveReadHandler handler = new ReactiveReadHandler(
+                new ReactiveReadRepository(DatabaseClient.create(connectionPool)), draftBasketService,
+                orderArchiveService, jwtAuthenticationFilter, defaultDeadlineMillis, maxDeadlineMillis, retryAfterSeconds);
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    // The application's ObjectMapper, so dates, decimals and pages serialise as on the servlet endpoints
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes(handler), strategies)))
+                .bindNow();
+        log.info("Reactive read server listening, port={} contextPath='{}' poolSize={}", server.port(), contextPath, poolSize);
+    }
+
+    /**
+     * The bound port, or -1 while the server is not running.
+     */
+    public int getPort() {
+        return server != null ? server.port() : -1;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(10));
+            server = null;
+        }
+        if (connectionPool != null) {
+            connectionPool.dispose();
+            connectionPool = null;
+        }
+    }
+
+    private RouterFunction<ServerResponse> routes(ReactiveReadHandler handler) {
+        RouterFunction<ServerResponse> orders = RouterFunctions
+                .route(GET("/api/v1/sales-orders/{id}"), handler::getSalesOrderById)
+                .filter(handler.requireAuthority("READ_SALES_ORDER"));
+        RouterFunction<ServerResponse> invoices = RouterFunctions
+                .route(GET("/api/v1/invoices/{id}"), handler::getInvoiceById)
+                .andRoute(GET("/api/v1/invoices"), handler::getAllInvoices)
+                .filter(handler.requireAuthority("READ_INVOICE"));
+        RouterFunction<ServerResponse> routes = orders.and(invoices);
+        return contextPath.isEmpty() ? routes : RouterFunctions.nest(path(contextPath), routes);
+    }
+
+    // jdbc:postgresql://host:port/db?params -> r2dbc:postgresql://host:port/db; credentials are set separately
+    static String r2dbcUrl(String jdbcUrl) {
+        String url = jdbcUrl.startsWith("jdbc:") ? jdbcUrl.substring("jdbc:".length()) : jdbcUrl;
+        int query = url.indexOf('?');
+        return "r2dbc:" + (query >= 0 ? url.substring(0, query) : url);
+    }
+}
@@ -0,0 +1,11 @@
+package com.supermarket.salesmanagement.repository;
+
+import com.supermarket.salesmanagement.model.InvoicePayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface InvoicePaymentRepository extends JpaRepository<InvoicePayment, UUID> {
+    List<InvoicePayment> findByInvoiceIdOrderByCreatedAtAscIdAsc(UUID invoiceId);
+}
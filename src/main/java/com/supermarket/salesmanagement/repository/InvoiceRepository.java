@@ -2,11 +2,23 @@ package com.supermarket.salesmanagement.repository;
 
 import com.supermarket.salesmanagement.model.Invoice;
 import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "invoice-by-order")
+    })
     boolean existsBySalesOrderId(UUID salesOrderId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "invoice-by-order")
+    })
     Optional<Invoice> findBySalesOrderId(UUID salesOrderId);
 }
\ No newline at end of file
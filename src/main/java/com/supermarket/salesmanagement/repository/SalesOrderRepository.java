@@ -1,9 +1,32 @@
 package com.supermarket.salesmanagement.repository;
 
 import com.supermarket.salesmanagement.model.SalesOrder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface SalesOrderRepository extends JpaRepository<SalesOrder, UUID> {
-}
\ No newline at end of file
+    // sales_orders is range-partitioned by order_date; bounding the date lets Postgres prune partitions
+    Optional<SalesOrder> findByIdAndOrderDate(UUID id, LocalDate orderDate);
+
+    Page<SalesOrder> findByOrderDateBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    Page<SalesOrder> findByShopId(UUID shopId, Pageable pageable);
+
+    Page<SalesOrder> findByShopIdAndOrderDateBetween(UUID shopId, LocalDate from, LocalDate to, Pageable pageable);
+
+    Optional<SalesOrderSummary> findSummaryById(UUID id);
+
+    Page<SalesOrderSummary> findSummariesBy(Pageable pageable);
+
+    Page<SalesOrderSummary> findSummariesByOrderDateBetween(LocalDate from, LocalDate to, Pageable pageable);
+
+    Page<SalesOrderSummary> findSummariesByShopId(UUID shopId, Pageable pageable);
+
+    Page<SalesOrderSummary> findSummariesByShopIdAndOrderDateBetween(UUID shopId, LocalDate from, LocalDate to,
+                                                                     Pageable pageable);
+}
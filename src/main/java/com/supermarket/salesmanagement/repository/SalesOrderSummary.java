@@ -0,0 +1,23 @@
+package com.supermarket.salesmanagement.repository;
+
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Closed projection of a sales order for list screens; queries returning it select
+ * only these columns and never touch {@code sales_order_items}.
+ */
+public interface SalesOrderSummary {
+    UUID getId();
+
+    UUID getShopId();
+
+    OrderStatus getStatus();
+
+    Money getTotalAmount();
+
+    LocalDate getOrderDate();
+}
@@ -0,0 +1,129 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.CheckoutRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.CheckoutResponse;
+import com.supermarket.salesmanagement.event.OrderStatusEvent;
+import com.supermarket.salesmanagement.event.OrderStatusPublisher;
+import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.model.SalesOrder;
+import com.supermarket.salesmanagement.model.SalesOrderItem;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.repository.InvoiceRepository;
+import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.service.client.CustomerClient;
+import com.supermarket.salesmanagement.service.client.ProductClient;
+import com.supermarket.salesmanagement.service.client.ShopClient;
+import com.supermarket.salesmanagement.service.invoicenumber.InvoiceNumberAllocator;
+import com.supermarket.salesmanagement.service.payment.InvoicePaymentService;
+import com.supermarket.salesmanagement.service.pricing.BasketLine;
+import com.supermarket.salesmanagement.service.pricing.PriceEngine;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A cash sale in one call: the order with its items, a paid invoice and the
+ * confirmation, which otherwise take four requests (create order, create invoice,
+ * mark it paid, confirm). The customer, shop, products and prices are checked once,
+ * before the transaction starts, so no connection is held during the remote calls.
+ * The writes then run in one transaction on the shop's shard that inserts the order
+ * directly as CONFIRMED and publishes one status event.
+ */
+@Service
+public class CheckoutService {
+    private final SalesOrderRepository salesOrderRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final SalesOrderService salesOrderService;
+    private final InvoiceService invoiceService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoicePaymentService invoicePaymentService;
+    private final CustomerClient customerClient;
+    private final ShopClient shopClient;
+    private final ProductClient productClient;
+    private final PriceEngine priceEngine;
+    private final OrderStatusPublisher orderStatusPublisher;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+
+    public CheckoutService(SalesOrderRepository salesOrderRepository, InvoiceRepository invoiceRepository,
+                           SalesOrderService salesOrderService, InvoiceService invoiceService,
+                           InvoiceNumberAllocator invoiceNumberAllocator,
+                           InvoicePaymentService invoicePaymentService, CustomerClient customerClient,
+                           ShopClient shopClient, ProductClient productClient, PriceEngine priceEngine,
+                           OrderStatusPublisher orderStatusPublisher, ShardRouter shardRouter,
+                           PlatformTransactionManager transactionManager) {
+        this.salesOrderRepository = salesOrderRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.salesOrderService = salesOrderService;
+        this.invoiceService = invoiceService;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.invoicePaymentService = invoicePaymentService;
+        this.customerClient = customerClient;
+        this.shopClient = shopClient;
+        this.productClient = productClient;
+        this.priceEngine = priceEngine;
+        this.orderStatusPublisher = orderStatusPublisher;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public CheckoutResponse checkout(CheckoutRequest request) {
+        LocalDate orderDate = request.getOrderDate() != null ? request.getOrderDate() : LocalDate.now();
+        LocalDate invoiceDate = request.getInvoiceDate() != null ? request.getInvoiceDate() : orderDate;
+
+        customerClient.getCustomerById(request.getCustomerId());
+        shopClient.getShopById(request.getShopId());
+        List<BasketLine> lines = new ArrayList<>(request.getItems().size());
+        for (SalesOrderCreateRequest.OrderItemRequest item : request.getItems()) {
+            productClient.getProductById(item.getProductId());
+            salesOrderService.validateItem(item.getQuantity(), item.getUnitPrice());
+            lines.add(new BasketLine(item.getProductId(), item.getQuantity(), Money.of(item.getUnitPrice())));
+        }
+        priceEngine.verifyBasket(orderDate, lines);
+
+        UUID shopId = request.getShopId();
+        return shardRouter.createOnShop(shopId, () -> transaction.execute(status -> {
+            SalesOrder salesOrder = SalesOrder.builder()
+                    .customerId(request.getCustomerId())
+                    .shopId(shopId)
+                    .orderDate(orderDate)
+                    .status(OrderStatus.CONFIRMED)
+                    .totalAmount(Money.ZERO)
+                    .items(new ArrayList<>())
+                    .build();
+            for (SalesOrderCreateRequest.OrderItemRequest item : request.getItems()) {
+                SalesOrderItem orderItem = salesOrderService.buildItem(salesOrder, item.getProductId(),
+                        item.getQuantity(), item.getUnitPrice());
+                salesOrder.getItems().add(orderItem);
+            }
+            salesOrder.calculateTotalAmount();
+            SalesOrder savedOrder = salesOrderRepository.save(salesOrder);
+
+            Invoice invoice = Invoice.builder()
+                    .salesOrderId(savedOrder.getId())
+                    .shopId(shopId)
+                    .invoiceNumber(invoiceNumberAllocator.allocate(shopId))
+                    .invoiceDate(invoiceDate)
+                    .paymentStatus(PaymentStatus.PAID)
+                    .amountDue(savedOrder.getTotalAmount())
+                    .amountPaid(savedOrder.getTotalAmount())
+                    .build();
+            // Flushes the order, its items and the invoice together, so the response carries the insert timestamps
+            Invoice savedInvoice = invoiceRepository.saveAndFlush(invoice);
+            invoicePaymentService.recordPaidOnIssue(savedInvoice, request.getPaymentMethod());
+
+            orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(savedOrder.getId(), shopId, OrderStatus.CONFIRMED));
+            return new CheckoutResponse(salesOrderService.mapToSalesOrderResponse(savedOrder),
+                    invoiceService.mapToInvoiceResponse(savedInvoice));
+        }), response -> response.getOrder().getId(), response -> response.getInvoice().getId());
+    }
+}
@@ -5,12 +5,16 @@ import com.supermarket.salesmanagement.dto.request.InvoiceUpdateRequest;
 import com.supermarket.salesmanagement.dto.request.SalesOrderUpdateRequest;
 import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
 import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
 import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.Money;
 import com.supermarket.salesmanagement.model.SalesOrder;
 import com.supermarket.salesmanagement.model.enums.PaymentStatus;
 import com.supermarket.salesmanagement.model.enums.OrderStatus;
 import com.supermarket.salesmanagement.repository.InvoiceRepository;
 import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.service.invoicenumber.InvoiceNumberAllocator;
+import com.supermarket.salesmanagement.service.payment.InvoicePaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,11 +29,13 @@ public class InvoiceService {
     private final InvoiceRepository invoiceRepository;
     private final SalesOrderRepository salesOrderRepository;
     private final SalesOrderService salesOrderService;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoicePaymentService invoicePaymentService;
 
     @Transactional
     public InvoiceResponse createInvoice(InvoiceCreateRequest request) {
         SalesOrder salesOrder = salesOrderRepository.findById(request.getSalesOrderId())
-                .orElseThrow(() -> new CustomException("Sales order with ID " + request.getSalesOrderId() + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + request.getSalesOrderId() + " not found"));
 
         if (salesOrder.getStatus() == OrderStatus.CANCELLED) {
             throw new CustomException("Cannot create invoice for cancelled sales order with ID " + request.getSalesOrderId());
@@ -41,8 +47,12 @@ public class InvoiceService {
 
         Invoice invoice = Invoice.builder()
                 .salesOrderId(request.getSalesOrderId())
+                .shopId(salesOrder.getShopId())
+                .invoiceNumber(invoiceNumberAllocator.allocate(salesOrder.getShopId()))
                 .invoiceDate(request.getInvoiceDate())
                 .paymentStatus(PaymentStatus.UNPAID)
+                .amountDue(salesOrder.getTotalAmount())
+                .amountPaid(Money.ZERO)
                 .build();
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
@@ -59,7 +69,7 @@ public class InvoiceService {
 
     public InvoiceResponse getInvoiceById(UUID id) {
         Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new CustomException("Invoice with ID " + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Invoice with ID " + id + " not found"));
         return mapToInvoiceResponse(invoice);
     }
 
@@ -68,13 +78,14 @@ public class InvoiceService {
                 .map(this::mapToInvoiceResponse);
     }
 
+    @Transactional
     public InvoiceResponse updateInvoice(UUID id, InvoiceUpdateRequest request) {
         Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new CustomException("Invoice with ID " + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Invoice with ID " + id + " not found"));
 
         if (request.getSalesOrderId() != null) {
             SalesOrder salesOrder = salesOrderRepository.findById(request.getSalesOrderId())
-                    .orElseThrow(() -> new CustomException("Sales order with ID " + request.getSalesOrderId() + " not found"));
+                    .orElseThrow(() -> new NotFoundException("Sales order with ID " + request.getSalesOrderId() + " not found"));
 
             if (salesOrder.getStatus() == OrderStatus.CANCELLED) {
                 throw new CustomException("Cannot update invoice to use cancelled sales order with ID " + request.getSalesOrderId());
@@ -84,27 +95,44 @@ public class InvoiceService {
         if (request.getInvoiceDate() != null) {
             invoice.setInvoiceDate(request.getInvoiceDate());
         }
-        if (request.getPaymentStatus() != null) {
-            invoice.setPaymentStatus(request.getPaymentStatus());
+        InvoicePaymentService.Balance settled = null;
+        if (request.getPaymentStatus() != null && request.getPaymentStatus() != invoice.getPaymentStatus()) {
+            if (invoice.getAmountDue() == null) {
+                // Issued before the payment ledger, so there is no balance to derive the status from
+                invoice.setPaymentStatus(request.getPaymentStatus());
+            } else if (request.getPaymentStatus() == PaymentStatus.PAID) {
+                settled = invoicePaymentService.settle(id, null, null);
+            } else {
+                throw new CustomException("Payment status of invoice with ID " + id
+                        + " follows its payments; record a payment or reversal instead");
+            }
         }
 
         Invoice updatedInvoice = invoiceRepository.save(invoice);
-        return mapToInvoiceResponse(updatedInvoice);
+        InvoiceResponse response = mapToInvoiceResponse(updatedInvoice);
+        if (settled != null) {
+            response.setAmountPaid(settled.amountPaid().toBigDecimal());
+            response.setPaymentStatus(settled.paymentStatus());
+        }
+        return response;
     }
 
     public void deleteInvoice(UUID id) {
         if (!invoiceRepository.existsById(id)) {
-            throw new CustomException("Invoice with ID " + id + " not found");
+            throw new NotFoundException("Invoice with ID " + id + " not found");
         }
         invoiceRepository.deleteById(id);
     }
 
-    private InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
+    InvoiceResponse mapToInvoiceResponse(Invoice invoice) {
         InvoiceResponse response = new InvoiceResponse();
         response.setId(invoice.getId());
         response.setSalesOrderId(invoice.getSalesOrderId());
+        response.setInvoiceNumber(invoice.getInvoiceNumber());
         response.setInvoiceDate(invoice.getInvoiceDate());
         response.setPaymentStatus(invoice.getPaymentStatus());
+        response.setAmountDue(invoice.getAmountDue() != null ? invoice.getAmountDue().toBigDecimal() : null);
+        response.setAmountPaid(invoice.getAmountPaid() != null ? invoice.getAmountPaid().toBigDecimal() : null);
         response.setCreatedAt(invoice.getCreatedAt());
         response.setUpdatedAt(invoice.getUpdatedAt());
         return response;
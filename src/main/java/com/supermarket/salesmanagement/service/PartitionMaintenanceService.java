@@ -0,0 +1,62 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of sales_orders and sales_order_items ahead of the
+ * calendar and detaches the ones past retention, on every shard. The partition DDL
+ * lives in the create_sales_partitions / detach_sales_partitions database functions.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionMaintenanceService {
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    @Value("${application.partitions.maintenance-enabled:true}")
+    private boolean enabled;
+
+    @Value("${application.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${application.partitions.retention-months:36}")
+    private int retentionMonths;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.partitions.maintenance-cron:0 30 2 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        shardRouter.forEachShard(this::maintainShardPartitions);
+    }
+
+    private void maintainShardPartitions() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        Integer created = jdbcTemplate.queryForObject("SELECT create_sales_partitions(?, ?)", Integer.class,
+                currentMonth, currentMonth.plusMonths(monthsAhead));
+        if (created != null && created > 0) {
+            log.info("Created {} monthly sales partitions up to {}", created, currentMonth.plusMonths(monthsAhead));
+        }
+
+        if (retentionMonths > 0) {
+            List<String> detached = jdbcTemplate.queryForList("SELECT detach_sales_partitions(?)", String.class,
+                    currentMonth.minusMonths(retentionMonths));
+            if (!detached.isEmpty()) {
+                log.info("Detached sales partitions past retention: {}", detached);
+            }
+        }
+    }
+}
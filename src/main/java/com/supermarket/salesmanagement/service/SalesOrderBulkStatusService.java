@@ -0,0 +1,258 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.SalesOrderBulkStatusRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse.Outcome;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse.Result;
+import com.supermarket.salesmanagement.event.OrderStatusEvent;
+import com.supermarket.salesmanagement.event.OrderStatusPublisher;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.SalesOrder;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves many orders to one status with set-based statements instead of loading each
+ * order. The rules of {@code SalesOrderService#validateStatusTransition} (and, for
+ * CONFIRMED, the paid-invoice requirement of confirming after payment) are part of
+ * the UPDATE's predicate; orders it skips are looked up once per chunk to explain why.
+ * Each chunk commits on its own and publishes its status events as one batch.
+ */
+@Service
+@Slf4j
+public class SalesOrderBulkStatusService {
+    private static final String UPDATE_SQL = """
+            WITH target AS (
+                SELECT id, order_date, status FROM sales_orders WHERE id = ANY (?) FOR UPDATE
+            )
+            UPDATE sales_orders o SET status = ?, updated_at = ?
+            FROM target t
+            WHERE o.id = t.id AND o.order_date = t.order_date AND %s
+            RETURNING o.id, o.shop_id, t.status AS previous_status
+            """;
+    private static final String SKIPPED_SQL = """
+            SELECT o.id, o.status,
+                   EXISTS (SELECT 1 FROM invoices i WHERE i.sales_order_id = o.id AND i.payment_status = 'PAID') AS paid
+            FROM sales_orders o
+            WHERE o.id = ANY (?)
+            """;
+    private static final String PAID_INVOICE = """
+            EXISTS (SELECT 1 FROM invoices i WHERE i.sales_order_id = t.id AND i.payment_status = 'PAID')""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final DraftBasketService draftBasketService;
+    private final OrderStatusPublisher orderStatusPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxOrders;
+
+    public SalesOrderBulkStatusService(JdbcTemplate jdbcTemplate,
+                                       ShardRouter shardRouter,
+                                       DraftBasketService draftBasketService,
+                                       OrderStatusPublisher orderStatusPublisher,
+                                       EntityManagerFactory entityManagerFactory,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${application.bulk-status.chunk-size:500}") int chunkSize,
+                                       @Value("${application.bulk-status.max-orders:20000}") int maxOrders) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.draftBasketService = draftBasketService;
+        this.orderStatusPublisher = orderStatusPublisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.maxOrders = maxOrders;
+    }
+
+    public SalesOrderBulkStatusResponse transition(SalesOrderBulkStatusRequest request) {
+        validate(request);
+        OrderStatus target = request.getTargetStatus();
+        Map<UUID, Result> results = new LinkedHashMap<>();
+        boolean truncated = false;
+
+        if (request.getOrderIds() != null) {
+            List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(request.getOrderIds()));
+            ids.forEach(id -> results.put(id, null));
+            // Without a shop the orders may live on any shard; IDs absent from a shard simply match nothing there
+            shardRouter.routeToEachShard(() -> {
+                for (int start = 0; start < ids.size(); start += chunkSize) {
+                    transitionChunk(ids.subList(start, Math.min(ids.size(), start + chunkSize)), target, results);
+                }
+            });
+        } else {
+            truncated = shardRouter.routeToShop(request.getShopId(), () -> transitionMatching(request, results));
+        }
+
+        SalesOrderBulkStatusResponse response = new SalesOrderBulkStatusResponse();
+        response.setTargetStatus(target);
+        response.setTruncated(truncated);
+        List<Result> resultList = new ArrayList<>(results.size());
+        results.forEach((id, result) -> resultList.add(result != null ? result : result(id, Outcome.NOT_FOUND, null,
+                "Sales order with ID " + id + " not found")));
+        response.setResults(resultList);
+        for (Result result : resultList) {
+            switch (result.getOutcome()) {
+                case UPDATED -> response.setUpdated(response.getUpdated() + 1);
+                case REJECTED -> response.setRejected(response.getRejected() + 1);
+                case NOT_FOUND -> response.setNotFound(response.getNotFound() + 1);
+                case UNCHANGED -> { }
+            }
+        }
+        log.info("Bulk status transition targetStatus={} updated={} rejected={} notFound={} truncated={}",
+                target, response.getUpdated(), response.getRejected(), response.getNotFound(), truncated);
+        return response;
+    }
+
+    private boolean transitionMatching(SalesOrderBulkStatusRequest request, Map<UUID, Result> results) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM sales_orders WHERE shop_id = ? AND id > ?");
+        List<Object> args = new ArrayList<>();
+        args.add(request.getShopId());
+        args.add(null);
+        if (request.getCurrentStatus() != null) {
+            sql.append(" AND status = ?");
+            args.add(request.getCurrentStatus().name());
+        }
+        if (request.getFrom() != null) {
+            sql.append(" AND order_date >= ?");
+            args.add(request.getFrom());
+        }
+        if (request.getTo() != null) {
+            sql.append(" AND order_date <= ?");
+            args.add(request.getTo());
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(chunkSize);
+
+        // PostgreSQL orders UUIDs by unsigned bytes, so the all-zero UUID sorts first
+        UUID after = new UUID(0L, 0L);
+        while (results.size() < maxOrders) {
+            args.set(1, after);
+            List<UUID> ids = jdbcTemplate.queryForList(sql.toString(), UUID.class, args.toArray());
+            if (ids.isEmpty()) {
+                return false;
+            }
+            List<UUID> chunk = ids.subList(0, Math.min(ids.size(), maxOrders - results.size()));
+            chunk.forEach(id -> results.put(id, null));
+            transitionChunk(chunk, request.getTargetStatus(), results);
+            if (ids.size() < chunkSize) {
+                return false;
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+        return true;
+    }
+
+    private void transitionChunk(List<UUID> ids, OrderStatus target, Map<UUID, Result> results) {
+        // A basket still being scanned must reach the database before its order changes status
+        draftBasketService.flush(ids);
+        UUID[] idArray = ids.toArray(UUID[]::new);
+        List<UUID> updated = chunkTransaction.execute(status -> {
+            List<UUID> changed = new ArrayList<>();
+            jdbcTemplate.query(UPDATE_SQL.formatted(transitionPredicate(target)), statement -> {
+                statement.setArray(1, statement.getConnection().createArrayOf("uuid", idArray));
+                statement.setString(2, target.name());
+                statement.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            }, rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                OrderStatus previous = OrderStatus.valueOf(rs.getString("previous_status"));
+                changed.add(id);
+                results.put(id, result(id, Outcome.UPDATED, previous, null));
+                orderStatusPublisher.publishOrderStatusEvent(
+                        new OrderStatusEvent(id, rs.getObject("shop_id", UUID.class), target));
+            });
+            if (changed.size() < idArray.length) {
+                explainSkipped(idArray, target, results);
+            }
+            return changed;
+        });
+        updated.forEach(id -> entityManagerFactory.getCache().evict(SalesOrder.class, id));
+    }
+
+    private void explainSkipped(UUID[] ids, OrderStatus target, Map<UUID, Result> results) {
+        jdbcTemplate.query(SKIPPED_SQL,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids)),
+                rs -> {
+                    UUID id = rs.getObject("id", UUID.class);
+                    Result existing = results.get(id);
+                    if (existing != null && existing.getOutcome() == Outcome.UPDATED) {
+                        return;
+                    }
+                    OrderStatus current = OrderStatus.valueOf(rs.getString("status"));
+                    if (current == target) {
+                        results.put(id, result(id, Outcome.UNCHANGED, current, "Sales order is already " + target));
+                    } else if (current == OrderStatus.CANCELLED) {
+                        results.put(id, result(id, Outcome.REJECTED, current, "Cancelled orders cannot be modified"));
+                    } else if (current == OrderStatus.CONFIRMED) {
+                        results.put(id, result(id, Outcome.REJECTED, current,
+                                "Confirmed orders can only be transitioned to CANCELLED"));
+                    } else if (target == OrderStatus.CONFIRMED && !rs.getBoolean("paid")) {
+                        results.put(id, result(id, Outcome.REJECTED, current,
+                                "Invoice for sales order " + id + " is not fully paid"));
+                    } else {
+                        results.put(id, result(id, Outcome.REJECTED, current, "Transition not allowed"));
+                    }
+                });
+    }
+
+    /**
+     * The transitions {@code validateStatusTransition} allows, as a predicate on the
+     * locked row's current status; staying in the same status is not a transition.
+     */
+    private static String transitionPredicate(OrderStatus target) {
+        return switch (target) {
+            case CANCELLED -> "t.status <> 'CANCELLED'";
+            case CONFIRMED -> "t.status IN ('DRAFT', 'PENDING') AND " + PAID_INVOICE;
+            case DRAFT, PENDING -> "t.status IN ('DRAFT', 'PENDING') AND t.status <> '" + target.name() + "'";
+        };
+    }
+
+    private void validate(SalesOrderBulkStatusRequest request) {
+        boolean byIds = request.getOrderIds() != null;
+        boolean byFilter = request.getShopId() != null;
+        if (byIds == byFilter) {
+            throw new CustomException("Either order IDs or a shop ID filter is required, not both");
+        }
+        if (byIds && request.getOrderIds().isEmpty()) {
+            throw new CustomException("Order IDs must not be empty");
+        }
+        if (byIds && request.getOrderIds().size() > maxOrders) {
+            throw new CustomException("At most " + maxOrders + " orders can be transitioned at once");
+        }
+        if (byIds && (request.getCurrentStatus() != null || request.getFrom() != null || request.getTo() != null)) {
+            throw new CustomException("Status and date filters only apply together with a shop ID");
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new CustomException("From date must not be after to date");
+        }
+    }
+
+    private static Result result(UUID id, Outcome outcome, OrderStatus previousStatus, String message) {
+        Result result = new Result();
+        result.setId(id);
+        result.setOutcome(outcome);
+        result.setPreviousStatus(previousStatus);
+        result.setMessage(message);
+        return result;
+    }
+}
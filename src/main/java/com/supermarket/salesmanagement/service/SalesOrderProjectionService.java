@@ -0,0 +1,292 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderSummaryResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.repository.SalesOrderSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Narrow reads of sales orders for screens that do not need the full order. The
+ * summary view is a closed projection that never touches {@code sales_order_items};
+ * {@code fields=} selects only the named order columns and, when item fields are
+ * asked for, fetches those item columns for the whole page in one further query.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesOrderProjectionService {
+    // Field names are the entity attributes; the order here is the order of the output
+    private static final List<String> ORDER_FIELDS = List.of("id", "customerId", "shopId", "orderDate", "status",
+            "createdAt", "updatedAt", "totalAmount");
+    private static final List<String> ITEM_FIELDS = List.of("id", "productId", "quantity", "unitPrice",
+            "totalPrice", "createdAt", "updatedAt");
+    private static final String ITEMS = "items";
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final EntityManager entityManager;
+
+    public SalesOrderSummaryResponse getSummaryById(UUID id) {
+        return salesOrderRepository.findSummaryById(id)
+                .map(SalesOrderProjectionService::toSummary)
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + id + " not found"));
+    }
+
+    public Page<SalesOrderSummaryResponse> getAllSummaries(Pageable pageable) {
+        return salesOrderRepository.findSummariesBy(pageable).map(SalesOrderProjectionService::toSummary);
+    }
+
+    public Page<SalesOrderSummaryResponse> getSummariesByDate(UUID shopId, LocalDate from, LocalDate to,
+                                                              Pageable pageable) {
+        if (shopId != null && from == null && to == null) {
+            return salesOrderRepository.findSummariesByShopId(shopId, pageable).map(SalesOrderProjectionService::toSummary);
+        }
+        validateDateRange(from, to);
+        Page<SalesOrderSummary> summaries = shopId != null
+                ? salesOrderRepository.findSummariesByShopIdAndOrderDateBetween(shopId, from, to, pageable)
+                : salesOrderRepository.findSummariesByOrderDateBetween(from, to, pageable);
+        return summaries.map(SalesOrderProjectionService::toSummary);
+    }
+
+    public Map<String, Object> getFieldsById(UUID id, String fields) {
+        Selection selection = Selection.parse(fields);
+        List<Map<String, Object>> rows = query(selection, "o.id = :id", Map.of("id", id), Pageable.unpaged());
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Sales order with ID " + id + " not found");
+        }
+        return rows.get(0);
+    }
+
+    public Page<Map<String, Object>> getAllFields(String fields, Pageable pageable) {
+        return page(Selection.parse(fields), null, Map.of(), pageable);
+    }
+
+    public Page<Map<String, Object>> getFieldsByDate(UUID shopId, LocalDate from, LocalDate to, String fields,
+                                                     Pageable pageable) {
+        Selection selection = Selection.parse(fields);
+        if (shopId != null && from == null && to == null) {
+            return page(selection, "o.shopId = :shopId", Map.of("shopId", shopId), pageable);
+        }
+        validateDateRange(from, to);
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        parameters.put("to", to);
+        String where = "o.orderDate between :from and :to";
+        if (shopId != null) {
+            where += " and o.shopId = :shopId";
+            parameters.put("shopId", shopId);
+        }
+        return page(selection, where, parameters, pageable);
+    }
+
+    /**
+     * The summary of an order read from somewhere other than the database, such as an
+     * open basket or the archive.
+     */
+    public static SalesOrderSummaryResponse summaryOf(SalesOrderResponse order) {
+        SalesOrderSummaryResponse summary = new SalesOrderSummaryResponse();
+        summary.setId(order.getId());
+        summary.setShopId(order.getShopId());
+        summary.setStatus(order.getStatus());
+        summary.setTotalAmount(order.getTotalAmount());
+        summary.setOrderDate(order.getOrderDate());
+        return summary;
+    }
+
+    /**
+     * Applies a {@code fields=} selection to an order that is already in memory, so
+     * every source answers with the same shape.
+     */
+    public static Map<String, Object> select(String fields, SalesOrderResponse order) {
+        Selection selection = Selection.parse(fields);
+        BeanWrapperImpl orderValues = new BeanWrapperImpl(order);
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String field : selection.orderFields()) {
+            row.put(field, orderValues.getPropertyValue(field));
+        }
+        if (!selection.itemFields().isEmpty()) {
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (SalesOrderResponse.OrderItemResponse item : order.getItems()) {
+                BeanWrapperImpl itemValues = new BeanWrapperImpl(item);
+                Map<String, Object> itemRow = new LinkedHashMap<>();
+                for (String field : selection.itemFields()) {
+                    itemRow.put(field, itemValues.getPropertyValue(field));
+                }
+                items.add(itemRow);
+            }
+            row.put(ITEMS, items);
+        }
+        return row;
+    }
+
+    private Page<Map<String, Object>> page(Selection selection, String where, Map<String, Object> parameters,
+                                           Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!ORDER_FIELDS.contains(order.getProperty())) {
+                throw new CustomException("Cannot sort by " + order.getProperty());
+            }
+        }
+        List<Map<String, Object>> rows = query(selection.withSortFields(pageable.getSort()), where, parameters, pageable);
+        return PageableExecutionUtils.getPage(rows, pageable, () -> {
+            TypedQuery<Long> count = entityManager.createQuery(
+                    "select count(o) from SalesOrder o" + (where != null ? " where " + where : ""), Long.class);
+            parameters.forEach(count::setParameter);
+            return count.getSingleResult();
+        });
+    }
+
+    private List<Map<String, Object>> query(Selection selection, String where, Map<String, Object> parameters,
+                                            Pageable pageable) {
+        // id and orderDate are always read: id keys the rows, orderDate bounds the item query to the orders' partitions
+        List<String> columns = new ArrayList<>(List.of("id", "orderDate"));
+        selection.orderFields().stream().filter(field -> !columns.contains(field)).forEach(columns::add);
+
+        StringBuilder jpql = new StringBuilder("select ");
+        for (int i = 0; i < columns.size(); i++) {
+            jpql.append(i > 0 ? ", " : "").append("o.").append(columns.get(i));
+        }
+        jpql.append(" from SalesOrder o");
+        if (where != null) {
+            jpql.append(" where ").append(where);
+        }
+        if (pageable.getSort().isSorted()) {
+            jpql.append(" order by ");
+            int i = 0;
+            for (Sort.Order order : pageable.getSort()) {
+                jpql.append(i++ > 0 ? ", " : "").append("o.").append(order.getProperty())
+                        .append(order.isAscending() ? " asc" : " desc");
+            }
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        Map<UUID, Map<String, Object>> rows = new LinkedHashMap<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (Tuple tuple : query.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selection.orderFields()) {
+                row.put(field, value(tuple.get(columns.indexOf(field))));
+            }
+            rows.put((UUID) tuple.get(0), row);
+            LocalDate orderDate = (LocalDate) tuple.get(1);
+            minDate = minDate == null || orderDate.isBefore(minDate) ? orderDate : minDate;
+            maxDate = maxDate == null || orderDate.isAfter(maxDate) ? orderDate : maxDate;
+        }
+        if (!selection.itemFields().isEmpty() && !rows.isEmpty()) {
+            rows.values().forEach(row -> row.put(ITEMS, new ArrayList<Map<String, Object>>()));
+            addItems(selection.itemFields(), rows, minDate, maxDate);
+        }
+        return new ArrayList<>(rows.values());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addItems(List<String> itemFields, Map<UUID, Map<String, Object>> rows, LocalDate from, LocalDate to) {
+        StringBuilder jpql = new StringBuilder("select i.salesOrder.id");
+        itemFields.forEach(field -> jpql.append(", i.").append(field));
+        // The order date bound lets Postgres prune sales_order_items partitions as it does for the orders
+        jpql.append(" from SalesOrderItem i where i.salesOrder.id in :ids and i.orderDate between :from and :to")
+                .append(" order by i.createdAt, i.id");
+
+        List<Tuple> items = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setParameter("ids", rows.keySet())
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        for (Tuple tuple : items) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (int i = 0; i < itemFields.size(); i++) {
+                item.put(itemFields.get(i), value(tuple.get(i + 1)));
+            }
+            ((List<Map<String, Object>>) rows.get((UUID) tuple.get(0)).get(ITEMS)).add(item);
+        }
+    }
+
+    private static Object value(Object value) {
+        return value instanceof Money money ? money.toBigDecimal() : value;
+    }
+
+    private static SalesOrderSummaryResponse toSummary(SalesOrderSummary summary) {
+        SalesOrderSummaryResponse response = new SalesOrderSummaryResponse();
+        response.setId(summary.getId());
+        response.setShopId(summary.getShopId());
+        response.setStatus(summary.getStatus());
+        response.setTotalAmount(summary.getTotalAmount() != null ? summary.getTotalAmount().toBigDecimal() : null);
+        response.setOrderDate(summary.getOrderDate());
+        return response;
+    }
+
+    private static void validateDateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new CustomException("Both from and to dates are required for a date-bounded query");
+        }
+        if (from.isAfter(to)) {
+            throw new CustomException("From date must not be after to date");
+        }
+    }
+
+    /**
+     * A parsed {@code fields=} value. The order id is always part of the output so rows
+     * stay identifiable; {@code items} alone stands for every item field.
+     */
+    private record Selection(List<String> orderFields, List<String> itemFields) {
+        static Selection parse(String fields) {
+            if (fields == null || fields.isBlank()) {
+                throw new CustomException("At least one field is required");
+            }
+            Set<String> orderFields = new LinkedHashSet<>();
+            Set<String> itemFields = new LinkedHashSet<>();
+            orderFields.add("id");
+            for (String raw : fields.split(",")) {
+                String field = raw.trim();
+                if (field.equals(ITEMS)) {
+                    itemFields.addAll(ITEM_FIELDS);
+                } else if (field.startsWith(ITEMS + ".") && ITEM_FIELDS.contains(field.substring(ITEMS.length() + 1))) {
+                    itemFields.add(field.substring(ITEMS.length() + 1));
+                } else if (ORDER_FIELDS.contains(field)) {
+                    orderFields.add(field);
+                } else {
+                    throw new CustomException("Unknown field: " + field);
+                }
+            }
+            return new Selection(inOrder(ORDER_FIELDS, orderFields), inOrder(ITEM_FIELDS, itemFields));
+        }
+
+        // Sorted pages are merged across shards by the sort properties, so the rows must carry them
+        Selection withSortFields(Sort sort) {
+            Set<String> fields = new LinkedHashSet<>(orderFields);
+            sort.forEach(order -> fields.add(order.getProperty()));
+            return new Selection(inOrder(ORDER_FIELDS, fields), itemFields);
+        }
+
+        private static List<String> inOrder(List<String> known, Set<String> selected) {
+            return known.stream().filter(selected::contains).toList();
+        }
+    }
+}
@@ -7,7 +7,9 @@ import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
 import com.supermarket.salesmanagement.event.OrderStatusEvent;
 import com.supermarket.salesmanagement.event.OrderStatusPublisher;
 import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
 import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.Money;
 import com.supermarket.salesmanagement.model.SalesOrder;
 import com.supermarket.salesmanagement.model.SalesOrderItem;
 import com.supermarket.salesmanagement.model.enums.OrderStatus;
@@ -18,6 +20,8 @@ import com.supermarket.salesmanagement.repository.SalesOrderRepository;
 import com.supermarket.salesmanagement.service.client.CustomerClient;
 import com.supermarket.salesmanagement.service.client.ProductClient;
 import com.supermarket.salesmanagement.service.client.ShopClient;
+import com.supermarket.salesmanagement.service.pricing.BasketLine;
+import com.supermarket.salesmanagement.service.pricing.PriceEngine;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -25,6 +29,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -41,6 +46,7 @@ public class SalesOrderService {
     private final ProductClient productClient;
     private final ShopClient shopClient;
     private final OrderStatusPublisher orderStatusPublisher;
+    private final PriceEngine priceEngine;
 
     @Transactional
     public SalesOrderResponse createSalesOrder(SalesOrderCreateRequest request) {
@@ -50,12 +56,13 @@ public class SalesOrderService {
        customerClient.getCustomerById(request.getCustomerId());
         shopClient.getShopById(request.getShopId());
 
+        LocalDate orderDate = request.getOrderDate() != null ? request.getOrderDate() : LocalDate.now();
         SalesOrder salesOrder = SalesOrder.builder()
                 .customerId(request.getCustomerId())
                 .shopId(request.getShopId())
-                .orderDate(request.getOrderDate() != null ? request.getOrderDate() : LocalDate.now())
+                .orderDate(orderDate)
                 .status(OrderStatus.DRAFT)
-                .totalAmount(BigDecimal.ZERO)
+                .totalAmount(Money.ZERO)
                 .items(new ArrayList<>())
                 .build();
 
@@ -66,14 +73,11 @@ public class SalesOrderService {
                         productClient.getProductById(item.getProductId());
                         validateItem(item.getQuantity(), item.getUnitPrice());
                     })
-                    .map(item -> SalesOrderItem.builder()
-                            .salesOrder(salesOrder)
-                            .productId(item.getProductId())
-                            .quantity(item.getQuantity())
-                            .unitPrice(item.getUnitPrice())
-                            .totalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                            .build())
+                    .map(item -> buildItem(salesOrder, item.getProductId(), item.getQuantity(), item.getUnitPrice()))
                     .collect(Collectors.toList());
+            priceEngine.verifyBasket(orderDate, items.stream()
+                    .map(item -> new BasketLine(item.getProductId(), item.getQuantity(), item.getUnitPrice()))
+                    .collect(Collectors.toList()));
             salesOrder.setItems(items);
             salesOrder.calculateTotalAmount();
         }
@@ -88,7 +92,7 @@ public class SalesOrderService {
         validateUpdateRequest(request);
 
         SalesOrder salesOrder = salesOrderRepository.findById(id)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + id + " not found"));
 
         // Validate and update fields
         if (request.getCustomerId() != null) {
@@ -118,28 +122,25 @@ public class SalesOrderService {
                             productClient.getProductById(item.getProductId());
                             validateItem(item.getQuantity(), item.getUnitPrice());
                         })
-                        .map(item -> SalesOrderItem.builder()
-                                .salesOrder(salesOrder)
-                                .productId(item.getProductId())
-                                .quantity(item.getQuantity())
-                                .unitPrice(item.getUnitPrice())
-                                .totalPrice(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                                .build())
+                        .map(item -> buildItem(salesOrder, item.getProductId(), item.getQuantity(), item.getUnitPrice()))
                         .collect(Collectors.toList());
+                priceEngine.verifyBasket(salesOrder.getOrderDate(), newItems.stream()
+                        .map(item -> new BasketLine(item.getProductId(), item.getQuantity(), item.getUnitPrice()))
+                        .collect(Collectors.toList()));
                 salesOrder.getItems().addAll(newItems);
             }
             salesOrder.calculateTotalAmount();
         }
 
         SalesOrder updatedOrder = salesOrderRepository.save(salesOrder);
-        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getStatus()));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getShopId(), updatedOrder.getStatus()));
         return mapToSalesOrderResponse(updatedOrder);
     }
 
     @Transactional
     public SalesOrderResponse addSalesOrderItem(UUID orderId, SalesOrderItemAddRequest request) {
         SalesOrder salesOrder = salesOrderRepository.findById(orderId)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + orderId + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + orderId + " not found"));
 
         // Prevent adding items to confirmed or cancelled orders
         if (salesOrder.getStatus() == OrderStatus.PENDING) {
@@ -155,6 +156,8 @@ public class SalesOrderService {
         // Validate item data
         productClient.getProductById(request.getProductId());
         validateItem(request.getQuantity(), request.getUnitPrice());
+        priceEngine.verifyBasket(salesOrder.getOrderDate(),
+                List.of(new BasketLine(request.getProductId(), request.getQuantity(), Money.of(request.getUnitPrice()))));
 
         //check if an item with the same productId Exist
         SalesOrderItem existingItem = salesOrder.getItems().stream()
@@ -169,11 +172,10 @@ public class SalesOrderService {
             //merge with existing item
             int newQuantity = existingItem.getQuantity() + request.getQuantity();
 
-            //calculate weighted average unit price
-            BigDecimal existingTotal = existingItem.getUnitPrice().multiply(BigDecimal.valueOf(existingItem.getQuantity()));
-            BigDecimal newTotal = request.getUnitPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
-            BigDecimal totalPrice = existingTotal.add(newTotal);
-            BigDecimal weightedUnitPrice = totalPrice.divide(BigDecimal.valueOf(newQuantity), 2 , BigDecimal.ROUND_HALF_UP);
+            //calculate weighted average unit price from the exact running line total
+            Money newTotal = Money.of(request.getUnitPrice()).times(request.getQuantity());
+            Money totalPrice = existingItem.getTotalPrice().plus(newTotal);
+            Money weightedUnitPrice = totalPrice.dividedBy(newQuantity, RoundingMode.HALF_UP);
 
             //update existing item
             existingItem.setQuantity(newQuantity);
@@ -185,13 +187,7 @@ public class SalesOrderService {
         }else {
 
             // Create new sales order item
-            newItem = SalesOrderItem.builder()
-                    .salesOrder(salesOrder)
-                    .productId(request.getProductId())
-                    .quantity(request.getQuantity())
-                    .unitPrice(request.getUnitPrice())
-                    .totalPrice(request.getUnitPrice().multiply(BigDecimal.valueOf(request.getQuantity())))
-                    .build();
+            newItem = buildItem(salesOrder, request.getProductId(), request.getQuantity(), request.getUnitPrice());
 
             // Add item to sales order and save it
             salesOrder.getItems().add(newItem);
@@ -202,14 +198,14 @@ public class SalesOrderService {
         salesOrder.calculateTotalAmount();
         SalesOrder updatedOrder = salesOrderRepository.save(salesOrder); // Save the updated sales order
 
-        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getStatus()));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getShopId(), updatedOrder.getStatus()));
         return mapToSalesOrderResponse(updatedOrder);
     }
 
     @Transactional
     public SalesOrderResponse deleteSalesOrderItem(UUID orderId, UUID itemId) {
         SalesOrder salesOrder = salesOrderRepository.findById(orderId)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + orderId + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + orderId + " not found"));
 
         // Prevent deleting items from confirmed or cancelled orders
         if (salesOrder.getStatus() == OrderStatus.PENDING) {
@@ -226,14 +222,14 @@ public class SalesOrderService {
         SalesOrderItem itemToRemove = salesOrder.getItems().stream()
                 .filter(item -> item.getId().equals(itemId))
                 .findFirst()
-                .orElseThrow(() -> new CustomException("Sales order item with ID " + itemId + " not found in order " + orderId));
+                .orElseThrow(() -> new NotFoundException("Sales order item with ID " + itemId + " not found in order " + orderId));
 
         salesOrder.getItems().remove(itemToRemove);
         salesOrderItemRepository.delete(itemToRemove);
         salesOrder.calculateTotalAmount();
 
         SalesOrder updatedOrder = salesOrderRepository.save(salesOrder);
-        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getStatus()));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(updatedOrder.getId(), updatedOrder.getShopId(), updatedOrder.getStatus()));
         return mapToSalesOrderResponse(updatedOrder);
     }
 
@@ -242,7 +238,7 @@ public class SalesOrderService {
     @Transactional
     public SalesOrderResponse confirmOrderAfterPayment(UUID orderId) {
         SalesOrder salesOrder = salesOrderRepository.findById(orderId)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + orderId + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + orderId + " not found"));
 
         Invoice invoice = invoiceRepository.findBySalesOrderId(orderId)
                 .orElseThrow(() -> new CustomException("No invoice found for sales order " + orderId));
@@ -259,13 +255,23 @@ public class SalesOrderService {
         salesOrder.calculateTotalAmount();
         SalesOrder confirmedOrder = salesOrderRepository.save(salesOrder);
 
-        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(confirmedOrder.getId(), confirmedOrder.getStatus()));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(confirmedOrder.getId(), confirmedOrder.getShopId(), confirmedOrder.getStatus()));
         return mapToSalesOrderResponse(confirmedOrder);
     }
 
     public SalesOrderResponse getSalesOrderById(UUID id) {
-        SalesOrder salesOrder = salesOrderRepository.findById(id)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + id + " not found"));
+        return getSalesOrderById(id, null);
+    }
+
+    /**
+     * With the order date known the lookup reads a single monthly partition instead of
+     * probing every partition's primary key.
+     */
+    public SalesOrderResponse getSalesOrderById(UUID id, LocalDate orderDate) {
+        SalesOrder salesOrder = (orderDate != null
+                ? salesOrderRepository.findByIdAndOrderDate(id, orderDate)
+                : salesOrderRepository.findById(id))
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + id + " not found"));
         return mapToSalesOrderResponse(salesOrder);
     }
 
@@ -274,10 +280,26 @@ public class SalesOrderService {
                 .map(this::mapToSalesOrderResponse);
     }
 
+    public Page<SalesOrderResponse> getSalesOrdersByDate(UUID shopId, LocalDate from, LocalDate to, Pageable pageable) {
+        if (shopId != null && from == null && to == null) {
+            return salesOrderRepository.findByShopId(shopId, pageable).map(this::mapToSalesOrderResponse);
+        }
+        if (from == null || to == null) {
+            throw new CustomException("Both from and to dates are required for a date-bounded query");
+        }
+        if (from.isAfter(to)) {
+            throw new CustomException("From date must not be after to date");
+        }
+        Page<SalesOrder> orders = shopId != null
+                ? salesOrderRepository.findByShopIdAndOrderDateBetween(shopId, from, to, pageable)
+                : salesOrderRepository.findByOrderDateBetween(from, to, pageable);
+        return orders.map(this::mapToSalesOrderResponse);
+    }
+
     @Transactional
     public void deleteSalesOrder(UUID id) {
         SalesOrder salesOrder = salesOrderRepository.findById(id)
-                .orElseThrow(() -> new CustomException("Sales order with ID " + id + " not found"));
+                .orElseThrow(() -> new NotFoundException("Sales order with ID " + id + " not found"));
 
         if (invoiceRepository.existsBySalesOrderId(id)) {
             throw new CustomException("Cannot delete sales order with associated invoices");
@@ -314,7 +336,7 @@ public class SalesOrderService {
         }
     }
 
-    private void validateItem(Integer quantity, BigDecimal unitPrice) {
+    void validateItem(Integer quantity, BigDecimal unitPrice) {
         if (quantity <= 0) {
             throw new CustomException("Quantity must be greater than zero");
         }
@@ -323,6 +345,17 @@ public class SalesOrderService {
         }
     }
 
+    SalesOrderItem buildItem(SalesOrder salesOrder, UUID productId, Integer quantity, BigDecimal unitPrice) {
+        Money price = Money.of(unitPrice);
+        return SalesOrderItem.builder()
+                .salesOrder(salesOrder)
+                .productId(productId)
+                .quantity(quantity)
+                .unitPrice(price)
+                .totalPrice(price.times(quantity))
+                .build();
+    }
+
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
         if (currentStatus == OrderStatus.CONFIRMED && newStatus != OrderStatus.CANCELLED) {
             throw new CustomException("Confirmed orders can only be transitioned to CANCELLED");
@@ -332,7 +365,7 @@ public class SalesOrderService {
         }
     }
 
-    private SalesOrderResponse mapToSalesOrderResponse(SalesOrder salesOrder) {
+    SalesOrderResponse mapToSalesOrderResponse(SalesOrder salesOrder) {
         SalesOrderResponse response = new SalesOrderResponse();
         response.setId(salesOrder.getId());
         response.setCustomerId(salesOrder.getCustomerId());
@@ -341,15 +374,15 @@ public class SalesOrderService {
         response.setStatus(salesOrder.getStatus());
         response.setCreatedAt(salesOrder.getCreatedAt());
         response.setUpdatedAt(salesOrder.getUpdatedAt());
-        response.setTotalAmount(salesOrder.getTotalAmount());
+        response.setTotalAmount(toDecimal(salesOrder.getTotalAmount()));
         response.setItems(salesOrder.getItems().stream()
                 .map(item -> {
                     SalesOrderResponse.OrderItemResponse itemResponse = new SalesOrderResponse.OrderItemResponse();
                     itemResponse.setId(item.getId());
                     itemResponse.setProductId(item.getProductId());
                     itemResponse.setQuantity(item.getQuantity());
-                    itemResponse.setUnitPrice(item.getUnitPrice());
-                    itemResponse.setTotalPrice(item.getTotalPrice());
+                    itemResponse.setUnitPrice(toDecimal(item.getUnitPrice()));
+                    itemResponse.setTotalPrice(toDecimal(item.getTotalPrice()));
                     itemResponse.setCreatedAt(item.getCreatedAt());
                     itemResponse.setUpdatedAt(item.getUpdatedAt());
                     return itemResponse;
@@ -357,5 +390,8 @@ public class SalesOrderService {
                 .collect(Collectors.toList()));
         return response;
     }
-}
 
+    private BigDecimal toDecimal(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.supermarket.salesmanagement.service.admission;
+
+/**
+ * Concurrency limit that follows the latency gradient: while recent round trips
+ * stay close to the long-term average the limit grows by roughly its square root,
+ * and once they rise above it (requests queueing for DB connections) the limit
+ * shrinks proportionally. Failed requests back off multiplicatively.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double longWindowAlpha;
+    private final double shortWindowAlpha;
+
+    private double limit;
+    private double longRtt;
+    private double shortRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                    double rttTolerance, int longWindow, int shortWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindowAlpha = 2.0 / (longWindow + 1);
+        this.shortWindowAlpha = 2.0 / (shortWindow + 1);
+        this.limit = initialLimit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Feeds one completed request into the limit.
+     *
+     * @param rttNanos time the request spent executing, excluding time spent queued
+     * @param inFlight requests executing when this one completed, including itself
+     * @param dropped  whether the request failed in a way that signals overload
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+        if (longRtt == 0) {
+            longRtt = rttNanos;
+            shortRtt = rttNanos;
+        } else {
+            longRtt += longWindowAlpha * (rttNanos - longRtt);
+            shortRtt += shortWindowAlpha * (rttNanos - shortRtt);
+        }
+        // After a sustained overload the long average is inflated; let it recover quickly
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+        // Well below the limit there is no evidence about whether the limit is right
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+}
@@ -0,0 +1,247 @@
+package com.supermarket.salesmanagement.service.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits API requests up to an {@link AdaptiveConcurrencyLimit}. Requests over the
+ * limit wait in a weighted fair queue keyed by shop (start-time fair queuing), so
+ * a shop flooding the service only delays its own requests. Requests are rejected
+ * immediately when the shop's share of the queue or the whole queue is full, and
+ * after a short timeout when no slot frees up.
+ */
+@Service
+@Slf4j
+public class AdmissionLimiter implements MeterBinder {
+    public static final String UNKNOWN_SHOP = "unknown";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueue;
+    private final int maxQueuePerShop;
+    private final long queueTimeoutMs;
+    private final long retryAfterSeconds;
+    private final Map<String, Double> shopWeights;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparingDouble((Waiter waiter) -> waiter.finishTag).thenComparingLong(waiter -> waiter.sequence));
+    private final Map<String, Flow> flows = new HashMap<>();
+    private double virtualTime;
+    private long sequence;
+    private int inFlight;
+
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong shed = new AtomicLong();
+
+    public AdmissionLimiter(@Value("${application.admission.initial-limit:20}") int initialLimit,
+                            @Value("${application.admission.min-limit:4}") int minLimit,
+                            @Value("${application.admission.max-limit:200}") int maxLimit,
+                            @Value("${application.admission.smoothing:0.2}") double smoothing,
+                            @Value("${application.admission.rtt-tolerance:1.5}") double rttTolerance,
+                            @Value("${application.admission.max-queue:100}") int maxQueue,
+                            @Value("${application.admission.max-queue-per-shop:20}") int maxQueuePerShop,
+                            @Value("${application.admission.queue-timeout-ms:500}") long queueTimeoutMs,
+                            @Value("${application.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                            @Value("${application.admission.shop-weights:}") String shopWeights) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, smoothing, rttTolerance, 600, 10);
+        this.maxQueue = maxQueue;
+        this.maxQueuePerShop = maxQueuePerShop;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.shopWeights = parseWeights(shopWeights);
+    }
+
+    /**
+     * Blocks until the request may run or throws {@link AdmissionRejectedException}
+     * with 429 (the shop exceeded its share) or 503 (the service is saturated).
+     */
+    public Permit acquire(String shop) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (queue.isEmpty() && inFlight < limit.getLimit()) {
+                inFlight++;
+                return new Permit();
+            }
+            if (queue.size() >= maxQueue) {
+                shed.incrementAndGet();
+                throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                        "Service is saturated, retry later");
+            }
+            Flow flow = flows.computeIfAbsent(shop, key -> new Flow());
+            if (flow.queued >= maxQueuePerShop) {
+                throttled.incrementAndGet();
+                throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                        "Too many concurrent requests for shop " + shop);
+            }
+            double startTag = Math.max(virtualTime, flow.lastFinish);
+            waiter = new Waiter(shop, startTag, startTag + 1.0 / weight(shop), sequence++);
+            flow.lastFinish = waiter.finishTag;
+            flow.queued++;
+            queue.add(waiter);
+        } finally {
+            lock.unlock();
+        }
+
+        if (!awaitGrant(waiter)) {
+            shed.incrementAndGet();
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds,
+                    "Service is saturated, retry later");
+        }
+        return new Permit();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("admission.limit", this, AdmissionLimiter::getLimit).register(registry);
+        Gauge.builder("admission.inflight", this, AdmissionLimiter::getInFlight).register(registry);
+        Gauge.builder("admission.queued", this, AdmissionLimiter::getQueued).register(registry);
+        FunctionCounter.builder("admission.rejected", throttled, AtomicLong::get).tag("status", "429").register(registry);
+        FunctionCounter.builder("admission.rejected", shed, AtomicLong::get).tag("status", "503").register(registry);
+    }
+
+    private boolean awaitGrant(Waiter waiter) {
+        boolean interrupted = false;
+        try {
+            if (waiter.granted.await(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        lock.lock();
+        try {
+            if (waiter.granted.getCount() == 0) {
+                // Granted between the timeout and taking the lock
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+            queue.remove(waiter);
+            flows.get(waiter.shop).queued--;
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            limit.onSample(rttNanos, inFlight, dropped);
+            inFlight--;
+            while (!queue.isEmpty() && inFlight < limit.getLimit()) {
+                Waiter next = queue.poll();
+                virtualTime = next.startTag;
+                flows.get(next.shop).queued--;
+                inFlight++;
+                next.granted.countDown();
+            }
+            if (queue.isEmpty()) {
+                flows.values().removeIf(flow -> flow.queued == 0 && flow.lastFinish <= virtualTime);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double weight(String shop) {
+        return shopWeights.getOrDefault(shop, 1.0);
+    }
+
+    private static Map<String, Double> parseWeights(String shopWeights) {
+        Map<String, Double> weights = new HashMap<>();
+        for (String entry : shopWeights.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid shop weight '" + entry + "', expected <shopId>=<weight>");
+            }
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Shop weight must be positive: " + entry);
+            }
+            weights.put(parts[0].trim(), weight);
+        }
+        return weights;
+    }
+
+    /**
+     * Slot held by an admitted request; must be released exactly once.
+     */
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        public void release(boolean dropped) {
+            if (released) {
+                return;
+            }
+            released = true;
+            AdmissionLimiter.this.release(System.nanoTime() - startNanos, dropped);
+        }
+    }
+
+    private static final class Flow {
+        private double lastFinish;
+        private int queued;
+    }
+
+    private static final class Waiter {
+        private final String shop;
+        private final double startTag;
+        private final double finishTag;
+        private final long sequence;
+        private final CountDownLatch granted = new CountDownLatch(1);
+
+        private Waiter(String shop, double startTag, double finishTag, long sequence) {
+            this.shop = shop;
+            this.startTag = startTag;
+            this.finishTag = finishTag;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+public enum GroupBy {
+    NONE,
+    SHOP,
+    PRODUCT,
+    CUSTOMER,
+    DAY
+}
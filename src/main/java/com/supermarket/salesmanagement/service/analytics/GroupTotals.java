@@ -0,0 +1,107 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Per-group sums of units, cents and line count keyed by an int group code. Small key
+ * spaces (shops, days) are indexed directly; large ones (customers) use open
+ * addressing so a fork-join leaf only allocates for the groups it actually sees.
+ */
+final class GroupTotals {
+    static final int DENSE_LIMIT = 1 << 16;
+    private static final int EMPTY = -1;
+
+    private final boolean dense;
+    private int[] keys;
+    private long[] units;
+    private long[] cents;
+    private long[] lines;
+    private int used;
+
+    GroupTotals(int cardinality) {
+        dense = cardinality <= DENSE_LIMIT;
+        int capacity = dense ? Math.max(cardinality, 1) : 1024;
+        allocate(capacity);
+    }
+
+    void add(int key, long quantity, long amount, long count) {
+        int slot = dense ? key : slot(key);
+        units[slot] += quantity;
+        cents[slot] += amount;
+        lines[slot] += count;
+    }
+
+    void merge(GroupTotals other) {
+        for (int slot = 0; slot < other.lines.length; slot++) {
+            if (other.lines[slot] > 0) {
+                add(other.key(slot), other.units[slot], other.cents[slot], other.lines[slot]);
+            }
+        }
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < lines.length; slot++) {
+            if (lines[slot] > 0) {
+                visitor.visit(key(slot), units[slot], cents[slot], lines[slot]);
+            }
+        }
+    }
+
+    private int key(int slot) {
+        return dense ? slot : keys[slot];
+    }
+
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((used + 1) * 2 > keys.length) {
+            grow();
+            return slot(key);
+        }
+        keys[slot] = key;
+        used++;
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        long[] oldUnits = units;
+        long[] oldCents = cents;
+        long[] oldLines = lines;
+        allocate(oldKeys.length * 2);
+        used = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldKeys[slot] != EMPTY) {
+                int target = slot(oldKeys[slot]);
+                units[target] = oldUnits[slot];
+                cents[target] = oldCents[slot];
+                lines[target] = oldLines[slot];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (!dense) {
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+        units = new long[capacity];
+        cents = new long[capacity];
+        lines = new long[capacity];
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    interface Visitor {
+        void visit(int key, long units, long cents, long lines);
+    }
+}
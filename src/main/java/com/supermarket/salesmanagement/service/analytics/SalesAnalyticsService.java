@@ -0,0 +1,262 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import com.supermarket.salesmanagement.dto.response.SalesLineAnalyticsResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers ad-hoc aggregations over confirmed order lines ("units of product X per
+ * shop this week") from an in-memory columnar snapshot instead of joining
+ * sales_order_items with sales_orders. The snapshot is loaded in full on startup and
+ * nightly, and kept current in between from orders whose updated_at moved. All loading
+ * runs on one background thread; queries read the last published snapshot.
+ */
+@Service
+@Slf4j
+public class SalesAnalyticsService {
+    private static final String FULL_LOAD_SQL = """
+            SELECT o.id, o.shop_id, o.customer_id, o.order_date, i.product_id, i.quantity, i.total_price
+            FROM sales_orders o
+            JOIN sales_order_items i ON i.sales_order_id = o.id AND i.order_date = o.order_date
+            WHERE o.status = 'CONFIRMED'
+            ORDER BY o.id
+            """;
+    private static final String CHANGES_SQL = """
+            SELECT o.id, o.shop_id, o.customer_id, o.order_date, o.status, i.product_id, i.quantity, i.total_price
+            FROM sales_orders o
+            LEFT JOIN sales_order_items i
+                ON i.sales_order_id = o.id AND i.order_date = o.order_date AND o.status = 'CONFIRMED'
+            WHERE o.updated_at > ? AND o.status IN ('CONFIRMED', 'CANCELLED')
+            ORDER BY o.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool queryPool;
+    private final ExecutorService refreshExecutor;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private final boolean enabled;
+    private final long lookbackSeconds;
+    private final double compactionRatio;
+
+    private volatile SalesLineSnapshot snapshot = SalesLineSnapshot.EMPTY;
+    private volatile boolean loaded;
+
+    // Confined to the refresh thread
+    private SalesLineColumns columns;
+    private LocalDateTime lastRefreshStartedAt;
+
+    public SalesAnalyticsService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ShardRouter shardRouter,
+                                 @Value("${application.analytics.enabled:true}") boolean enabled,
+                                 @Value("${application.analytics.parallelism:0}") int parallelism,
+                                 @Value("${application.analytics.fetch-size:10000}") int fetchSize,
+                                 @Value("${application.analytics.lookback-seconds:120}") long lookbackSeconds,
+                                 @Value("${application.analytics.compaction-ratio:0.25}") double compactionRatio) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.queryPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-analytics-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.enabled = enabled;
+        this.lookbackSeconds = lookbackSeconds;
+        this.compactionRatio = compactionRatio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.analytics.rebuild-cron:0 0 3 * * *}")
+    public void scheduleRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.analytics.refresh-interval-ms:30000}",
+            initialDelayString = "${application.analytics.refresh-interval-ms:30000}")
+    public void scheduleRefresh() {
+        if (enabled && refreshQueued.compareAndSet(false, true)) {
+            refresh();
+        }
+    }
+
+    public SalesLineAnalyticsResponse aggregate(SalesLineQuery query, int limit) {
+        if (!loaded) {
+            throw new CustomException("Sales analytics are still loading, try again shortly");
+        }
+        if (query.getFrom() != null && query.getTo() != null && query.getFrom().isAfter(query.getTo())) {
+            throw new CustomException("'from' must not be after 'to'");
+        }
+        long started = System.nanoTime();
+        SalesLineSnapshot current = snapshot;
+        List<SalesLineSnapshot.Group> groups = new ArrayList<>(current.aggregate(query, queryPool));
+        groups.sort(query.getGroupBy() == GroupBy.DAY
+                ? Comparator.comparing(group -> (LocalDate) group.key())
+                : Comparator.comparingLong(SalesLineSnapshot.Group::cents).reversed());
+
+        SalesLineAnalyticsResponse response = new SalesLineAnalyticsResponse();
+        response.setAsOf(current.getAsOf());
+        response.setLineCount(current.getLineCount());
+        response.setGroups(groups.stream().limit(Math.max(limit, 0)).map(this::mapToGroup).toList());
+        response.setTookMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started));
+        return response;
+    }
+
+    /**
+     * Reloads all confirmed lines into fresh columns and publishes them; the previous
+     * snapshot keeps serving queries until then.
+     */
+    CompletableFuture<Void> rebuild() {
+        return CompletableFuture.runAsync(this::loadAll, refreshExecutor);
+    }
+
+    /**
+     * Applies orders confirmed or cancelled since the previous refresh, or retries the
+     * full load if it has not succeeded yet.
+     */
+    CompletableFuture<Void> refresh() {
+        return CompletableFuture.runAsync(() -> {
+            refreshQueued.set(false);
+            applyChanges();
+        }, refreshExecutor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        queryPool.shutdownNow();
+    }
+
+    private void loadAll() {
+        try {
+            long started = System.nanoTime();
+            LocalDateTime startedAt = LocalDateTime.now();
+            SalesLineColumns fresh = new SalesLineColumns();
+            RowCallbackHandler append = rs -> fresh.appendBaseLine(rs.getObject(1, UUID.class), line(rs, 5));
+            shardRouter.forEachShard(() -> {
+                fresh.startBaseRun();
+                // Inside a transaction so the driver streams with the fetch size instead of buffering every row
+                readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(FULL_LOAD_SQL, append));
+            });
+            fresh.sealBase();
+            columns = fresh;
+            lastRefreshStartedAt = startedAt;
+            publish(startedAt);
+            log.info("Sales analytics snapshot loaded with {} lines in {} ms", fresh.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.error("Sales analytics snapshot load failed", e);
+        }
+    }
+
+    private void applyChanges() {
+        if (columns == null) {
+            loadAll();
+            return;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            // The lookback re-reads a window of changes so commits that became visible late are not missed
+            Timestamp since = Timestamp.valueOf(lastRefreshStartedAt.minusSeconds(lookbackSeconds));
+            Map<UUID, List<SalesLineColumns.Line>> confirmed = new LinkedHashMap<>();
+            List<UUID> cancelled = new ArrayList<>();
+            RowCallbackHandler collect = rs -> {
+                UUID orderId = rs.getObject(1, UUID.class);
+                if ("CANCELLED".equals(rs.getString(5))) {
+                    cancelled.add(orderId);
+                    return;
+                }
+                List<SalesLineColumns.Line> lines = confirmed.computeIfAbsent(orderId, id -> new ArrayList<>());
+                if (rs.getObject(6) != null) {
+                    lines.add(line(rs, 6));
+                }
+            };
+            shardRouter.forEachShard(() -> jdbcTemplate.query(CHANGES_SQL, collect, since));
+
+            int added = 0;
+            for (Map.Entry<UUID, List<SalesLineColumns.Line>> order : confirmed.entrySet()) {
+                if (!columns.contains(order.getKey())) {
+                    columns.appendOrder(order.getKey(), order.getValue());
+                    added++;
+                }
+            }
+            cancelled.forEach(columns::removeOrder);
+            lastRefreshStartedAt = startedAt;
+
+            if (columns.deletedRatio() > compactionRatio) {
+                loadAll();
+            } else if (added > 0 || !cancelled.isEmpty()) {
+                publish(startedAt);
+                log.debug("Sales analytics snapshot refreshed: {} orders added, {} cancelled", added, cancelled.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Sales analytics snapshot refresh failed", e);
+        }
+    }
+
+    private void publish(LocalDateTime asOf) {
+        snapshot = columns.snapshot(asOf);
+        loaded = true;
+    }
+
+    /**
+     * Reads shop, customer and date from columns 2-4 and product, quantity and total
+     * price from the three columns starting at {@code itemColumn}.
+     */
+    private static SalesLineColumns.Line line(ResultSet rs, int itemColumn) throws SQLException {
+        return new SalesLineColumns.Line(
+                rs.getObject(2, UUID.class),
+                rs.getObject(3, UUID.class),
+                rs.getObject(4, LocalDate.class),
+                rs.getObject(itemColumn, UUID.class),
+                rs.getInt(itemColumn + 1),
+                Money.of(rs.getBigDecimal(itemColumn + 2)).getMinorUnits());
+    }
+
+    private SalesLineAnalyticsResponse.Group mapToGroup(SalesLineSnapshot.Group group) {
+        SalesLineAnalyticsResponse.Group response = new SalesLineAnalyticsResponse.Group();
+        response.setKey(group.key() != null ? group.key().toString() : null);
+        response.setUnits(group.units());
+        response.setRevenue(Money.ofMinor(group.cents()).toBigDecimal());
+        response.setLines(group.lines());
+        return response;
+    }
+}
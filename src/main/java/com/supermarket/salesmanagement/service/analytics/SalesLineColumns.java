@@ -0,0 +1,202 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writable columnar store of confirmed order lines, confined to the refresh thread.
+ * A full load appends lines ordered by order id, one sorted run per shard, which gives
+ * a compact sorted index of orders to row ranges; orders confirmed later are appended
+ * and indexed in a map.
+ * Cancelled orders are tombstoned in a bitmap rather than moved, so rows never
+ * change position and published snapshots can share the column arrays. The bitmap
+ * is copied on the first tombstone after a snapshot was taken.
+ */
+final class SalesLineColumns {
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private final UuidDictionary products = new UuidDictionary();
+    private final UuidDictionary shops = new UuidDictionary();
+    private final UuidDictionary customers = new UuidDictionary();
+
+    private int[] product = new int[INITIAL_CAPACITY];
+    private int[] shop = new int[INITIAL_CAPACITY];
+    private int[] customer = new int[INITIAL_CAPACITY];
+    private int[] day = new int[INITIAL_CAPACITY];
+    private int[] quantity = new int[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private long[] deleted = new long[INITIAL_CAPACITY / Long.SIZE];
+    private boolean deletedShared;
+    private int size;
+    private int deletedCount;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+
+    // Orders of the full load in id order within each run; order i owns rows [baseStart[i], baseStart[i + 1])
+    private long[] baseMsb = new long[1024];
+    private long[] baseLsb = new long[1024];
+    private int[] baseStart = new int[1024];
+    private int baseOrders;
+    private int baseRows = -1;
+    private int[] runFirstOrder = {0};
+
+    // Orders appended after the full load: id -> start << 32 | line count
+    private final Map<UUID, Long> appended = new HashMap<>();
+
+    /**
+     * Starts another sorted run of the full load, e.g. the lines of the next shard.
+     */
+    void startBaseRun() {
+        if (runFirstOrder[runFirstOrder.length - 1] != baseOrders) {
+            runFirstOrder = Arrays.copyOf(runFirstOrder, runFirstOrder.length + 1);
+            runFirstOrder[runFirstOrder.length - 1] = baseOrders;
+        }
+    }
+
+    /**
+     * Appends a line during the full load. Within a run lines must arrive grouped and
+     * ordered by order id as PostgreSQL orders uuids (unsigned, most significant bits first).
+     */
+    void appendBaseLine(UUID orderId, Line line) {
+        if (baseRows >= 0) {
+            throw new IllegalStateException("Full load already sealed");
+        }
+        int runFirst = runFirstOrder[runFirstOrder.length - 1];
+        if (baseOrders == runFirst || compare(orderId, baseOrders - 1) != 0) {
+            if (baseOrders > runFirst && compare(orderId, baseOrders - 1) < 0) {
+                throw new IllegalStateException("Lines of the full load must be ordered by order id");
+            }
+            if (baseOrders == baseMsb.length) {
+                baseMsb = Arrays.copyOf(baseMsb, baseOrders * 2);
+                baseLsb = Arrays.copyOf(baseLsb, baseOrders * 2);
+                baseStart = Arrays.copyOf(baseStart, baseOrders * 2);
+            }
+            baseMsb[baseOrders] = orderId.getMostSignificantBits();
+            baseLsb[baseOrders] = orderId.getLeastSignificantBits();
+            baseStart[baseOrders] = size;
+            baseOrders++;
+        }
+        append(line);
+    }
+
+    void sealBase() {
+        baseRows = size;
+    }
+
+    void appendOrder(UUID orderId, List<Line> lines) {
+        if (baseRows < 0) {
+            throw new IllegalStateException("Full load not sealed yet");
+        }
+        int start = size;
+        lines.forEach(this::append);
+        appended.put(orderId, (long) start << 32 | lines.size());
+    }
+
+    /**
+     * @return true if the order's lines are loaded and not tombstoned
+     */
+    boolean contains(UUID orderId) {
+        long range = find(orderId);
+        return range >= 0 && ((int) range == 0 || !isDeleted((int) (range >>> 32)));
+    }
+
+    void removeOrder(UUID orderId) {
+        long range = find(orderId);
+        if (range < 0) {
+            return;
+        }
+        int start = (int) (range >>> 32);
+        int end = start + (int) range;
+        if (deletedShared) {
+            deleted = deleted.clone();
+            deletedShared = false;
+        }
+        for (int row = start; row < end; row++) {
+            if (!isDeleted(row)) {
+                deleted[row >>> 6] |= 1L << row;
+                deletedCount++;
+            }
+        }
+        appended.remove(orderId);
+    }
+
+    int size() {
+        return size;
+    }
+
+    double deletedRatio() {
+        return size == 0 ? 0 : (double) deletedCount / size;
+    }
+
+    SalesLineSnapshot snapshot(LocalDateTime asOf) {
+        deletedShared = true;
+        return new SalesLineSnapshot(asOf, size, deletedCount, product, shop, customer, day, quantity, cents, deleted,
+                minDay, maxDay, products, shops, customers);
+    }
+
+    private void append(Line line) {
+        if (size == product.length) {
+            int capacity = size * 2;
+            product = Arrays.copyOf(product, capacity);
+            shop = Arrays.copyOf(shop, capacity);
+            customer = Arrays.copyOf(customer, capacity);
+            day = Arrays.copyOf(day, capacity);
+            quantity = Arrays.copyOf(quantity, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            deleted = Arrays.copyOf(deleted, capacity / Long.SIZE);
+            deletedShared = false;
+        }
+        int epochDay = (int) line.orderDate().toEpochDay();
+        product[size] = products.encode(line.productId());
+        shop[size] = shops.encode(line.shopId());
+        customer[size] = customers.encode(line.customerId());
+        day[size] = epochDay;
+        quantity[size] = line.quantity();
+        cents[size] = line.cents();
+        minDay = Math.min(minDay, epochDay);
+        maxDay = Math.max(maxDay, epochDay);
+        size++;
+    }
+
+    private boolean isDeleted(int row) {
+        return (deleted[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private long find(UUID orderId) {
+        Long range = appended.get(orderId);
+        if (range != null) {
+            return range;
+        }
+        for (int run = 0; run < runFirstOrder.length; run++) {
+            int low = runFirstOrder[run];
+            int high = (run + 1 < runFirstOrder.length ? runFirstOrder[run + 1] : baseOrders) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compare(orderId, mid);
+                if (cmp == 0) {
+                    int end = mid + 1 < baseOrders ? baseStart[mid + 1] : Math.max(baseRows, 0);
+                    return (long) baseStart[mid] << 32 | (end - baseStart[mid]);
+                }
+                if (cmp > 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int compare(UUID orderId, int baseIndex) {
+        int cmp = Long.compareUnsigned(orderId.getMostSignificantBits(), baseMsb[baseIndex]);
+        return cmp != 0 ? cmp : Long.compareUnsigned(orderId.getLeastSignificantBits(), baseLsb[baseIndex]);
+    }
+
+    record Line(UUID shopId, UUID customerId, LocalDate orderDate, UUID productId, int quantity, long cents) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Filter and grouping over confirmed order lines. Unset filters match everything;
+ * the date range is inclusive on both ends.
+ */
+@Value
+@Builder
+public class SalesLineQuery {
+    UUID productId;
+    UUID shopId;
+    UUID customerId;
+    LocalDate from;
+    LocalDate to;
+    @Builder.Default
+    GroupBy groupBy = GroupBy.NONE;
+}
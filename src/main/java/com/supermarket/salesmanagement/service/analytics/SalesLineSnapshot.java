@@ -0,0 +1,195 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable view of the confirmed order lines as of one refresh. Queries filter and
+ * group with a fork-join scan over the primitive columns: each leaf sums its row
+ * range into its own {@link GroupTotals} and the partial totals are merged on join.
+ */
+public final class SalesLineSnapshot {
+    static final SalesLineSnapshot EMPTY = new SalesLineColumns().snapshot(null);
+
+    private static final int ANY = -1;
+    private static final int MISSING = -2;
+    private static final int MIN_LEAF_ROWS = 1 << 15;
+
+    private final LocalDateTime asOf;
+    private final int size;
+    private final int deletedCount;
+    private final int[] product;
+    private final int[] shop;
+    private final int[] customer;
+    private final int[] day;
+    private final int[] quantity;
+    private final long[] cents;
+    private final long[] deleted;
+    private final int minDay;
+    private final int maxDay;
+    private final UuidDictionary products;
+    private final UuidDictionary shops;
+    private final UuidDictionary customers;
+    private final UUID[] productValues;
+    private final UUID[] shopValues;
+    private final UUID[] customerValues;
+    private final int productCount;
+    private final int shopCount;
+    private final int customerCount;
+
+    SalesLineSnapshot(LocalDateTime asOf, int size, int deletedCount, int[] product, int[] shop, int[] customer,
+                      int[] day, int[] quantity, long[] cents, long[] deleted, int minDay, int maxDay,
+                      UuidDictionary products, UuidDictionary shops, UuidDictionary customers) {
+        this.asOf = asOf;
+        this.size = size;
+        this.deletedCount = deletedCount;
+        this.product = product;
+        this.shop = shop;
+        this.customer = customer;
+        this.day = day;
+        this.quantity = quantity;
+        this.cents = cents;
+        this.deleted = deleted;
+        this.minDay = minDay;
+        this.maxDay = maxDay;
+        this.products = products;
+        this.shops = shops;
+        this.customers = customers;
+        this.productValues = products.values();
+        this.shopValues = shops.values();
+        this.customerValues = customers.values();
+        this.productCount = products.size();
+        this.shopCount = shops.size();
+        this.customerCount = customers.size();
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public int getLineCount() {
+        return size - deletedCount;
+    }
+
+    List<Group> aggregate(SalesLineQuery query, ForkJoinPool pool) {
+        Filter filter = new Filter(
+                code(products, productCount, query.getProductId()),
+                code(shops, shopCount, query.getShopId()),
+                code(customers, customerCount, query.getCustomerId()),
+                query.getFrom() != null ? (int) query.getFrom().toEpochDay() : Integer.MIN_VALUE,
+                query.getTo() != null ? (int) query.getTo().toEpochDay() : Integer.MAX_VALUE);
+        if (size == 0 || filter.product() == MISSING || filter.shop() == MISSING || filter.customer() == MISSING) {
+            return List.of();
+        }
+
+        GroupBy groupBy = query.getGroupBy();
+        int[] keys = switch (groupBy) {
+            case NONE -> null;
+            case SHOP -> shop;
+            case PRODUCT -> product;
+            case CUSTOMER -> customer;
+            case DAY -> day;
+        };
+        int keyOffset = groupBy == GroupBy.DAY ? minDay : 0;
+        int cardinality = switch (groupBy) {
+            case NONE -> 1;
+            case SHOP -> shopCount;
+            case PRODUCT -> productCount;
+            case CUSTOMER -> customerCount;
+            case DAY -> maxDay - minDay + 1;
+        };
+        int leafRows = Math.max(MIN_LEAF_ROWS, size / (pool.getParallelism() * 4));
+        GroupTotals totals = pool.invoke(new Scan(0, size, leafRows, filter, keys, keyOffset, cardinality));
+
+        List<Group> groups = new ArrayList<>();
+        totals.forEach((key, units, amount, lines) -> groups.add(new Group(decode(groupBy, key), units, amount, lines)));
+        return groups;
+    }
+
+    private Object decode(GroupBy groupBy, int key) {
+        return switch (groupBy) {
+            case NONE -> null;
+            case SHOP -> shopValues[key];
+            case PRODUCT -> productValues[key];
+            case CUSTOMER -> customerValues[key];
+            case DAY -> LocalDate.ofEpochDay((long) key + minDay);
+        };
+    }
+
+    private static int code(UuidDictionary dictionary, int count, UUID id) {
+        if (id == null) {
+            return ANY;
+        }
+        int code = dictionary.lookup(id);
+        // Codes assigned after this snapshot was taken cannot match any of its rows
+        return code >= 0 && code < count ? code : MISSING;
+    }
+
+    /**
+     * One group of the result: the shop, product or customer id, the day, or null when ungrouped.
+     */
+    record Group(Object key, long units, long cents, long lines) {
+    }
+
+    private record Filter(int product, int shop, int customer, int fromDay, int toDay) {
+    }
+
+    private final class Scan extends RecursiveTask<GroupTotals> {
+        private final int from;
+        private final int to;
+        private final int leafRows;
+        private final Filter filter;
+        private final int[] keys;
+        private final int keyOffset;
+        private final int cardinality;
+
+        Scan(int from, int to, int leafRows, Filter filter, int[] keys, int keyOffset, int cardinality) {
+            this.from = from;
+            this.to = to;
+            this.leafRows = leafRows;
+            this.filter = filter;
+            this.keys = keys;
+            this.keyOffset = keyOffset;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        protected GroupTotals compute() {
+            if (to - from <= leafRows) {
+                return scan();
+            }
+            int mid = (from + to) >>> 1;
+            Scan left = new Scan(from, mid, leafRows, filter, keys, keyOffset, cardinality);
+            left.fork();
+            GroupTotals totals = new Scan(mid, to, leafRows, filter, keys, keyOffset, cardinality).compute();
+            totals.merge(left.join());
+            return totals;
+        }
+
+        private GroupTotals scan() {
+            GroupTotals totals = new GroupTotals(cardinality);
+            int productCode = filter.product();
+            int shopCode = filter.shop();
+            int customerCode = filter.customer();
+            int fromDay = filter.fromDay();
+            int toDay = filter.toDay();
+            for (int row = from; row < to; row++) {
+                int lineDay = day[row];
+                if (lineDay < fromDay || lineDay > toDay
+                        || (productCode != ANY && product[row] != productCode)
+                        || (shopCode != ANY && shop[row] != shopCode)
+                        || (customerCode != ANY && customer[row] != customerCode)
+                        || (deleted[row >>> 6] & (1L << row)) != 0) {
+                    continue;
+                }
+                totals.add(keys == null ? 0 : keys[row] - keyOffset, quantity[row], cents[row], 1);
+            }
+            return totals;
+        }
+    }
+}
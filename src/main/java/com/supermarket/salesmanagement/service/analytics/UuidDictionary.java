@@ -0,0 +1,46 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only mapping between UUIDs and dense int codes. Only the refresh thread
+ * encodes; queries look codes up concurrently and decode through the values array
+ * captured by their snapshot, whose entries below the captured size never change.
+ */
+final class UuidDictionary {
+    private final Map<UUID, Integer> codes = new ConcurrentHashMap<>();
+    private UUID[] values = new UUID[1024];
+    private int size;
+
+    int encode(UUID id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = id;
+        codes.put(id, size);
+        return size++;
+    }
+
+    /**
+     * @return the code of the id, or -1 if it was never seen
+     */
+    int lookup(UUID id) {
+        Integer code = codes.get(id);
+        return code != null ? code : -1;
+    }
+
+    UUID[] values() {
+        return values;
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,446 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Immutable archive file holding a chunk of closed orders of one month. Orders are
+ * sorted by ID and every field is stored as its own deflated column, so a column of
+ * repeated shop IDs or statuses compresses to almost nothing. The file starts with
+ * an uncompressed {@link IdFilter} over order and invoice IDs, which is all that is
+ * read on startup; the columns are only decoded when a lookup hits the filter.
+ * <pre>
+ * magic, version, orderCount, itemCount, invoiceCount, filterWords, filter[]
+ * orders:   id, customerId, shopId, orderDate, status, totalAmount, createdAt, updatedAt, itemEnd
+ * items:    id, productId, quantity, unitPrice, totalPrice, createdAt, updatedAt (grouped by order)
+ * invoices: id, orderIndex, invoiceDate, paymentStatus, createdAt, updatedAt, invoiceNumber,
+ *           shopId, amountDue, amountPaid (sorted by ID)
+ * </pre>
+ * Each column is {@code [compressed length][deflate stream]}. Version 1 segments have
+ * no invoiceNumber column, versions 1 and 2 none of the columns after it.
+ */
+final class ArchiveSegment {
+    static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x41524331;
+    private static final int VERSION = 3;
+    private static final long NO_NUMBER = 0L;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+    private static final UUID NO_ID = new UUID(0L, 0L);
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .comparingLong(UUID::getMostSignificantBits)
+            .thenComparingLong(UUID::getLeastSignificantBits);
+
+    private final UUID[] orderIds;
+    private final UUID[] customerIds;
+    private final UUID[] shopIds;
+    private final int[] orderDates;
+    private final String[] statuses;
+    private final long[] totalAmounts;
+    private final long[] orderCreatedAt;
+    private final long[] orderUpdatedAt;
+    private final int[] itemEnds;
+    private final UUID[] itemIds;
+    private final UUID[] productIds;
+    private final int[] quantities;
+    private final long[] unitPrices;
+    private final long[] totalPrices;
+    private final long[] itemCreatedAt;
+    private final long[] itemUpdatedAt;
+    private final UUID[] invoiceIds;
+    private final int[] invoiceOrders;
+    private final int[] invoiceDates;
+    private final String[] paymentStatuses;
+    private final long[] invoiceCreatedAt;
+    private final long[] invoiceUpdatedAt;
+    private final long[] invoiceNumbers;
+    private final UUID[] invoiceShopIds;
+    private final long[] amountsDue;
+    private final long[] amountsPaid;
+
+    private ArchiveSegment(DataInputStream in, int version, int orders, int items, int invoices) throws IOException {
+        orderIds = readUuids(in, orders);
+        customerIds = readUuids(in, orders);
+        shopIds = readUuids(in, orders);
+        orderDates = readInts(in, orders);
+        statuses = readStrings(in, orders);
+        totalAmounts = readLongs(in, orders);
+        orderCreatedAt = readLongs(in, orders);
+        orderUpdatedAt = readLongs(in, orders);
+        itemEnds = readInts(in, orders);
+        itemIds = readUuids(in, items);
+        productIds = readUuids(in, items);
+        quantities = readInts(in, items);
+        unitPrices = readLongs(in, items);
+        totalPrices = readLongs(in, items);
+        itemCreatedAt = readLongs(in, items);
+        itemUpdatedAt = readLongs(in, items);
+        invoiceIds = readUuids(in, invoices);
+        invoiceOrders = readInts(in, invoices);
+        invoiceDates = readInts(in, invoices);
+        paymentStatuses = readStrings(in, invoices);
+        invoiceCreatedAt = readLongs(in, invoices);
+        invoiceUpdatedAt = readLongs(in, invoices);
+        invoiceNumbers = version >= 2 ? readLongs(in, invoices) : new long[invoices];
+        invoiceShopIds = version >= 3 ? readUuids(in, invoices) : filled(new UUID[invoices], NO_ID);
+        amountsDue = version >= 3 ? readLongs(in, invoices) : filled(new long[invoices], NO_AMOUNT);
+        amountsPaid = version >= 3 ? readLongs(in, invoices) : filled(new long[invoices], NO_AMOUNT);
+    }
+
+    /**
+     * Writes the orders to a new segment, fsynced and atomically moved into place so
+     * a crash never leaves a partial segment under its final name.
+     */
+    static void write(Path path, List<ArchivedOrder> orders) throws IOException {
+        List<ArchivedOrder> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(ArchivedOrder::id, ID_ORDER));
+        List<ArchivedOrder.Item> items = new ArrayList<>();
+        List<ArchivedOrder.Invoice> invoices = new ArrayList<>();
+        int[] itemEnds = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            items.addAll(sorted.get(i).items());
+            itemEnds[i] = items.size();
+            invoices.addAll(sorted.get(i).invoices());
+        }
+        invoices.sort(Comparator.comparing(ArchivedOrder.Invoice::id, ID_ORDER));
+        IdFilter filter = IdFilter.create(sorted.size() + invoices.size());
+        sorted.forEach(order -> filter.add(order.id()));
+        invoices.forEach(invoice -> filter.add(invoice.id()));
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sorted.size());
+            out.writeInt(items.size());
+            out.writeInt(invoices.size());
+            out.writeInt(filter.words().length);
+            for (long word : filter.words()) {
+                out.writeLong(word);
+            }
+            writeColumn(out, column -> writeUuids(column, sorted.stream().map(ArchivedOrder::id).toList()));
+            writeColumn(out, column -> writeUuids(column, sorted.stream().map(ArchivedOrder::customerId).toList()));
+            writeColumn(out, column -> writeUuids(column, sorted.stream().map(ArchivedOrder::shopId).toList()));
+            writeColumn(out, column -> {
+                for (ArchivedOrder order : sorted) {
+                    column.writeInt((int) order.orderDate().toEpochDay());
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder order : sorted) {
+                    column.writeUTF(order.status());
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder order : sorted) {
+                    column.writeLong(order.totalAmount());
+                }
+            });
+            writeColumn(out, column -> writeTimes(column, sorted.stream().map(ArchivedOrder::createdAt).toList()));
+            writeColumn(out, column -> writeTimes(column, sorted.stream().map(ArchivedOrder::updatedAt).toList()));
+            writeColumn(out, column -> {
+                for (int end : itemEnds) {
+                    column.writeInt(end);
+                }
+            });
+            writeColumn(out, column -> writeUuids(column, items.stream().map(ArchivedOrder.Item::id).toList()));
+            writeColumn(out, column -> writeUuids(column, items.stream().map(ArchivedOrder.Item::productId).toList()));
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Item item : items) {
+                    column.writeInt(item.quantity());
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Item item : items) {
+                    column.writeLong(item.unitPrice());
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Item item : items) {
+                    column.writeLong(item.totalPrice());
+                }
+            });
+            writeColumn(out, column -> writeTimes(column, items.stream().map(ArchivedOrder.Item::createdAt).toList()));
+            writeColumn(out, column -> writeTimes(column, items.stream().map(ArchivedOrder.Item::updatedAt).toList()));
+            writeColumn(out, column -> writeUuids(column, invoices.stream().map(ArchivedOrder.Invoice::id).toList()));
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeInt(indexOf(sorted, invoice.salesOrderId()));
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeInt((int) invoice.invoiceDate().toEpochDay());
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeUTF(invoice.paymentStatus());
+                }
+            });
+            writeColumn(out, column -> writeTimes(column, invoices.stream().map(ArchivedOrder.Invoice::createdAt).toList()));
+            writeColumn(out, column -> writeTimes(column, invoices.stream().map(ArchivedOrder.Invoice::updatedAt).toList()));
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeLong(invoice.invoiceNumber() != null ? invoice.invoiceNumber() : NO_NUMBER);
+                }
+            });
+            writeColumn(out, column -> writeUuids(column, invoices.stream()
+                    .map(invoice -> invoice.shopId() != null ? invoice.shopId() : NO_ID).toList()));
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeLong(invoice.amountDue() != null ? invoice.amountDue() : NO_AMOUNT);
+                }
+            });
+            writeColumn(out, column -> {
+                for (ArchivedOrder.Invoice invoice : invoices) {
+                    column.writeLong(invoice.amountPaid() != null ? invoice.amountPaid() : NO_AMOUNT);
+                }
+            });
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static IdFilter readFilter(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            readHeader(in, path);
+            in.readInt();
+            in.readInt();
+            in.readInt();
+            return readFilterWords(in);
+        }
+    }
+
+    static ArchiveSegment read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            int version = readHeader(in, path);
+            int orders = in.readInt();
+            int items = in.readInt();
+            int invoices = in.readInt();
+            readFilterWords(in);
+            return new ArchiveSegment(in, version, orders, items, invoices);
+        }
+    }
+
+    ArchivedOrder findOrder(UUID id) {
+        int index = search(orderIds, id);
+        return index >= 0 ? order(index) : null;
+    }
+
+    ArchivedOrder.Invoice findInvoice(UUID id) {
+        int index = search(invoiceIds, id);
+        return index >= 0 ? invoice(index) : null;
+    }
+
+    int orderCount() {
+        return orderIds.length;
+    }
+
+    private ArchivedOrder order(int index) {
+        int itemStart = index == 0 ? 0 : itemEnds[index - 1];
+        List<ArchivedOrder.Item> items = new ArrayList<>(itemEnds[index] - itemStart);
+        for (int i = itemStart; i < itemEnds[index]; i++) {
+            items.add(new ArchivedOrder.Item(itemIds[i], productIds[i], quantities[i], unitPrices[i], totalPrices[i],
+                    fromMicros(itemCreatedAt[i]), fromMicros(itemUpdatedAt[i])));
+        }
+        List<ArchivedOrder.Invoice> invoices = new ArrayList<>(1);
+        for (int i = 0; i < invoiceIds.length; i++) {
+            if (invoiceOrders[i] == index) {
+                invoices.add(invoice(i));
+            }
+        }
+        return new ArchivedOrder(orderIds[index], customerIds[index], shopIds[index],
+                LocalDate.ofEpochDay(orderDates[index]), statuses[index], totalAmounts[index],
+                fromMicros(orderCreatedAt[index]), fromMicros(orderUpdatedAt[index]), items, invoices);
+    }
+
+    private ArchivedOrder.Invoice invoice(int index) {
+        return new ArchivedOrder.Invoice(invoiceIds[index], orderIds[invoiceOrders[index]],
+                !NO_ID.equals(invoiceShopIds[index]) ? invoiceShopIds[index] : null,
+                invoiceNumbers[index] != NO_NUMBER ? invoiceNumbers[index] : null, LocalDate.ofEpochDay(invoiceDates[index]), paymentStatuses[index],
+                amountsDue[index] != NO_AMOUNT ? amountsDue[index] : null,
+                amountsPaid[index] != NO_AMOUNT ? amountsPaid[index] : null,
+                fromMicros(invoiceCreatedAt[index]), fromMicros(invoiceUpdatedAt[index]));
+    }
+
+    private static int search(UUID[] sortedIds, UUID id) {
+        int low = 0;
+        int high = sortedIds.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ID_ORDER.compare(sortedIds[mid], id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(List<ArchivedOrder> sorted, UUID orderId) {
+        int low = 0;
+        int high = sorted.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ID_ORDER.compare(sorted.get(mid).id(), orderId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        throw new IllegalArgumentException("Invoice references order " + orderId + " outside the segment");
+    }
+
+    private static int readHeader(DataInputStream in, Path path) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an archive segment: " + path);
+        }
+        int version = in.readInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported archive segment version " + version + ": " + path);
+        }
+        return version;
+    }
+
+    private static IdFilter readFilterWords(DataInputStream in) throws IOException {
+        long[] words = new long[in.readInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+        return IdFilter.of(words);
+    }
+
+    @FunctionalInterface
+    private interface ColumnWriter {
+        void write(DataOutputStream column) throws IOException;
+    }
+
+    private static void writeColumn(DataOutputStream out, ColumnWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream column = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            writer.write(column);
+        }
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+    }
+
+    private static DataInputStream column(DataInputStream in) throws IOException {
+        byte[] bytes = in.readNBytes(in.readInt());
+        InputStream inflated = new InflaterInputStream(new ByteArrayInputStream(bytes));
+        return new DataInputStream(new BufferedInputStream(inflated));
+    }
+
+    private static void writeUuids(DataOutputStream column, List<UUID> ids) throws IOException {
+        for (UUID id : ids) {
+            column.writeLong(id.getMostSignificantBits());
+            column.writeLong(id.getLeastSignificantBits());
+        }
+    }
+
+    private static void writeTimes(DataOutputStream column, List<LocalDateTime> times) throws IOException {
+        for (LocalDateTime time : times) {
+            column.writeLong(toMicros(time));
+        }
+    }
+
+    private static UUID[] readUuids(DataInputStream in, int count) throws IOException {
+        UUID[] values = new UUID[count];
+        try (DataInputStream column = column(in)) {
+            for (int i = 0; i < count; i++) {
+                values[i] = new UUID(column.readLong(), column.readLong());
+            }
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        try (DataInputStream column = column(in)) {
+            for (int i = 0; i < count; i++) {
+                values[i] = column.readInt();
+            }
+        }
+        return values;
+    }
+
+    private static long[] readLongs(DataInputStream in, int count) throws IOException {
+        long[] values = new long[count];
+        try (DataInputStream column = column(in)) {
+            for (int i = 0; i < count; i++) {
+                values[i] = column.readLong();
+            }
+        }
+        return values;
+    }
+
+    private static String[] readStrings(DataInputStream in, int count) throws IOException {
+        String[] values = new String[count];
+        try (DataInputStream column = column(in)) {
+            for (int i = 0; i < count; i++) {
+                // Statuses repeat; share one instance per distinct value
+                values[i] = column.readUTF().intern();
+            }
+        }
+        return values;
+    }
+
+    private static UUID[] filled(UUID[] values, UUID value) {
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    private static long[] filled(long[] values, long value) {
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
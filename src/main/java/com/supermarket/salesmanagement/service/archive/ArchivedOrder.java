@@ -0,0 +1,23 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A closed order with its items and invoices as stored in an archive segment.
+ * Amounts are in minor units; invoice balances are null when the segment predates them.
+ */
+record ArchivedOrder(UUID id, UUID customerId, UUID shopId, LocalDate orderDate, String status, long totalAmount,
+                     LocalDateTime createdAt, LocalDateTime updatedAt, List<Item> items, List<Invoice> invoices) {
+
+    record Item(UUID id, UUID productId, int quantity, long unitPrice, long totalPrice,
+                LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    record Invoice(UUID id, UUID salesOrderId, UUID shopId, Long invoiceNumber, LocalDate invoiceDate,
+                   String paymentStatus, Long amountDue, Long amountPaid,
+                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import java.util.UUID;
+
+/**
+ * Bloom filter over UUIDs, about ten bits per ID for a 1% false-positive rate. It is
+ * the in-memory index of an archive segment: a negative answer skips the segment
+ * without touching its file.
+ */
+final class IdFilter {
+    private static final int BITS_PER_ID = 10;
+    private static final int HASHES = 7;
+
+    private final long[] words;
+
+    private IdFilter(long[] words) {
+        this.words = words;
+    }
+
+    static IdFilter create(int expectedIds) {
+        long bits = Math.max(64L, (long) expectedIds * BITS_PER_ID);
+        return new IdFilter(new long[(int) ((bits + 63) / 64)]);
+    }
+
+    static IdFilter of(long[] words) {
+        return new IdFilter(words);
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    void add(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        long bits = (long) words.length * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(UUID id) {
+        long h1 = mix(id.getMostSignificantBits());
+        long h2 = mix(id.getLeastSignificantBits()) | 1;
+        long bits = (long) words.length * 64;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finalizer of MurmurHash3; UUID halves are not uniformly random for every version
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,476 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.model.SalesOrder;
+import com.supermarket.salesmanagement.model.SalesOrderItem;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves closed (CONFIRMED or CANCELLED) orders older than the retention window, with
+ * their items and invoices, out of the hot tables into {@link ArchiveSegment} files
+ * under one directory per month, and answers by-ID reads of them. Every segment's ID
+ * filter is kept in memory, so a read that misses the hot tables only opens the
+ * segments whose filter matches. A read that misses the archive as well rescans the
+ * directory, at most once per {@code rescan-interval-ms}, for segments written by
+ * other instances.
+ * <p>
+ * A chunk is locked, written to a segment, and then deleted in the same transaction,
+ * so a failure leaves the rows in place and at worst a duplicate segment behind.
+ * Instances sharing the archive need it on shared storage.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+    private static final String SELECT_ORDERS_SQL = """
+            SELECT id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at
+            FROM sales_orders
+            WHERE status IN ('CONFIRMED', 'CANCELLED') AND order_date < ?
+            ORDER BY order_date, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String SELECT_ITEMS_SQL = """
+            SELECT id, sales_order_id, product_id, quantity, unit_price, total_price, created_at, updated_at
+            FROM sales_order_items
+            WHERE sales_order_id = ANY (?) AND order_date < ?
+            """;
+    private static final String SELECT_INVOICES_SQL = """
+            SELECT id, sales_order_id, shop_id, invoice_number, invoice_date, payment_status, amount_due, amount_paid,
+                   created_at, updated_at
+            FROM invoices
+            WHERE sales_order_id = ANY (?)
+            """;
+    private static final String DELETE_INVOICES_SQL = "DELETE FROM invoices WHERE sales_order_id = ANY (?)";
+    private static final String DELETE_ITEMS_SQL =
+            "DELETE FROM sales_order_items WHERE sales_order_id = ANY (?) AND order_date < ?";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM sales_orders WHERE id = ANY (?) AND order_date < ?";
+    private static final String ITEMS_ROLE = SalesOrder.class.getName() + ".items";
+    private static final DateTimeFormatter MONTH_DIRECTORY = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final DateTimeFormatter SEGMENT_NAME = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+    private static final Comparator<Path> NEWEST_FIRST =
+            Comparator.comparing((Path path) -> path.getFileName().toString()).reversed();
+
+    private record SegmentRef(Path path, IdFilter filter) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate chunkTransaction;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final Path directory;
+    private final int afterMonths;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final long rescanIntervalNanos;
+    private final Cache<Path, ArchiveSegment> decodedSegments;
+    // Newest first, so an order archived twice resolves to its latest copy
+    private final List<SegmentRef> segments = new CopyOnWriteArrayList<>();
+    private final Set<Path> indexed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastScan = new AtomicLong(System.nanoTime());
+
+    public OrderArchiveService(JdbcTemplate jdbcTemplate,
+                               ShardRouter shardRouter,
+                               PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${application.archive.enabled:false}") boolean enabled,
+                               @Value("${application.archive.directory:./data/archive}") String directory,
+                               @Value("${application.archive.after-months:12}") int afterMonths,
+                               @Value("${application.archive.chunk-size:5000}") int chunkSize,
+                               @Value("${application.archive.max-chunks-per-run:200}") int maxChunksPerRun,
+                               @Value("${application.archive.segment-cache-size:16}") int segmentCacheSize,
+                               @Value("${application.archive.rescan-interval-ms:10000}") long rescanIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        // Each chunk commits on its own, also when running inside a per-shard transaction
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.afterMonths = afterMonths;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.rescanIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rescanIntervalMs);
+        this.decodedSegments = Caffeine.newBuilder().maximumSize(segmentCacheSize).build();
+    }
+
+    @PostConstruct
+    public void loadIndex() throws IOException {
+        List<SegmentRef> loaded = scan();
+        log.info("Order archive index loaded, directory={} segments={}", directory, loaded.size());
+    }
+
+    /**
+     * Returns the hot row if there is one, otherwise the archived copy; rethrows the
+     * hot path's not-found error if the archive does not have it either.
+     */
+    public SalesOrderResponse readThroughOrder(UUID id, Supplier<SalesOrderResponse> hot) {
+        return readThroughOrder(id, hot, Function.identity());
+    }
+
+    /**
+     * Read-through for a narrower view of the order; the archived copy is shaped into
+     * the same view by {@code fromArchive}.
+     */
+    public <T> T readThroughOrder(UUID id, Supplier<T> hot, Function<SalesOrderResponse, T> fromArchive) {
+        try {
+            return hot.get();
+        } catch (NotFoundException notFound) {
+            return findOrder(id).map(fromArchive).orElseThrow(() -> notFound);
+        }
+    }
+
+    public InvoiceResponse readThroughInvoice(UUID id, Supplier<InvoiceResponse> hot) {
+        try {
+            return hot.get();
+        } catch (NotFoundException notFound) {
+            return findInvoice(id).orElseThrow(() -> notFound);
+        }
+    }
+
+    public Optional<SalesOrderResponse> findOrder(UUID id) {
+        return find(id, ArchiveSegment::findOrder).map(OrderArchiveService::toResponse);
+    }
+
+    public Optional<InvoiceResponse> findInvoice(UUID id) {
+        return find(id, ArchiveSegment::findInvoice).map(OrderArchiveService::toResponse);
+    }
+
+    @Scheduled(cron = "${application.archive.cron:0 0 4 * * *}")
+    public void scheduleArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archives closed orders dated before the first day of the month that is
+     * {@code after-months} ago, chunk by chunk on every shard.
+     *
+     * @return the number of orders archived
+     */
+    public int archive() {
+        LocalDate cutoff = YearMonth.now().minusMonths(afterMonths).atDay(1);
+        AtomicInteger archived = new AtomicInteger();
+        long startedAt = System.nanoTime();
+        shardRouter.routeToEachShard(() -> {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int moved = archiveChunk(cutoff);
+                archived.addAndGet(moved);
+                if (moved < chunkSize) {
+                    break;
+                }
+            }
+        });
+        log.info("Order archive run finished, cutoff={} archivedOrders={} tookMs={}",
+                cutoff, archived.get(), (System.nanoTime() - startedAt) / 1_000_000);
+        return archived.get();
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        List<SegmentRef> written = new ArrayList<>();
+        try {
+            List<ArchivedOrder> orders = chunkTransaction.execute(status -> {
+                List<ArchivedOrder> chunk = selectChunk(cutoff);
+                if (chunk.isEmpty()) {
+                    return chunk;
+                }
+                Map<YearMonth, List<ArchivedOrder>> byMonth = chunk.stream().collect(Collectors.groupingBy(
+                        order -> YearMonth.from(order.orderDate()), LinkedHashMap::new, Collectors.toList()));
+                for (Map.Entry<YearMonth, List<ArchivedOrder>> month : byMonth.entrySet()) {
+                    written.add(writeSegment(month.getKey(), month.getValue()));
+                }
+                // Registered before the delete commits so an archived order is never missing from both places
+                written.forEach(this::register);
+
+                UUID[] ids = chunk.stream().map(ArchivedOrder::id).toArray(UUID[]::new);
+                jdbcTemplate.update(DELETE_INVOICES_SQL, ids(ids));
+                jdbcTemplate.update(DELETE_ITEMS_SQL, ids(ids, cutoff));
+                jdbcTemplate.update(DELETE_ORDERS_SQL, ids(ids, cutoff));
+                return chunk;
+            });
+            evictCached(orders);
+            return orders.size();
+        } catch (RuntimeException e) {
+            for (SegmentRef ref : written) {
+                segments.remove(ref);
+                indexed.remove(ref.path());
+                decodedSegments.invalidate(ref.path());
+                try {
+                    Files.deleteIfExists(ref.path());
+                } catch (IOException deleteFailed) {
+                    e.addSuppressed(deleteFailed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private List<ArchivedOrder> selectChunk(LocalDate cutoff) {
+        List<ArchivedOrder> orders = jdbcTemplate.query(SELECT_ORDERS_SQL, (rs, rowNum) -> new ArchivedOrder(
+                rs.getObject("id", UUID.class),
+                rs.getObject("customer_id", UUID.class),
+                rs.getObject("shop_id", UUID.class),
+                rs.getObject("order_date", LocalDate.class),
+                rs.getString("status"),
+                Money.of(rs.getBigDecimal("total_amount")).getMinorUnits(),
+                time(rs, "created_at"),
+                time(rs, "updated_at"),
+                new ArrayList<>(),
+                new ArrayList<>()), cutoff, chunkSize);
+        if (orders.isEmpty()) {
+            return orders;
+        }
+        Map<UUID, ArchivedOrder> byId = new LinkedHashMap<>();
+        orders.forEach(order -> byId.put(order.id(), order));
+        UUID[] ids = byId.keySet().toArray(UUID[]::new);
+        jdbcTemplate.query(SELECT_ITEMS_SQL, ids(ids, cutoff), rs -> {
+            byId.get(rs.getObject("sales_order_id", UUID.class)).items().add(new ArchivedOrder.Item(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("product_id", UUID.class),
+                    rs.getInt("quantity"),
+                    Money.of(rs.getBigDecimal("unit_price")).getMinorUnits(),
+                    Money.of(rs.getBigDecimal("total_price")).getMinorUnits(),
+                    time(rs, "created_at"),
+                    time(rs, "updated_at")));
+        });
+        jdbcTemplate.query(SELECT_INVOICES_SQL, ids(ids), rs -> {
+            UUID orderId = rs.getObject("sales_order_id", UUID.class);
+            byId.get(orderId).invoices().add(new ArchivedOrder.Invoice(
+                    rs.getObject("id", UUID.class),
+                    orderId,
+                    rs.getObject("shop_id", UUID.class),
+                    rs.getObject("invoice_number", Long.class),
+                    rs.getObject("invoice_date", LocalDate.class),
+                    rs.getString("payment_status"),
+                    minorUnits(rs, "amount_due"),
+                    minorUnits(rs, "amount_paid"),
+                    time(rs, "created_at"),
+                    time(rs, "updated_at")));
+        });
+        return orders;
+    }
+
+    private <T> Optional<T> find(UUID id, BiFunction<ArchiveSegment, UUID, T> lookup) {
+        Optional<T> found = search(segments, id, lookup);
+        if (found.isPresent() || !rescanDue()) {
+            return found;
+        }
+        try {
+            return search(scan(), id, lookup);
+        } catch (IOException e) {
+            log.warn("Could not rescan order archive directory={}", directory, e);
+            return Optional.empty();
+        }
+    }
+
+    private <T> Optional<T> search(List<SegmentRef> refs, UUID id, BiFunction<ArchiveSegment, UUID, T> lookup) {
+        for (SegmentRef ref : refs) {
+            if (ref.filter().mightContain(id)) {
+                T found = lookup.apply(segment(ref.path()), id);
+                if (found != null) {
+                    return Optional.of(found);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean rescanDue() {
+        long last = lastScan.get();
+        long now = System.nanoTime();
+        return now - last >= rescanIntervalNanos && lastScan.compareAndSet(last, now);
+    }
+
+    /**
+     * Indexes the segments not seen yet, such as those written by other instances, and
+     * returns them newest first.
+     */
+    private List<SegmentRef> scan() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> paths;
+        try (Stream<Path> files = Files.walk(directory, 2)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(ArchiveSegment.SUFFIX))
+                    .filter(path -> !indexed.contains(path))
+                    .sorted(NEWEST_FIRST)
+                    .toList();
+        }
+        List<SegmentRef> added = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            SegmentRef ref;
+            try {
+                ref = new SegmentRef(path, ArchiveSegment.readFilter(path));
+            } catch (IOException e) {
+                // Possibly still being written by another instance; picked up by a later scan
+                log.warn("Skipping unreadable archive segment {}", path, e);
+                continue;
+            }
+            if (register(ref)) {
+                added.add(ref);
+            }
+        }
+        return added;
+    }
+
+    // Keeps the index ordered newest first, also when segments of other instances arrive late
+    private synchronized boolean register(SegmentRef ref) {
+        if (!indexed.add(ref.path())) {
+            return false;
+        }
+        int position = 0;
+        while (position < segments.size() && NEWEST_FIRST.compare(segments.get(position).path(), ref.path()) < 0) {
+            position++;
+        }
+        segments.add(position, ref);
+        return true;
+    }
+
+    private SegmentRef writeSegment(YearMonth month, List<ArchivedOrder> orders) {
+        String name = LocalDateTime.now().format(SEGMENT_NAME) + "-"
+                + Integer.toHexString(ThreadLocalRandom.current().nextInt()) + ArchiveSegment.SUFFIX;
+        Path path = directory.resolve(month.format(MONTH_DIRECTORY)).resolve(name);
+        try {
+            ArchiveSegment.write(path, orders);
+            return new SegmentRef(path, ArchiveSegment.readFilter(path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive segment " + path, e);
+        }
+    }
+
+    private ArchiveSegment segment(Path path) {
+        return decodedSegments.get(path, key -> {
+            try {
+                return ArchiveSegment.read(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read archive segment " + key, e);
+            }
+        });
+    }
+
+    private void evictCached(List<ArchivedOrder> orders) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        org.hibernate.Cache collections = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (ArchivedOrder order : orders) {
+            cache.evict(SalesOrder.class, order.id());
+            collections.evictCollectionData(ITEMS_ROLE, order.id());
+            order.items().forEach(item -> cache.evict(SalesOrderItem.class, item.id()));
+            order.invoices().forEach(invoice -> cache.evict(Invoice.class, invoice.id()));
+        }
+    }
+
+    private static PreparedStatementSetter ids(UUID[] ids) {
+        return statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids));
+    }
+
+    private static PreparedStatementSetter ids(UUID[] ids, LocalDate cutoff) {
+        return statement -> {
+            statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids));
+            statement.setObject(2, cutoff);
+        };
+    }
+
+    private static Long minorUnits(ResultSet rs, String column) throws SQLException {
+        BigDecimal amount = rs.getBigDecimal(column);
+        return amount != null ? Money.of(amount).getMinorUnits() : null;
+    }
+
+    private static LocalDateTime time(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static SalesOrderResponse toResponse(ArchivedOrder order) {
+        SalesOrderResponse response = new SalesOrderResponse();
+        response.setId(order.id());
+        response.setCustomerId(order.customerId());
+        response.setShopId(order.shopId());
+        response.setOrderDate(order.orderDate());
+        response.setStatus(OrderStatus.valueOf(order.status()));
+        response.setCreatedAt(order.createdAt());
+        response.setUpdatedAt(order.updatedAt());
+        response.setTotalAmount(Money.ofMinor(order.totalAmount()).toBigDecimal());
+        response.setItems(order.items().stream()
+                .map(item -> {
+                    SalesOrderResponse.OrderItemResponse itemResponse = new SalesOrderResponse.OrderItemResponse();
+                    itemResponse.setId(item.id());
+                    itemResponse.setProductId(item.productId());
+                    itemResponse.setQuantity(item.quantity());
+                    itemResponse.setUnitPrice(Money.ofMinor(item.unitPrice()).toBigDecimal());
+                    itemResponse.setTotalPrice(Money.ofMinor(item.totalPrice()).toBigDecimal());
+                    itemResponse.setCreatedAt(item.createdAt());
+                    itemResponse.setUpdatedAt(item.updatedAt());
+                    return itemResponse;
+                })
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    private static InvoiceResponse toResponse(ArchivedOrder.Invoice invoice) {
+        InvoiceResponse response = new InvoiceResponse();
+        response.setId(invoice.id());
+        response.setSalesOrderId(invoice.salesOrderId());
+        response.setInvoiceNumber(invoice.invoiceNumber());
+        response.setInvoiceDate(invoice.invoiceDate());
+        response.setPaymentStatus(PaymentStatus.valueOf(invoice.paymentStatus()));
+        response.setAmountDue(invoice.amountDue() != null ? Money.ofMinor(invoice.amountDue()).toBigDecimal() : null);
+        response.setAmountPaid(invoice.amountPaid() != null ? Money.ofMinor(invoice.amountPaid()).toBigDecimal() : null);
+        response.setCreatedAt(invoice.createdAt());
+        response.setUpdatedAt(invoice.updatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,277 @@
+package com.supermarket.salesmanagement.service.basket;
+
+import com.supermarket.salesmanagement.model.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of draft basket mutations in a fixed-size memory-mapped file.
+ * Records are framed as {@code [length][crc32c][body]} and describe resulting state
+ * (the whole line after a merge, not the delta), so replaying one twice is harmless.
+ * Replay stops at the first zero length or checksum mismatch, which drops a record
+ * torn by a crash.
+ * <p>
+ * Writes land in the page cache and survive a crash of the process; {@code force}
+ * also flushes every record to disk to survive losing the machine. When the file is
+ * full it is rewritten with one snapshot per live basket and atomically swapped in.
+ * <p>
+ * Each mutation takes the matching change to the live baskets and applies it before
+ * appending, under the journal's monitor: a compaction, whether triggered by this
+ * append or another thread's, then always snapshots baskets that already hold the
+ * change, and the record appended after it only repeats it.
+ */
+final class BasketJournal implements Closeable {
+    static final byte OPEN = 1;
+    static final byte PUT_LINE = 2;
+    static final byte REMOVE_LINE = 3;
+    static final byte CLOSE = 4;
+
+    private static final int MAGIC = 0x42534b31;
+    private static final int HEADER_BYTES = 8;
+    private static final int FRAME_BYTES = 8;
+    private static final int MAX_BODY_BYTES = 128;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Path path;
+    private final int capacity;
+    private final boolean force;
+    private final Supplier<Collection<DraftBasket>> liveBaskets;
+    private final ByteBuffer body = ByteBuffer.allocate(MAX_BODY_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    BasketJournal(Path path, int capacity, boolean force, Supplier<Collection<DraftBasket>> liveBaskets) {
+        this.path = path;
+        this.capacity = capacity;
+        this.force = force;
+        this.liveBaskets = liveBaskets;
+    }
+
+    /**
+     * Maps the journal, creating it if missing, and returns the baskets that were
+     * open when it was last written. Appends continue after the last valid record.
+     */
+    synchronized Map<UUID, DraftBasket> open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_BYTES;
+        map();
+        Map<UUID, DraftBasket> baskets = new LinkedHashMap<>();
+        if (!exists || buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.position(HEADER_BYTES);
+            return baskets;
+        }
+        int position = HEADER_BYTES;
+        while (position + FRAME_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > MAX_BODY_BYTES || position + FRAME_BYTES + length > capacity) {
+                break;
+            }
+            ByteBuffer record = buffer.slice(position + FRAME_BYTES, length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            apply(record, baskets);
+            position += FRAME_BYTES + length;
+        }
+        buffer.position(position);
+        return baskets;
+    }
+
+    synchronized void open(DraftBasket basket, Runnable register) {
+        register.run();
+        append(encodeOpen(basket));
+        for (DraftBasket.Line line : basket.getLines()) {
+            append(encodeLine(basket.getOrderId(), line, basket.getUpdatedAt()));
+        }
+    }
+
+    synchronized void putLine(UUID orderId, DraftBasket.Line line, LocalDateTime at, Runnable change) {
+        change.run();
+        append(encodeLine(orderId, line, at));
+    }
+
+    synchronized void removeLine(UUID orderId, UUID itemId, LocalDateTime at, Runnable change) {
+        change.run();
+        begin(REMOVE_LINE, orderId, at);
+        putUuid(itemId);
+        append(body.flip());
+    }
+
+    synchronized void close(UUID orderId, Runnable unregister) {
+        unregister.run();
+        begin(CLOSE, orderId, LocalDateTime.now());
+        append(body.flip());
+    }
+
+    /**
+     * Rewrites the journal with only the live baskets and swaps it in, so a crash
+     * mid-way leaves either the old or the new file in place.
+     */
+    synchronized void compact() {
+        Path next = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            int position;
+            try (FileChannel nextChannel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer target = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                target.putInt(MAGIC).putInt(0);
+                for (DraftBasket basket : liveBaskets.get()) {
+                    write(target, encodeOpen(basket));
+                    for (DraftBasket.Line line : basket.getLines()) {
+                        write(target, encodeLine(basket.getOrderId(), line, basket.getUpdatedAt()));
+                    }
+                }
+                target.force();
+                position = target.position();
+            }
+            Files.move(next, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            channel.close();
+            map();
+            buffer.position(position);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compact basket journal " + path, e);
+        }
+    }
+
+    synchronized int size() {
+        return buffer.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    private void append(ByteBuffer record) {
+        if (buffer.remaining() < FRAME_BYTES + record.remaining()) {
+            ByteBuffer pending = ByteBuffer.allocate(record.remaining()).put(record).flip();
+            compact();
+            if (buffer.remaining() < FRAME_BYTES + pending.remaining()) {
+                throw new IllegalStateException("Basket journal " + path + " is too small for the open baskets");
+            }
+            record = pending;
+        }
+        int start = buffer.position();
+        write(buffer, record);
+        if (force) {
+            buffer.force(start, buffer.position() - start);
+        }
+    }
+
+    private void write(MappedByteBuffer target, ByteBuffer record) {
+        crc.reset();
+        crc.update(record.duplicate());
+        target.putInt(record.remaining()).putInt((int) crc.getValue()).put(record);
+    }
+
+    private ByteBuffer encodeOpen(DraftBasket basket) {
+        begin(OPEN, basket.getOrderId(), basket.getUpdatedAt());
+        putUuid(basket.getCustomerId());
+        putUuid(basket.getShopId());
+        body.putLong(basket.getOrderDate().toEpochDay());
+        body.putLong(toMicros(basket.getCreatedAt()));
+        return body.flip();
+    }
+
+    private ByteBuffer encodeLine(UUID orderId, DraftBasket.Line line, LocalDateTime at) {
+        begin(PUT_LINE, orderId, at);
+        putUuid(line.itemId());
+        putUuid(line.productId());
+        body.putInt(line.quantity());
+        body.putLong(line.unitPrice().getMinorUnits());
+        body.putLong(line.totalPrice().getMinorUnits());
+        body.putLong(toMicros(line.createdAt()));
+        body.putLong(toMicros(line.updatedAt()));
+        return body.flip();
+    }
+
+    private void begin(byte type, UUID orderId, LocalDateTime at) {
+        body.clear();
+        body.put(type);
+        putUuid(orderId);
+        body.putLong(toMicros(at));
+    }
+
+    private void putUuid(UUID id) {
+        body.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+    }
+
+    private static void apply(ByteBuffer record, Map<UUID, DraftBasket> baskets) {
+        byte type = record.get();
+        UUID orderId = getUuid(record);
+        LocalDateTime at = fromMicros(record.getLong());
+        switch (type) {
+            case OPEN -> baskets.put(orderId, new DraftBasket(orderId, getUuid(record), getUuid(record),
+                    LocalDate.ofEpochDay(record.getLong()), fromMicros(record.getLong()), at));
+            case PUT_LINE -> {
+                DraftBasket basket = baskets.get(orderId);
+                DraftBasket.Line line = new DraftBasket.Line(getUuid(record), getUuid(record), record.getInt(),
+                        Money.ofMinor(record.getLong()), Money.ofMinor(record.getLong()),
+                        fromMicros(record.getLong()), fromMicros(record.getLong()));
+                if (basket != null) {
+                    basket.put(line, at);
+                }
+            }
+            case REMOVE_LINE -> {
+                DraftBasket basket = baskets.get(orderId);
+                UUID itemId = getUuid(record);
+                if (basket != null) {
+                    basket.remove(itemId, at);
+                }
+            }
+            case CLOSE -> baskets.remove(orderId);
+            default -> throw new IllegalStateException("Unknown basket journal record type " + type);
+        }
+    }
+
+    private static UUID getUuid(ByteBuffer record) {
+        return new UUID(record.getLong(), record.getLong());
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,121 @@
+package com.supermarket.salesmanagement.service.basket;
+
+import com.supermarket.salesmanagement.model.Money;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-memory state of one DRAFT order while it is being scanned. Mutations happen
+ * under the order's lock in {@link DraftBasketService}; the lines are an immutable
+ * list swapped on every change so readers and journal compaction never see a
+ * half-applied mutation.
+ */
+final class DraftBasket {
+    record Line(UUID itemId, UUID productId, int quantity, Money unitPrice, Money totalPrice,
+                LocalDateTime createdAt, LocalDateTime updatedAt) {
+    }
+
+    private final UUID orderId;
+    private final UUID customerId;
+    private final UUID shopId;
+    private final LocalDate orderDate;
+    private final LocalDateTime createdAt;
+    private volatile List<Line> lines = List.of();
+    private volatile LocalDateTime updatedAt;
+
+    DraftBasket(UUID orderId, UUID customerId, UUID shopId, LocalDate orderDate,
+                LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+        this.shopId = shopId;
+        this.orderDate = orderDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    UUID getOrderId() {
+        return orderId;
+    }
+
+    UUID getCustomerId() {
+        return customerId;
+    }
+
+    UUID getShopId() {
+        return shopId;
+    }
+
+    LocalDate getOrderDate() {
+        return orderDate;
+    }
+
+    LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    List<Line> getLines() {
+        return lines;
+    }
+
+    Line findByProduct(UUID productId) {
+        for (Line line : lines) {
+            if (line.productId().equals(productId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    Line findByItem(UUID itemId) {
+        for (Line line : lines) {
+            if (line.itemId().equals(itemId)) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the line with the same item ID in place, or appends it.
+     */
+    void put(Line line, LocalDateTime at) {
+        List<Line> next = new ArrayList<>(lines.size() + 1);
+        boolean replaced = false;
+        for (Line existing : lines) {
+            if (existing.itemId().equals(line.itemId())) {
+                next.add(line);
+                replaced = true;
+            } else {
+                next.add(existing);
+            }
+        }
+        if (!replaced) {
+            next.add(line);
+        }
+        lines = List.copyOf(next);
+        updatedAt = at;
+    }
+
+    void remove(UUID itemId, LocalDateTime at) {
+        List<Line> next = new ArrayList<>(lines);
+        next.removeIf(line -> line.itemId().equals(itemId));
+        lines = List.copyOf(next);
+        updatedAt = at;
+    }
+
+    Money total() {
+        long total = 0L;
+        for (Line line : lines) {
+            total = Math.addExact(total, line.totalPrice().getMinorUnits());
+        }
+        return Money.ofMinor(total);
+    }
+}
@@ -0,0 +1,371 @@
+package com.supermarket.salesmanagement.service.basket;
+
+import com.supermarket.salesmanagement.dto.request.SalesOrderItemAddRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.event.OrderStatusEvent;
+import com.supermarket.salesmanagement.event.OrderStatusPublisher;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.model.SalesOrder;
+import com.supermarket.salesmanagement.model.SalesOrderItem;
+import com.supermarket.salesmanagement.model.UuidV7;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.service.client.ProductClient;
+import com.supermarket.salesmanagement.service.pricing.BasketLine;
+import com.supermarket.salesmanagement.service.pricing.PriceEngine;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.sharding.ShardedEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in store that keeps DRAFT orders in memory while items are scanned, so adding
+ * and removing items costs a journal append instead of a database transaction. An
+ * order enters the store on its first item change, every change is written ahead to
+ * a {@link BasketJournal}, and the basket is written back to sales_orders and
+ * sales_order_items in one batch before anything else touches the order (status
+ * changes, invoicing, updates, deletion) or after it has been idle for a while.
+ * <p>
+ * Per-order locks are striped, and the store is local to the process: every request
+ * for an order must reach the same instance while it is being scanned.
+ */
+@Service
+@Slf4j
+public class DraftBasketService {
+    private static final String UPDATE_ORDER_SQL = """
+            UPDATE sales_orders SET total_amount = ?, updated_at = ?
+            WHERE id = ? AND order_date = ? AND status = 'DRAFT'
+            """;
+    private static final String DELETE_ITEMS_SQL =
+            "DELETE FROM sales_order_items WHERE sales_order_id = ? AND order_date = ?";
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO sales_order_items
+                (id, sales_order_id, order_date, product_id, quantity, unit_price, total_price, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+    private static final String ITEMS_ROLE = SalesOrder.class.getName() + ".items";
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final ProductClient productClient;
+    private final PriceEngine priceEngine;
+    private final OrderStatusPublisher orderStatusPublisher;
+    private final ShardRouter shardRouter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enabled;
+    private final Path journalPath;
+    private final int journalBytes;
+    private final boolean forceWrites;
+    private final long idleFlushAfterSeconds;
+    private final ReentrantLock[] locks;
+    private final Map<UUID, DraftBasket> baskets = new ConcurrentHashMap<>();
+
+    private BasketJournal journal;
+
+    public DraftBasketService(SalesOrderRepository salesOrderRepository,
+                              ProductClient productClient,
+                              PriceEngine priceEngine,
+                              OrderStatusPublisher orderStatusPublisher,
+                              ShardRouter shardRouter,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              @Value("${application.basket.enabled:false}") boolean enabled,
+                              @Value("${application.basket.journal-path:./data/draft-baskets.journal}") String journalPath,
+                              @Value("${application.basket.journal-size-mb:64}") int journalSizeMb,
+                              @Value("${application.basket.force-writes:false}") boolean forceWrites,
+                              @Value("${application.basket.idle-flush-after-seconds:900}") long idleFlushAfterSeconds,
+                              @Value("${application.basket.lock-stripes:1024}") int lockStripes) {
+        this.salesOrderRepository = salesOrderRepository;
+        this.productClient = productClient;
+        this.priceEngine = priceEngine;
+        this.orderStatusPublisher = orderStatusPublisher;
+        this.shardRouter = shardRouter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.journalPath = Path.of(journalPath);
+        this.journalBytes = Math.multiplyExact(journalSizeMb, 1024 * 1024);
+        this.forceWrites = forceWrites;
+        this.idleFlushAfterSeconds = idleFlushAfterSeconds;
+        this.locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new BasketJournal(journalPath, journalBytes, forceWrites, baskets::values);
+        Map<UUID, DraftBasket> recovered = journal.open();
+        baskets.putAll(recovered);
+        journal.compact();
+        log.info("Draft basket store enabled, journal={} recoveredBaskets={}", journalPath, recovered.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SalesOrderResponse addItem(UUID orderId, SalesOrderItemAddRequest request) {
+        // Checked before taking the lock so a slow product service does not hold up the order's stripe
+        productClient.getProductById(request.getProductId());
+        validateItem(request.getQuantity(), request.getUnitPrice());
+        Money unitPrice = Money.of(request.getUnitPrice());
+        SalesOrderResponse response = withLock(orderId, () -> {
+            DraftBasket basket = basketFor(orderId, "add items to");
+            priceEngine.verifyBasket(basket.getOrderDate(),
+                    List.of(new BasketLine(request.getProductId(), request.getQuantity(), unitPrice)));
+
+            LocalDateTime now = LocalDateTime.now();
+            DraftBasket.Line existing = basket.findByProduct(request.getProductId());
+            DraftBasket.Line line;
+            if (existing != null) {
+                // Merge into the existing line at the weighted average unit price, as the database path does
+                int quantity = existing.quantity() + request.getQuantity();
+                Money totalPrice = existing.totalPrice().plus(unitPrice.times(request.getQuantity()));
+                line = new DraftBasket.Line(existing.itemId(), existing.productId(), quantity,
+                        totalPrice.dividedBy(quantity, RoundingMode.HALF_UP), totalPrice, existing.createdAt(), now);
+            } else {
+                line = new DraftBasket.Line(UuidV7.next(), request.getProductId(), request.getQuantity(),
+                        unitPrice, unitPrice.times(request.getQuantity()), now, now);
+            }
+            journal.putLine(orderId, line, now, () -> basket.put(line, now));
+            return toResponse(basket);
+        });
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(orderId, response.getShopId(), OrderStatus.DRAFT));
+        return response;
+    }
+
+    public SalesOrderResponse deleteItem(UUID orderId, UUID itemId) {
+        SalesOrderResponse response = withLock(orderId, () -> {
+            DraftBasket basket = basketFor(orderId, "delete items from");
+            if (basket.findByItem(itemId) == null) {
+                throw new NotFoundException("Sales order item with ID " + itemId + " not found in order " + orderId);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            journal.removeLine(orderId, itemId, now, () -> basket.remove(itemId, now));
+            return toResponse(basket);
+        });
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(orderId, response.getShopId(), OrderStatus.DRAFT));
+        return response;
+    }
+
+    /**
+     * Current state of the order if it is being scanned, which is newer than what the
+     * database holds.
+     */
+    public Optional<SalesOrderResponse> find(UUID orderId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        DraftBasket basket = baskets.get(orderId);
+        return basket != null ? Optional.of(toResponse(basket)) : Optional.empty();
+    }
+
+    /**
+     * Writes the order's basket back to the database, if it has one, and runs the
+     * action while still holding the order's lock so no scan can reopen the basket
+     * before the action has committed.
+     */
+    public <T> T flushThen(UUID orderId, Supplier<T> action) {
+        if (!enabled || orderId == null) {
+            return action.get();
+        }
+        return withLock(orderId, () -> {
+            DraftBasket basket = baskets.get(orderId);
+            if (basket != null) {
+                flush(basket);
+            }
+            return action.get();
+        });
+    }
+
+    /**
+     * Writes back the baskets of those orders that have one.
+     */
+    public void flush(Collection<UUID> orderIds) {
+        if (!enabled) {
+            return;
+        }
+        for (UUID orderId : orderIds) {
+            if (baskets.containsKey(orderId)) {
+                flushThen(orderId, () -> null);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.basket.idle-check-interval-ms:60000}")
+    public void flushIdleBaskets() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime idleSince = LocalDateTime.now().minusSeconds(idleFlushAfterSeconds);
+        for (DraftBasket basket : baskets.values()) {
+            if (basket.getUpdatedAt().isBefore(idleSince)) {
+                flushQuietly(basket.getOrderId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // Best effort; whatever cannot be written back stays in the journal for the next start
+        baskets.keySet().forEach(this::flushQuietly);
+        journal.close();
+    }
+
+    int openBaskets() {
+        return baskets.size();
+    }
+
+    private void flushQuietly(UUID orderId) {
+        try {
+            flushThen(orderId, () -> null);
+        } catch (RuntimeException e) {
+            log.warn("Could not write back draft basket orderId={}", orderId, e);
+        }
+    }
+
+    private void flush(DraftBasket basket) {
+        UUID orderId = basket.getOrderId();
+        List<DraftBasket.Line> lines = basket.getLines();
+        boolean applied = shardRouter.onEntity(ShardedEntity.SALES_ORDER, orderId, () -> transaction.execute(status -> {
+            int updated = jdbcTemplate.update(UPDATE_ORDER_SQL, basket.total().toBigDecimal(),
+                    Timestamp.valueOf(basket.getUpdatedAt()), orderId, basket.getOrderDate());
+            if (updated == 0) {
+                return false;
+            }
+            jdbcTemplate.update(DELETE_ITEMS_SQL, orderId, basket.getOrderDate());
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, lines, lines.size(), (statement, line) -> {
+                statement.setObject(1, line.itemId());
+                statement.setObject(2, orderId);
+                statement.setObject(3, basket.getOrderDate());
+                statement.setObject(4, line.productId());
+                statement.setInt(5, line.quantity());
+                statement.setBigDecimal(6, line.unitPrice().toBigDecimal());
+                statement.setBigDecimal(7, line.totalPrice().toBigDecimal());
+                statement.setTimestamp(8, line.createdAt() != null ? Timestamp.valueOf(line.createdAt()) : null);
+                statement.setTimestamp(9, line.updatedAt() != null ? Timestamp.valueOf(line.updatedAt()) : null);
+            });
+            return true;
+        }));
+        if (!applied) {
+            log.warn("Discarding draft basket of order {} that is no longer a DRAFT in the database", orderId);
+        }
+        evictCached(orderId, lines);
+        journal.close(orderId, () -> baskets.remove(orderId));
+    }
+
+    private void evictCached(UUID orderId, List<DraftBasket.Line> lines) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(SalesOrder.class, orderId);
+        lines.forEach(line -> cache.evict(SalesOrderItem.class, line.itemId()));
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictCollectionData(ITEMS_ROLE, orderId);
+    }
+
+    private DraftBasket basketFor(UUID orderId, String action) {
+        DraftBasket basket = baskets.get(orderId);
+        if (basket != null) {
+            return basket;
+        }
+        DraftBasket loaded = shardRouter.onEntity(ShardedEntity.SALES_ORDER, orderId, () -> transaction.execute(status -> {
+            SalesOrder salesOrder = salesOrderRepository.findById(orderId)
+                    .orElseThrow(() -> new NotFoundException("Sales order with ID " + orderId + " not found"));
+            if (salesOrder.getStatus() != OrderStatus.DRAFT) {
+                throw new CustomException("Cannot " + action + " a " + salesOrder.getStatus().name().toLowerCase() + " order");
+            }
+            DraftBasket draft = new DraftBasket(orderId, salesOrder.getCustomerId(), salesOrder.getShopId(),
+                    salesOrder.getOrderDate(), salesOrder.getCreatedAt(), salesOrder.getUpdatedAt());
+            for (SalesOrderItem item : salesOrder.getItems()) {
+                draft.put(new DraftBasket.Line(item.getId(), item.getProductId(), item.getQuantity(),
+                        item.getUnitPrice(), item.getTotalPrice(), item.getCreatedAt(), item.getUpdatedAt()),
+                        salesOrder.getUpdatedAt());
+            }
+            return draft;
+        }));
+        journal.open(loaded, () -> baskets.put(orderId, loaded));
+        return loaded;
+    }
+
+    private <T> T withLock(UUID orderId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(orderId.hashCode(), locks.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void validateItem(Integer quantity, BigDecimal unitPrice) {
+        if (quantity <= 0) {
+            throw new CustomException("Quantity must be greater than zero");
+        }
+        if (unitPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new CustomException("Unit price must be greater than zero");
+        }
+    }
+
+    private SalesOrderResponse toResponse(DraftBasket basket) {
+        SalesOrderResponse response = new SalesOrderResponse();
+        response.setId(basket.getOrderId());
+        response.setCustomerId(basket.getCustomerId());
+        response.setShopId(basket.getShopId());
+        response.setOrderDate(basket.getOrderDate());
+        response.setStatus(OrderStatus.DRAFT);
+        response.setCreatedAt(basket.getCreatedAt());
+        response.setUpdatedAt(basket.getUpdatedAt());
+        response.setTotalAmount(basket.total().toBigDecimal());
+        response.setItems(basket.getLines().stream()
+                .map(line -> {
+                    SalesOrderResponse.OrderItemResponse itemResponse = new SalesOrderResponse.OrderItemResponse();
+                    itemResponse.setId(line.itemId());
+                    itemResponse.setProductId(line.productId());
+                    itemResponse.setQuantity(line.quantity());
+                    itemResponse.setUnitPrice(line.unitPrice().toBigDecimal());
+                    itemResponse.setTotalPrice(line.totalPrice().toBigDecimal());
+                    itemResponse.setCreatedAt(line.createdAt());
+                    itemResponse.setUpdatedAt(line.updatedAt());
+                    return itemResponse;
+                })
+                .collect(Collectors.toList()));
+        return response;
+    }
+}
@@ -1,15 +1,21 @@
-//package com.supermarket.salesmanagement.service.client;
-//
-//import com.supermarket.salesmanagement.config.FeignClientConfig;
-//import org.springframework.cloud.openfeign.FeignClient;
-//import org.springframework.web.bind.annotation.GetMapping;
-//import org.springframework.web.bind.annotation.PathVariable;
-//
-//import java.math.BigDecimal;
-//import java.util.UUID;
-//
-//@FeignClient(name = "price-list-service", url = "${application.price.service.url}", configuration = FeignClientConfig.class)
-//public interface PriceListClient {
-//    @GetMapping("/api/v1/prices/{productId}")
-//    BigDecimal getProductPrice(@PathVariable("productId") UUID productId);
-//}to
\ No newline at end of file
+package com.supermarket.salesmanagement.service.client;
+
+import com.supermarket.salesmanagement.config.FeignClientConfig;
+import com.supermarket.salesmanagement.dto.response.PriceListResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@FeignClient(name = "price-list-management", url = "${application.price.service.url}", configuration = FeignClientConfig.class)
+public interface PriceListClient {
+    @GetMapping("/api/v1/price-lists/all")
+    List<PriceListResponse> getAllPrices();
+
+    @GetMapping("/api/v1/price-lists/changes")
+    List<PriceListResponse> getPricesUpdatedSince(
+            @RequestParam("updatedSince") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedSince);
+}
@@ -0,0 +1,44 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign transport decorator that shortens the configured connect and read timeouts
+ * to what is left of the request's deadline, and does not call out at all once it
+ * has passed.
+ */
+public class DeadlineClient implements Client {
+    private final Client delegate;
+
+    public DeadlineClient(Client delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String operation = request.httpMethod() + " " + request.url();
+        Duration left = RequestDeadline.check(operation).orElse(null);
+        if (left == null) {
+            return delegate.execute(request, options);
+        }
+        long leftMillis = Math.max(1, left.toMillis());
+        Request.Options bounded = new Request.Options(
+                Math.min(options.connectTimeoutMillis(), leftMillis), TimeUnit.MILLISECONDS,
+                Math.min(options.readTimeoutMillis(), leftMillis), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+        try {
+            return delegate.execute(request, bounded);
+        } catch (IOException e) {
+            if (RequestDeadline.expired()) {
+                throw new DeadlineExceededException(operation, e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Wraps JDBC connections so every statement created during a request gets the rest
+ * of the request's budget as its query timeout; the driver cancels the statement
+ * (SQLState 57014, as for statement_timeout) when it runs out. A statement is
+ * not even created once the deadline has passed.
+ */
+public final class DeadlineConnections {
+    private DeadlineConnections() {
+    }
+
+    public static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handler(connection));
+    }
+
+    private record Handler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean createsStatement = switch (method.getName()) {
+                case "createStatement", "prepareStatement", "prepareCall" -> true;
+                default -> false;
+            };
+            Duration left = createsStatement ? RequestDeadline.check("SQL statement").orElse(null) : null;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (left != null) {
+                applyTimeout((Statement) result, left);
+            }
+            return result;
+        }
+
+        // JDBC timeouts are whole seconds; round up so a short budget is not turned into no timeout
+        private static void applyTimeout(Statement statement, Duration left) throws SQLException {
+            int seconds = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (left.toMillis() + 999) / 1000));
+            if (statement.getQueryTimeout() == 0 || statement.getQueryTimeout() > seconds) {
+                statement.setQueryTimeout(seconds);
+            }
+        }
+    }
+}
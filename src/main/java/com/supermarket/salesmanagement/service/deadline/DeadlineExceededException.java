@@ -0,0 +1,15 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+/**
+ * The request's deadline passed before the named operation could run or finish;
+ * nobody is waiting for the answer any more.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String operation) {
+        super("Request deadline exceeded before " + operation);
+    }
+
+    public DeadlineExceededException(String operation, Throwable cause) {
+        super("Request deadline exceeded during " + operation, cause);
+    }
+}
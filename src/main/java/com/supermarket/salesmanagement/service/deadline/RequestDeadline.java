@@ -0,0 +1,64 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The deadline of the request being handled on this thread, set by
+ * {@code RequestDeadlineFilter}. Work outside a request (scheduled jobs, startup)
+ * has no deadline and is never cut short.
+ */
+public final class RequestDeadline {
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * Runs bookkeeping that has to happen however late the request is, such as recording
+     * its outcome, without the deadline, and puts the deadline back afterwards.
+     */
+    public static void suspendWhile(Runnable work) {
+        Long deadline = DEADLINE_NANOS.get();
+        DEADLINE_NANOS.remove();
+        try {
+            work.run();
+        } finally {
+            if (deadline != null) {
+                DEADLINE_NANOS.set(deadline);
+            }
+        }
+    }
+
+    /**
+     * Time left until the deadline, negative once it has passed; empty without a deadline.
+     */
+    public static Optional<Duration> remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    public static boolean expired() {
+        return remaining().map(left -> left.isNegative() || left.isZero()).orElse(false);
+    }
+
+    /**
+     * Fails fast instead of starting {@code operation} for a request that has run out
+     * of time; otherwise returns the time left, if there is a deadline.
+     */
+    public static Optional<Duration> check(String operation) {
+        Optional<Duration> left = remaining();
+        if (left.isPresent() && (left.get().isNegative() || left.get().isZero())) {
+            throw new DeadlineExceededException(operation);
+        }
+        return left;
+    }
+}
@@ -0,0 +1,87 @@
+package com.supermarket.salesmanagement.service.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Durable side of idempotency handling, shared by all instances through the
+ * idempotency_keys table. Statements run outside the business transaction so a
+ * claim is visible to other instances as soon as it is made.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyStore {
+    static final String IN_PROGRESS = "IN_PROGRESS";
+    static final String COMPLETED = "COMPLETED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the key for the calling request. An existing claim is only taken over
+     * when it is stale (its owner died mid-request) or its stored response expired.
+     *
+     * @return true if this request now owns the key
+     */
+    public boolean claim(String principal, String key, String fingerprint, LocalDateTime now,
+                         LocalDateTime staleBefore, LocalDateTime expiresAt) {
+        int updated = jdbcTemplate.update("""
+                        INSERT INTO idempotency_keys (principal, idempotency_key, fingerprint, status, locked_at, expires_at)
+                        VALUES (?, ?, ?, 'IN_PROGRESS', ?, ?)
+                        ON CONFLICT (principal, idempotency_key) DO UPDATE
+                            SET fingerprint = EXCLUDED.fingerprint,
+                                status = 'IN_PROGRESS',
+                                response_status = NULL,
+                                response_content_type = NULL,
+                                response_body = NULL,
+                                locked_at = EXCLUDED.locked_at,
+                                expires_at = EXCLUDED.expires_at
+                            WHERE (idempotency_keys.status = 'IN_PROGRESS' AND idempotency_keys.locked_at < ?)
+                               OR idempotency_keys.expires_at < ?
+                        """,
+                principal, key, fingerprint, Timestamp.valueOf(now), Timestamp.valueOf(expiresAt),
+                Timestamp.valueOf(staleBefore), Timestamp.valueOf(now));
+        return updated == 1;
+    }
+
+    /**
+     * @return the stored response, or a response with status 0 while the key is still in progress
+     */
+    public Optional<StoredResponse> find(String principal, String key) {
+        List<StoredResponse> rows = jdbcTemplate.query("""
+                        SELECT fingerprint, status, response_status, response_content_type, response_body
+                        FROM idempotency_keys
+                        WHERE principal = ? AND idempotency_key = ?
+                        """,
+                (rs, rowNum) -> new StoredResponse(
+                        rs.getString("fingerprint"),
+                        COMPLETED.equals(rs.getString("status")) ? rs.getInt("response_status") : 0,
+                        rs.getString("response_content_type"),
+                        rs.getBytes("response_body")),
+                principal, key);
+        return rows.stream().findFirst();
+    }
+
+    public void complete(String principal, String key, StoredResponse response) {
+        jdbcTemplate.update("""
+                        UPDATE idempotency_keys
+                        SET status = 'COMPLETED', response_status = ?, response_content_type = ?, response_body = ?
+                        WHERE principal = ? AND idempotency_key = ?
+                        """,
+                response.getStatus(), response.getContentType(), response.getBody(), principal, key);
+    }
+
+    public void release(String principal, String key) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE principal = ? AND idempotency_key = ? AND status = 'IN_PROGRESS'",
+                principal, key);
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(now));
+    }
+}
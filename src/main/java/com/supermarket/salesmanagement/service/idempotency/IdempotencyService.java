@@ -0,0 +1,198 @@
+package com.supermarket.salesmanagement.service.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides what to do with a request carrying an Idempotency-Key. Completed
+ * responses are served from an in-memory front cache and, on a miss, from the
+ * idempotency_keys table. Duplicates arriving while the first request is still
+ * running on this instance wait for its response instead of running it again.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private final IdempotencyKeyStore store;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lockTimeout;
+
+    public IdempotencyService(IdempotencyKeyStore store,
+                              @Value("${application.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${application.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs,
+                              @Value("${application.idempotency.lock-timeout-ms:60000}") long lockTimeoutMs,
+                              @Value("${application.idempotency.cache-size:10000}") long cacheSize) {
+        this.store = store;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        this.lockTimeout = Duration.ofMillis(lockTimeoutMs);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public static String fingerprint(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(method.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Starts handling a request. When the returned decision is {@link Decision.Type#PROCEED}
+     * the caller owns the key and must finish with {@link #complete} or {@link #abort}.
+     */
+    public Decision begin(String principal, String key, String fingerprint) {
+        String scope = scope(principal, key);
+        StoredResponse cached = completed.getIfPresent(scope);
+        if (cached != null) {
+            return replayOrMismatch(cached, fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scope, mine);
+        if (running != null) {
+            return awaitRunning(running, fingerprint);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (store.claim(principal, key, fingerprint, now, now.minus(lockTimeout), now.plus(ttl))) {
+                return Decision.proceed();
+            }
+            Optional<StoredResponse> stored = store.find(principal, key);
+            if (stored.isPresent() && !stored.get().isPending()) {
+                completed.put(scope, stored.get());
+                inFlight.remove(scope, mine);
+                mine.complete(stored.get());
+                return replayOrMismatch(stored.get(), fingerprint);
+            }
+        } catch (RuntimeException e) {
+            inFlight.remove(scope, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        // Claimed by a request running on another instance
+        inFlight.remove(scope, mine);
+        mine.completeExceptionally(new IllegalStateException("Idempotency key is held by another instance"));
+        return Decision.inProgress();
+    }
+
+    /**
+     * Records the response of the request that owned the key. Only successful
+     * responses are kept; anything else releases the key so the client can retry.
+     */
+    public void complete(String principal, String key, StoredResponse response) {
+        String scope = scope(principal, key);
+        try {
+            if (response.isSuccessful()) {
+                store.complete(principal, key, response);
+                completed.put(scope, response);
+            } else {
+                store.release(principal, key);
+            }
+        } finally {
+            CompletableFuture<StoredResponse> mine = inFlight.remove(scope);
+            if (mine != null) {
+                mine.complete(response);
+            }
+        }
+    }
+
+    public void abort(String principal, String key, Throwable cause) {
+        String scope = scope(principal, key);
+        try {
+            store.release(principal, key);
+        } finally {
+            CompletableFuture<StoredResponse> mine = inFlight.remove(scope);
+            if (mine != null) {
+                mine.completeExceptionally(cause);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${application.idempotency.cleanup-cron:0 15 * * * *}")
+    public void deleteExpired() {
+        int deleted = store.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Decision awaitRunning(CompletableFuture<StoredResponse> running, String fingerprint) {
+        try {
+            return replayOrMismatch(running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS), fingerprint);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Decision.inProgress();
+        } catch (ExecutionException | TimeoutException e) {
+            return Decision.inProgress();
+        }
+    }
+
+    private static Decision replayOrMismatch(StoredResponse response, String fingerprint) {
+        return response.getFingerprint().equals(fingerprint) ? Decision.replay(response) : Decision.mismatch();
+    }
+
+    private static String scope(String principal, String key) {
+        return principal + '\n' + key;
+    }
+
+    @Getter
+    public static final class Decision {
+        public enum Type { PROCEED, REPLAY, MISMATCH, IN_PROGRESS }
+
+        private final Type type;
+        private final StoredResponse response;
+
+        private Decision(Type type, StoredResponse response) {
+            this.type = type;
+            this.response = response;
+        }
+
+        static Decision proceed() {
+            return new Decision(Type.PROCEED, null);
+        }
+
+        static Decision replay(StoredResponse response) {
+            return new Decision(Type.REPLAY, response);
+        }
+
+        static Decision mismatch() {
+            return new Decision(Type.MISMATCH, null);
+        }
+
+        static Decision inProgress() {
+            return new Decision(Type.IN_PROGRESS, null);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.supermarket.salesmanagement.service.idempotency;
+
+import lombok.Value;
+
+/**
+ * Response recorded for an idempotency key together with the fingerprint of the
+ * request that produced it. A status of 0 marks a key whose first request has
+ * not finished yet.
+ */
+@Value
+public class StoredResponse {
+    String fingerprint;
+    int status;
+    String contentType;
+    byte[] body;
+
+    public boolean isPending() {
+        return status == 0;
+    }
+
+    public boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+}
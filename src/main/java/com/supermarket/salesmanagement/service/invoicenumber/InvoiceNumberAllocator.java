@@ -0,0 +1,170 @@
+package com.supermarket.salesmanagement.service.invoicenumber;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out invoice numbers, sequential per shop.
+ * <p>
+ * In block mode every instance reserves ranges of {@code block-size} numbers of a shop
+ * from the database (hi/lo) and serves them from memory, where taking a number is one
+ * atomic increment and nothing locks. A caller that finds no numbers left reserves the
+ * next range in its own transaction and keeps the first number; the rest of the range
+ * is served to others only once that transaction commits, so a rollback cannot hand
+ * out a number twice, and no second connection is needed while the caller holds one.
+ * Since the counter row then stays locked until that commit, only one caller per shop
+ * refills at a time: the others wait up to {@code refill-wait-ms} for its range and
+ * reserve their own only if it does not arrive.
+ * Numbers are unique across instances but not gapless: the rest of a range is lost
+ * when an instance stops, invoices rolled back leave holes, and numbers from two
+ * instances interleave.
+ * <p>
+ * Shops in {@code gapless-shops}, or every shop with {@code mode: gapless}, take their
+ * number from the counter row one at a time. That gives an unbroken sequence at the
+ * cost of serialising invoice creation for the shop, since the row stays locked until
+ * the invoice commits.
+ */
+@Service
+public class InvoiceNumberAllocator {
+    private final InvoiceNumberStore store;
+    private final int blockSize;
+    private final boolean gaplessByDefault;
+    private final Set<UUID> gaplessShops;
+    private final long refillWaitMs;
+    private final ConcurrentHashMap<UUID, Queue<Block>> blocksByShop = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Refill> refills = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(InvoiceNumberStore store,
+                                  @Value("${application.invoice-numbers.mode:block}") String mode,
+                                  @Value("${application.invoice-numbers.block-size:100}") int blockSize,
+                                  @Value("${application.invoice-numbers.gapless-shops:}") String gaplessShops,
+                                  @Value("${application.invoice-numbers.refill-wait-ms:200}") long refillWaitMs) {
+        if (!"block".equals(mode) && !"gapless".equals(mode)) {
+            throw new IllegalArgumentException("application.invoice-numbers.mode must be block or gapless, not " + mode);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("application.invoice-numbers.block-size must be positive");
+        }
+        this.store = store;
+        this.blockSize = blockSize;
+        this.refillWaitMs = refillWaitMs;
+        this.gaplessByDefault = "gapless".equals(mode);
+        this.gaplessShops = Arrays.stream(gaplessShops.split(","))
+                .map(String::trim)
+                .filter(shop -> !shop.isEmpty())
+                .map(UUID::fromString)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Next invoice number of the shop. Must be called in the transaction that stores
+     * the invoice.
+     */
+    public long allocate(UUID shopId) {
+        if (gaplessByDefault || gaplessShops.contains(shopId) || blockSize == 1) {
+            return store.reserve(shopId, 1);
+        }
+        Queue<Block> blocks = blocksByShop.computeIfAbsent(shopId, shop -> new ConcurrentLinkedQueue<>());
+        while (true) {
+            long number = take(blocks);
+            if (number > 0) {
+                return number;
+            }
+            Refill refill = new Refill();
+            Refill running = refills.putIfAbsent(shopId, refill);
+            if (running == null) {
+                return reserve(shopId, blocks, refill);
+            }
+            // A refill of this thread's own transaction is only served once it commits
+            if (running.owner == Thread.currentThread() || !running.await(refillWaitMs)) {
+                return reserve(shopId, blocks, null);
+            }
+        }
+    }
+
+    private static long take(Queue<Block> blocks) {
+        for (Block block; (block = blocks.peek()) != null; ) {
+            long number = block.take();
+            if (number > 0) {
+                return number;
+            }
+            blocks.remove(block);
+        }
+        return 0;
+    }
+
+    private long reserve(UUID shopId, Queue<Block> blocks, Refill refill) {
+        long last;
+        try {
+            last = store.reserve(shopId, blockSize);
+        } catch (RuntimeException e) {
+            if (refill != null) {
+                refill.finish(shopId, refills);
+            }
+            throw e;
+        }
+        long first = last - blockSize + 1;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                blocks.add(new Block(first + 1, last));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (refill != null) {
+                    refill.finish(shopId, refills);
+                }
+            }
+        });
+        return first;
+    }
+
+    private static final class Refill {
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        boolean await(long timeoutMs) {
+            try {
+                return done.await(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void finish(UUID shopId, ConcurrentHashMap<UUID, Refill> refills) {
+            refills.remove(shopId, this);
+            done.countDown();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        // 0 once the block is used up; numbers start at 1
+        long take() {
+            long number = next.getAndIncrement();
+            return number <= last ? number : 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.supermarket.salesmanagement.service.invoicenumber;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Per-shop invoice number counters in invoice_number_counters. The counter row of a
+ * shop lives on the shop's shard, next to its invoices.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InvoiceNumberStore {
+    private static final String ADVANCE_SQL = """
+            INSERT INTO invoice_number_counters (shop_id, last_value)
+            VALUES (?, ?)
+            ON CONFLICT (shop_id) DO UPDATE
+                SET last_value = invoice_number_counters.last_value + EXCLUDED.last_value,
+                    updated_at = CURRENT_TIMESTAMP
+            RETURNING last_value
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserves the next {@code count} numbers of the shop in the caller's transaction.
+     * The counter row stays locked until that transaction ends, and a rollback returns
+     * the numbers.
+     *
+     * @return the highest reserved number
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reserve(UUID shopId, int count) {
+        return jdbcTemplate.queryForObject(ADVANCE_SQL, Long.class, shopId, count);
+    }
+}
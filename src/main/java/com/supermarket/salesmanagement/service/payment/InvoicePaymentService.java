@@ -0,0 +1,214 @@
+package com.supermarket.salesmanagement.service.payment;
+
+import com.supermarket.salesmanagement.dto.request.PaymentCreateRequest;
+import com.supermarket.salesmanagement.dto.response.PaymentResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.InvoicePayment;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.repository.InvoicePaymentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Payments against invoices. Every payment or reversal is appended to invoice_payments,
+ * and the invoice's paid-to-date balance and payment status move with one in-place
+ * increment of its row, guarded so the balance stays between zero and the amount due.
+ * Concurrent payments to an invoice therefore queue only on that row's lock for the
+ * length of the UPDATE; nothing is read first and the history is never summed.
+ * The second-level cache entry of the invoice is evicted once the payment commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvoicePaymentService {
+    private static final String APPLY_SQL = """
+            UPDATE invoices i
+            SET amount_paid = i.amount_paid + p.amount,
+                payment_status = CASE
+                    WHEN i.amount_paid + p.amount >= i.amount_due THEN 'PAID'
+                    WHEN i.amount_paid + p.amount > 0 THEN 'PARTIALLY_PAID'
+                    ELSE 'UNPAID' END,
+                updated_at = ?
+            FROM (SELECT CAST(? AS NUMERIC(12, 2)) AS amount) p
+            WHERE i.id = ? AND i.amount_due IS NOT NULL AND i.amount_paid + p.amount BETWEEN 0 AND i.amount_due
+            RETURNING i.amount_due, i.amount_paid, i.payment_status
+            """;
+    private static final String BALANCE_SQL = "SELECT amount_due, amount_paid FROM invoices WHERE id = ?";
+    private static final String LOCK_BALANCE_SQL =
+            "SELECT amount_due, amount_paid, payment_status FROM invoices WHERE id = ? FOR UPDATE";
+    private static final String SET_STATUS_SQL = "UPDATE invoices SET payment_status = ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoicePaymentRepository invoicePaymentRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Balance of an invoice after a payment was applied.
+     */
+    public record Balance(Money amountDue, Money amountPaid, PaymentStatus paymentStatus) {
+    }
+
+    @Transactional
+    public PaymentResponse recordPayment(UUID invoiceId, PaymentCreateRequest request) {
+        Money amount;
+        try {
+            amount = Money.of(request.getAmount());
+        } catch (ArithmeticException e) {
+            throw new CustomException("Payment amount must be in whole cents");
+        }
+        if (amount.signum() == 0) {
+            throw new CustomException("Payment amount must not be zero");
+        }
+        LocalDateTime paidAt = request.getPaidAt() != null ? request.getPaidAt() : LocalDateTime.now();
+        return mapToPaymentResponse(apply(invoiceId, amount, request.getMethod(), request.getReference(), paidAt));
+    }
+
+    /**
+     * Pays whatever is outstanding on the invoice. No payment is recorded when it is
+     * already fully paid; an invoice for nothing, issued UNPAID, is only marked PAID.
+     */
+    @Transactional
+    public Balance settle(UUID invoiceId, String method, String reference) {
+        Map.Entry<Balance, String> locked = jdbcTemplate.query(LOCK_BALANCE_SQL, rs -> rs.next()
+                ? Map.entry(balance(rs.getBigDecimal("amount_due"), rs.getBigDecimal("amount_paid")),
+                        rs.getString("payment_status"))
+                : null, invoiceId);
+        if (locked == null) {
+            throw new NotFoundException("Invoice with ID " + invoiceId + " not found");
+        }
+        Balance current = locked.getKey();
+        if (current.amountDue() == null) {
+            throw notOnLedger(invoiceId);
+        }
+        Money outstanding = current.amountDue().minus(current.amountPaid());
+        if (outstanding.signum() == 0) {
+            if (!current.paymentStatus().name().equals(locked.getValue())) {
+                jdbcTemplate.update(SET_STATUS_SQL, current.paymentStatus().name(),
+                        Timestamp.valueOf(LocalDateTime.now()), invoiceId);
+                evictAfterCommit(invoiceId);
+            }
+            return current;
+        }
+        InvoicePayment payment = apply(invoiceId, outstanding, method, reference, LocalDateTime.now());
+        return new Balance(current.amountDue(), payment.getAmountPaidAfter(), PaymentStatus.PAID);
+    }
+
+    /**
+     * Records the payment of an invoice that is issued already paid in full, as a
+     * checkout does; the invoice must have been inserted with its balance settled.
+     */
+    @Transactional
+    public void recordPaidOnIssue(Invoice invoice, String method) {
+        invoicePaymentRepository.save(InvoicePayment.builder()
+                .invoiceId(invoice.getId())
+                .amount(invoice.getAmountDue())
+                .amountPaidAfter(invoice.getAmountPaid())
+                .method(method)
+                .paidAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getPayments(UUID invoiceId) {
+        List<InvoicePayment> payments = invoicePaymentRepository.findByInvoiceIdOrderByCreatedAtAscIdAsc(invoiceId);
+        if (payments.isEmpty() && !invoiceExists(invoiceId)) {
+            throw new NotFoundException("Invoice with ID " + invoiceId + " not found");
+        }
+        return payments.stream().map(this::mapToPaymentResponse).toList();
+    }
+
+    private InvoicePayment apply(UUID invoiceId, Money amount, String method, String reference, LocalDateTime paidAt) {
+        Balance balance = jdbcTemplate.query(APPLY_SQL, rs -> rs.next()
+                        ? new Balance(Money.of(rs.getBigDecimal("amount_due")), Money.of(rs.getBigDecimal("amount_paid")),
+                                PaymentStatus.valueOf(rs.getString("payment_status")))
+                        : null,
+                Timestamp.valueOf(LocalDateTime.now()), amount.toBigDecimal(), invoiceId);
+        if (balance == null) {
+            throw rejected(invoiceId, amount);
+        }
+        evictAfterCommit(invoiceId);
+        // Flushed now so the response carries the insert timestamp
+        return invoicePaymentRepository.saveAndFlush(InvoicePayment.builder()
+                .invoiceId(invoiceId)
+                .amount(amount)
+                .amountPaidAfter(balance.amountPaid())
+                .method(method)
+                .reference(reference)
+                .paidAt(paidAt)
+                .build());
+    }
+
+    // Only runs when the guarded UPDATE matched nothing, to say why
+    private CustomException rejected(UUID invoiceId, Money amount) {
+        Balance current = jdbcTemplate.query(BALANCE_SQL, rs -> rs.next()
+                ? balance(rs.getBigDecimal("amount_due"), rs.getBigDecimal("amount_paid"))
+                : null, invoiceId);
+        if (current == null) {
+            return new NotFoundException("Invoice with ID " + invoiceId + " not found");
+        }
+        if (current.amountDue() == null) {
+            return notOnLedger(invoiceId);
+        }
+        if (amount.isPositive()) {
+            return new CustomException("Payment of " + amount + " exceeds the outstanding amount "
+                    + current.amountDue().minus(current.amountPaid()) + " of invoice with ID " + invoiceId);
+        }
+        return new CustomException("Reversal of " + Money.ZERO.minus(amount) + " exceeds the amount "
+                + current.amountPaid() + " paid on invoice with ID " + invoiceId);
+    }
+
+    private static CustomException notOnLedger(UUID invoiceId) {
+        return new CustomException("Invoice with ID " + invoiceId
+                + " was issued before payments were recorded; set its payment status instead");
+    }
+
+    private static Balance balance(BigDecimal amountDue, BigDecimal amountPaid) {
+        Money paid = Money.of(amountPaid);
+        if (amountDue == null) {
+            return new Balance(null, paid, null);
+        }
+        Money due = Money.of(amountDue);
+        return new Balance(due, paid, PaymentStatus.of(due, paid));
+    }
+
+    private boolean invoiceExists(UUID invoiceId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM invoices WHERE id = ?)", Boolean.class, invoiceId));
+    }
+
+    private void evictAfterCommit(UUID invoiceId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(Invoice.class, invoiceId);
+            }
+        });
+    }
+
+    private PaymentResponse mapToPaymentResponse(InvoicePayment payment) {
+        PaymentResponse response = new PaymentResponse();
+        response.setId(payment.getId());
+        response.setInvoiceId(payment.getInvoiceId());
+        response.setAmount(payment.getAmount().toBigDecimal());
+        response.setAmountPaidAfter(payment.getAmountPaidAfter().toBigDecimal());
+        response.setMethod(payment.getMethod());
+        response.setReference(payment.getReference());
+        response.setPaidAt(payment.getPaidAt());
+        response.setCreatedAt(payment.getCreatedAt());
+        return response;
+    }
+}
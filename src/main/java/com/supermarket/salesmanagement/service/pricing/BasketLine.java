@@ -0,0 +1,15 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class BasketLine {
+    private UUID productId;
+    private Integer quantity;
+    private Money unitPrice;
+}
@@ -0,0 +1,136 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.dto.response.PriceListResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.Money;
+import com.supermarket.salesmanagement.service.client.PriceListClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Prices and verifies baskets against the local {@link PriceIndex} instead of
+ * calling the price list service once per line. The index is loaded in bulk on
+ * startup and then kept current with incremental change feeds. If the price list
+ * service is down at startup the application still starts; the load is retried by the
+ * next refresh or the first basket that needs verifying.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PriceEngine {
+    // Timestamps carry microseconds; asking from just before the high-water mark makes the exclusive feed inclusive
+    private static final Duration HIGH_WATER_OVERLAP = Duration.ofNanos(1_000);
+
+    private final PriceListClient priceListClient;
+    private final PriceIndex priceIndex = new PriceIndex();
+
+    @Value("${application.price.enabled:false}")
+    private boolean enabled;
+
+    @Value("${application.price.default-customer-category:STANDARD}")
+    private String defaultCustomerCategory;
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            loadAll();
+        } catch (Exception e) {
+            log.warn("Price index not loaded at startup, will retry on next use: {}", e.getMessage());
+        }
+    }
+
+    // Serialised with refresh(), so a bulk load never replaces changes fetched after it
+    public synchronized void loadAll() {
+        if (!enabled) {
+            return;
+        }
+        List<PriceListResponse> prices = priceListClient.getAllPrices();
+        priceIndex.loadAll(prices);
+        loaded = true;
+        log.info("Price index loaded with {} entries", priceIndex.size());
+    }
+
+    @Scheduled(fixedDelayString = "${application.price.refresh-interval-ms:60000}",
+            initialDelayString = "${application.price.refresh-interval-ms:60000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = priceIndex.getLastUpdatedAt();
+        if (!loaded || since == null) {
+            loadAll();
+            return;
+        }
+        List<PriceListResponse> changes = priceListClient.getPricesUpdatedSince(since.minus(HIGH_WATER_OVERLAP));
+        int applied = priceIndex.upsertAll(changes);
+        if (applied > 0) {
+            log.debug("Price index refreshed with {} changed entries", applied);
+        }
+    }
+
+    public Money priceFor(UUID productId, String customerCategory, LocalDate date) {
+        Money price = priceIndex.priceFor(productId, customerCategory, date);
+        if (price == null && customerCategory != null && !customerCategory.equalsIgnoreCase(defaultCustomerCategory)) {
+            price = priceIndex.priceFor(productId, defaultCustomerCategory, date);
+        }
+        return price;
+    }
+
+    public PricedBasket priceBasket(String customerCategory, LocalDate date, List<BasketLine> lines) {
+        String category = customerCategory != null ? customerCategory : defaultCustomerCategory;
+        List<PricedBasket.PricedLine> priced = new ArrayList<>(lines.size());
+        long total = 0L;
+        for (BasketLine line : lines) {
+            Money listPrice = priceFor(line.getProductId(), category, date);
+            priced.add(new PricedBasket.PricedLine(line.getProductId(), line.getQuantity(), line.getUnitPrice(), listPrice));
+            if (listPrice != null) {
+                total = Math.addExact(total, Math.multiplyExact(listPrice.getMinorUnits(), (long) line.getQuantity()));
+            }
+        }
+        return new PricedBasket(priced, Money.ofMinor(total));
+    }
+
+    public void verifyBasket(LocalDate date, List<BasketLine> lines) {
+        if (!enabled || lines.isEmpty()) {
+            return;
+        }
+        if (!loaded) {
+            try {
+                loadAll();
+            } catch (Exception e) {
+                throw new CustomException("Price list is unavailable, prices cannot be verified: " + e.getMessage());
+            }
+        }
+        PricedBasket basket = priceBasket(null, date, lines);
+        for (PricedBasket.PricedLine line : basket.getLines()) {
+            if (line.getListUnitPrice() == null) {
+                throw new CustomException("No price list entry for product " + line.getProductId() + " on " + date);
+            }
+            if (!line.isMatching()) {
+                throw new CustomException("Unit price " + line.getRequestedUnitPrice() + " for product " + line.getProductId()
+                        + " does not match price list price " + line.getListUnitPrice());
+            }
+        }
+    }
+
+    PriceIndex getPriceIndex() {
+        return priceIndex;
+    }
+}
@@ -0,0 +1,129 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.dto.response.PriceListResponse;
+import com.supermarket.salesmanagement.model.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of price list entries keyed by product and customer category.
+ * Each key holds its prices ordered by effective date, so the price in force on a
+ * given day is a single floor lookup. Readers never lock; a bulk load builds a new
+ * index and swaps it in, incremental updates are applied in place. Both run under the
+ * index's monitor, so a swap never drops an update applied while it was being built.
+ */
+@Slf4j
+public class PriceIndex {
+
+    private volatile Snapshot snapshot = new Snapshot();
+
+    public synchronized void loadAll(Collection<PriceListResponse> prices) {
+        Snapshot fresh = new Snapshot();
+        prices.forEach(fresh::put);
+        this.snapshot = fresh;
+    }
+
+    /**
+     * Applies changed entries and returns how many were new. An entry already held with
+     * the same update time is skipped, so change feeds may overlap.
+     */
+    public synchronized int upsertAll(Collection<PriceListResponse> prices) {
+        Snapshot current = this.snapshot;
+        int applied = 0;
+        for (PriceListResponse price : prices) {
+            if (current.put(price)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    public Money priceFor(UUID productId, String customerCategory, LocalDate date) {
+        NavigableMap<LocalDate, PricePoint> byDate = snapshot.prices.get(new Key(productId, normalize(customerCategory)));
+        if (byDate == null) {
+            return null;
+        }
+        Map.Entry<LocalDate, PricePoint> entry = byDate.floorEntry(date);
+        return entry != null ? entry.getValue().price() : null;
+    }
+
+    public LocalDateTime getLastUpdatedAt() {
+        return snapshot.lastUpdatedAt;
+    }
+
+    public int size() {
+        return snapshot.byId.size();
+    }
+
+    static String normalize(String customerCategory) {
+        return customerCategory == null ? "" : customerCategory.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record Key(UUID productId, String customerCategory) {
+    }
+
+    private record PricePoint(UUID priceId, Money price) {
+    }
+
+    private static final class Snapshot {
+        private final Map<Key, NavigableMap<LocalDate, PricePoint>> prices = new ConcurrentHashMap<>();
+        private final Map<UUID, PriceListResponse> byId = new ConcurrentHashMap<>();
+        private volatile LocalDateTime lastUpdatedAt;
+
+        private boolean put(PriceListResponse price) {
+            if (price.getProductId() == null || price.getEffectiveDate() == null || price.getPrice() == null) {
+                return false;
+            }
+            // Converted before anything is touched, so a bad entry is skipped whole rather than half applied
+            Money amount;
+            try {
+                amount = Money.of(price.getPrice(), RoundingMode.HALF_UP);
+            } catch (ArithmeticException e) {
+                log.warn("Skipping price list entry {}: price {} is out of range", price.getId(), price.getPrice());
+                return false;
+            }
+            if (price.getId() != null) {
+                PriceListResponse held = byId.get(price.getId());
+                if (held != null && Objects.equals(updatedAt(held), updatedAt(price))) {
+                    return false;
+                }
+                // An updated entry may have moved to another product, category or date
+                PriceListResponse previous = byId.put(price.getId(), price);
+                if (previous != null) {
+                    NavigableMap<LocalDate, PricePoint> old = prices.get(keyOf(previous));
+                    if (old != null) {
+                        old.computeIfPresent(previous.getEffectiveDate(),
+                                (date, point) -> price.getId().equals(point.priceId()) ? null : point);
+                    }
+                }
+            }
+            prices.computeIfAbsent(keyOf(price), key -> new ConcurrentSkipListMap<>())
+                    .put(price.getEffectiveDate(), new PricePoint(price.getId(), amount));
+
+            LocalDateTime updatedAt = updatedAt(price);
+            if (updatedAt != null && (lastUpdatedAt == null || updatedAt.isAfter(lastUpdatedAt))) {
+                lastUpdatedAt = updatedAt;
+            }
+            return true;
+        }
+
+        private static LocalDateTime updatedAt(PriceListResponse price) {
+            return price.getUpdatedAt() != null ? price.getUpdatedAt() : price.getCreatedAt();
+        }
+
+        private static Key keyOf(PriceListResponse price) {
+            return new Key(price.getProductId(), normalize(price.getCustomerCategory()));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class PricedBasket {
+    private List<PricedLine> lines;
+    private Money totalAmount;
+
+    public boolean isValid() {
+        return lines.stream().allMatch(PricedLine::isMatching);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class PricedLine {
+        private UUID productId;
+        private Integer quantity;
+        private Money requestedUnitPrice;
+        private Money listUnitPrice;
+
+        public boolean isMatching() {
+            return listUnitPrice != null
+                    && (requestedUnitPrice == null || requestedUnitPrice.equals(listUnitPrice));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.supermarket.salesmanagement.sharding;
+
+/**
+ * Shard selected for the current thread; read by {@link ShardRoutingDataSource} when a
+ * transaction or statement acquires its connection.
+ */
+final class ShardContext {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    static Integer set(Integer shard) {
+        Integer previous = CURRENT.get();
+        if (shard == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(shard);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,98 @@
+package com.supermarket.salesmanagement.sharding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maps order and invoice ids to their shard through the shard_directory table on
+ * shard 0, so lookups by id go straight to one shard. Entries never change and are
+ * cached. Ids the directory does not know (rows from before sharding, or a create
+ * whose directory write failed) are searched for shard by shard once and then recorded;
+ * ids found nowhere are remembered for a while so lookups of missing ids stay on shard 0.
+ */
+@Slf4j
+public class ShardDirectory {
+    private final JdbcTemplate directory;
+    private final Map<Integer, DataSource> shards;
+    private final Cache<UUID, Integer> cache;
+    private final Cache<UUID, Boolean> misses;
+
+    public ShardDirectory(DataSource directoryDataSource, Map<Integer, DataSource> shards, long cacheSize,
+                          long missCacheSize, Duration missTtl) {
+        this.directory = new JdbcTemplate(directoryDataSource);
+        this.shards = shards;
+        this.cache = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        this.misses = Caffeine.newBuilder().maximumSize(missCacheSize).expireAfterWrite(missTtl).build();
+    }
+
+    /**
+     * Records the shard count on first start and rejects any other count later: shops
+     * without a pinned shard are placed by hash modulo the count, so a new count would
+     * send their orders to shards that do not hold them. To change it, pin every shop
+     * with orders in application.sharding.shop-shards, then update shard_layout.
+     */
+    public void checkShardCount(int shardCount) {
+        directory.update("INSERT INTO shard_layout (id, shard_count) VALUES (1, ?) ON CONFLICT (id) DO NOTHING",
+                shardCount);
+        Integer recorded = directory.queryForObject("SELECT shard_count FROM shard_layout WHERE id = 1", Integer.class);
+        if (recorded == null || recorded != shardCount) {
+            throw new IllegalStateException("Sharding is configured with " + shardCount
+                    + " shards but the shard directory was created with " + recorded + "; pin every shop with orders"
+                    + " in application.sharding.shop-shards and update shard_layout.shard_count before changing it");
+        }
+    }
+
+    public void register(ShardedEntity entity, UUID id, int shard) {
+        directory.update("""
+                        INSERT INTO shard_directory (entity_id, entity_type, shard_id)
+                        VALUES (?, ?, ?)
+                        ON CONFLICT (entity_id) DO NOTHING
+                        """,
+                id, entity.name(), shard);
+        cache.put(id, shard);
+        misses.invalidate(id);
+    }
+
+    public Optional<Integer> find(ShardedEntity entity, UUID id) {
+        Integer cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        List<Integer> rows = directory.queryForList(
+                "SELECT shard_id FROM shard_directory WHERE entity_id = ?", Integer.class, id);
+        if (!rows.isEmpty()) {
+            cache.put(id, rows.get(0));
+            return Optional.of(rows.get(0));
+        }
+        if (misses.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+        Optional<Integer> located = locate(entity, id);
+        if (located.isEmpty()) {
+            misses.put(id, Boolean.TRUE);
+        }
+        return located;
+    }
+
+    private Optional<Integer> locate(ShardedEntity entity, UUID id) {
+        for (Map.Entry<Integer, DataSource> shard : shards.entrySet()) {
+            Boolean exists = new JdbcTemplate(shard.getValue()).queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + entity.getTable() + " WHERE id = ?)", Boolean.class, id);
+            if (Boolean.TRUE.equals(exists)) {
+                log.info("Recording {} {} found on shard {} without a directory entry", entity, id, shard.getKey());
+                register(entity, id, shard.getKey());
+                return Optional.of(shard.getKey());
+            }
+        }
+        return Optional.empty();
+    }
+}
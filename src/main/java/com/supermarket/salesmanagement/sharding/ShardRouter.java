@@ -0,0 +1,271 @@
+package com.supermarket.salesmanagement.sharding;
+
+import com.supermarket.salesmanagement.exception.CustomException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls on the shard that owns their data. Orders live on the shard of
+ * their shop (hash of the shop id unless pinned in application.sharding.shop-shards)
+ * and invoices on the shard of their order. Calls must go through the router before
+ * their transaction starts: each routed call runs in a new transaction, and so a new
+ * session, on its shard rather than in the request's open session, whose connection
+ * may already belong to another shard. With sharding disabled every method simply
+ * runs the call.
+ */
+@Component
+public class ShardRouter {
+    private final ShardingProperties properties;
+    private final ShardDirectory directory;
+    private final TransactionTemplate onShard;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(ShardingProperties properties, ObjectProvider<ShardDirectory> directory,
+                       PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.directory = directory.getIfAvailable();
+        this.onShard = new TransactionTemplate(transactionManager);
+        this.onShard.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scatterExecutor = properties.isEnabled()
+                ? Executors.newFixedThreadPool(properties.getScatterThreads(), runnable -> {
+                    Thread thread = new Thread(runnable, "shard-scatter");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public int shardOfShop(UUID shopId) {
+        if (!properties.isEnabled() || shopId == null) {
+            return 0;
+        }
+        Integer pinned = properties.getShopShards().get(shopId);
+        return pinned != null ? pinned : Math.floorMod(shopId.hashCode(), properties.getShardCount());
+    }
+
+    public <T> T onShop(UUID shopId, Supplier<T> action) {
+        return on(shardOfShop(shopId), action);
+    }
+
+    /**
+     * Like {@link #onShop} but without a transaction: for work that opens its own
+     * transactions per chunk, each of which then takes its one connection to the shard.
+     */
+    public <T> T routeToShop(UUID shopId, Supplier<T> action) {
+        return route(shardOfShop(shopId), action);
+    }
+
+    /**
+     * Runs the action on the shard of an existing order or invoice; unknown ids run on
+     * shard 0, where the service reports them as not found.
+     */
+    public <T> T onEntity(ShardedEntity entity, UUID id, Supplier<T> action) {
+        return on(shardOf(entity, id), action);
+    }
+
+    /**
+     * Creates an order for the given shop on the shop's shard and records it in the directory.
+     */
+    public <T> T createOnShop(UUID shopId, Supplier<T> create, Function<T, UUID> id) {
+        return create(ShardedEntity.SALES_ORDER, shardOfShop(shopId), create, id);
+    }
+
+    /**
+     * Creates an order together with its invoice on the shop's shard and records both in the directory.
+     */
+    public <T> T createOnShop(UUID shopId, Supplier<T> create, Function<T, UUID> orderId, Function<T, UUID> invoiceId) {
+        int shard = shardOfShop(shopId);
+        T created = create(ShardedEntity.SALES_ORDER, shard, create, orderId);
+        if (directory != null) {
+            directory.register(ShardedEntity.INVOICE, invoiceId.apply(created), shard);
+        }
+        return created;
+    }
+
+    /**
+     * Creates an entity next to an existing one, e.g. an invoice on its order's shard.
+     */
+    public <T> T createWith(ShardedEntity owner, UUID ownerId, ShardedEntity entity, Supplier<T> create,
+                            Function<T, UUID> id) {
+        return create(entity, shardOf(owner, ownerId), create, id);
+    }
+
+    /**
+     * Rejects moving an order to a shop that lives on another shard.
+     */
+    public void requireSameShard(UUID orderId, UUID newShopId) {
+        if (properties.isEnabled() && newShopId != null
+                && shardOf(ShardedEntity.SALES_ORDER, orderId) != shardOfShop(newShopId)) {
+            throw new CustomException("Sales order " + orderId + " cannot be moved to shop " + newShopId
+                    + " because the shop's orders are stored on another shard");
+        }
+    }
+
+    /**
+     * Runs the action on every shard in turn, e.g. for maintenance.
+     */
+    public void forEachShard(Runnable action) {
+        for (int shard = 0; shard < properties.getShardCount(); shard++) {
+            on(shard, () -> {
+                action.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Like {@link #forEachShard} but without a transaction around each shard's run,
+     * see {@link #routeToShop}.
+     */
+    public void routeToEachShard(Runnable action) {
+        for (int shard = 0; shard < properties.getShardCount(); shard++) {
+            route(shard, () -> {
+                action.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Scatter-gather paging: every shard returns its first {@code (page + 1) * size} rows
+     * in the requested order (ties broken by id), the rows are merged and the requested
+     * page is cut from the merged list. Totals are summed.
+     */
+    public <T> Page<T> scatterPage(Pageable pageable, Function<Pageable, Page<T>> query) {
+        if (!properties.isEnabled()) {
+            return query.apply(pageable);
+        }
+        if (pageable.isUnpaged()) {
+            throw new CustomException("Listing across shards requires a page size");
+        }
+        int rows = Math.multiplyExact(pageable.getPageNumber() + 1, pageable.getPageSize());
+        if (rows > properties.getMaxScatterRows()) {
+            throw new CustomException("Page " + pageable.getPageNumber() + " is too deep to list across shards; "
+                    + "filter by shop or narrow the date range");
+        }
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        Pageable shardPage = PageRequest.of(0, rows, sort);
+
+        List<CompletableFuture<Page<T>>> pages = new ArrayList<>();
+        for (int shard = 0; shard < properties.getShardCount(); shard++) {
+            int target = shard;
+            pages.add(CompletableFuture.supplyAsync(() -> on(target, () -> query.apply(shardPage)), scatterExecutor));
+        }
+        List<T> merged = new ArrayList<>();
+        long total = 0;
+        for (CompletableFuture<Page<T>> page : pages) {
+            Page<T> result = join(page);
+            merged.addAll(result.getContent());
+            total += result.getTotalElements();
+        }
+        merged.sort(comparator(sort));
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    private <T> T create(ShardedEntity entity, int shard, Supplier<T> create, Function<T, UUID> id) {
+        T created = on(shard, create);
+        if (directory != null) {
+            // After the commit; a lost entry is recovered by the directory's shard search
+            directory.register(entity, id.apply(created), shard);
+        }
+        return created;
+    }
+
+    private int shardOf(ShardedEntity entity, UUID id) {
+        if (directory == null || id == null) {
+            return 0;
+        }
+        return directory.find(entity, id).orElse(0);
+    }
+
+    private <T> T on(int shard, Supplier<T> action) {
+        if (!properties.isEnabled()) {
+            return action.get();
+        }
+        return route(shard, () -> onShard.execute(status -> action.get()));
+    }
+
+    private <T> T route(int shard, Supplier<T> action) {
+        if (!properties.isEnabled()) {
+            return action.get();
+        }
+        Integer previous = ShardContext.set(shard);
+        try {
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Must agree with the order each shard returned its rows in, or merged pages skip or repeat rows
+    private static <T> Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<T> byProperty = Comparator.comparing(
+                    item -> item instanceof Map<?, ?> row
+                            ? row.get(order.getProperty())
+                            : new BeanWrapperImpl(item).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(ShardRouter::compareAsDatabase));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    /**
+     * Compares column values the way PostgreSQL sorts them: uuids byte by byte, i.e. unsigned,
+     * where {@link UUID#compareTo} compares signed longs, and enums by the name they are stored as.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareAsDatabase(Object a, Object b) {
+        if (a instanceof UUID left && b instanceof UUID right) {
+            int high = Long.compareUnsigned(left.getMostSignificantBits(), right.getMostSignificantBits());
+            return high != 0 ? high : Long.compareUnsigned(left.getLeastSignificantBits(), right.getLeastSignificantBits());
+        }
+        if (a instanceof Enum<?> left && b instanceof Enum<?> right) {
+            return left.name().compareTo(right.name());
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+}
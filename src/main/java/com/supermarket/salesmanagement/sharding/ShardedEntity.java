@@ -0,0 +1,20 @@
+package com.supermarket.salesmanagement.sharding;
+
+/**
+ * Entities whose shard is recorded in the shard directory, with the table used to
+ * find rows the directory has no entry for.
+ */
+public enum ShardedEntity {
+    SALES_ORDER("sales_orders"),
+    INVOICE("invoices");
+
+    private final String table;
+
+    ShardedEntity(String table) {
+        this.table = table;
+    }
+
+    String getTable() {
+        return table;
+    }
+}
@@ -0,0 +1,75 @@
+package com.supermarket.salesmanagement.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Replaces the application DataSource with a {@link ShardRoutingDataSource} over
+ * spring.datasource (shard 0) and the shards under application.sharding.shards.
+ * JPA, JdbcTemplate and Flyway all use the routing DataSource; Flyway migrates every
+ * shard with the same migrations, after which startup fails if the shard count differs
+ * from the one the directory was created with.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ShardingProperties sharding) {
+        Map<Integer, DataSource> shards = new TreeMap<>();
+        HikariDataSource directory = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        directory.setPoolName("shard-0");
+        shards.put(0, directory);
+        for (int i = 0; i < sharding.getShards().size(); i++) {
+            ShardingProperties.Shard shard = sharding.getShards().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + (i + 1));
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername());
+            dataSource.setPassword(shard.getPassword());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            shards.put(i + 1, dataSource);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(new HashMap<>(shards));
+        routing.setDefaultTargetDataSource(directory);
+        return routing;
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardRoutingDataSource dataSource, ShardingProperties sharding) {
+        Map<Integer, DataSource> shards = new TreeMap<>();
+        dataSource.getResolvedDataSources().forEach((key, shard) -> shards.put((Integer) key, shard));
+        return new ShardDirectory(dataSource.getResolvedDefaultDataSource(), shards, sharding.getDirectoryCacheSize(),
+                sharding.getDirectoryMissCacheSize(), sharding.getDirectoryMissTtl());
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardRoutingDataSource dataSource, ShardDirectory shardDirectory,
+                                                    ShardingProperties sharding) {
+        return flyway -> {
+            dataSource.getResolvedDataSources().values().forEach(shard ->
+                    Flyway.configure()
+                            .configuration(flyway.getConfiguration())
+                            .dataSource(shard)
+                            .load()
+                            .migrate());
+            shardDirectory.checkShardCount(sharding.getShardCount());
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.supermarket.salesmanagement.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Shard layout under application.sharding. Shard 0 is always spring.datasource, which
+ * also holds the shard directory and everything that is not sharded (idempotency keys);
+ * {@code shards} lists shards 1..n in order.
+ */
+@Component
+@ConfigurationProperties(prefix = "application.sharding")
+@Data
+public class ShardingProperties {
+    private boolean enabled;
+    private List<Shard> shards = new ArrayList<>();
+    /** Shops pinned to a shard, overriding the hash of their id, e.g. after moving a large shop. */
+    private Map<UUID, Integer> shopShards = new HashMap<>();
+    private int scatterThreads = 4;
+    /** Rows fetched per shard for one merged page; deeper pages are rejected. */
+    private int maxScatterRows = 10000;
+    private long directoryCacheSize = 100000;
+    /** Ids found on no shard, remembered so repeated lookups of them do not search every shard. */
+    private long directoryMissCacheSize = 10000;
+    private Duration directoryMissTtl = Duration.ofSeconds(60);
+
+    public int getShardCount() {
+        return enabled ? shards.size() + 1 : 1;
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,35 @@
+-- Baseline schema as previously created by hibernate ddl-auto; idempotent so existing
+-- databases can be baselined in place.
+CREATE TABLE IF NOT EXISTS sales_orders (
+    id UUID PRIMARY KEY,
+    customer_id UUID NOT NULL,
+    shop_id UUID NOT NULL,
+    order_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('DRAFT', 'PENDING', 'CONFIRMED', 'CANCELLED')),
+    total_amount NUMERIC(12, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS sales_order_items (
+    id UUID PRIMARY KEY,
+    sales_order_id UUID NOT NULL REFERENCES sales_orders (id) ON DELETE CASCADE,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    unit_price NUMERIC(12, 2) NOT NULL,
+    total_price NUMERIC(12, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS invoices (
+    id UUID PRIMARY KEY,
+    sales_order_id UUID NOT NULL,
+    invoice_date DATE NOT NULL,
+    payment_status VARCHAR(20) NOT NULL CHECK (payment_status IN ('PAID', 'UNPAID', 'PARTIALLY_PAID')),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoices_sales_order_id ON invoices (sales_order_id);
+CREATE INDEX IF NOT EXISTS idx_invoices_payment_status ON invoices (payment_status);
@@ -0,0 +1,135 @@
+-- Turns sales_orders and sales_order_items into monthly range partitions on order_date.
+-- Items carry the order date of their order so both tables share partition bounds and
+-- a date-bounded query prunes to the same months on both sides of the join.
+-- Requires PostgreSQL 15+: older versions run a cross-partition UPDATE of an order's
+-- date as delete + insert, which would fire ON DELETE CASCADE on its items.
+
+CREATE TABLE sales_orders_partitioned (
+    id UUID NOT NULL,
+    customer_id UUID NOT NULL,
+    shop_id UUID NOT NULL,
+    order_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('DRAFT', 'PENDING', 'CONFIRMED', 'CANCELLED')),
+    total_amount NUMERIC(12, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_sales_orders PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE sales_order_items_partitioned (
+    id UUID NOT NULL,
+    sales_order_id UUID NOT NULL,
+    order_date DATE NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity > 0),
+    unit_price NUMERIC(12, 2) NOT NULL,
+    total_price NUMERIC(12, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_sales_order_items PRIMARY KEY (id, order_date),
+    CONSTRAINT fk_sales_order_items_order FOREIGN KEY (sales_order_id, order_date)
+        REFERENCES sales_orders_partitioned (id, order_date) ON UPDATE CASCADE ON DELETE CASCADE
+) PARTITION BY RANGE (order_date);
+
+-- Safety net for dates outside the pre-created range; the maintenance job keeps it empty
+CREATE TABLE sales_orders_default PARTITION OF sales_orders_partitioned DEFAULT;
+CREATE TABLE sales_order_items_default PARTITION OF sales_order_items_partitioned DEFAULT;
+
+-- Creates the monthly partitions of both tables for every month in [p_from, p_to].
+-- Months whose rows already landed in a default partition are skipped with a warning.
+CREATE OR REPLACE FUNCTION create_sales_partitions(p_from DATE, p_to DATE) RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::DATE;
+    v_next DATE;
+    v_suffix TEXT;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= p_to LOOP
+        v_next := (v_month + INTERVAL '1 month')::DATE;
+        v_suffix := to_char(v_month, '"p"YYYY_MM');
+        IF to_regclass('sales_orders_' || v_suffix) IS NULL THEN
+            IF EXISTS (SELECT 1 FROM sales_orders_default WHERE order_date >= v_month AND order_date < v_next) THEN
+                RAISE WARNING 'Rows for % are in sales_orders_default; partition not created', v_month;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF sales_orders FOR VALUES FROM (%L) TO (%L)',
+                               'sales_orders_' || v_suffix, v_month, v_next);
+                EXECUTE format('CREATE TABLE %I PARTITION OF sales_order_items FOR VALUES FROM (%L) TO (%L)',
+                               'sales_order_items_' || v_suffix, v_month, v_next);
+                v_created := v_created + 1;
+            END IF;
+        END IF;
+        v_month := v_next;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Detaches (but keeps) the monthly partitions that end on or before p_before,
+-- items first so the foreign key never points into a detached order partition.
+CREATE OR REPLACE FUNCTION detach_sales_partitions(p_before DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    v_parent TEXT;
+    v_partition TEXT;
+BEGIN
+    FOREACH v_parent IN ARRAY ARRAY['sales_order_items', 'sales_orders'] LOOP
+        FOR v_partition IN
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = v_parent
+              AND child.relname ~ ('^' || v_parent || '_p[0-9]{4}_[0-9]{2}$')
+              AND (to_date(right(child.relname, 7), 'YYYY_MM') + INTERVAL '1 month')::DATE <= p_before
+            ORDER BY child.relname
+        LOOP
+            EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_parent, v_partition);
+            RETURN NEXT v_partition;
+        END LOOP;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Swap the partitioned tables in, moving existing rows across
+DO $$
+DECLARE
+    v_fk RECORD;
+BEGIN
+    FOR v_fk IN
+        SELECT conrelid::regclass AS table_name, conname
+        FROM pg_constraint
+        WHERE contype = 'f' AND confrelid = 'sales_orders'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', v_fk.table_name, v_fk.conname);
+    END LOOP;
+END;
+$$;
+
+ALTER TABLE sales_orders RENAME TO sales_orders_unpartitioned;
+ALTER TABLE sales_order_items RENAME TO sales_order_items_unpartitioned;
+ALTER TABLE sales_orders_partitioned RENAME TO sales_orders;
+ALTER TABLE sales_order_items_partitioned RENAME TO sales_order_items;
+
+SELECT create_sales_partitions(
+    LEAST(COALESCE((SELECT MIN(order_date) FROM sales_orders_unpartitioned), CURRENT_DATE), CURRENT_DATE),
+    GREATEST(COALESCE((SELECT MAX(order_date) FROM sales_orders_unpartitioned), CURRENT_DATE),
+             (CURRENT_DATE + INTERVAL '3 months')::DATE));
+
+INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+SELECT id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at
+FROM sales_orders_unpartitioned;
+
+INSERT INTO sales_order_items (id, sales_order_id, order_date, product_id, quantity, unit_price, total_price,
+                               created_at, updated_at)
+SELECT i.id, i.sales_order_id, o.order_date, i.product_id, i.quantity, i.unit_price, i.total_price,
+       i.created_at, i.updated_at
+FROM sales_order_items_unpartitioned i
+JOIN sales_orders_unpartitioned o ON o.id = i.sales_order_id;
+
+DROP TABLE sales_order_items_unpartitioned;
+DROP TABLE sales_orders_unpartitioned;
+
+CREATE INDEX idx_sales_orders_shop_id_order_date ON sales_orders (shop_id, order_date);
+CREATE INDEX idx_sales_orders_customer_id_order_date ON sales_orders (customer_id, order_date);
+CREATE INDEX idx_sales_orders_status ON sales_orders (status);
+CREATE INDEX idx_sales_order_items_sales_order_id ON sales_order_items (sales_order_id);
+CREATE INDEX idx_sales_order_items_product_id ON sales_order_items (product_id);
@@ -0,0 +1,2 @@
+-- Lets the analytics snapshot pick up recently changed orders without scanning every partition
+CREATE INDEX idx_sales_orders_updated_at ON sales_orders (updated_at);
@@ -0,0 +1,8 @@
+-- Shard of every sales order and invoice, read on shard 0 only. Rows are never updated:
+-- orders stay on the shard of the shop they were created for.
+CREATE TABLE IF NOT EXISTS shard_directory (
+    entity_id UUID PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    shard_id INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,14 @@
+-- Human-readable invoice numbers, sequential per shop. Invoices created before this
+-- migration keep NULL numbers, which the unique index allows.
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS shop_id UUID;
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS invoice_number BIGINT;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_invoices_shop_number ON invoices (shop_id, invoice_number);
+
+-- Highest invoice number handed out per shop. Instances reserve blocks of numbers by
+-- advancing last_value in the transaction of the invoice that needed the block, so the
+-- row stays locked until that invoice commits; gapless shops take every number this way.
+CREATE TABLE IF NOT EXISTS invoice_number_counters (
+    shop_id UUID PRIMARY KEY,
+    last_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,31 @@
+-- Balance of an invoice, maintained one payment at a time. amount_due is the order total
+-- when the invoice was issued; invoices from before the ledger keep NULL and a manually
+-- set payment status.
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS amount_due NUMERIC(12, 2);
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS amount_paid NUMERIC(12, 2) NOT NULL DEFAULT 0;
+
+-- Every payment and reversal (negative amount) against an invoice. Rows are only ever
+-- inserted; amount_paid_after is the invoice's paid-to-date balance once the row applied.
+-- There is no foreign key so archiving an invoice leaves its payment history in place.
+CREATE TABLE IF NOT EXISTS invoice_payments (
+    id UUID PRIMARY KEY,
+    invoice_id UUID NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL CHECK (amount <> 0),
+    amount_paid_after NUMERIC(12, 2) NOT NULL,
+    method VARCHAR(20),
+    reference VARCHAR(100),
+    paid_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_invoice_payments_invoice_id ON invoice_payments (invoice_id, created_at);
+
+CREATE OR REPLACE FUNCTION reject_invoice_payment_change() RETURNS trigger AS $$
+BEGIN
+    RAISE EXCEPTION 'invoice_payments is append-only; record a reversal instead';
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER invoice_payments_append_only
+    BEFORE UPDATE OR DELETE ON invoice_payments
+    FOR EACH ROW EXECUTE FUNCTION reject_invoice_payment_change();
@@ -0,0 +1,51 @@
+-- V2's detach_sales_partitions detached the items partition of a month first but left it
+-- with its own copy of the foreign key to sales_orders, so detaching the orders partition
+-- of any month with items failed. Months are now detached as a pair: the items partition,
+-- then its foreign key to the parent is dropped, then the orders partition, and the key
+-- is re-created between the two detached tables so the archived month stays consistent.
+-- A month left half-detached by the old function is completed the same way.
+CREATE OR REPLACE FUNCTION detach_sales_partitions(p_before DATE) RETURNS SETOF TEXT AS $$
+DECLARE
+    v_orders TEXT;
+    v_items TEXT;
+    v_fk TEXT;
+BEGIN
+    FOR v_orders IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'sales_orders'
+          AND child.relname ~ '^sales_orders_p[0-9]{4}_[0-9]{2}$'
+          AND (to_date(right(child.relname, 7), 'YYYY_MM') + INTERVAL '1 month')::DATE <= p_before
+        ORDER BY child.relname
+    LOOP
+        v_items := 'sales_order_items_' || right(v_orders, 8);
+        IF EXISTS (SELECT 1
+                   FROM pg_inherits
+                   JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                   JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                   WHERE parent.relname = 'sales_order_items' AND child.relname = v_items) THEN
+            EXECUTE format('ALTER TABLE sales_order_items DETACH PARTITION %I', v_items);
+            RETURN NEXT v_items;
+        END IF;
+        IF to_regclass(v_items) IS NOT NULL THEN
+            FOR v_fk IN
+                SELECT conname FROM pg_constraint
+                WHERE contype = 'f' AND conrelid = to_regclass(v_items) AND confrelid = 'sales_orders'::regclass
+            LOOP
+                EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', v_items, v_fk);
+            END LOOP;
+        END IF;
+
+        EXECUTE format('ALTER TABLE sales_orders DETACH PARTITION %I', v_orders);
+        RETURN NEXT v_orders;
+
+        IF to_regclass(v_items) IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I FOREIGN KEY (sales_order_id, order_date) '
+                               || 'REFERENCES %I (id, order_date) ON UPDATE CASCADE ON DELETE CASCADE',
+                           v_items, v_items || '_order_fkey', v_orders);
+        END IF;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
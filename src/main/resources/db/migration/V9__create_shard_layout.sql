@@ -0,0 +1,7 @@
+-- Shard count the directory was created with, read on shard 0 only. Shops placed by hash
+-- depend on it, so the application refuses to start with a different count.
+CREATE TABLE IF NOT EXISTS shard_layout (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    shard_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
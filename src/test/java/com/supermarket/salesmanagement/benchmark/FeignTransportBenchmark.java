@@ -0,0 +1,151 @@
+package com.supermarket.salesmanagement.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares Feign's default HttpURLConnection transport with the pooled Apache HttpClient 5
+ * transport against a local stub of the product service, with as many concurrent callers
+ * as an order with many lines fans out. The stub gzips responses when asked, as the
+ * downstream services do behind the gateway. Sample time reports latency percentiles:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=FeignTransportBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class FeignTransportBenchmark {
+
+    interface ProductApi {
+        @RequestLine("GET /api/v1/products/{id}")
+        String getProductById(@Param("id") UUID id);
+    }
+
+    private static final byte[] PRODUCT = product();
+    private static final byte[] PRODUCT_GZIP = gzip(PRODUCT);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private CloseableHttpClient pooledHttpClient;
+    private ProductApi defaultTransport;
+    private ProductApi pooledTransport;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Otherwise Nagle's algorithm and delayed ACKs add ~40ms to every stub response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        serverThreads = Executors.newFixedThreadPool(32);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/api/v1/products/", FeignTransportBenchmark::respond);
+        server.setExecutor(serverThreads);
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        pooledHttpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(64)
+                        .setMaxConnPerRoute(32)
+                        .build())
+                .build();
+        defaultTransport = Feign.builder().client(new Client.Default(null, null)).target(ProductApi.class, url);
+        pooledTransport = Feign.builder().client(new ApacheHttp5Client(pooledHttpClient)).target(ProductApi.class, url);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pooledHttpClient.close();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public String defaultClient() {
+        return defaultTransport.getProductById(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public String pooledHttpClient5() {
+        return pooledTransport.getProductById(UUID.randomUUID());
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        byte[] body = gzip ? PRODUCT_GZIP : PRODUCT;
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] product() {
+        StringBuilder json = new StringBuilder("{\"id\":\"").append(UUID.randomUUID())
+                .append("\",\"name\":\"Whole milk 1L\",\"barcode\":\"5901234123457\",\"attributes\":[");
+        for (int i = 0; i < 40; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"attribute-").append(i).append("\",\"value\":\"value-").append(i).append("\"}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FeignTransportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
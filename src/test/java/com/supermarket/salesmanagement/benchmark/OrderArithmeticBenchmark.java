@@ -0,0 +1,119 @@
+package com.supermarket.salesmanagement.benchmark;
+
+import com.supermarket.salesmanagement.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous BigDecimal line arithmetic with {@link Money} on large baskets:
+ * pricing every line, reducing to the order total and merging a repeated scan into a
+ * weighted-average unit price. Run with the GC profiler to see allocation per basket:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=OrderArithmeticBenchmark -Dbenchmark.args="-prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderArithmeticBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    private int basketSize;
+
+    private BigDecimal[] decimalPrices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimalPrices = new BigDecimal[basketSize];
+        moneyPrices = new Money[basketSize];
+        quantities = new int[basketSize];
+        for (int i = 0; i < basketSize; i++) {
+            long cents = 50 + random.nextLong(20_000);
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+            moneyPrices[i] = Money.ofMinor(cents);
+            quantities[i] = 1 + random.nextInt(12);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalBasket() {
+        BigDecimal[] lineTotals = new BigDecimal[basketSize];
+        for (int i = 0; i < basketSize; i++) {
+            lineTotals[i] = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal lineTotal : lineTotals) {
+            total = total.add(lineTotal);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyBasket() {
+        Money[] lineTotals = new Money[basketSize];
+        for (int i = 0; i < basketSize; i++) {
+            lineTotals[i] = moneyPrices[i].times(quantities[i]);
+        }
+        long total = 0L;
+        for (Money lineTotal : lineTotals) {
+            total = Math.addExact(total, lineTotal.getMinorUnits());
+        }
+        return Money.ofMinor(total);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalWeightedMerge() {
+        BigDecimal unitPrice = decimalPrices[0];
+        int quantity = quantities[0];
+        for (int i = 1; i < basketSize; i++) {
+            BigDecimal existingTotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            BigDecimal newTotal = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            quantity += quantities[i];
+            unitPrice = existingTotal.add(newTotal).divide(BigDecimal.valueOf(quantity), 2, RoundingMode.HALF_UP);
+        }
+        return unitPrice;
+    }
+
+    @Benchmark
+    public Money moneyWeightedMerge() {
+        Money total = moneyPrices[0].times(quantities[0]);
+        Money unitPrice = moneyPrices[0];
+        int quantity = quantities[0];
+        for (int i = 1; i < basketSize; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+            quantity += quantities[i];
+            unitPrice = total.dividedBy(quantity, RoundingMode.HALF_UP);
+        }
+        return unitPrice;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderArithmeticBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
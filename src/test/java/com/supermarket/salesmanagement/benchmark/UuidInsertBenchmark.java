@@ -0,0 +1,184 @@
+package com.supermarket.salesmanagement.benchmark;
+
+import com.supermarket.salesmanagement.model.UuidV7;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput into a table shaped like sales_order_items with random (v4) versus
+ * time-ordered (v7) primary keys. The table is preloaded with {@code preloadRows} rows of
+ * the same key kind and PostgreSQL runs with small shared buffers, so the primary key
+ * index does not fit in cache as it doesn't in production. Scores are rows per second;
+ * at the end of each trial the index size, buffer misses and WAL written per row are
+ * printed, which is where random keys cost the most:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=UuidInsertBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class UuidInsertBenchmark {
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"v4", "v7"})
+    public String keys;
+
+    @Param({"2000000"})
+    public int preloadRows;
+
+    private EmbeddedPostgres postgres;
+    private Supplier<UUID> idGenerator;
+    private String walStart;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        idGenerator = "v7".equals(keys) ? UuidV7::next : UUID::randomUUID;
+        postgres = EmbeddedPostgres.builder()
+                .setServerConfig("shared_buffers", "32MB")
+                // Full page images after each checkpoint are most of the WAL random keys add
+                .setServerConfig("full_page_writes", "on")
+                .setServerConfig("checkpoint_timeout", "30s")
+                .start();
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE items (
+                        id UUID PRIMARY KEY,
+                        sales_order_id UUID NOT NULL,
+                        product_id UUID NOT NULL,
+                        quantity INTEGER NOT NULL,
+                        unit_price BIGINT NOT NULL,
+                        created_at TIMESTAMP NOT NULL)""");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(Inserter.INSERT)) {
+                for (int i = 1; i <= preloadRows; i++) {
+                    Inserter.bind(insert, idGenerator.get());
+                    insert.addBatch();
+                    if (i % 10_000 == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            connection.setAutoCommit(true);
+            statement.execute("VACUUM ANALYZE items");
+            statement.execute("SELECT pg_stat_reset()");
+            walStart = single(statement, "SELECT pg_current_wal_lsn()::text");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            long rows = Long.parseLong(single(statement, "SELECT count(*) FROM items")) - preloadRows;
+            long walBytes = Long.parseLong(single(statement,
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '" + walStart + "')::bigint"));
+            String indexSize = single(statement, "SELECT pg_size_pretty(pg_relation_size('items_pkey'))");
+            String indexReads = single(statement,
+                    "SELECT idx_blks_read || ' read / ' || idx_blks_hit || ' hit' FROM pg_statio_user_indexes"
+                            + " WHERE indexrelname = 'items_pkey'");
+            System.out.printf("%n%s keys: %d rows inserted, primary key %s, index blocks %s, %.0f WAL bytes/row%n",
+                    keys, rows, indexSize, indexReads, rows == 0 ? 0.0 : (double) walBytes / rows);
+        } finally {
+            postgres.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Inserter {
+        static final String INSERT = "INSERT INTO items (id, sales_order_id, product_id, quantity, unit_price, "
+                + "created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+        private Connection connection;
+        private PreparedStatement insert;
+
+        @Setup(Level.Trial)
+        public void setUp(UuidInsertBenchmark benchmark) throws SQLException {
+            connection = benchmark.connect();
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement(INSERT);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            insert.close();
+            connection.close();
+        }
+
+        static void bind(PreparedStatement insert, UUID id) throws SQLException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            insert.setObject(1, id);
+            insert.setObject(2, new UUID(random.nextLong(), random.nextLong()));
+            insert.setObject(3, new UUID(random.nextLong(), random.nextLong()));
+            insert.setInt(4, 1 + random.nextInt(10));
+            insert.setLong(5, 50 + random.nextInt(5000));
+            insert.setTimestamp(6, new Timestamp(System.currentTimeMillis()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] insertBatch(Inserter inserter) throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Inserter.bind(inserter.insert, idGenerator.get());
+            inserter.insert.addBatch();
+        }
+        int[] counts = inserter.insert.executeBatch();
+        inserter.connection.commit();
+        return counts;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "postgres", "postgres");
+    }
+
+    private static String single(Statement statement, String sql) throws SQLException {
+        try (ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getString(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UuidInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
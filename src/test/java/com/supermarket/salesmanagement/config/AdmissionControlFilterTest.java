@@ -0,0 +1,89 @@
+package com.supermarket.salesmanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.salesmanagement.service.admission.AdmissionLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlFilterTest {
+    @Mock
+    private AdmissionLimiter admissionLimiter;
+
+    @Mock
+    private AdmissionLimiter.Permit permit;
+
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AdmissionControlFilter(admissionLimiter, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 1024L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("cashier-1", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void queuesUnderShopOfBody_IgnoringShopHeader() throws Exception {
+        UUID shopId = UUID.randomUUID();
+        when(admissionLimiter.acquire(anyString())).thenReturn(permit);
+        MockHttpServletRequest request = post("{\"shopId\":\"" + shopId.toString().toUpperCase() + "\"}");
+        request.addHeader("X-Shop-Id", UUID.randomUUID().toString());
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(admissionLimiter).acquire(shopId.toString());
+    }
+
+    @Test
+    void withoutShop_QueuesUnderCaller() throws Exception {
+        when(admissionLimiter.acquire(anyString())).thenReturn(permit);
+
+        filter.doFilter(post("{\"shopId\":\"not-a-uuid\"}"), new MockHttpServletResponse(), new MockFilterChain());
+
+        verify(admissionLimiter).acquire("caller:cashier-1");
+    }
+
+    @Test
+    void oversizedBody_RejectedWithoutQueueing() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(post("{\"note\":\"" + "x".repeat(2048) + "\"}"), response, new MockFilterChain());
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+        verifyNoInteractions(admissionLimiter);
+    }
+
+    private static MockHttpServletRequest post(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/sales-management/api/v1/sales-orders");
+        request.setContextPath("/sales-management");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,25 @@
+package com.supermarket.salesmanagement.config;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.openfeign.support.FeignHttpClientProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignHttpClientConfigTest {
+    private final FeignHttpClientConfig config = new FeignHttpClientConfig();
+
+    @Test
+    void connectionManager_ClientsOnOneHost_ShareTheSumOfTheirLimits() throws Exception {
+        try (PoolingHttpClientConnectionManager connectionManager = config.hc5ConnectionManager(
+                new FeignHttpClientProperties(),
+                "http://gateway:8080/customer-management", 50,
+                "http://gateway:8080/product-management", 100,
+                "http://gateway:8080/product-management", 0,
+                "https://prices:8443/price-list-management", 5)) {
+
+            assertEquals(150, connectionManager.getMaxPerRoute(FeignHttpClientConfig.route("http://gateway:8080")));
+            assertEquals(5, connectionManager.getMaxPerRoute(FeignHttpClientConfig.route("https://prices:8443")));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.service.idempotency.IdempotencyKeyStore;
+import com.supermarket.salesmanagement.service.idempotency.IdempotencyService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the deadline and idempotency filters against the real key store, whose
+ * statements go through deadline-checked connections.
+ */
+class IdempotencyDeadlineTest extends EmbeddedPostgresTest {
+    @Autowired
+    private IdempotencyKeyStore store;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    // Outlives the caller's budget, as a create that commits just too late does
+    private final HttpServlet slowCreate = new HttpServlet() {
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            executions.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setStatus(HttpServletResponse.SC_CREATED);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"execution\":" + executions.get() + "}");
+        }
+    };
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("cashier-" + UUID.randomUUID(), null, List.of()));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void deadlinePassedDuringRequest_RetryReplaysInsteadOfRunningAgain() throws Exception {
+        MockHttpServletResponse first = execute(new IdempotencyService(store, 24, 5000, 60000, 100));
+        // Another instance, so the replay has to come from the store rather than a local cache
+        MockHttpServletResponse retry = execute(new IdempotencyService(store, 24, 5000, 60000, 100));
+
+        assertEquals(HttpServletResponse.SC_CREATED, first.getStatus());
+        assertEquals(1, executions.get());
+        assertEquals(HttpServletResponse.SC_CREATED, retry.getStatus());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+    }
+
+    private MockHttpServletResponse execute(IdempotencyService idempotencyService) throws Exception {
+        IdempotencyFilter idempotencyFilter = new IdempotencyFilter(idempotencyService);
+        ReflectionTestUtils.setField(idempotencyFilter, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyFilter, "maxBodyBytes", 1024L);
+        Filter deadlineFilter = new RequestDeadlineFilter(true, 5000, 30000, "");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/sales-management/api/v1/sales-orders");
+        request.setContextPath("/sales-management");
+        request.setContentType("application/json");
+        request.setContent("{\"shopId\":1}".getBytes(StandardCharsets.UTF_8));
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "deadline-key");
+        request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "20");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new MockFilterChain(slowCreate, deadlineFilter, idempotencyFilter).doFilter(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,124 @@
+package com.supermarket.salesmanagement.config;
+
+import com.supermarket.salesmanagement.service.idempotency.IdempotencyKeyStore;
+import com.supermarket.salesmanagement.service.idempotency.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+    @Mock
+    private IdempotencyKeyStore store;
+
+    private IdempotencyFilter idempotencyFilter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final FilterChain createOrder = (request, response) -> {
+        executions.incrementAndGet();
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"execution\":" + executions.get() + ",\"echo\":" + body + "}");
+    };
+
+    @BeforeEach
+    void setUp() {
+        idempotencyFilter = new IdempotencyFilter(new IdempotencyService(store, 24, 5000, 60000, 100));
+        ReflectionTestUtils.setField(idempotencyFilter, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyFilter, "maxBodyBytes", 1024L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("cashier-1", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void retry_ReplaysStoredResponseWithoutRunningChain() throws Exception {
+        when(store.claim(any(), any(), any(), any(), any(), any())).thenReturn(true);
+
+        MockHttpServletResponse first = execute(request("key-1", "{\"shopId\":1}"));
+        MockHttpServletResponse retry = execute(request("key-1", "{\"shopId\":1}"));
+
+        assertEquals(1, executions.get());
+        assertEquals(200, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void retry_DifferentBody_Rejected() throws Exception {
+        when(store.claim(any(), any(), any(), any(), any(), any())).thenReturn(true);
+
+        execute(request("key-1", "{\"shopId\":1}"));
+        MockHttpServletResponse retry = execute(request("key-1", "{\"shopId\":2}"));
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), retry.getStatus());
+    }
+
+    @Test
+    void withoutKey_AlwaysRunsChain() throws Exception {
+        execute(request(null, "{}"));
+        execute(request(null, "{}"));
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void oversizedBodyWithoutContentLength_RejectedBeforeBuffering() throws Exception {
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/sales-management/api/v1/sales-orders") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setContextPath("/sales-management");
+        chunked.setContentType("application/json");
+        chunked.setContent(("{\"note\":\"" + "x".repeat(2048) + "\"}").getBytes(StandardCharsets.UTF_8));
+        chunked.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key-1");
+
+        MockHttpServletResponse response = execute(chunked);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, createOrder);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/sales-management/api/v1/sales-orders");
+        request.setContextPath("/sales-management");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        }
+        return request;
+    }
+}
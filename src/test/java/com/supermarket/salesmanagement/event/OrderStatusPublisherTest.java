@@ -0,0 +1,175 @@
+package com.supermarket.salesmanagement.event;
+
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusPublisherTest {
+    private final UUID shopId = UUID.randomUUID();
+
+    @Mock
+    private OrderStatusStreamHub orderStatusStreamHub;
+
+    private OrderStatusPublisher orderStatusPublisher;
+
+    @BeforeEach
+    void setUp() {
+        orderStatusPublisher = new OrderStatusPublisher(orderStatusStreamHub, 100, 10, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        orderStatusPublisher.shutdown();
+    }
+
+    @Test
+    void publish_OutsideTransaction_DispatchedImmediately() {
+        OrderStatusEvent event = new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING);
+
+        orderStatusPublisher.publishOrderStatusEvent(event);
+
+        verify(orderStatusStreamHub, timeout(1000)).publish(event);
+    }
+
+    @Test
+    void publish_InTransaction_CoalescedPerOrderAndDispatchedAfterCommit() throws InterruptedException {
+        UUID firstOrder = UUID.randomUUID();
+        UUID secondOrder = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(firstOrder, shopId, OrderStatus.DRAFT));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(secondOrder, shopId, OrderStatus.PENDING));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(firstOrder, shopId, OrderStatus.PENDING));
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(firstOrder, shopId, OrderStatus.CONFIRMED));
+
+        Thread.sleep(50);
+        verifyNoInteractions(orderStatusStreamHub);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        ArgumentCaptor<OrderStatusEvent> published = ArgumentCaptor.forClass(OrderStatusEvent.class);
+        verify(orderStatusStreamHub, timeout(1000).times(2)).publish(published.capture());
+        List<OrderStatusEvent> events = published.getAllValues();
+        assertEquals(firstOrder, events.get(0).getOrderId());
+        assertEquals(OrderStatus.CONFIRMED, events.get(0).getStatus());
+        assertEquals(secondOrder, events.get(1).getOrderId());
+        assertEquals(OrderStatus.PENDING, events.get(1).getStatus());
+        assertNull(TransactionSynchronizationManager.getResource(orderStatusPublisher));
+    }
+
+    @Test
+    void publish_TransactionRolledBack_NothingDispatched() throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Thread.sleep(50);
+        verify(orderStatusStreamHub, never()).publish(any());
+        assertNull(TransactionSynchronizationManager.getResource(orderStatusPublisher));
+    }
+
+    @Test
+    void publish_NestedRequiresNew_InnerCommitsAloneAndOuterRollbackDropsOnlyItsOwn() throws InterruptedException {
+        UUID outerOrder = UUID.randomUUID();
+        UUID innerOrder = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        orderStatusPublisher.publishOrderStatusEvent(new OrderStatusEvent(outerOrder, shopId, OrderStatus.PENDING));
+
+        // Same sequence as AbstractPlatformTransactionManager for a REQUIRES_NEW inner transaction
+        List<TransactionSynchronization> suspended = suspend();
+        TransactionSynchronizationManager.initSynchronization();
+        OrderStatusEvent innerEvent = new OrderStatusEvent(innerOrder, shopId, OrderStatus.CONFIRMED);
+        orderStatusPublisher.publishOrderStatusEvent(innerEvent);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        resume(suspended);
+
+        verify(orderStatusStreamHub, timeout(1000)).publish(innerEvent);
+        assertNotNull(TransactionSynchronizationManager.getResource(orderStatusPublisher));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Thread.sleep(50);
+        verify(orderStatusStreamHub, times(1)).publish(any());
+        assertNull(TransactionSynchronizationManager.getResource(orderStatusPublisher));
+    }
+
+    @Test
+    void publish_QueueFull_WaitsOnceThenDeliversRestOnCallerThread() throws InterruptedException {
+        OrderStatusPublisher smallPublisher = new OrderStatusPublisher(orderStatusStreamHub, 1, 10, 200);
+        OrderStatusEvent blocking = new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING);
+        CountDownLatch dispatcherBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            dispatcherBusy.countDown();
+            release.await();
+            return null;
+        }).when(orderStatusStreamHub).publish(blocking);
+        try {
+            smallPublisher.publishOrderStatusEvent(blocking);
+            assertTrue(dispatcherBusy.await(1, TimeUnit.SECONDS));
+            smallPublisher.publishOrderStatusEvent(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+
+            TransactionSynchronizationManager.initSynchronization();
+            List<OrderStatusEvent> batch = List.of(
+                    new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.CONFIRMED),
+                    new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.CONFIRMED),
+                    new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.CONFIRMED));
+            batch.forEach(smallPublisher::publishOrderStatusEvent);
+            long started = System.nanoTime();
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 400);
+            InOrder inOrder = inOrder(orderStatusStreamHub);
+            batch.forEach(event -> inOrder.verify(orderStatusStreamHub).publish(event));
+        } finally {
+            release.countDown();
+            smallPublisher.shutdown();
+        }
+    }
+
+    private static List<TransactionSynchronization> suspend() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::suspend);
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static void resume(List<TransactionSynchronization> synchronizations) {
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(synchronization -> {
+            synchronization.resume();
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        });
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
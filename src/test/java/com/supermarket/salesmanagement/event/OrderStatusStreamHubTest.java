@@ -0,0 +1,121 @@
+package com.supermarket.salesmanagement.event;
+
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatusStreamHubTest {
+    private final UUID shopId = UUID.randomUUID();
+    private final UUID otherShopId = UUID.randomUUID();
+
+    @Test
+    void publish_DeliveredToShopAndOrderSubscribers() {
+        OrderStatusStreamHub hub = hub(64, 16);
+        UUID orderId = UUID.randomUUID();
+        RecordingEmitter shopStream = new RecordingEmitter();
+        RecordingEmitter orderStream = new RecordingEmitter();
+        RecordingEmitter otherShopStream = new RecordingEmitter();
+        hub.subscribe(shopStream, shopId, null, null);
+        hub.subscribe(orderStream, null, orderId, null);
+        hub.subscribe(otherShopStream, otherShopId, null, null);
+
+        hub.publish(new OrderStatusEvent(orderId, shopId, OrderStatus.CONFIRMED));
+
+        assertEquals(List.of("1"), shopStream.ids());
+        assertEquals(List.of("1"), orderStream.ids());
+        assertTrue(otherShopStream.frames.isEmpty());
+        assertTrue(shopStream.frames.get(0).contains("event:order-status"));
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ReplaysMissedEventsForSubscription() {
+        OrderStatusStreamHub hub = hub(64, 16);
+        hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+        hub.publish(new OrderStatusEvent(UUID.randomUUID(), otherShopId, OrderStatus.PENDING));
+        hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.CONFIRMED));
+        hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.CANCELLED));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        hub.subscribe(resumed, shopId, null, "1");
+        hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+
+        assertEquals(List.of("3", "4", "5"), resumed.ids());
+    }
+
+    @Test
+    void subscribe_LastEventIdOlderThanReplay_SendsResync() {
+        OrderStatusStreamHub hub = hub(64, 2);
+        for (int i = 0; i < 5; i++) {
+            hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+        }
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        hub.subscribe(resumed, shopId, null, "1");
+
+        assertTrue(resumed.frames.get(0).contains("event:resync"));
+        assertEquals(List.of("4", "5"), resumed.ids());
+    }
+
+    @Test
+    void publish_SlowSubscriberBufferFull_Disconnected() {
+        List<Runnable> pending = new ArrayList<>();
+        OrderStatusStreamHub hub = new OrderStatusStreamHub(2, 16, 0, pending::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        hub.subscribe(slow, shopId, null, null);
+        pending.clear();
+
+        for (int i = 0; i < 3; i++) {
+            hub.publish(new OrderStatusEvent(UUID.randomUUID(), shopId, OrderStatus.PENDING));
+        }
+
+        assertEquals(0, hub.getSubscriberCount());
+        assertTrue(slow.completed);
+    }
+
+    @Test
+    void heartbeat_SentAsComment() {
+        OrderStatusStreamHub hub = hub(64, 16);
+        RecordingEmitter stream = new RecordingEmitter();
+        hub.subscribe(stream, shopId, null, null);
+
+        hub.heartbeat();
+
+        assertEquals(List.of(":heartbeat\n\n"), stream.frames);
+    }
+
+    private static OrderStatusStreamHub hub(int bufferSize, int replaySize) {
+        return new OrderStatusStreamHub(bufferSize, replaySize, 0, Runnable::run);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            Set<DataWithMediaType> parts = builder.build();
+            frames.add(parts.stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        List<String> ids() {
+            return frames.stream()
+                    .filter(frame -> frame.startsWith("id:"))
+                    .map(frame -> frame.substring(3, frame.indexOf('\n')))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for one downstream service. Answers {@code GET <path>/{id}} with a
+ * JSON document after a delay drawn from its latency distribution, and fails the
+ * given fraction of calls with 503 as an overloaded service would.
+ */
+public class DownstreamStub implements AutoCloseable {
+    private final String name;
+    private final String path;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final Function<String, String> body;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService threads;
+
+    /**
+     * @param path path the client calls, e.g. {@code /api/v1/customers}
+     * @param body renders the response for the requested ID
+     */
+    public DownstreamStub(String name, String path, LatencyDistribution latency, double errorRate,
+                          Function<String, String> body) throws IOException {
+        this.name = name;
+        this.path = path;
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.body = body;
+        // Otherwise Nagle's algorithm and delayed ACKs add ~40ms to every stub response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        // Delays are slept on the request thread, so every in-flight call needs its own
+        this.threads = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext(path + "/", this::respond);
+        this.server.setExecutor(threads);
+        this.server.start();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            calls.incrementAndGet();
+            Random random = ThreadLocalRandom.current();
+            long delay = latency.sampleMillis(random);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (random.nextDouble() < errorRate) {
+                failures.incrementAndGet();
+                send(exchange, 503, "{\"message\":\"" + name + " unavailable\"}");
+                return;
+            }
+            String id = exchange.getRequestURI().getPath().substring(path.length() + 1);
+            send(exchange, 200, body.apply(id));
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import java.util.Random;
+
+/**
+ * Response time of a downstream stub, parsed from a short spec:
+ * <ul>
+ *     <li>{@code fixed:5} - always 5 ms</li>
+ *     <li>{@code uniform:2-20} - uniformly between 2 and 20 ms</li>
+ *     <li>{@code lognormal:8,120} - median 8 ms with a p99 of 120 ms, the long-tailed shape
+ *     real services show</li>
+ * </ul>
+ */
+public interface LatencyDistribution {
+    // z-score of the 99th percentile of the standard normal distribution
+    double P99_Z = 2.3263;
+
+    long sampleMillis(Random random);
+
+    static LatencyDistribution parse(String spec) {
+        String[] kindAndArgs = spec.trim().split(":", 2);
+        if (kindAndArgs.length != 2) {
+            throw new IllegalArgumentException("Expected <kind>:<args>, got " + spec);
+        }
+        String args = kindAndArgs[1];
+        return switch (kindAndArgs[0]) {
+            case "fixed" -> fixed(Long.parseLong(args));
+            case "uniform" -> {
+                String[] bounds = args.split("-");
+                yield uniform(Long.parseLong(bounds[0]), Long.parseLong(bounds[1]));
+            }
+            case "lognormal" -> {
+                String[] quantiles = args.split(",");
+                yield logNormal(Double.parseDouble(quantiles[0]), Double.parseDouble(quantiles[1]));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution " + kindAndArgs[0]);
+        };
+    }
+
+    static LatencyDistribution fixed(long millis) {
+        return random -> millis;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("uniform: max " + maxMillis + " is below min " + minMillis);
+        }
+        return random -> minMillis + (long) (random.nextDouble() * (maxMillis - minMillis + 1));
+    }
+
+    static LatencyDistribution logNormal(double medianMillis, double p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("lognormal: need 0 < median <= p99");
+        }
+        double mu = Math.log(medianMillis);
+        double sigma = (Math.log(p99Millis) - mu) / P99_Z;
+        return random -> Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}
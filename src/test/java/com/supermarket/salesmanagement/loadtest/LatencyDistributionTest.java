@@ -0,0 +1,43 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyDistributionTest {
+
+    @Test
+    void parse_LogNormalHitsConfiguredMedianAndP99() {
+        LatencyDistribution distribution = LatencyDistribution.parse("lognormal:8,120");
+        Random random = new Random(42);
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = distribution.sampleMillis(random);
+        }
+        Arrays.sort(samples);
+
+        assertEquals(8, samples[samples.length / 2], 1);
+        assertEquals(120, samples[(int) (samples.length * 0.99)], 12);
+    }
+
+    @Test
+    void parse_FixedAndUniformStayInBounds() {
+        Random random = new Random(42);
+        assertEquals(5, LatencyDistribution.parse("fixed:5").sampleMillis(random));
+        LatencyDistribution uniform = LatencyDistribution.parse("uniform:2-20");
+        for (int i = 0; i < 1000; i++) {
+            long sample = uniform.sampleMillis(random);
+            assertTrue(sample >= 2 && sample <= 20, "sample " + sample);
+        }
+    }
+
+    @Test
+    void parse_RejectsUnknownSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("normal:5"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("5"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("lognormal:50,10"));
+    }
+}
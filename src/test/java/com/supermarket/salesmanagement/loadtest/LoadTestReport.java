@@ -0,0 +1,185 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per-step latencies of a run and turns them into a {@link Summary} that is
+ * written as JSON, so two runs (say, before and after a commit) can be compared with
+ * {@link #compare}. Only samples taken after the warm-up are recorded.
+ */
+public class LoadTestReport {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Map<String, StepRecorder> steps = new ConcurrentHashMap<>();
+    private final List<String> stepOrder;
+    private volatile boolean recording;
+
+    public LoadTestReport(List<String> stepOrder) {
+        this.stepOrder = List.copyOf(stepOrder);
+        stepOrder.forEach(step -> steps.put(step, new StepRecorder()));
+    }
+
+    public void startRecording() {
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+    }
+
+    public void success(String step, long nanos) {
+        if (recording) {
+            steps.get(step).record(nanos, null);
+        }
+    }
+
+    public void failure(String step, long nanos, String error) {
+        if (recording) {
+            steps.get(step).record(nanos, error);
+        }
+    }
+
+    public Summary summarize(String label, Map<String, Object> settings, double measuredSeconds,
+                             Map<String, long[]> downstreamCalls) {
+        List<StepSummary> stepSummaries = new ArrayList<>();
+        for (String step : stepOrder) {
+            stepSummaries.add(steps.get(step).summarize(step, measuredSeconds));
+        }
+        // A scenario completes when its last step succeeds
+        StepSummary last = stepSummaries.get(stepSummaries.size() - 1);
+        long completed = last.count() - last.errors();
+        Map<String, DownstreamSummary> downstream = new LinkedHashMap<>();
+        downstreamCalls.forEach((name, counts) -> downstream.put(name, new DownstreamSummary(counts[0], counts[1])));
+        return new Summary(label, Instant.now(), settings, measuredSeconds, completed,
+                round(completed / measuredSeconds), stepSummaries, downstream);
+    }
+
+    public static void write(Summary summary, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), summary);
+    }
+
+    public static Summary read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), Summary.class);
+    }
+
+    public static void print(Summary summary, PrintStream out) {
+        out.printf("%n%s: %d scenarios completed in %.0f s, %.1f scenarios/s%n", summary.label(),
+                summary.completedScenarios(), summary.measuredSeconds(), summary.scenariosPerSecond());
+        out.printf("%-14s %8s %7s %9s %8s %8s %8s %8s %8s%n",
+                "step", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (StepSummary step : summary.steps()) {
+            out.printf("%-14s %8d %7d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n", step.name(), step.count(),
+                    step.errors(), step.perSecond(), step.p50Millis(), step.p90Millis(), step.p99Millis(),
+                    step.p999Millis(), step.maxMillis());
+        }
+        for (StepSummary step : summary.steps()) {
+            step.errorsByCause().forEach((cause, count) ->
+                    out.printf("  %s failed %d x: %s%n", step.name(), count, cause));
+        }
+        summary.downstream().forEach((name, calls) ->
+                out.printf("downstream %-9s %8d calls, %d injected failures%n", name, calls.calls(), calls.failures()));
+    }
+
+    /**
+     * Prints the relative change of throughput and latency percentiles against an
+     * earlier run; positive latency changes are regressions.
+     */
+    public static void compare(Summary baseline, Summary current, PrintStream out) {
+        out.printf("%n%s vs %s: scenarios/s %.1f -> %.1f (%s)%n", current.label(), baseline.label(),
+                baseline.scenariosPerSecond(), current.scenariosPerSecond(),
+                change(baseline.scenariosPerSecond(), current.scenariosPerSecond()));
+        out.printf("%-14s %10s %10s %10s %10s%n", "step", "req/s", "p50", "p99", "errors");
+        for (StepSummary step : current.steps()) {
+            StepSummary before = baseline.steps().stream()
+                    .filter(candidate -> candidate.name().equals(step.name()))
+                    .findFirst().orElse(null);
+            if (before == null) {
+                out.printf("%-14s (not in baseline)%n", step.name());
+                continue;
+            }
+            out.printf("%-14s %10s %10s %10s %10s%n", step.name(), change(before.perSecond(), step.perSecond()),
+                    change(before.p50Millis(), step.p50Millis()), change(before.p99Millis(), step.p99Millis()),
+                    before.errors() + " -> " + step.errors());
+        }
+    }
+
+    private static String change(double before, double after) {
+        if (before == 0) {
+            return after == 0 ? "0%" : "new";
+        }
+        return String.format("%+.1f%%", (after - before) / before * 100);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    public record Summary(String label, Instant finishedAt, Map<String, Object> settings, double measuredSeconds,
+                          long completedScenarios, double scenariosPerSecond, List<StepSummary> steps,
+                          Map<String, DownstreamSummary> downstream) {
+    }
+
+    public record StepSummary(String name, long count, long errors, double perSecond, double meanMillis,
+                              double p50Millis, double p90Millis, double p99Millis, double p999Millis,
+                              double maxMillis, Map<String, Long> errorsByCause) {
+    }
+
+    public record DownstreamSummary(long calls, long failures) {
+    }
+
+    private static final class StepRecorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private final Map<String, Long> errorsByCause = new TreeMap<>();
+
+        synchronized void record(long nanos, String error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error != null) {
+                errors++;
+                errorsByCause.merge(error, 1L, Long::sum);
+            }
+        }
+
+        synchronized StepSummary summarize(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            double mean = count == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6;
+            return new StepSummary(name, count, errors, round(count / seconds), round(mean),
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), count == 0 ? 0 : round(sorted[count - 1] / 1e6),
+                    new TreeMap<>(errorsByCause));
+        }
+
+        // Nearest-rank percentile in milliseconds
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+            return round(sorted[Math.max(0, rank)] / 1e6);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import com.supermarket.salesmanagement.SalesmanagementApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Starts the application against PostgreSQL and local stubs of the customer, product
+ * and shop services, drives {@link OrderLifecycleScenario} from a number of concurrent
+ * users and writes throughput, latency percentiles and errors per step to
+ * {@code target/loadtest/<label>.json}. With a baseline report the run is compared
+ * against it, which is how two commits are compared:
+ * <pre>
+ * git checkout main &amp;&amp; ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="-Dloadtest.label=main"
+ * git checkout my-branch &amp;&amp; ./mvnw -Ploadtest test-compile exec:exec \
+ *     -Dloadtest.args="-Dloadtest.label=my-branch -Dloadtest.baseline=target/loadtest/main.json"
+ * </pre>
+ * Settings are system properties of the forked JVM, passed in {@code loadtest.args}:
+ * <ul>
+ *     <li>{@code loadtest.users} (16), {@code loadtest.warmup-seconds} (15), {@code loadtest.duration-seconds} (60)</li>
+ *     <li>{@code loadtest.items-per-order} (3), {@code loadtest.shops} (20), {@code loadtest.products} (500)</li>
+ *     <li>{@code loadtest.customer.latency}, {@code loadtest.product.latency}, {@code loadtest.shop.latency}
+ *     as {@link LatencyDistribution} specs, and {@code loadtest.<service>.error-rate} between 0 and 1</li>
+ *     <li>{@code loadtest.db.url}, {@code loadtest.db.username}, {@code loadtest.db.password}: an existing
+ *     database to run against; without a URL an embedded PostgreSQL is started</li>
+ *     <li>{@code loadtest.app.*}: passed to the application with the prefix removed, e.g.
+ *     {@code -Dloadtest.app.application.basket.enabled=true}</li>
+ * </ul>
+ * The embedded database and stubs share the machine with the application, so compare
+ * runs made on the same host only.
+ */
+public final class LoadTestRunner {
+    private static final String APP_PREFIX = "loadtest.app.";
+    private static final List<String> AUTHORITIES = List.of("CREATE_SALES_ORDER", "READ_SALES_ORDER",
+            "UPDATE_SALES_ORDER", "CONFIRM_SALES_ORDER", "CREATE_INVOICE", "READ_INVOICE", "UPDATE_INVOICE");
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("loadtest.users", 16);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 15);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 60);
+        int itemsPerOrder = Integer.getInteger("loadtest.items-per-order", 3);
+        String label = System.getProperty("loadtest.label", "run-" + System.currentTimeMillis());
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest/" + label + ".json"));
+        String baseline = System.getProperty("loadtest.baseline");
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("users", users);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("itemsPerOrder", itemsPerOrder);
+
+        List<UUID> shops = ids(Integer.getInteger("loadtest.shops", 20));
+        List<UUID> products = ids(Integer.getInteger("loadtest.products", 500));
+        List<DownstreamStub> stubs = new ArrayList<>();
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        ExecutorService httpThreads = Executors.newFixedThreadPool(Math.max(4, users));
+        try {
+            stubs.add(stub("customer", "/api/v1/customers", settings, id -> """
+                    {"id":"%s","companyName":"Load Test Customer","email":"loadtest@example.com","createdAt":"%s"}
+                    """.formatted(id, LocalDateTime.now())));
+            stubs.add(stub("product", "/api/v1/products", settings, id -> """
+                    {"id":"%s","name":"Load Test Product","unitOfMeasure":"PCS","createdAt":"%s"}
+                    """.formatted(id, LocalDateTime.now())));
+            stubs.add(stub("shop", "/api/v1/shops", settings, id -> """
+                    {"id":"%s","name":"Load Test Shop","location":"Local","createdAt":"%s"}
+                    """.formatted(id, LocalDateTime.now())));
+
+            Map<String, Object> properties = new LinkedHashMap<>();
+            String dbUrl = System.getProperty("loadtest.db.url");
+            if (dbUrl == null) {
+                postgres = EmbeddedPostgres.builder().start();
+                dbUrl = postgres.getJdbcUrl("postgres", "postgres");
+                properties.put("spring.datasource.username", "postgres");
+                properties.put("spring.datasource.password", "postgres");
+            } else {
+                properties.put("spring.datasource.username", System.getProperty("loadtest.db.username", "postgres"));
+                properties.put("spring.datasource.password", System.getProperty("loadtest.db.password", "postgres"));
+            }
+            settings.put("database", postgres != null ? "embedded" : dbUrl);
+            String secretKey = secretKey();
+            properties.put("server.port", 0);
+            properties.put("spring.datasource.url", dbUrl);
+            properties.put("spring.jpa.show-sql", false);
+            properties.put("logging.level.root", "WARN");
+            properties.put("application.security.jwt.secret-key", secretKey);
+            properties.put("application.customer.service.url", stubs.get(0).url());
+            properties.put("application.product.service.url", stubs.get(1).url());
+            properties.put("application.shop.service.url", stubs.get(2).url());
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> name.startsWith(APP_PREFIX))
+                    .forEach(name -> {
+                        properties.put(name.substring(APP_PREFIX.length()), System.getProperty(name));
+                        settings.put(name.substring(APP_PREFIX.length()), System.getProperty(name));
+                    });
+
+            // As command line arguments, so they override application.yml
+            app = new SpringApplicationBuilder(SalesmanagementApplication.class).run(properties.entrySet().stream()
+                    .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                    .toArray(String[]::new));
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            String contextPath = app.getEnvironment().getProperty("server.servlet.context-path", "");
+            String baseUrl = "http://127.0.0.1:" + port + contextPath;
+
+            LoadTestReport report = new LoadTestReport(OrderLifecycleScenario.STEPS);
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(httpThreads)
+                    .build();
+            OrderLifecycleScenario scenario = new OrderLifecycleScenario(http, baseUrl, token(secretKey), report,
+                    shops, products, itemsPerOrder);
+
+            double measuredSeconds = drive(scenario, report, users, warmupSeconds, durationSeconds);
+
+            Map<String, long[]> downstream = new LinkedHashMap<>();
+            stubs.forEach(stub -> downstream.put(stub.name(), new long[]{stub.calls(), stub.failures()}));
+            LoadTestReport.Summary summary = report.summarize(label, settings, measuredSeconds, downstream);
+            LoadTestReport.write(summary, output);
+            LoadTestReport.print(summary, System.out);
+            System.out.println("Report written to " + output.toAbsolutePath());
+            if (baseline != null) {
+                LoadTestReport.compare(LoadTestReport.read(Path.of(baseline)), summary, System.out);
+            }
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            httpThreads.shutdownNow();
+            stubs.forEach(DownstreamStub::close);
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the scenario in a closed loop from every user; samples are recorded only after
+     * the warm-up. Returns the length of the measured window in seconds.
+     */
+    private static double drive(OrderLifecycleScenario scenario, LoadTestReport report, int users,
+                                int warmupSeconds, int durationSeconds) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            long seed = i;
+            workers.execute(() -> {
+                Random random = new Random(seed);
+                while (running.get()) {
+                    scenario.run(random);
+                }
+            });
+        }
+        System.out.printf("%d users warming up for %d s%n", users, warmupSeconds);
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        report.startRecording();
+        long start = System.nanoTime();
+        System.out.printf("Measuring for %d s%n", durationSeconds);
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        report.stopRecording();
+        double measuredSeconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        workers.shutdown();
+        if (!workers.awaitTermination(60, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return measuredSeconds;
+    }
+
+    private static DownstreamStub stub(String service, String path, Map<String, Object> settings,
+                                       Function<String, String> body) throws IOException {
+        String latency = System.getProperty("loadtest." + service + ".latency", "lognormal:5,60");
+        double errorRate = Double.parseDouble(System.getProperty("loadtest." + service + ".error-rate", "0"));
+        settings.put(service + "Latency", latency);
+        settings.put(service + "ErrorRate", errorRate);
+        return new DownstreamStub(service, path, LatencyDistribution.parse(latency), errorRate, body);
+    }
+
+    private static List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private static String secretKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static String token(String secretKey) {
+        return Jwts.builder()
+                .setSubject("loadtest")
+                .claim("authorities", AUTHORITIES)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
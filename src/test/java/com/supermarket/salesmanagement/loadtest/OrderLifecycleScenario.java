@@ -0,0 +1,129 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * One pass through the life of an order as a till and the back office drive it:
+ * create the order, scan further items, invoice it, record the payment and confirm.
+ * Every call is timed as its own step; a failed step ends the pass.
+ */
+public class OrderLifecycleScenario {
+    public static final String CREATE_ORDER = "createOrder";
+    public static final String ADD_ITEM = "addItem";
+    public static final String CREATE_INVOICE = "createInvoice";
+    public static final String PAY_INVOICE = "payInvoice";
+    public static final String CONFIRM_ORDER = "confirmOrder";
+    public static final List<String> STEPS = List.of(CREATE_ORDER, ADD_ITEM, CREATE_INVOICE, PAY_INVOICE, CONFIRM_ORDER);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String authorization;
+    private final LoadTestReport report;
+    private final List<UUID> shops;
+    private final List<UUID> products;
+    private final int itemsPerOrder;
+
+    public OrderLifecycleScenario(HttpClient http, String baseUrl, String token, LoadTestReport report,
+                                  List<UUID> shops, List<UUID> products, int itemsPerOrder) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.authorization = "Bearer " + token;
+        this.report = report;
+        this.shops = shops;
+        this.products = products;
+        this.itemsPerOrder = itemsPerOrder;
+    }
+
+    public void run(Random random) {
+        LocalDate today = LocalDate.now();
+        JsonNode order = call(CREATE_ORDER, "POST", "/api/v1/sales-orders", Map.of(
+                "customerId", UUID.randomUUID(),
+                "shopId", shops.get(random.nextInt(shops.size())),
+                "orderDate", today,
+                "items", List.of(item(random))));
+        if (order == null) {
+            return;
+        }
+        String orderId = order.get("id").asText();
+        for (int i = 1; i < itemsPerOrder; i++) {
+            if (call(ADD_ITEM, "POST", "/api/v1/sales-orders/" + orderId + "/items", item(random)) == null) {
+                return;
+            }
+        }
+        JsonNode invoice = call(CREATE_INVOICE, "POST", "/api/v1/invoices",
+                Map.of("salesOrderId", orderId, "invoiceDate", today));
+        if (invoice == null) {
+            return;
+        }
+        if (call(PAY_INVOICE, "PUT", "/api/v1/invoices/" + invoice.get("id").asText(),
+                Map.of("paymentStatus", "PAID")) == null) {
+            return;
+        }
+        call(CONFIRM_ORDER, "POST", "/api/v1/sales-orders/" + orderId + "/confirm", null);
+    }
+
+    private Map<String, Object> item(Random random) {
+        return Map.of(
+                "productId", products.get(random.nextInt(products.size())),
+                "quantity", 1 + random.nextInt(5),
+                "unitPrice", BigDecimal.valueOf(50 + random.nextInt(2000), 2));
+    }
+
+    /**
+     * Sends the request and records its latency under {@code step}; returns the parsed
+     * body, or null if the call failed.
+     */
+    private JsonNode call(String step, String method, String path, Object body) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(TIMEOUT)
+                    .header("Authorization", authorization)
+                    .header("Content-Type", "application/json")
+                    .method(method, body != null
+                            ? HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body))
+                            : HttpRequest.BodyPublishers.noBody())
+                    .build();
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            if (response.statusCode() / 100 != 2) {
+                report.failure(step, elapsed, "HTTP " + response.statusCode() + " " + message(response.body()));
+                return null;
+            }
+            report.success(step, elapsed);
+            return MAPPER.readTree(response.body());
+        } catch (IOException e) {
+            report.failure(step, System.nanoTime() - start, e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // Error bodies are plain messages carrying IDs; masking them lets failures group by cause
+    private static String message(byte[] body) {
+        String text = new String(body, StandardCharsets.UTF_8)
+                .replaceAll("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}", "<id>");
+        return text.length() > 120 ? text.substring(0, 120) : text;
+    }
+}
@@ -0,0 +1,352 @@
+package com.supermarket.salesmanagement.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.supermarket.salesmanagement.SalesmanagementApplication;
+import com.supermarket.salesmanagement.reactive.ReactiveReadServer;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the servlet and the reactive read endpoints under high fan-in. Starts the
+ * application with the reactive read server enabled, seeds orders with items and
+ * invoices, then for every concurrency level keeps that many reads in flight against
+ * one stack at a time (45% order by ID, 45% invoice by ID, 10% a page of invoices) and
+ * records throughput, latency, errors and what the concurrency cost: peak live threads,
+ * threads of the stack's HTTP server, bytes allocated per request on those threads and
+ * peak heap. Results go to {@code target/loadtest/<label>.json}:
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.supermarket.salesmanagement.loadtest.ReadFanInRunner
+ * </pre>
+ * Settings are system properties of the forked JVM, passed in {@code loadtest.args}:
+ * <ul>
+ *     <li>{@code loadtest.concurrency} (64,256,1024,4096), {@code loadtest.warmup-seconds} (5),
+ *     {@code loadtest.duration-seconds} (20), {@code loadtest.orders} (10000)</li>
+ *     <li>{@code loadtest.db.url}, {@code loadtest.db.username}, {@code loadtest.db.password} and
+ *     {@code loadtest.app.*} as for {@link LoadTestRunner}. Admission control is off unless
+ *     {@code -Dloadtest.app.application.admission.enabled=true}, since shedding would hide the
+ *     cost of the servlet threads.</li>
+ * </ul>
+ * Client and servers share the JVM, so heap figures include the client; it is the same
+ * for both stacks. The highest levels need a file descriptor limit above twice the
+ * concurrency.
+ */
+public final class ReadFanInRunner {
+    private static final String APP_PREFIX = "loadtest.app.";
+    private static final List<String> STACKS = List.of("servlet", "reactive");
+    // Names of the threads each stack serves requests on, from Tomcat and Reactor Netty / R2DBC
+    private static final Map<String, String> SERVER_THREAD_PREFIXES = Map.of("servlet", "http-nio-", "reactive", "reactor-");
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private ReadFanInRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Idle client connections of a finished level must not pile up against the next one
+        System.setProperty("jdk.httpclient.keepalive.timeout", "5");
+        int[] levels = Arrays.stream(System.getProperty("loadtest.concurrency", "64,256,1024,4096").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 20);
+        int orders = Integer.getInteger("loadtest.orders", 10_000);
+        String label = System.getProperty("loadtest.label", "read-fan-in-" + System.currentTimeMillis());
+        Path output = Path.of(System.getProperty("loadtest.output", "target/loadtest/" + label + ".json"));
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("concurrency", levels);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        settings.put("orders", orders);
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        ExecutorService clientThreads = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            String dbUrl = System.getProperty("loadtest.db.url");
+            if (dbUrl == null) {
+                postgres = EmbeddedPostgres.builder().start();
+                dbUrl = postgres.getJdbcUrl("postgres", "postgres");
+                properties.put("spring.datasource.username", "postgres");
+                properties.put("spring.datasource.password", "postgres");
+            } else {
+                properties.put("spring.datasource.username", System.getProperty("loadtest.db.username", "postgres"));
+                properties.put("spring.datasource.password", System.getProperty("loadtest.db.password", "postgres"));
+            }
+            settings.put("database", postgres != null ? "embedded" : dbUrl);
+            String secretKey = secretKey();
+            properties.put("server.port", 0);
+            properties.put("spring.datasource.url", dbUrl);
+            properties.put("spring.jpa.show-sql", false);
+            properties.put("logging.level.root", "WARN");
+            properties.put("application.security.jwt.secret-key", secretKey);
+            properties.put("application.admission.enabled", false);
+            properties.put("application.reactive-read.enabled", true);
+            properties.put("application.reactive-read.port", 0);
+            System.getProperties().stringPropertyNames().stream()
+                    .filter(name -> name.startsWith(APP_PREFIX))
+                    .forEach(name -> {
+                        properties.put(name.substring(APP_PREFIX.length()), System.getProperty(name));
+                        settings.put(name.substring(APP_PREFIX.length()), System.getProperty(name));
+                    });
+
+            app = new SpringApplicationBuilder(SalesmanagementApplication.class).run(properties.entrySet().stream()
+                    .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                    .toArray(String[]::new));
+            String contextPath = app.getEnvironment().getProperty("server.servlet.context-path", "");
+            Map<String, String> baseUrls = Map.of(
+                    "servlet", "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort() + contextPath,
+                    "reactive", "http://127.0.0.1:" + app.getBean(ReactiveReadServer.class).getPort() + contextPath);
+
+            JdbcTemplate jdbc = app.getBean(JdbcTemplate.class);
+            seed(jdbc, orders);
+            ReadMix mix = new ReadMix(jdbc.queryForList("SELECT id FROM sales_orders", UUID.class),
+                    jdbc.queryForList("SELECT id FROM invoices", UUID.class), token(secretKey));
+
+            List<LevelResult> results = new ArrayList<>();
+            for (int concurrency : levels) {
+                for (String stack : STACKS) {
+                    HttpClient http = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofSeconds(5))
+                            .executor(clientThreads)
+                            .build();
+                    LevelResult result = runLevel(http, baseUrls.get(stack), mix, stack, concurrency,
+                            warmupSeconds, durationSeconds);
+                    results.add(result);
+                    System.out.println(result.line());
+                    cooldown();
+                }
+            }
+
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            MAPPER.writeValue(output.toFile(), new Report(label, Instant.now(), settings, results));
+            System.out.printf("%n%-9s %6s %9s %8s %8s %7s %8s %8s %10s %9s%n", "stack", "conc", "req/s",
+                    "p50 ms", "p99 ms", "errors", "threads", "server", "alloc B/req", "heap MB");
+            results.forEach(result -> System.out.println(result.line()));
+            System.out.println("Report written to " + output.toAbsolutePath());
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            clientThreads.shutdownNow();
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    /**
+     * Warms up, then measures one stack at one concurrency level: every one of the
+     * {@code concurrency} loops sends its next read as soon as the previous one answers.
+     */
+    private static LevelResult runLevel(HttpClient http, String baseUrl, ReadMix mix, String stack, int concurrency,
+                                        int warmupSeconds, int durationSeconds) throws InterruptedException {
+        String step = stack + "/" + concurrency;
+        LoadTestReport report = new LoadTestReport(List.of(step));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger inFlight = new AtomicInteger();
+        for (int i = 0; i < concurrency; i++) {
+            send(http, baseUrl, mix, new Random(i), report, step, running, inFlight);
+        }
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+
+        ResourceProbe probe = new ResourceProbe(SERVER_THREAD_PREFIXES.get(stack));
+        report.startRecording();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        report.stopRecording();
+        double measuredSeconds = (System.nanoTime() - start) / 1e9;
+        ResourceProbe.Usage usage = probe.stop();
+
+        running.set(false);
+        long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        LoadTestReport.StepSummary summary = report.summarize(step, Map.of(), measuredSeconds, Map.of()).steps().get(0);
+        long succeeded = summary.count() - summary.errors();
+        return new LevelResult(stack, concurrency, summary.perSecond(), summary.p50Millis(), summary.p99Millis(),
+                summary.maxMillis(), summary.errors(), summary.errorsByCause(), usage.peakThreads(),
+                usage.serverThreads(), succeeded == 0 ? 0 : usage.allocatedBytes() / succeeded,
+                usage.peakHeapBytes() / (1024 * 1024));
+    }
+
+    private static void send(HttpClient http, String baseUrl, ReadMix mix, Random random, LoadTestReport report,
+                             String step, AtomicBoolean running, AtomicInteger inFlight) {
+        if (!running.get()) {
+            return;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + mix.nextPath(random)))
+                .header("Authorization", "Bearer " + mix.token())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long nanos = System.nanoTime() - start;
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                report.failure(step, nanos, cause.getClass().getSimpleName());
+            } else if (response.statusCode() != 200) {
+                report.failure(step, nanos, "HTTP " + response.statusCode());
+            } else {
+                report.success(step, nanos);
+            }
+            inFlight.decrementAndGet();
+            send(http, baseUrl, mix, random, report, step, running, inFlight);
+        });
+    }
+
+    // Orders of today with three items each and one unpaid invoice per order
+    private static void seed(JdbcTemplate jdbc, int orders) {
+        jdbc.update("""
+                INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+                SELECT gen_random_uuid(), gen_random_uuid(), gen_random_uuid(), CURRENT_DATE, 'CONFIRMED', 30.00,
+                       now(), now()
+                FROM generate_series(1, ?)""", orders);
+        jdbc.update("""
+                INSERT INTO sales_order_items (id, sales_order_id, order_date, product_id, quantity, unit_price,
+                                               total_price, created_at, updated_at)
+                SELECT gen_random_uuid(), o.id, o.order_date, gen_random_uuid(), 2, 5.00, 10.00, now(), now()
+                FROM sales_orders o CROSS JOIN generate_series(1, 3)""");
+        jdbc.update("""
+                INSERT INTO invoices (id, sales_order_id, shop_id, invoice_number, invoice_date, payment_status,
+                                      amount_due, amount_paid, created_at, updated_at)
+                SELECT gen_random_uuid(), id, shop_id, 1, order_date, 'UNPAID', total_amount, 0, now(), now()
+                FROM sales_orders""");
+        jdbc.execute("ANALYZE");
+    }
+
+    // Lets the previous level's connections close and its garbage go before the next is measured
+    private static void cooldown() throws InterruptedException {
+        TimeUnit.SECONDS.sleep(6);
+        System.gc();
+        TimeUnit.SECONDS.sleep(1);
+    }
+
+    private static String secretKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private static String token(String secretKey) {
+        return Jwts.builder()
+                .setSubject("loadtest")
+                .claim("authorities", List.of("READ_SALES_ORDER", "READ_INVOICE"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private record ReadMix(List<UUID> orderIds, List<UUID> invoiceIds, String token) {
+        String nextPath(Random random) {
+            int pick = random.nextInt(100);
+            if (pick < 45) {
+                return "/api/v1/sales-orders/" + orderIds.get(random.nextInt(orderIds.size()));
+            }
+            if (pick < 90) {
+                return "/api/v1/invoices/" + invoiceIds.get(random.nextInt(invoiceIds.size()));
+            }
+            return "/api/v1/invoices?page=" + random.nextInt(50) + "&size=20&sort=createdAt,desc";
+        }
+    }
+
+    /**
+     * Samples live threads and heap every 50 ms while a level is measured and sums what
+     * the stack's server threads allocated in that window.
+     */
+    private static final class ResourceProbe {
+        private final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final String threadPrefix;
+        private final Map<Long, Long> allocatedAtStart;
+        private final AtomicLong peakHeapBytes = new AtomicLong();
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+
+        ResourceProbe(String threadPrefix) {
+            this.threadPrefix = threadPrefix;
+            threads.resetPeakThreadCount();
+            allocatedAtStart = allocatedByServerThreads();
+            sampler.scheduleAtFixedRate(() -> peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                    0, 50, TimeUnit.MILLISECONDS);
+        }
+
+        Usage stop() {
+            sampler.shutdownNow();
+            Map<Long, Long> allocatedAtEnd = allocatedByServerThreads();
+            // Threads started during the window count from zero; ones that ended are lost, which the pools make rare
+            long allocated = allocatedAtEnd.entrySet().stream()
+                    .mapToLong(thread -> thread.getValue() - allocatedAtStart.getOrDefault(thread.getKey(), 0L))
+                    .sum();
+            return new Usage(threads.getPeakThreadCount(), allocatedAtEnd.size(), allocated, peakHeapBytes.get());
+        }
+
+        private Map<Long, Long> allocatedByServerThreads() {
+            Map<Long, Long> allocated = new LinkedHashMap<>();
+            for (var info : threads.getThreadInfo(threads.getAllThreadIds())) {
+                if (info != null && info.getThreadName().startsWith(threadPrefix)) {
+                    allocated.put(info.getThreadId(), threads.getThreadAllocatedBytes(info.getThreadId()));
+                }
+            }
+            return allocated;
+        }
+
+        record Usage(int peakThreads, int serverThreads, long allocatedBytes, long peakHeapBytes) {
+        }
+    }
+
+    public record LevelResult(String stack, int concurrency, double requestsPerSecond, double p50Millis,
+                              double p99Millis, double maxMillis, long errors, Map<String, Long> errorsByCause,
+                              int peakThreads, int serverThreads, long allocatedBytesPerRequest, long peakHeapMegabytes) {
+        String line() {
+            return String.format("%-9s %6d %9.1f %8.1f %8.1f %7d %8d %8d %10d %9d", stack, concurrency,
+                    requestsPerSecond, p50Millis, p99Millis, errors, peakThreads, serverThreads,
+                    allocatedBytesPerRequest, peakHeapMegabytes);
+        }
+    }
+
+    public record Report(String label, Instant finishedAt, Map<String, Object> settings, List<LevelResult> results) {
+    }
+}
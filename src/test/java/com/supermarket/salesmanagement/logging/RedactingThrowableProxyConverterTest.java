@@ -0,0 +1,29 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedactingThrowableProxyConverterTest {
+
+    @Test
+    void convert_ExceptionMessagesWithSecrets_Masked() {
+        LoggerContext context = new LoggerContext();
+        RedactingThrowableProxyConverter converter = new RedactingThrowableProxyConverter();
+        converter.setContext(context);
+        converter.start();
+        IllegalStateException failure = new IllegalStateException("Call failed",
+                new IllegalArgumentException("rejected password=hunter2"));
+        LoggingEvent event = new LoggingEvent(getClass().getName(), context.getLogger(getClass()), Level.ERROR,
+                "Request failed", failure, null);
+
+        String trace = converter.convert(event);
+
+        assertFalse(trace.contains("hunter2"), trace);
+        assertTrue(trace.contains("IllegalArgumentException: rejected password=" + SecretRedactor.MASK), trace);
+        assertTrue(trace.contains("IllegalStateException: Call failed"), trace);
+    }
+}
@@ -0,0 +1,75 @@
+package com.supermarket.salesmanagement.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+    private SamplingTurboFilter filter;
+    private Logger hot;
+    private Logger other;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.DEBUG);
+        hot = context.getLogger("com.supermarket.salesmanagement.service.SalesOrderService");
+        other = context.getLogger("org.example.Other");
+        filter = new SamplingTurboFilter();
+        filter.setMaxPerSecond(3);
+        filter.setCategories("com.supermarket.salesmanagement, org.hibernate.SQL");
+    }
+
+    @Test
+    void decide_OverRateInCategory_Denied() {
+        int allowed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (decide(hot, Level.DEBUG) == FilterReply.NEUTRAL) {
+                allowed++;
+            }
+        }
+
+        // The second boundary may fall inside the loop, so allow one extra window
+        assertTrue(allowed >= 3 && allowed <= 6, "allowed " + allowed);
+        assertEquals(10 - allowed, filter.getSuppressed());
+    }
+
+    @Test
+    void decide_OutsideCategoryOrInfo_NotSampled() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(other, Level.DEBUG));
+            assertEquals(FilterReply.NEUTRAL, decide(hot, Level.WARN));
+        }
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    @Test
+    void decide_LevelChecksAndDisabledLevels_DoNotConsumeBudget() {
+        hot.setLevel(Level.INFO);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(hot, Level.DEBUG));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, hot, Level.TRACE, null, null, null));
+        }
+
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    @Test
+    void setEnabled_False_PassesEverything() {
+        filter.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(hot, Level.DEBUG));
+        }
+        assertEquals(0, filter.getSuppressed());
+    }
+
+    private FilterReply decide(Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message {}", new Object[]{1}, null);
+    }
+}
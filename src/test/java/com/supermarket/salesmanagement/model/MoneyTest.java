@@ -0,0 +1,84 @@
+package com.supermarket.salesmanagement.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void of_WithRoundingMode_RoundsToCents() {
+        assertEquals(1001L, Money.of(new BigDecimal("10.005"), RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(1000L, Money.of(new BigDecimal("10.004"), RoundingMode.HALF_UP).getMinorUnits());
+        assertEquals(-1001L, Money.of(new BigDecimal("-10.005"), RoundingMode.HALF_UP).getMinorUnits());
+    }
+
+    @Test
+    void of_BigDecimal_RejectsFractionalCents() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("10.005")));
+        assertEquals(1000L, Money.of(new BigDecimal("10.000")).getMinorUnits());
+    }
+
+    @Test
+    void of_String_RejectsFractionalCents() {
+        assertThrows(ArithmeticException.class, () -> Money.of("1.001"));
+    }
+
+    @Test
+    void of_AmountBeyondLongRange_ThrowsException() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("100000000000000000000")));
+    }
+
+    @Test
+    void arithmetic_IsExact() {
+        Money price = Money.of("19.99");
+
+        assertEquals(Money.of("59.97"), price.times(3));
+        assertEquals(Money.of("29.99"), price.plus(Money.of("10.00")));
+        assertEquals(Money.of("9.99"), price.minus(Money.of("10.00")));
+        assertEquals(new BigDecimal("19.99"), price.toBigDecimal());
+    }
+
+    @Test
+    void arithmetic_Overflow_ThrowsException() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void dividedBy_MatchesBigDecimalRounding() {
+        long[] dividends = {0, 1, 5, 15, 25, 1000, 1001, 1005, -1, -5, -15, -25, -1005, 3333, 9999};
+        long[] divisors = {1, 2, 3, 4, 7, 10, -3, -10};
+        RoundingMode[] modes = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+
+        for (long dividend : dividends) {
+            for (long divisor : divisors) {
+                for (RoundingMode mode : modes) {
+                    BigDecimal expected = BigDecimal.valueOf(dividend, 2).divide(BigDecimal.valueOf(divisor), 2, mode);
+                    assertEquals(expected, Money.ofMinor(dividend).dividedBy(divisor, mode).toBigDecimal(),
+                            dividend + " / " + divisor + " " + mode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void dividedBy_UnnecessaryRounding_ThrowsException() {
+        assertEquals(Money.of("5.00"), Money.of("10.00").dividedBy(2, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Money.of("10.00").dividedBy(3, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Money.of("10.00").dividedBy(0, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void equalsIgnoresDecimalScale() {
+        assertEquals(Money.of(new BigDecimal("10")), Money.of(new BigDecimal("10.00")));
+        assertEquals(0, Money.of("1.50").compareTo(Money.of(new BigDecimal("1.5"))));
+    }
+}
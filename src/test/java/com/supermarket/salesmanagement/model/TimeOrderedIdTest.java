@@ -0,0 +1,55 @@
+package com.supermarket.salesmanagement.model;
+
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.service.InvoiceService;
+import com.supermarket.salesmanagement.service.SalesOrderService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Test
+    void persistedEntities_GetIncreasingVersion7Ids() {
+        SalesOrderResponse first = createOrder();
+        SalesOrderResponse second = createOrder();
+        InvoiceCreateRequest invoiceRequest = new InvoiceCreateRequest();
+        invoiceRequest.setSalesOrderId(second.getId());
+        invoiceRequest.setInvoiceDate(LocalDate.now());
+        InvoiceResponse invoice = invoiceService.createInvoice(invoiceRequest);
+
+        assertEquals(7, first.getId().version());
+        assertEquals(7, first.getItems().get(0).getId().version());
+        assertEquals(7, invoice.getId().version());
+        assertTrue(second.getId().toString().compareTo(first.getId().toString()) > 0);
+    }
+
+    private SalesOrderResponse createOrder() {
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("1.00"));
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(UUID.randomUUID());
+        request.setOrderDate(LocalDate.now());
+        request.setItems(List.of(item));
+        return salesOrderService.createSalesOrder(request);
+    }
+}
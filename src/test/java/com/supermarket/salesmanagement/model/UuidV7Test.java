@@ -0,0 +1,71 @@
+package com.supermarket.salesmanagement.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_SetsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        // The counter may carry a few milliseconds ahead of the clock under load
+        assertTrue(UuidV7.timestamp(id) >= before && UuidV7.timestamp(id) <= after + 5, id.toString());
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.timestamp(UUID.randomUUID()));
+    }
+
+    @Test
+    void of_LaysOutTimestampCounterAndRandomBits() {
+        UUID id = UuidV7.of(0x0190_1234_5678L, 0xABC, -1L);
+
+        assertEquals("01901234-5678-7abc-bfff-ffffffffffff", id.toString());
+    }
+
+    @Test
+    void next_IsStrictlyIncreasingInDatabaseOrder() {
+        // Fixed-width lower-case hex compares like PostgreSQL's unsigned byte order
+        String previous = UuidV7.next().toString();
+        for (int i = 0; i < 100_000; i++) {
+            String current = UuidV7.next().toString();
+            assertTrue(current.compareTo(previous) > 0, previous + " then " + current);
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_IsUniqueAcrossThreads() throws Exception {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(threads.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        ids.add(UuidV7.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(400_000, ids.size());
+    }
+}
@@ -0,0 +1,164 @@
+package com.supermarket.salesmanagement.reactive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.service.InvoiceService;
+import com.supermarket.salesmanagement.service.SalesOrderService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveReadServerTest extends EmbeddedPostgresTest {
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${application.security.jwt.secret-key}")
+    private String secretKey;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    @DynamicPropertySource
+    static void reactiveRead(DynamicPropertyRegistry registry) {
+        registry.add("application.reactive-read.enabled", () -> "true");
+        registry.add("application.reactive-read.port", () -> "0");
+    }
+
+    @Test
+    void getSalesOrderById_SameAsServletRead() throws Exception {
+        UUID orderId = createOrder("2.35", "7.00").getId();
+
+        HttpResponse<String> response = get("/api/v1/sales-orders/" + orderId, "READ_SALES_ORDER");
+
+        assertEquals(200, response.statusCode());
+        SalesOrderResponse reactive = objectMapper.readValue(response.body(), SalesOrderResponse.class);
+        SalesOrderResponse servlet = inSession(() -> salesOrderService.getSalesOrderById(orderId));
+        reactive.getItems().sort(Comparator.comparing(SalesOrderResponse.OrderItemResponse::getId));
+        servlet.getItems().sort(Comparator.comparing(SalesOrderResponse.OrderItemResponse::getId));
+        assertEquals(servlet, reactive);
+
+        UUID unknown = UUID.randomUUID();
+        HttpResponse<String> notFound = get("/api/v1/sales-orders/" + unknown, "READ_SALES_ORDER");
+        assertEquals(400, notFound.statusCode());
+        assertEquals("Sales order with ID " + unknown + " not found", notFound.body());
+
+        HttpResponse<String> malformed = get("/api/v1/sales-orders/not-a-uuid", "READ_SALES_ORDER");
+        assertEquals(400, malformed.statusCode());
+        assertEquals("Invalid id: not-a-uuid", malformed.body());
+    }
+
+    @Test
+    void invoices_SameJsonAsServletRead() throws Exception {
+        List<InvoiceResponse> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(createInvoice(createOrder("1.10").getId()));
+        }
+        UUID invoiceId = created.get(1).getId();
+
+        HttpResponse<String> one = get("/api/v1/invoices/" + invoiceId, "READ_INVOICE");
+        assertEquals(200, one.statusCode());
+        assertEquals(json(invoiceService.getInvoiceById(invoiceId)), objectMapper.readTree(one.body()));
+
+        HttpResponse<String> page = get("/api/v1/invoices?page=0&size=2&sort=createdAt,desc", "READ_INVOICE");
+        assertEquals(200, page.statusCode());
+        JsonNode servletPage = json(invoiceService.getAllInvoices(
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt"))));
+        assertEquals(servletPage, objectMapper.readTree(page.body()));
+        assertEquals(created.get(2).getId().toString(), objectMapper.readTree(page.body()).at("/content/0/id").asText());
+    }
+
+    @Test
+    void requests_NeedValidTokenWithAuthority() throws Exception {
+        String path = "/api/v1/invoices";
+        assertEquals(403, http.send(HttpRequest.newBuilder(uri(path)).build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(403, get(path, "READ_SALES_ORDER").statusCode());
+        assertEquals(401, http.send(HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer not-a-token").build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpResponse<String> get(String path, String authority) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token(authority)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Through the wire format, as a servlet client would see it
+    private JsonNode json(Object servletResponse) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(servletResponse));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + reactiveReadServer.getPort() + contextPath + path);
+    }
+
+    private String token(String authority) {
+        return Jwts.builder()
+                .setSubject("dashboard")
+                .claim("authorities", List.of(authority))
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private InvoiceResponse createInvoice(UUID orderId) {
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(orderId);
+        request.setInvoiceDate(LocalDate.now());
+        return invoiceService.createInvoice(request);
+    }
+
+    private SalesOrderResponse createOrder(String... unitPrices) {
+        List<SalesOrderCreateRequest.OrderItemRequest> items = new ArrayList<>();
+        for (String unitPrice : unitPrices) {
+            SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+            item.setProductId(UUID.randomUUID());
+            item.setQuantity(2);
+            item.setUnitPrice(new BigDecimal(unitPrice));
+            items.add(item);
+        }
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(UUID.randomUUID());
+        request.setOrderDate(LocalDate.now());
+        request.setItems(items);
+        return salesOrderService.createSalesOrder(request);
+    }
+}
@@ -0,0 +1,85 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.CheckoutRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.CheckoutResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutServiceTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Test
+    void checkout_WritesConfirmedOrderAndPaidInvoiceWithoutReadingBack() {
+        CheckoutRequest request = request(new BigDecimal("1.25"), new BigDecimal("4.00"), new BigDecimal("0.99"));
+        AtomicReference<CheckoutResponse> response = new AtomicReference<>();
+
+        List<String> statements = budget.record(() -> response.set(checkoutService.checkout(request)));
+
+        statements.forEach(sql -> assertFalse(sql.trim().toLowerCase().startsWith("select"), sql));
+        assertEquals(1, statements.stream().filter(sql -> sql.startsWith("insert into sales_orders ")).count(),
+                String.join("\n", statements));
+        SalesOrderResponse order = response.get().getOrder();
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(new BigDecimal("12.22"), order.getTotalAmount());
+        assertEquals(3, order.getItems().size());
+        assertEquals(PaymentStatus.PAID, response.get().getInvoice().getPaymentStatus());
+        assertEquals(order.getId(), response.get().getInvoice().getSalesOrderId());
+        assertNotNull(response.get().getInvoice().getInvoiceNumber());
+        assertNotNull(response.get().getInvoice().getCreatedAt());
+
+        SalesOrderResponse stored = inSession(() -> salesOrderService.getSalesOrderById(order.getId()));
+        assertEquals(OrderStatus.CONFIRMED, stored.getStatus());
+        assertEquals(3, stored.getItems().size());
+        assertEquals(PaymentStatus.PAID, invoiceService.getInvoiceById(response.get().getInvoice().getId()).getPaymentStatus());
+    }
+
+    @Test
+    void checkout_InvalidItem_RejectedBeforeAnyWrite() {
+        CheckoutRequest request = request(new BigDecimal("1.25"), new BigDecimal("-1.00"));
+
+        List<String> statements = budget.record(() ->
+                assertThrows(CustomException.class, () -> checkoutService.checkout(request)));
+
+        assertEquals(List.of(), statements);
+    }
+
+    private static CheckoutRequest request(BigDecimal... unitPrices) {
+        List<SalesOrderCreateRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < unitPrices.length; i++) {
+            SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+            item.setProductId(UUID.randomUUID());
+            item.setQuantity(i + 1);
+            item.setUnitPrice(unitPrices[i]);
+            items.add(item);
+        }
+        CheckoutRequest request = new CheckoutRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(UUID.randomUUID());
+        request.setOrderDate(LocalDate.now());
+        request.setItems(items);
+        return request;
+    }
+}
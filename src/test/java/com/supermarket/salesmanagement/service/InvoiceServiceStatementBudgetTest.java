@@ -0,0 +1,107 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.InvoiceUpdateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets for the {@link InvoiceService} operations.
+ */
+class InvoiceServiceStatementBudgetTest extends EmbeddedPostgresTest {
+    private static final LocalDate INVOICE_DATE = LocalDate.now();
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Test
+    void createInvoice() {
+        UUID orderId = createOrder();
+
+        // Includes the invoice number counter upsert, which runs through JdbcTemplate
+        InvoiceResponse response = budget.expect("createInvoice", 6,
+                () -> invoiceService.createInvoice(invoiceRequest(orderId)));
+
+        assertEquals(PaymentStatus.UNPAID, response.getPaymentStatus());
+    }
+
+    @Test
+    void getInvoiceById() {
+        UUID invoiceId = invoiceService.createInvoice(invoiceRequest(createOrder())).getId();
+
+        InvoiceResponse response = budget.expect("getInvoiceById", 1,
+                () -> inSession(() -> invoiceService.getInvoiceById(invoiceId)));
+
+        assertEquals(invoiceId, response.getId());
+    }
+
+    @Test
+    void getAllInvoices_PageOfTwenty() {
+        for (int i = 0; i < 20; i++) {
+            invoiceService.createInvoice(invoiceRequest(createOrder()));
+        }
+
+        Page<InvoiceResponse> page = budget.expect("getAllInvoices", 2,
+                () -> inSession(() -> invoiceService.getAllInvoices(PageRequest.of(0, 20))));
+
+        assertEquals(20, page.getContent().size());
+    }
+
+    @Test
+    void updateInvoice_MarkPaid() {
+        UUID invoiceId = invoiceService.createInvoice(invoiceRequest(createOrder())).getId();
+        InvoiceUpdateRequest request = new InvoiceUpdateRequest();
+        request.setPaymentStatus(PaymentStatus.PAID);
+
+        // Settling locks the balance and applies the payment through JdbcTemplate, then appends to the ledger
+        InvoiceResponse response = budget.expect("updateInvoice", 4,
+                () -> invoiceService.updateInvoice(invoiceId, request));
+
+        assertEquals(PaymentStatus.PAID, response.getPaymentStatus());
+    }
+
+    @Test
+    void deleteInvoice() {
+        UUID invoiceId = invoiceService.createInvoice(invoiceRequest(createOrder())).getId();
+
+        budget.expect("deleteInvoice", 3, () -> invoiceService.deleteInvoice(invoiceId));
+
+        assertThrows(Exception.class, () -> inSession(() -> invoiceService.getInvoiceById(invoiceId)));
+    }
+
+    private UUID createOrder() {
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("4.99"));
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(UUID.randomUUID());
+        request.setOrderDate(INVOICE_DATE);
+        request.setItems(List.of(item));
+        return salesOrderService.createSalesOrder(request).getId();
+    }
+
+    private static InvoiceCreateRequest invoiceRequest(UUID orderId) {
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(orderId);
+        request.setInvoiceDate(INVOICE_DATE);
+        return request;
+    }
+}
@@ -11,6 +11,8 @@ import com.supermarket.salesmanagement.model.enums.OrderStatus;
 import com.supermarket.salesmanagement.model.enums.PaymentStatus;
 import com.supermarket.salesmanagement.repository.InvoiceRepository;
 import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.service.invoicenumber.InvoiceNumberAllocator;
+import com.supermarket.salesmanagement.service.payment.InvoicePaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +46,12 @@ class InvoiceServiceTest {
     @Mock
     private SalesOrderService salesOrderService;
 
+    @Mock
+    private InvoiceNumberAllocator invoiceNumberAllocator;
+
+    @Mock
+    private InvoicePaymentService invoicePaymentService;
+
     @InjectMocks
     private InvoiceService invoiceService;
 
@@ -0,0 +1,56 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the partition functions against the migrated schema, on a month long past so
+ * the partitions of other tests are left alone.
+ */
+class PartitionMaintenanceServiceTest extends EmbeddedPostgresTest {
+    private static final LocalDate MONTH = LocalDate.of(2001, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void dropDetachedPartitions() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS sales_order_items_p2001_01, sales_orders_p2001_01");
+    }
+
+    @Test
+    void detachSalesPartitions_MonthWithItems_DetachesBothTablesAndKeepsRows() {
+        jdbcTemplate.queryForObject("SELECT create_sales_partitions(?, ?)", Integer.class, MONTH, MONTH);
+        UUID orderId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount)
+                VALUES (?, ?, ?, ?, 'CONFIRMED', 10.00)""", orderId, UUID.randomUUID(), UUID.randomUUID(), MONTH.plusDays(14));
+        jdbcTemplate.update("""
+                INSERT INTO sales_order_items (id, sales_order_id, order_date, product_id, quantity, unit_price, total_price)
+                VALUES (?, ?, ?, ?, 2, 5.00, 10.00)""", UUID.randomUUID(), orderId, MONTH.plusDays(14), UUID.randomUUID());
+
+        List<String> detached = jdbcTemplate.queryForList("SELECT detach_sales_partitions(?)", String.class,
+                MONTH.plusMonths(1));
+
+        assertEquals(List.of("sales_order_items_p2001_01", "sales_orders_p2001_01"), detached);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM sales_orders WHERE id = ?", Integer.class, orderId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM sales_orders_p2001_01", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sales_order_items_p2001_01 WHERE sales_order_id = ?", Integer.class, orderId));
+        // The detached pair keeps its foreign key, now between the two detached tables
+        assertEquals("sales_orders_p2001_01", jdbcTemplate.queryForObject("""
+                SELECT confrelid::regclass::text FROM pg_constraint
+                WHERE contype = 'f' AND conrelid = 'sales_order_items_p2001_01'::regclass""", String.class));
+        assertTrue(jdbcTemplate.queryForList("SELECT detach_sales_partitions(?)", String.class,
+                MONTH.plusMonths(1)).isEmpty());
+    }
+}
@@ -0,0 +1,174 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.SalesOrderBulkStatusRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse.Outcome;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse.Result;
+import com.supermarket.salesmanagement.event.OrderStatusPublisher;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.service.basket.DraftBasketService;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the set-based transitions against the migrated schema with chunks of two
+ * orders so every request spans several chunks.
+ */
+class SalesOrderBulkStatusServiceTest extends EmbeddedPostgresTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private DraftBasketService draftBasketService;
+    @Autowired
+    private OrderStatusPublisher orderStatusPublisher;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void transition_ByIds_AppliesTransitionRulesPerOrder() {
+        UUID shopId = UUID.randomUUID();
+        UUID draft = insertOrder(shopId, "DRAFT");
+        UUID confirmed = insertOrder(shopId, "CONFIRMED");
+        UUID cancelled = insertOrder(shopId, "CANCELLED");
+        UUID missing = UUID.randomUUID();
+
+        SalesOrderBulkStatusResponse response = service(2, 100).transition(
+                byIds(OrderStatus.CANCELLED, draft, confirmed, cancelled, missing, draft));
+
+        Map<UUID, Result> results = byId(response);
+        assertEquals(4, results.size());
+        assertEquals(Outcome.UPDATED, results.get(draft).getOutcome());
+        assertEquals(OrderStatus.DRAFT, results.get(draft).getPreviousStatus());
+        assertEquals(Outcome.UPDATED, results.get(confirmed).getOutcome());
+        assertEquals(Outcome.UNCHANGED, results.get(cancelled).getOutcome());
+        assertEquals(Outcome.NOT_FOUND, results.get(missing).getOutcome());
+        assertEquals(2, response.getUpdated());
+        assertEquals(1, response.getNotFound());
+        assertEquals("CANCELLED", status(draft));
+        assertEquals("CANCELLED", status(confirmed));
+
+        SalesOrderBulkStatusResponse reopen = service(2, 100).transition(byIds(OrderStatus.PENDING, confirmed));
+        assertEquals(Outcome.REJECTED, reopen.getResults().get(0).getOutcome());
+        assertEquals("Cancelled orders cannot be modified", reopen.getResults().get(0).getMessage());
+    }
+
+    @Test
+    void transition_ToConfirmed_RequiresPaidInvoice() {
+        UUID shopId = UUID.randomUUID();
+        UUID paid = insertOrder(shopId, "PENDING");
+        insertInvoice(paid, "PAID");
+        UUID unpaid = insertOrder(shopId, "PENDING");
+        insertInvoice(unpaid, "UNPAID");
+        UUID confirmed = insertOrder(shopId, "CONFIRMED");
+
+        Map<UUID, Result> results = byId(service(2, 100).transition(
+                byIds(OrderStatus.CONFIRMED, paid, unpaid, confirmed)));
+
+        assertEquals(Outcome.UPDATED, results.get(paid).getOutcome());
+        assertEquals(Outcome.REJECTED, results.get(unpaid).getOutcome());
+        assertEquals("Invoice for sales order " + unpaid + " is not fully paid", results.get(unpaid).getMessage());
+        assertEquals(Outcome.UNCHANGED, results.get(confirmed).getOutcome());
+        assertEquals("CONFIRMED", status(paid));
+        assertEquals("PENDING", status(unpaid));
+    }
+
+    @Test
+    void transition_ByShopFilter_WalksAllMatchingOrdersInChunks() {
+        UUID shopId = UUID.randomUUID();
+        List<UUID> drafts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            drafts.add(insertOrder(shopId, "DRAFT"));
+        }
+        UUID confirmed = insertOrder(shopId, "CONFIRMED");
+        UUID otherShop = insertOrder(UUID.randomUUID(), "DRAFT");
+
+        SalesOrderBulkStatusResponse limited = service(2, 3).transition(byShop(shopId, OrderStatus.DRAFT));
+        assertTrue(limited.isTruncated());
+        assertEquals(3, limited.getUpdated());
+
+        SalesOrderBulkStatusResponse rest = service(2, 100).transition(byShop(shopId, OrderStatus.DRAFT));
+        assertFalse(rest.isTruncated());
+        assertEquals(2, rest.getUpdated());
+
+        drafts.forEach(id -> assertEquals("CANCELLED", status(id)));
+        assertEquals("CONFIRMED", status(confirmed));
+        assertEquals("DRAFT", status(otherShop));
+    }
+
+    @Test
+    void transition_RejectsIdsCombinedWithShopFilter() {
+        SalesOrderBulkStatusRequest request = byShop(UUID.randomUUID(), OrderStatus.DRAFT);
+        request.setOrderIds(List.of(UUID.randomUUID()));
+
+        assertThrows(CustomException.class, () -> service(2, 100).transition(request));
+    }
+
+    private SalesOrderBulkStatusService service(int chunkSize, int maxOrders) {
+        return new SalesOrderBulkStatusService(jdbcTemplate, shardRouter, draftBasketService, orderStatusPublisher,
+                entityManagerFactory, transactionManager, chunkSize, maxOrders);
+    }
+
+    private static SalesOrderBulkStatusRequest byIds(OrderStatus target, UUID... ids) {
+        SalesOrderBulkStatusRequest request = new SalesOrderBulkStatusRequest();
+        request.setTargetStatus(target);
+        request.setOrderIds(List.of(ids));
+        return request;
+    }
+
+    private static SalesOrderBulkStatusRequest byShop(UUID shopId, OrderStatus currentStatus) {
+        SalesOrderBulkStatusRequest request = new SalesOrderBulkStatusRequest();
+        request.setTargetStatus(OrderStatus.CANCELLED);
+        request.setShopId(shopId);
+        request.setCurrentStatus(currentStatus);
+        return request;
+    }
+
+    private static Map<UUID, Result> byId(SalesOrderBulkStatusResponse response) {
+        return response.getResults().stream().collect(Collectors.toMap(Result::getId, Function.identity()));
+    }
+
+    private UUID insertOrder(UUID shopId, String status) {
+        UUID orderId = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("""
+                        INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, 0, ?, ?)
+                        """,
+                orderId, UUID.randomUUID(), shopId, LocalDate.now(), status, now, now);
+        return orderId;
+    }
+
+    private void insertInvoice(UUID orderId, String paymentStatus) {
+        jdbcTemplate.update("""
+                        INSERT INTO invoices (id, sales_order_id, invoice_date, payment_status, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, now(), now())
+                        """,
+                UUID.randomUUID(), orderId, LocalDate.now(), paymentStatus);
+    }
+
+    private String status(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM sales_orders WHERE id = ?", String.class, orderId);
+    }
+}
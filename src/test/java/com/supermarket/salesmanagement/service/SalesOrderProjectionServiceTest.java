@@ -0,0 +1,110 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderSummaryResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the narrow views read only what they return: the summary view must not
+ * touch the items table and field selections must not load whole rows.
+ */
+class SalesOrderProjectionServiceTest extends EmbeddedPostgresTest {
+    private static final LocalDate ORDER_DATE = LocalDate.now();
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private SalesOrderProjectionService salesOrderProjectionService;
+
+    @Test
+    void summaries_NeverReadItems() {
+        UUID shopId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            createOrder(shopId, 3);
+        }
+        AtomicReference<Page<SalesOrderSummaryResponse>> page = new AtomicReference<>();
+
+        List<String> statements = budget.record(() -> page.set(inSession(() -> salesOrderProjectionService
+                .getSummariesByDate(shopId, ORDER_DATE, ORDER_DATE, PageRequest.of(0, 3, Sort.by("orderDate"))))));
+
+        assertEquals(3, page.get().getContent().size());
+        assertEquals(5, page.get().getTotalElements());
+        assertEquals(new BigDecimal("14.10"), page.get().getContent().get(0).getTotalAmount());
+        assertEquals(OrderStatus.DRAFT, page.get().getContent().get(0).getStatus());
+        assertEquals(2, statements.size(), String.join("\n", statements));
+        statements.forEach(sql -> assertFalse(sql.contains("sales_order_items"), sql));
+        statements.forEach(sql -> assertFalse(sql.contains("customer_id"), sql));
+    }
+
+    @Test
+    void fields_SelectOnlyRequestedColumnsAndItemFields() {
+        UUID shopId = UUID.randomUUID();
+        UUID orderId = createOrder(shopId, 2).getId();
+        createOrder(shopId, 1);
+        AtomicReference<Page<Map<String, Object>>> page = new AtomicReference<>();
+
+        List<String> statements = budget.record(() -> page.set(inSession(() -> salesOrderProjectionService
+                .getFieldsByDate(shopId, ORDER_DATE, ORDER_DATE, "status,items.productId,items.quantity",
+                        PageRequest.of(0, 10)))));
+
+        assertEquals(2, statements.size(), String.join("\n", statements));
+        statements.forEach(sql -> assertFalse(sql.contains("total_amount"), sql));
+        statements.forEach(sql -> assertFalse(sql.contains("unit_price"), sql));
+        Map<String, Object> row = page.get().getContent().stream()
+                .filter(order -> orderId.equals(order.get("id"))).findFirst().orElseThrow();
+        assertEquals(List.of("id", "status", "items"), List.copyOf(row.keySet()));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> items = (List<Map<String, Object>>) row.get("items");
+        assertEquals(2, items.size());
+        assertEquals(List.of("productId", "quantity"), List.copyOf(items.get(0).keySet()));
+    }
+
+    @Test
+    void fields_ByIdMatchesInMemorySelection() {
+        SalesOrderResponse order = createOrder(UUID.randomUUID(), 1);
+        String fields = "totalAmount,orderDate,items.productId,items.quantity,items.unitPrice";
+
+        Map<String, Object> row = inSession(() -> salesOrderProjectionService.getFieldsById(order.getId(), fields));
+
+        assertEquals(SalesOrderProjectionService.select(fields, order), row);
+        assertThrows(CustomException.class, () -> salesOrderProjectionService.getFieldsById(order.getId(), "items.secret"));
+        assertThrows(CustomException.class, () -> salesOrderProjectionService.getAllFields("status",
+                PageRequest.of(0, 10, Sort.by("items"))));
+    }
+
+    private SalesOrderResponse createOrder(UUID shopId, int lines) {
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(shopId);
+        request.setOrderDate(ORDER_DATE);
+        List<SalesOrderCreateRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+            item.setProductId(UUID.randomUUID());
+            item.setQuantity(i + 1);
+            item.setUnitPrice(new BigDecimal("2.35"));
+            items.add(item);
+        }
+        request.setItems(items);
+        return salesOrderService.createSalesOrder(request);
+    }
+}
@@ -0,0 +1,198 @@
+package com.supermarket.salesmanagement.service;
+
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.InvoiceUpdateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderItemAddRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderUpdateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets for the {@link SalesOrderService} operations. Raising a budget
+ * should be a deliberate decision made in review, not a side effect.
+ */
+class SalesOrderServiceStatementBudgetTest extends EmbeddedPostgresTest {
+    private static final LocalDate ORDER_DATE = LocalDate.now();
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Test
+    void createSalesOrder() {
+        SalesOrderCreateRequest request = createRequest(UUID.randomUUID(), 3);
+
+        // One insert for the order and one per line
+        SalesOrderResponse response = budget.expect("createSalesOrder", 4,
+                () -> salesOrderService.createSalesOrder(request));
+
+        assertEquals(3, response.getItems().size());
+    }
+
+    @Test
+    void getSalesOrderById() {
+        UUID orderId = createOrder(UUID.randomUUID(), 3).getId();
+
+        SalesOrderResponse response = budget.expect("getSalesOrderById", 2,
+                () -> inSession(() -> salesOrderService.getSalesOrderById(orderId)));
+
+        assertEquals(3, response.getItems().size());
+    }
+
+    @Test
+    void getSalesOrdersByDate_PageOfTwenty() {
+        UUID shopId = UUID.randomUUID();
+        for (int i = 0; i < 20; i++) {
+            createOrder(shopId, 2);
+        }
+
+        // Page, count and one batched fetch of all items; must not grow with the page size
+        Page<SalesOrderResponse> page = budget.expect("getSalesOrdersByDate", 3,
+                () -> inSession(() -> salesOrderService.getSalesOrdersByDate(shopId, ORDER_DATE, ORDER_DATE,
+                        PageRequest.of(0, 20))));
+
+        assertEquals(20, page.getContent().size());
+        page.getContent().forEach(order -> assertEquals(2, order.getItems().size()));
+    }
+
+    @Test
+    void getAllSalesOrders_PageOfTwenty() {
+        UUID shopId = UUID.randomUUID();
+        for (int i = 0; i < 20; i++) {
+            createOrder(shopId, 2);
+        }
+
+        Page<SalesOrderResponse> page = budget.expect("getAllSalesOrders", 3,
+                () -> inSession(() -> salesOrderService.getAllSalesOrders(PageRequest.of(0, 20))));
+
+        assertEquals(20, page.getContent().size());
+    }
+
+    @Test
+    void updateSalesOrder_ReplaceItems() {
+        UUID orderId = createOrder(UUID.randomUUID(), 3).getId();
+        SalesOrderUpdateRequest request = new SalesOrderUpdateRequest();
+        request.setItems(List.of(updateItem(UUID.randomUUID(), 1, "4.50"), updateItem(UUID.randomUUID(), 2, "1.25")));
+
+        SalesOrderResponse response = budget.expect("updateSalesOrder", 6,
+                () -> salesOrderService.updateSalesOrder(orderId, request));
+
+        assertEquals(2, response.getItems().size());
+    }
+
+    @Test
+    void addSalesOrderItem_NewProduct() {
+        UUID orderId = createOrder(UUID.randomUUID(), 3).getId();
+
+        SalesOrderResponse response = budget.expect("addSalesOrderItem", 4,
+                () -> salesOrderService.addSalesOrderItem(orderId, addRequest(UUID.randomUUID(), 2, "3.10")));
+
+        assertEquals(4, response.getItems().size());
+    }
+
+    @Test
+    void addSalesOrderItem_MergeWithExistingLine() {
+        SalesOrderResponse order = createOrder(UUID.randomUUID(), 3);
+        UUID productId = order.getItems().get(0).getProductId();
+
+        SalesOrderResponse response = budget.expect("addSalesOrderItem (merge)", 4,
+                () -> salesOrderService.addSalesOrderItem(order.getId(), addRequest(productId, 2, "3.10")));
+
+        assertEquals(3, response.getItems().size());
+    }
+
+    @Test
+    void deleteSalesOrderItem() {
+        SalesOrderResponse order = createOrder(UUID.randomUUID(), 3);
+        UUID itemId = order.getItems().get(0).getId();
+
+        SalesOrderResponse response = budget.expect("deleteSalesOrderItem", 4,
+                () -> salesOrderService.deleteSalesOrderItem(order.getId(), itemId));
+
+        assertEquals(2, response.getItems().size());
+    }
+
+    @Test
+    void confirmOrderAfterPayment() {
+        UUID orderId = createOrder(UUID.randomUUID(), 3).getId();
+        InvoiceResponse invoice = invoiceService.createInvoice(invoiceRequest(orderId));
+        InvoiceUpdateRequest paid = new InvoiceUpdateRequest();
+        paid.setPaymentStatus(PaymentStatus.PAID);
+        invoiceService.updateInvoice(invoice.getId(), paid);
+
+        SalesOrderResponse response = budget.expect("confirmOrderAfterPayment", 4,
+                () -> salesOrderService.confirmOrderAfterPayment(orderId));
+
+        assertEquals("CONFIRMED", response.getStatus().name());
+    }
+
+    @Test
+    void deleteSalesOrder() {
+        UUID orderId = createOrder(UUID.randomUUID(), 3).getId();
+
+        budget.expect("deleteSalesOrder", 7, () -> salesOrderService.deleteSalesOrder(orderId));
+
+        assertThrows(Exception.class, () -> inSession(() -> salesOrderService.getSalesOrderById(orderId)));
+    }
+
+    private SalesOrderResponse createOrder(UUID shopId, int lines) {
+        return salesOrderService.createSalesOrder(createRequest(shopId, lines));
+    }
+
+    private static SalesOrderCreateRequest createRequest(UUID shopId, int lines) {
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(shopId);
+        request.setOrderDate(ORDER_DATE);
+        List<SalesOrderCreateRequest.OrderItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+            item.setProductId(UUID.randomUUID());
+            item.setQuantity(i + 1);
+            item.setUnitPrice(new BigDecimal("2.35"));
+            items.add(item);
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    private static SalesOrderUpdateRequest.OrderItemRequest updateItem(UUID productId, int quantity, String unitPrice) {
+        SalesOrderUpdateRequest.OrderItemRequest item = new SalesOrderUpdateRequest.OrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        return item;
+    }
+
+    private static SalesOrderItemAddRequest addRequest(UUID productId, int quantity, String unitPrice) {
+        SalesOrderItemAddRequest request = new SalesOrderItemAddRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        request.setUnitPrice(new BigDecimal(unitPrice));
+        return request;
+    }
+
+    private static InvoiceCreateRequest invoiceRequest(UUID orderId) {
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(orderId);
+        request.setInvoiceDate(ORDER_DATE);
+        return request;
+    }
+}
@@ -7,6 +7,7 @@ import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
 import com.supermarket.salesmanagement.event.OrderStatusPublisher;
 import com.supermarket.salesmanagement.exception.CustomException;
 import com.supermarket.salesmanagement.model.Invoice;
+import com.supermarket.salesmanagement.model.Money;
 import com.supermarket.salesmanagement.model.SalesOrder;
 import com.supermarket.salesmanagement.model.SalesOrderItem;
 import com.supermarket.salesmanagement.model.enums.OrderStatus;
@@ -17,6 +18,7 @@ import com.supermarket.salesmanagement.repository.SalesOrderRepository;
 import com.supermarket.salesmanagement.service.client.CustomerClient;
 import com.supermarket.salesmanagement.service.client.ProductClient;
 import com.supermarket.salesmanagement.service.client.ShopClient;
+import com.supermarket.salesmanagement.service.pricing.PriceEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -60,6 +62,9 @@ class SalesOrderServiceTest {
     @Mock
     private OrderStatusPublisher orderStatusPublisher;
 
+    @Mock
+    private PriceEngine priceEngine;
+
     @InjectMocks
     private SalesOrderService salesOrderService;
 
@@ -82,7 +87,7 @@ class SalesOrderServiceTest {
                 .shopId(shopId)
                 .orderDate(LocalDate.now())
                 .status(OrderStatus.DRAFT)
-                .totalAmount(BigDecimal.ZERO)
+                .totalAmount(Money.ZERO)
                 .items(new ArrayList<>())
                 .build();
     }
@@ -296,7 +301,7 @@ class SalesOrderServiceTest {
                 .salesOrder(salesOrder)
                 .productId(productId)
                 .quantity(1)
-                .unitPrice(new BigDecimal("10.00"))
+                .unitPrice(Money.of("10.00"))
                 .build();
         salesOrder.getItems().add(item);
 
@@ -407,6 +412,48 @@ class SalesOrderServiceTest {
         assertEquals(1, result.getContent().size());
     }
 
+    @Test
+    void getSalesOrdersByDate_WithShop_UsesDateBoundedQuery() {
+        Pageable pageable = PageRequest.of(0, 10);
+        LocalDate from = LocalDate.of(2025, 5, 1);
+        LocalDate to = LocalDate.of(2025, 5, 31);
+        when(salesOrderRepository.findByShopIdAndOrderDateBetween(shopId, from, to, pageable))
+                .thenReturn(new PageImpl<>(List.of(salesOrder)));
+
+        Page<SalesOrderResponse> result = salesOrderService.getSalesOrdersByDate(shopId, from, to, pageable);
+
+        assertEquals(1, result.getContent().size());
+        verify(salesOrderRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getSalesOrdersByDate_ShopWithoutDates_ListsShopOrders() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(salesOrderRepository.findByShopId(shopId, pageable)).thenReturn(new PageImpl<>(List.of(salesOrder)));
+
+        Page<SalesOrderResponse> result = salesOrderService.getSalesOrdersByDate(shopId, null, null, pageable);
+
+        assertEquals(1, result.getContent().size());
+    }
+
+    @Test
+    void getSalesOrderById_WithOrderDate_ReadsOnePartition() {
+        LocalDate orderDate = LocalDate.of(2025, 5, 12);
+        when(salesOrderRepository.findByIdAndOrderDate(orderId, orderDate)).thenReturn(Optional.of(salesOrder));
+
+        assertEquals(orderId, salesOrderService.getSalesOrderById(orderId, orderDate).getId());
+        verify(salesOrderRepository, never()).findById(any());
+    }
+
+    @Test
+    void getSalesOrdersByDate_MissingBound_ThrowsException() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        CustomException exception = assertThrows(CustomException.class,
+                () -> salesOrderService.getSalesOrdersByDate(shopId, LocalDate.now(), null, pageable));
+        assertEquals("Both from and to dates are required for a date-bounded query", exception.getMessage());
+    }
+
     @Test
     void deleteSalesOrder_Success() {
         when(salesOrderRepository.findById(orderId)).thenReturn(Optional.of(salesOrder));
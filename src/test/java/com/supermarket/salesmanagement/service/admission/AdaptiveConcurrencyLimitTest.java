@@ -0,0 +1,56 @@
+package com.supermarket.salesmanagement.service.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void onSample_StableLatencyAtLimit_Grows() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 4, 200, 0.2, 1.5, 600, 10);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(20 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() > 10, "limit should grow, was " + limit.getLimit());
+    }
+
+    @Test
+    void onSample_LatencyRising_Shrinks() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 4, 200, 0.2, 1.5, 600, 10);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(20 * MILLIS, limit.getLimit(), false);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(200 * MILLIS, limit.getLimit(), false);
+        }
+
+        assertTrue(limit.getLimit() < before / 2, "limit should shrink from " + before + ", was " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 4);
+    }
+
+    @Test
+    void onSample_AppLimited_DoesNotGrow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 200, 0.2, 1.5, 600, 10);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(20 * MILLIS, 3, false);
+        }
+
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void onSample_Dropped_BacksOff() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 4, 200, 0.2, 1.5, 600, 10);
+
+        limit.onSample(20 * MILLIS, 100, true);
+
+        assertEquals(90, limit.getLimit());
+    }
+}
@@ -0,0 +1,133 @@
+package com.supermarket.salesmanagement.service.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimiterTest {
+
+    @Test
+    void acquire_UnderLimit_AdmittedImmediately() {
+        AdmissionLimiter limiter = limiter(2, 10, 10, 1000);
+
+        AdmissionLimiter.Permit first = limiter.acquire("shop-a");
+        AdmissionLimiter.Permit second = limiter.acquire("shop-a");
+
+        assertEquals(2, limiter.getInFlight());
+        first.release(false);
+        second.release(false);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void acquire_QueuedShops_DispatchedFairly() throws Exception {
+        AdmissionLimiter limiter = limiter(1, 10, 10, 5000);
+        AdmissionLimiter.Permit holder = limiter.acquire("shop-a");
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (String shop : List.of("shop-a", "shop-a", "shop-a", "shop-b")) {
+                requests.add(executor.submit(() -> {
+                    AdmissionLimiter.Permit permit = limiter.acquire(shop);
+                    admitted.add(shop);
+                    permit.release(false);
+                }));
+                awaitQueued(limiter, requests.size());
+            }
+
+            holder.release(false);
+            for (Future<?> request : requests) {
+                request.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of("shop-a", "shop-b", "shop-a", "shop-a"), admitted);
+    }
+
+    @Test
+    void acquire_ShopQueueFull_TooManyRequests() throws Exception {
+        AdmissionLimiter limiter = limiter(1, 10, 1, 5000);
+        AdmissionLimiter.Permit holder = limiter.acquire("shop-a");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> queued = executor.submit(() -> limiter.acquire("shop-a").release(false));
+            awaitQueued(limiter, 1);
+
+            AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                    () -> limiter.acquire("shop-a"));
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatus());
+            assertEquals(1, rejected.getRetryAfterSeconds());
+
+            holder.release(false);
+            queued.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void acquire_NoSlotWithinTimeout_ServiceUnavailable() {
+        AdmissionLimiter limiter = limiter(1, 10, 10, 50);
+        limiter.acquire("shop-a");
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> limiter.acquire("shop-b"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatus());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void acquire_WeightedShop_GetsLargerShare() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, 1, 1, 0.2, 1.5, 10, 10, 5000, 1, "shop-b=2");
+        AdmissionLimiter.Permit holder = limiter.acquire("shop-a");
+        List<String> admitted = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (String shop : List.of("shop-a", "shop-a", "shop-b", "shop-b")) {
+                requests.add(executor.submit(() -> {
+                    AdmissionLimiter.Permit permit = limiter.acquire(shop);
+                    admitted.add(shop);
+                    permit.release(false);
+                }));
+                awaitQueued(limiter, requests.size());
+            }
+
+            holder.release(false);
+            for (Future<?> request : requests) {
+                request.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of("shop-b", "shop-a", "shop-b", "shop-a"), admitted);
+    }
+
+    private static AdmissionLimiter limiter(int limit, int maxQueue, int maxQueuePerShop, long queueTimeoutMs) {
+        return new AdmissionLimiter(limit, limit, limit, 0.2, 1.5, maxQueue, maxQueuePerShop, queueTimeoutMs, 1, "");
+    }
+
+    private static void awaitQueued(AdmissionLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getQueued() < expected) {
+            if (System.nanoTime() > deadline) {
+                fail("Request was not queued");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
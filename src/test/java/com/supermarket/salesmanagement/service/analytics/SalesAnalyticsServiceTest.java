@@ -0,0 +1,83 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import com.supermarket.salesmanagement.dto.response.SalesLineAnalyticsResponse;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the snapshot's full load and incremental refresh queries against the
+ * migrated schema.
+ */
+class SalesAnalyticsServiceTest extends EmbeddedPostgresTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rebuildAndRefresh_TrackConfirmedLines() {
+        UUID productId = UUID.randomUUID();
+        UUID shopA = UUID.randomUUID();
+        UUID shopB = UUID.randomUUID();
+        UUID first = insertOrder(shopA, "CONFIRMED", productId, 2, "3.50");
+        insertOrder(shopB, "CONFIRMED", productId, 5, "1.00");
+        insertOrder(shopA, "DRAFT", productId, 7, "1.00");
+
+        salesAnalyticsService.rebuild().join();
+        SalesLineAnalyticsResponse perShop = salesAnalyticsService.aggregate(perShop(productId), 10);
+
+        assertEquals(2, perShop.getGroups().size());
+        assertEquals(shopA.toString(), perShop.getGroups().get(0).getKey());
+        assertEquals(new BigDecimal("7.00"), perShop.getGroups().get(0).getRevenue());
+        assertEquals(5, perShop.getGroups().get(1).getUnits());
+
+        jdbcTemplate.update("UPDATE sales_orders SET status = 'CANCELLED', updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), first);
+        insertOrder(shopB, "CONFIRMED", productId, 1, "1.00");
+        salesAnalyticsService.refresh().join();
+        SalesLineAnalyticsResponse refreshed = salesAnalyticsService.aggregate(perShop(productId), 10);
+
+        assertEquals(1, refreshed.getGroups().size());
+        assertEquals(shopB.toString(), refreshed.getGroups().get(0).getKey());
+        assertEquals(6, refreshed.getGroups().get(0).getUnits());
+        assertEquals(2, refreshed.getGroups().get(0).getLines());
+
+        // Changes inside the lookback window are seen again but applied only once
+        salesAnalyticsService.refresh().join();
+        assertEquals(6, salesAnalyticsService.aggregate(perShop(productId), 10).getGroups().get(0).getUnits());
+    }
+
+    private static SalesLineQuery perShop(UUID productId) {
+        return SalesLineQuery.builder().productId(productId).from(TODAY).to(TODAY).groupBy(GroupBy.SHOP).build();
+    }
+
+    private UUID insertOrder(UUID shopId, String status, UUID productId, int quantity, String unitPrice) {
+        UUID orderId = UUID.randomUUID();
+        BigDecimal total = new BigDecimal(unitPrice).multiply(BigDecimal.valueOf(quantity));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("""
+                        INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                        """,
+                orderId, UUID.randomUUID(), shopId, TODAY, status, total, now, now);
+        jdbcTemplate.update("""
+                        INSERT INTO sales_order_items (id, sales_order_id, order_date, product_id, quantity, unit_price, total_price)
+                        VALUES (?, ?, ?, ?, ?, ?, ?)
+                        """,
+                UUID.randomUUID(), orderId, TODAY, productId, quantity, new BigDecimal(unitPrice), total);
+        return orderId;
+    }
+}
@@ -0,0 +1,148 @@
+package com.supermarket.salesmanagement.service.analytics;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesLineSnapshotTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+    private static final UUID SHOP_A = new UUID(0, 1);
+    private static final UUID SHOP_B = new UUID(0, 2);
+    private static final UUID MILK = new UUID(1, 1);
+    private static final UUID BREAD = new UUID(1, 2);
+    private static final UUID CUSTOMER = new UUID(2, 1);
+
+    private SalesLineColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new SalesLineColumns();
+        columns.appendBaseLine(order(1), line(SHOP_A, MONDAY, MILK, 2, 250));
+        columns.appendBaseLine(order(1), line(SHOP_A, MONDAY, BREAD, 1, 300));
+        columns.appendBaseLine(order(2), line(SHOP_B, MONDAY.plusDays(1), MILK, 5, 625));
+        columns.appendBaseLine(order(3), line(SHOP_A, MONDAY.plusDays(8), MILK, 1, 125));
+        columns.sealBase();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    void aggregate_ProductPerShopForWeek_SumsMatchingLines() {
+        SalesLineQuery query = SalesLineQuery.builder()
+                .productId(MILK).from(MONDAY).to(MONDAY.plusDays(6)).groupBy(GroupBy.SHOP).build();
+
+        Map<Object, SalesLineSnapshot.Group> groups = byKey(columns.snapshot(LocalDateTime.now()).aggregate(query, POOL));
+
+        assertEquals(2, groups.size());
+        assertEquals(2, groups.get(SHOP_A).units());
+        assertEquals(250, groups.get(SHOP_A).cents());
+        assertEquals(5, groups.get(SHOP_B).units());
+    }
+
+    @Test
+    void aggregate_ByDay_KeysAreDates() {
+        SalesLineQuery query = SalesLineQuery.builder().shopId(SHOP_A).groupBy(GroupBy.DAY).build();
+
+        List<SalesLineSnapshot.Group> groups = columns.snapshot(LocalDateTime.now()).aggregate(query, POOL).stream()
+                .sorted(Comparator.comparing(group -> (LocalDate) group.key()))
+                .toList();
+
+        assertEquals(List.of(MONDAY, MONDAY.plusDays(8)), groups.stream().map(SalesLineSnapshot.Group::key).toList());
+        assertEquals(2, groups.get(0).lines());
+        assertEquals(550, groups.get(0).cents());
+    }
+
+    @Test
+    void aggregate_UnknownId_Empty() {
+        SalesLineQuery query = SalesLineQuery.builder().productId(UUID.randomUUID()).build();
+
+        assertTrue(columns.snapshot(LocalDateTime.now()).aggregate(query, POOL).isEmpty());
+    }
+
+    @Test
+    void removeOrder_TombstonesLinesWithoutChangingEarlierSnapshot() {
+        SalesLineSnapshot before = columns.snapshot(LocalDateTime.now());
+
+        columns.removeOrder(order(1));
+        SalesLineSnapshot after = columns.snapshot(LocalDateTime.now());
+
+        SalesLineQuery all = SalesLineQuery.builder().build();
+        assertEquals(1300, before.aggregate(all, POOL).get(0).cents());
+        assertEquals(750, after.aggregate(all, POOL).get(0).cents());
+        assertEquals(2, after.getLineCount());
+        assertFalse(columns.contains(order(1)));
+        assertTrue(columns.contains(order(2)));
+    }
+
+    @Test
+    void appendOrder_IndexedForLaterRemoval() {
+        UUID orderId = UUID.randomUUID();
+        columns.appendOrder(orderId, List.of(line(SHOP_B, MONDAY, BREAD, 3, 900)));
+        assertTrue(columns.contains(orderId));
+        SalesLineSnapshot withOrder = columns.snapshot(LocalDateTime.now());
+
+        columns.removeOrder(orderId);
+
+        SalesLineQuery bread = SalesLineQuery.builder().productId(BREAD).build();
+        assertEquals(4, withOrder.aggregate(bread, POOL).get(0).units());
+        assertEquals(1, columns.snapshot(LocalDateTime.now()).aggregate(bread, POOL).get(0).units());
+        assertFalse(columns.contains(orderId));
+    }
+
+    @Test
+    void aggregate_ManyRowsAndCustomers_MatchesSequentialSum() {
+        SalesLineColumns large = new SalesLineColumns();
+        int rows = 300_000;
+        long expectedCents = 0;
+        for (int i = 0; i < rows; i++) {
+            // More customers than GroupTotals indexes directly
+            large.appendBaseLine(order(i), new SalesLineColumns.Line(SHOP_A, new UUID(3, i % 100_000),
+                    MONDAY.plusDays(i % 30), MILK, 1, i % 1000));
+            expectedCents += i % 1000;
+        }
+        large.sealBase();
+
+        List<SalesLineSnapshot.Group> groups = large.snapshot(LocalDateTime.now())
+                .aggregate(SalesLineQuery.builder().groupBy(GroupBy.CUSTOMER).build(), POOL);
+
+        assertEquals(100_000, groups.size());
+        assertEquals(expectedCents, groups.stream().mapToLong(SalesLineSnapshot.Group::cents).sum());
+        assertEquals(rows, groups.stream().mapToLong(SalesLineSnapshot.Group::lines).sum());
+    }
+
+    @Test
+    void appendBaseLine_OutOfOrder_Throws() {
+        SalesLineColumns unordered = new SalesLineColumns();
+        unordered.appendBaseLine(order(5), line(SHOP_A, MONDAY, MILK, 1, 100));
+
+        assertThrows(IllegalStateException.class,
+                () -> unordered.appendBaseLine(order(4), line(SHOP_A, MONDAY, MILK, 1, 100)));
+    }
+
+    private static UUID order(long sequence) {
+        return new UUID(0x10, sequence);
+    }
+
+    private static SalesLineColumns.Line line(UUID shopId, LocalDate date, UUID productId, int quantity, long cents) {
+        return new SalesLineColumns.Line(shopId, CUSTOMER, date, productId, quantity, cents);
+    }
+
+    private static Map<Object, SalesLineSnapshot.Group> byKey(List<SalesLineSnapshot.Group> groups) {
+        return groups.stream().collect(Collectors.toMap(SalesLineSnapshot.Group::key, group -> group));
+    }
+}
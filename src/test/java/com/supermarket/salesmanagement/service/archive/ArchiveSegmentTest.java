@@ -0,0 +1,108 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+    private static final LocalDateTime CREATED = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_ThenFindOrdersAndInvoicesById() throws IOException {
+        List<ArchivedOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            orders.add(order(i % 3 + 1, i % 2 == 0));
+        }
+        Path path = dir.resolve("2024-05").resolve("segment" + ArchiveSegment.SUFFIX);
+
+        ArchiveSegment.write(path, orders);
+        ArchiveSegment segment = ArchiveSegment.read(path);
+
+        assertEquals(1000, segment.orderCount());
+        for (ArchivedOrder expected : orders) {
+            assertEquals(expected, segment.findOrder(expected.id()));
+            for (ArchivedOrder.Invoice invoice : expected.invoices()) {
+                assertEquals(invoice, segment.findInvoice(invoice.id()));
+            }
+        }
+        assertNull(segment.findOrder(UUID.randomUUID()));
+        assertNull(segment.findInvoice(orders.get(1).id()));
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+    }
+
+    @Test
+    void readFilter_MatchesEveryArchivedIdAndFewOthers() throws IOException {
+        List<ArchivedOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            orders.add(order(1, true));
+        }
+        Path path = dir.resolve("segment" + ArchiveSegment.SUFFIX);
+        ArchiveSegment.write(path, orders);
+
+        IdFilter filter = ArchiveSegment.readFilter(path);
+
+        orders.forEach(order -> {
+            assertTrue(filter.mightContain(order.id()));
+            assertTrue(filter.mightContain(order.invoices().get(0).id()));
+        });
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void read_Version2Segment_InvoiceBalancesUnknown() throws IOException, URISyntaxException {
+        // Written by the version 2 format, before invoice shop and balances were archived
+        Path path = Path.of(getClass().getResource("/archive/v2" + ArchiveSegment.SUFFIX).toURI());
+
+        ArchiveSegment segment = ArchiveSegment.read(path);
+
+        UUID orderId = UUID.fromString("6f1c2a4e-0000-4000-8000-000000000001");
+        ArchivedOrder order = segment.findOrder(orderId);
+        assertEquals(500, order.totalAmount());
+        assertEquals(1, order.items().size());
+        ArchivedOrder.Invoice invoice = segment.findInvoice(UUID.fromString("6f1c2a4e-0000-4000-8000-000000000021"));
+        assertEquals(orderId, invoice.salesOrderId());
+        assertEquals(1001L, invoice.invoiceNumber());
+        assertEquals("PAID", invoice.paymentStatus());
+        assertNull(invoice.shopId());
+        assertNull(invoice.amountDue());
+        assertNull(invoice.amountPaid());
+    }
+
+    private static ArchivedOrder order(int itemCount, boolean invoiced) {
+        UUID orderId = UUID.randomUUID();
+        List<ArchivedOrder.Item> items = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new ArchivedOrder.Item(UUID.randomUUID(), UUID.randomUUID(), i + 1, 250, 250L * (i + 1),
+                    CREATED, i == 0 ? null : CREATED.plusSeconds(i)));
+            total += 250L * (i + 1);
+        }
+        List<ArchivedOrder.Invoice> invoices = invoiced
+                ? List.of(new ArchivedOrder.Invoice(UUID.randomUUID(), orderId, UUID.randomUUID(), 1000L + itemCount,
+                        LocalDate.of(2024, 5, 3), "PAID", total, total, CREATED, CREATED))
+                : List.of();
+        return new ArchivedOrder(orderId, UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2024, 5, 2), "CONFIRMED",
+                total, CREATED, CREATED, items, invoices);
+    }
+}
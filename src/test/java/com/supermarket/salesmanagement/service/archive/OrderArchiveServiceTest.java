@@ -0,0 +1,150 @@
+package com.supermarket.salesmanagement.service.archive;
+
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.exception.NotFoundException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archives against the migrated schema and reads the archived rows back.
+ */
+class OrderArchiveServiceTest extends EmbeddedPostgresTest {
+    private static final LocalDate OLD = LocalDate.now().minusMonths(15);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void archive_MovesOldClosedOrdersAndReadsThrough() throws IOException {
+        UUID archived = insertOrder(OLD, "CONFIRMED");
+        UUID invoiceId = insertInvoice(archived);
+        UUID openOrder = insertOrder(OLD, "PENDING");
+        UUID recent = insertOrder(LocalDate.now(), "CONFIRMED");
+        OrderArchiveService archive = service(2);
+
+        assertTrue(archive.archive() >= 1);
+
+        assertEquals(0, count("SELECT count(*) FROM sales_orders WHERE id = ?", archived));
+        assertEquals(0, count("SELECT count(*) FROM sales_order_items WHERE sales_order_id = ?", archived));
+        assertEquals(0, count("SELECT count(*) FROM invoices WHERE id = ?", invoiceId));
+        assertEquals(1, count("SELECT count(*) FROM sales_orders WHERE id = ?", openOrder));
+        assertEquals(1, count("SELECT count(*) FROM sales_orders WHERE id = ?", recent));
+
+        SalesOrderResponse order = archive.readThroughOrder(archived, () -> {
+            throw new NotFoundException("Sales order with ID " + archived + " not found");
+        });
+        assertEquals(OrderStatus.CONFIRMED, order.getStatus());
+        assertEquals(OLD, order.getOrderDate());
+        assertEquals(2, order.getItems().size());
+        assertEquals(new BigDecimal("5.00"), order.getTotalAmount());
+
+        // A restarted instance finds it through the index it loads from disk
+        OrderArchiveService restarted = service(2);
+        restarted.loadIndex();
+        InvoiceResponse invoice = restarted.findInvoice(invoiceId).orElseThrow();
+        assertEquals(archived, invoice.getSalesOrderId());
+        assertEquals(PaymentStatus.PAID, invoice.getPaymentStatus());
+        assertEquals(new BigDecimal("5.00"), invoice.getAmountDue());
+        assertEquals(new BigDecimal("5.00"), invoice.getAmountPaid());
+
+        UUID missing = UUID.randomUUID();
+        CustomException notFound = assertThrows(CustomException.class, () -> restarted.readThroughOrder(missing,
+                () -> {
+                    throw new NotFoundException("Sales order with ID " + missing + " not found");
+                }));
+        assertTrue(notFound.getMessage().contains(missing.toString()));
+    }
+
+    @Test
+    void readThrough_SegmentWrittenByAnotherInstance_FoundAfterRescan() throws IOException {
+        OrderArchiveService reader = service(2);
+        reader.loadIndex();
+        UUID archived = insertOrder(OLD, "CANCELLED");
+
+        assertTrue(service(2).archive() >= 1);
+
+        SalesOrderResponse order = reader.readThroughOrder(archived, () -> {
+            throw new NotFoundException("Sales order with ID " + archived + " not found");
+        });
+        assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    }
+
+    @Test
+    void readThrough_OtherErrors_AreNotAnsweredFromTheArchive() {
+        UUID archived = insertOrder(OLD, "CONFIRMED");
+        OrderArchiveService archive = service(2);
+        assertTrue(archive.archive() >= 1);
+
+        CustomException rejected = assertThrows(CustomException.class, () -> archive.readThroughOrder(archived, () -> {
+            throw new CustomException("Cannot read orders of a closed shop");
+        }));
+        assertEquals("Cannot read orders of a closed shop", rejected.getMessage());
+    }
+
+    private OrderArchiveService service(int chunkSize) {
+        return new OrderArchiveService(jdbcTemplate, shardRouter, transactionManager, entityManagerFactory,
+                true, dir.toString(), 12, chunkSize, 1000, 4, 0);
+    }
+
+    private UUID insertOrder(LocalDate orderDate, String status) {
+        UUID orderId = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("""
+                        INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, ?, 5.00, ?, ?)
+                        """,
+                orderId, UUID.randomUUID(), UUID.randomUUID(), orderDate, status, now, now);
+        for (int i = 0; i < 2; i++) {
+            jdbcTemplate.update("""
+                            INSERT INTO sales_order_items (id, sales_order_id, order_date, product_id, quantity, unit_price, total_price)
+                            VALUES (?, ?, ?, ?, 1, 2.50, 2.50)
+                            """,
+                    UUID.randomUUID(), orderId, orderDate, UUID.randomUUID());
+        }
+        return orderId;
+    }
+
+    private UUID insertInvoice(UUID orderId) {
+        UUID invoiceId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                        INSERT INTO invoices (id, sales_order_id, invoice_date, payment_status, amount_due, amount_paid,
+                                              created_at, updated_at)
+                        VALUES (?, ?, ?, 'PAID', 5.00, 5.00, now(), now())
+                        """,
+                invoiceId, orderId, OLD);
+        return invoiceId;
+    }
+
+    private int count(String sql, UUID id) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, id);
+    }
+}
@@ -0,0 +1,159 @@
+package com.supermarket.salesmanagement.service.basket;
+
+import com.supermarket.salesmanagement.model.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BasketJournalTest {
+    private static final int CAPACITY = 4096;
+    private static final int OPEN_RECORD_BYTES = 81;
+    private static final int LINE_RECORD_BYTES = 101;
+    private static final Runnable NO_CHANGE = () -> {
+    };
+
+    @TempDir
+    Path dir;
+
+    private final Map<UUID, DraftBasket> live = new ConcurrentHashMap<>();
+
+    @Test
+    void replay_RestoresOpenBasketsAndDropsClosedOnes() throws IOException {
+        Path path = dir.resolve("baskets.journal");
+        DraftBasket kept = basket();
+        DraftBasket closed = basket();
+        DraftBasket.Line first = line(2, 150);
+        DraftBasket.Line second = line(1, 999);
+        try (BasketJournal journal = journal(path)) {
+            journal.open();
+            journal.open(kept, NO_CHANGE);
+            journal.open(closed, NO_CHANGE);
+            journal.putLine(kept.getOrderId(), first, LocalDateTime.now(), NO_CHANGE);
+            journal.putLine(kept.getOrderId(), second, LocalDateTime.now(), NO_CHANGE);
+            journal.putLine(kept.getOrderId(), withQuantity(first, 5), LocalDateTime.now(), NO_CHANGE);
+            journal.removeLine(kept.getOrderId(), second.itemId(), LocalDateTime.now(), NO_CHANGE);
+            journal.putLine(closed.getOrderId(), line(1, 100), LocalDateTime.now(), NO_CHANGE);
+            journal.close(closed.getOrderId(), NO_CHANGE);
+        }
+
+        Map<UUID, DraftBasket> recovered;
+        try (BasketJournal journal = journal(path)) {
+            recovered = journal.open();
+        }
+
+        assertEquals(List.of(kept.getOrderId()), List.copyOf(recovered.keySet()));
+        DraftBasket basket = recovered.get(kept.getOrderId());
+        assertEquals(kept.getShopId(), basket.getShopId());
+        assertEquals(kept.getOrderDate(), basket.getOrderDate());
+        assertEquals(1, basket.getLines().size());
+        assertEquals(5, basket.getLines().get(0).quantity());
+        assertEquals(first.createdAt(), basket.getLines().get(0).createdAt());
+    }
+
+    @Test
+    void replay_StopsAtTornRecord() throws IOException {
+        Path path = dir.resolve("baskets.journal");
+        DraftBasket basket = basket();
+        int intact;
+        try (BasketJournal journal = journal(path)) {
+            journal.open();
+            journal.open(basket, NO_CHANGE);
+            journal.putLine(basket.getOrderId(), line(1, 100), LocalDateTime.now(), NO_CHANGE);
+            intact = journal.size();
+            journal.putLine(basket.getOrderId(), line(3, 200), LocalDateTime.now(), NO_CHANGE);
+        }
+        // Corrupt the body of the last record as a crash mid-write would
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f, 0x7f}), intact + 20);
+        }
+
+        try (BasketJournal journal = journal(path)) {
+            Map<UUID, DraftBasket> recovered = journal.open();
+            assertEquals(1, recovered.get(basket.getOrderId()).getLines().size());
+            assertEquals(intact, journal.size());
+        }
+    }
+
+    @Test
+    void append_CompactsToLiveBasketsWhenFull() throws IOException {
+        Path path = dir.resolve("baskets.journal");
+        DraftBasket basket = basket();
+        try (BasketJournal journal = journal(path)) {
+            journal.open();
+            journal.open(basket, () -> live.put(basket.getOrderId(), basket));
+            DraftBasket.Line first = line(1, 100);
+            // Far more records than fit in the file; only the latest state of the line survives
+            for (int quantity = 1; quantity <= 500; quantity++) {
+                DraftBasket.Line line = withQuantity(first, quantity);
+                LocalDateTime now = LocalDateTime.now();
+                journal.putLine(basket.getOrderId(), line, now, () -> basket.put(line, now));
+            }
+            assertTrue(journal.size() < CAPACITY);
+        }
+
+        try (BasketJournal journal = journal(path)) {
+            DraftBasket recovered = journal.open().get(basket.getOrderId());
+            assertEquals(500, recovered.getLines().get(0).quantity());
+        }
+    }
+
+    @Test
+    void open_CompactionBetweenItsRecords_KeepsTheBasket() throws IOException {
+        Path path = dir.resolve("baskets.journal");
+        DraftBasket scanned = basket();
+        DraftBasket opened = basket();
+        opened.put(line(1, 100), LocalDateTime.now());
+        opened.put(line(2, 200), LocalDateTime.now());
+        try (BasketJournal journal = journal(path)) {
+            journal.open();
+            journal.open(scanned, () -> live.put(scanned.getOrderId(), scanned));
+            // Fill the file until the next open record fits but the line after it does not
+            DraftBasket.Line line = line(1, 100);
+            while (CAPACITY - journal.size() >= OPEN_RECORD_BYTES + 2 * LINE_RECORD_BYTES) {
+                journal.putLine(scanned.getOrderId(), line, LocalDateTime.now(), NO_CHANGE);
+            }
+            journal.open(opened, () -> live.put(opened.getOrderId(), opened));
+        }
+
+        try (BasketJournal journal = journal(path)) {
+            DraftBasket recovered = journal.open().get(opened.getOrderId());
+            assertNotNull(recovered);
+            assertEquals(2, recovered.getLines().size());
+        }
+    }
+
+    private BasketJournal journal(Path path) {
+        return new BasketJournal(path, CAPACITY, false, () -> (Collection<DraftBasket>) live.values());
+    }
+
+    private static DraftBasket basket() {
+        LocalDateTime now = LocalDateTime.now();
+        return new DraftBasket(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), LocalDate.now(), now, now);
+    }
+
+    private static DraftBasket.Line line(int quantity, long unitCents) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        return new DraftBasket.Line(UUID.randomUUID(), UUID.randomUUID(), quantity, Money.ofMinor(unitCents),
+                Money.ofMinor(unitCents * quantity), now, now);
+    }
+
+    private static DraftBasket.Line withQuantity(DraftBasket.Line line, int quantity) {
+        return new DraftBasket.Line(line.itemId(), line.productId(), quantity, line.unitPrice(),
+                line.unitPrice().times(quantity), line.createdAt(), LocalDateTime.now());
+    }
+}
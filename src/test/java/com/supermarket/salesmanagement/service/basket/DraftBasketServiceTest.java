@@ -0,0 +1,163 @@
+package com.supermarket.salesmanagement.service.basket;
+
+import com.supermarket.salesmanagement.dto.request.SalesOrderItemAddRequest;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.event.OrderStatusPublisher;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.repository.SalesOrderRepository;
+import com.supermarket.salesmanagement.service.pricing.PriceEngine;
+import com.supermarket.salesmanagement.sharding.ShardRouter;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Scans into the basket store and writes it back against the migrated schema.
+ */
+class DraftBasketServiceTest extends EmbeddedPostgresTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private SalesOrderRepository salesOrderRepository;
+    @Autowired
+    private PriceEngine priceEngine;
+    @Autowired
+    private OrderStatusPublisher orderStatusPublisher;
+    @Autowired
+    private ShardRouter shardRouter;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @TempDir
+    Path dir;
+
+    private final List<DraftBasketService> started = new ArrayList<>();
+
+    @AfterEach
+    void stopServices() throws IOException {
+        for (DraftBasketService service : started) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void scans_StayInMemoryUntilWrittenBack() throws IOException {
+        DraftBasketService baskets = start();
+        UUID orderId = insertDraft();
+        UUID productId = UUID.randomUUID();
+
+        baskets.addItem(orderId, item(productId, 2, "1.50"));
+        SalesOrderResponse scanned = baskets.addItem(orderId, item(productId, 1, "3.00"));
+
+        assertEquals(1, scanned.getItems().size());
+        assertEquals(3, scanned.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("6.00"), scanned.getTotalAmount());
+        assertEquals(0, itemCount(orderId));
+        assertEquals(new BigDecimal("6.00"), baskets.find(orderId).orElseThrow().getTotalAmount());
+
+        baskets.flushThen(orderId, () -> null);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT id, quantity, total_price FROM sales_order_items WHERE sales_order_id = ?", orderId);
+        assertEquals(scanned.getItems().get(0).getId(), row.get("id"));
+        assertEquals(3, row.get("quantity"));
+        assertEquals(0, new BigDecimal("6.00").compareTo((BigDecimal) row.get("total_price")));
+        assertEquals(0, new BigDecimal("6.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM sales_orders WHERE id = ?", BigDecimal.class, orderId)));
+        assertTrue(baskets.find(orderId).isEmpty());
+    }
+
+    @Test
+    void restart_RecoversBasketFromJournal() throws IOException {
+        Path journal = dir.resolve("restart.journal");
+        DraftBasketService before = new DraftBasketService(salesOrderRepository, productClient, priceEngine,
+                orderStatusPublisher, shardRouter, jdbcTemplate, transactionManager, entityManagerFactory,
+                true, journal.toString(), 1, false, 900, 16);
+        before.recover();
+        UUID orderId = insertDraft();
+        SalesOrderResponse added = before.addItem(orderId, item(UUID.randomUUID(), 4, "0.25"));
+        before.addItem(orderId, item(UUID.randomUUID(), 1, "9.99"));
+        before.deleteItem(orderId, added.getItems().get(0).getId());
+        // No shutdown: the process died with the basket only in the journal
+
+        DraftBasketService after = start(journal);
+
+        SalesOrderResponse recovered = after.find(orderId).orElseThrow();
+        assertEquals(1, recovered.getItems().size());
+        assertEquals(new BigDecimal("9.99"), recovered.getTotalAmount());
+        after.flushThen(orderId, () -> null);
+        assertEquals(1, itemCount(orderId));
+    }
+
+    @Test
+    void addItem_RejectsOrdersPastDraft() throws IOException {
+        DraftBasketService baskets = start();
+        UUID orderId = insertDraft();
+        jdbcTemplate.update("UPDATE sales_orders SET status = 'PENDING' WHERE id = ?", orderId);
+
+        CustomException error = assertThrows(CustomException.class,
+                () -> baskets.addItem(orderId, item(UUID.randomUUID(), 1, "1.00")));
+
+        assertEquals("Cannot add items to a pending order", error.getMessage());
+        assertEquals(0, baskets.openBaskets());
+    }
+
+    private DraftBasketService start() throws IOException {
+        return start(dir.resolve("baskets.journal"));
+    }
+
+    private DraftBasketService start(Path journal) throws IOException {
+        DraftBasketService service = new DraftBasketService(salesOrderRepository, productClient, priceEngine,
+                orderStatusPublisher, shardRouter, jdbcTemplate, transactionManager, entityManagerFactory,
+                true, journal.toString(), 1, false, 900, 16);
+        service.recover();
+        started.add(service);
+        return service;
+    }
+
+    private static SalesOrderItemAddRequest item(UUID productId, int quantity, String unitPrice) {
+        SalesOrderItemAddRequest request = new SalesOrderItemAddRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        request.setUnitPrice(new BigDecimal(unitPrice));
+        return request;
+    }
+
+    private UUID insertDraft() {
+        UUID orderId = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("""
+                        INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount, created_at, updated_at)
+                        VALUES (?, ?, ?, ?, 'DRAFT', 0, ?, ?)
+                        """,
+                orderId, UUID.randomUUID(), UUID.randomUUID(), TODAY, now, now);
+        return orderId;
+    }
+
+    private int itemCount(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM sales_order_items WHERE sales_order_id = ?",
+                Integer.class, orderId);
+    }
+}
@@ -0,0 +1,86 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineClientTest {
+    private static final Request.Options CONFIGURED = new Request.Options(1, TimeUnit.SECONDS, 3, TimeUnit.SECONDS, true);
+
+    private final AtomicReference<Request.Options> used = new AtomicReference<>();
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void execute_WithoutDeadline_KeepsConfiguredTimeouts() throws IOException {
+        new DeadlineClient(recording()).execute(request(), CONFIGURED);
+
+        assertSame(CONFIGURED, used.get());
+    }
+
+    @Test
+    void execute_ShortensTimeoutsToRemainingBudget() throws IOException {
+        RequestDeadline.start(Duration.ofMillis(400));
+
+        new DeadlineClient(recording()).execute(request(), CONFIGURED);
+
+        assertTrue(used.get().readTimeoutMillis() <= 400, "read timeout " + used.get().readTimeoutMillis());
+        assertTrue(used.get().connectTimeoutMillis() <= 400, "connect timeout " + used.get().connectTimeoutMillis());
+        assertTrue(used.get().isFollowRedirects());
+    }
+
+    @Test
+    void execute_AfterDeadline_DoesNotCallOut() {
+        RequestDeadline.start(Duration.ofMillis(-1));
+
+        assertThrows(DeadlineExceededException.class, () -> new DeadlineClient(recording()).execute(request(), CONFIGURED));
+        assertNull(used.get());
+    }
+
+    @Test
+    void execute_TimeoutCausedByDeadline_IsReportedAsDeadlineExceeded() {
+        RequestDeadline.start(Duration.ofMillis(20));
+        Client slow = (request, options) -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new SocketTimeoutException("Read timed out");
+        };
+
+        assertThrows(DeadlineExceededException.class, () -> new DeadlineClient(slow).execute(request(), CONFIGURED));
+    }
+
+    private Client recording() {
+        return (request, options) -> {
+            used.set(options);
+            return Response.builder()
+                    .request(request)
+                    .status(200)
+                    .headers(Map.of())
+                    .body("{}", StandardCharsets.UTF_8)
+                    .build();
+        };
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://product-management/api/v1/products/1", Map.of(),
+                null, StandardCharsets.UTF_8, null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.supermarket.salesmanagement.service.deadline;
+
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs statements through the application's DataSource, which hands out
+ * deadline-aware connections.
+ */
+class DeadlineConnectionsTest extends EmbeddedPostgresTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void statementOutlivingDeadline_IsCancelled() {
+        RequestDeadline.start(Duration.ofMillis(500));
+        long start = System.nanoTime();
+
+        assertThrows(DataAccessException.class, () -> jdbcTemplate.execute("SELECT pg_sleep(10)"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toSeconds() < 5);
+    }
+
+    @Test
+    void statementAfterDeadline_IsNotStarted() {
+        RequestDeadline.start(Duration.ofMillis(-1));
+
+        assertThrows(DeadlineExceededException.class, () -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+    }
+
+    @Test
+    void withoutDeadline_StatementsRunUnbounded() {
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+    }
+}
@@ -0,0 +1,122 @@
+package com.supermarket.salesmanagement.service.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    private static final String PRINCIPAL = "cashier-1";
+    private static final String KEY = "key-1";
+
+    @Mock
+    private IdempotencyKeyStore store;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(store, 24, 5000, 60000, 100);
+    }
+
+    @Test
+    void begin_CompletedResponse_ReplayedFromCacheWithoutStore() {
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(true);
+        assertEquals(IdempotencyService.Decision.Type.PROCEED, idempotencyService.begin(PRINCIPAL, KEY, "fp").getType());
+        StoredResponse response = response("fp", 200);
+        idempotencyService.complete(PRINCIPAL, KEY, response);
+
+        IdempotencyService.Decision retry = idempotencyService.begin(PRINCIPAL, KEY, "fp");
+
+        assertEquals(IdempotencyService.Decision.Type.REPLAY, retry.getType());
+        assertSame(response, retry.getResponse());
+        verify(store).complete(PRINCIPAL, KEY, response);
+        verify(store, times(1)).claim(any(), any(), any(), any(), any(), any());
+        verifyNoMoreInteractions(store);
+    }
+
+    @Test
+    void begin_DifferentFingerprint_Mismatch() {
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(true);
+        idempotencyService.begin(PRINCIPAL, KEY, "fp");
+        idempotencyService.complete(PRINCIPAL, KEY, response("fp", 200));
+
+        assertEquals(IdempotencyService.Decision.Type.MISMATCH, idempotencyService.begin(PRINCIPAL, KEY, "other").getType());
+    }
+
+    @Test
+    void complete_ErrorResponse_ReleasesKey() {
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(true);
+        idempotencyService.begin(PRINCIPAL, KEY, "fp");
+        idempotencyService.complete(PRINCIPAL, KEY, response("fp", 400));
+
+        assertEquals(IdempotencyService.Decision.Type.PROCEED, idempotencyService.begin(PRINCIPAL, KEY, "fp").getType());
+        verify(store).release(PRINCIPAL, KEY);
+        verify(store, never()).complete(any(), any(), any());
+    }
+
+    @Test
+    void begin_CompletedInDatabase_Replayed() {
+        StoredResponse stored = response("fp", 200);
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(false);
+        when(store.find(PRINCIPAL, KEY)).thenReturn(Optional.of(stored));
+
+        IdempotencyService.Decision decision = idempotencyService.begin(PRINCIPAL, KEY, "fp");
+
+        assertEquals(IdempotencyService.Decision.Type.REPLAY, decision.getType());
+        assertSame(stored, decision.getResponse());
+    }
+
+    @Test
+    void begin_ClaimedByOtherInstance_InProgress() {
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(false);
+        when(store.find(PRINCIPAL, KEY)).thenReturn(Optional.of(new StoredResponse("fp", 0, null, null)));
+
+        assertEquals(IdempotencyService.Decision.Type.IN_PROGRESS, idempotencyService.begin(PRINCIPAL, KEY, "fp").getType());
+    }
+
+    @Test
+    void begin_DuplicateWhileRunning_WaitsForFirstResponse() throws Exception {
+        when(store.claim(eq(PRINCIPAL), eq(KEY), eq("fp"), any(), any(), any())).thenReturn(true);
+        assertEquals(IdempotencyService.Decision.Type.PROCEED, idempotencyService.begin(PRINCIPAL, KEY, "fp").getType());
+
+        CompletableFuture<IdempotencyService.Decision> duplicate =
+                CompletableFuture.supplyAsync(() -> idempotencyService.begin(PRINCIPAL, KEY, "fp"));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+
+        StoredResponse response = response("fp", 200);
+        idempotencyService.complete(PRINCIPAL, KEY, response);
+
+        IdempotencyService.Decision decision = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(IdempotencyService.Decision.Type.REPLAY, decision.getType());
+        assertSame(response, decision.getResponse());
+        verify(store, times(1)).claim(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void fingerprint_DependsOnPathAndBody() {
+        byte[] body = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+        String fingerprint = IdempotencyService.fingerprint("POST", "/api/v1/invoices", body);
+
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, IdempotencyService.fingerprint("POST", "/api/v1/invoices", body.clone()));
+        assertNotEquals(fingerprint, IdempotencyService.fingerprint("POST", "/api/v1/sales-orders", body));
+        assertNotEquals(fingerprint, IdempotencyService.fingerprint("POST", "/api/v1/invoices", new byte[0]));
+    }
+
+    private static StoredResponse response(String fingerprint, int status) {
+        return new StoredResponse(fingerprint, status, "application/json", "{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
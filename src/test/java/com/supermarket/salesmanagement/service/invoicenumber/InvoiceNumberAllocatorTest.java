@@ -0,0 +1,200 @@
+package com.supermarket.salesmanagement.service.invoicenumber;
+
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.service.InvoiceService;
+import com.supermarket.salesmanagement.service.SalesOrderService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceNumberAllocatorTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceNumberStore store;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void createInvoice_InParallel_NumbersAreUniquePerShop() throws Exception {
+        List<UUID> shops = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<SalesOrderResponse> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            orders.add(createOrder(shops.get(i % shops.size())));
+        }
+
+        List<InvoiceResponse> invoices = inParallel(16, orders.stream()
+                .<Callable<InvoiceResponse>>map(order -> () -> createInvoice(order.getId()))
+                .toList());
+
+        Map<UUID, UUID> shopOfOrder = orders.stream()
+                .collect(Collectors.toMap(SalesOrderResponse::getId, SalesOrderResponse::getShopId));
+        Map<UUID, List<Long>> numbersByShop = invoices.stream().collect(Collectors.groupingBy(
+                invoice -> shopOfOrder.get(invoice.getSalesOrderId()),
+                Collectors.mapping(InvoiceResponse::getInvoiceNumber, Collectors.toList())));
+        for (UUID shop : shops) {
+            List<Long> numbers = numbersByShop.get(shop);
+            assertEquals(20, numbers.size());
+            assertEquals(20, Set.copyOf(numbers).size(), numbers.toString());
+            assertTrue(numbers.stream().allMatch(number -> number > 0), numbers.toString());
+        }
+    }
+
+    @Test
+    void allocate_InstancesReservingBlocksFromOneCounter_NeverRepeatANumber() throws Exception {
+        UUID shopId = UUID.randomUUID();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<InvoiceNumberAllocator> instances = List.of(
+                new InvoiceNumberAllocator(store, "block", 7, "", 200),
+                new InvoiceNumberAllocator(store, "block", 7, "", 200));
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            InvoiceNumberAllocator allocator = instances.get(i % instances.size());
+            callers.add(() -> {
+                for (int n = 0; n < 250; n++) {
+                    assertTrue(numbers.add(transaction.execute(status -> allocator.allocate(shopId))));
+                }
+                return null;
+            });
+        }
+
+        inParallel(8, callers);
+
+        assertEquals(2000, numbers.size());
+        // Ranges reserved at the same time by callers of one instance are all used, so only
+        // the unused rest of the last ranges is skipped
+        assertTrue(new TreeSet<>(numbers).last() <= 2000 + 8 * 7, numbers.toString());
+    }
+
+    @Test
+    void allocate_RefillInProgress_OthersWaitForItsBlock() throws Exception {
+        UUID shopId = UUID.randomUUID();
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(store, "block", 10, "", 5000);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch refilled = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> refiller = executor.submit(() -> transaction.execute(status -> {
+                long number = allocator.allocate(shopId);
+                refilled.countDown();
+                await(commit);
+                return number;
+            }));
+            assertTrue(refilled.await(5, TimeUnit.SECONDS));
+            Future<Long> waiter = executor.submit(() -> transaction.execute(status -> allocator.allocate(shopId)));
+            Thread.sleep(200);
+            commit.countDown();
+
+            assertEquals(1L, refiller.get());
+            assertEquals(2L, waiter.get());
+            // The counter moved by one block only
+            Long next = transaction.execute(status -> store.reserve(shopId, 1));
+            assertEquals(11L, next);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void allocate_GaplessShop_ReusesNumbersOfRolledBackInvoices() throws Exception {
+        UUID shopId = UUID.randomUUID();
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(store, "block", 7, " " + shopId + " ", 200);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<Long> committed = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> callers = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            boolean rollBack = i % 4 == 0;
+            callers.add(() -> {
+                transaction.executeWithoutResult(status -> {
+                    long number = allocator.allocate(shopId);
+                    if (rollBack) {
+                        status.setRollbackOnly();
+                    } else {
+                        committed.add(number);
+                    }
+                });
+                return null;
+            });
+        }
+
+        inParallel(8, callers);
+
+        assertEquals(LongStream.rangeClosed(1, 45).boxed().collect(Collectors.toSet()), committed);
+    }
+
+    private static <T> List<T> inParallel(int threads, List<Callable<T>> calls) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(calls)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+    }
+
+    private InvoiceResponse createInvoice(UUID orderId) {
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(orderId);
+        request.setInvoiceDate(LocalDate.now());
+        return invoiceService.createInvoice(request);
+    }
+
+    private SalesOrderResponse createOrder(UUID shopId) {
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("3.10"));
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(shopId);
+        request.setOrderDate(LocalDate.now());
+        request.setItems(List.of(item));
+        return salesOrderService.createSalesOrder(request);
+    }
+}
@@ -0,0 +1,171 @@
+package com.supermarket.salesmanagement.service.payment;
+
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.InvoiceUpdateRequest;
+import com.supermarket.salesmanagement.dto.request.PaymentCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.PaymentResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.PaymentStatus;
+import com.supermarket.salesmanagement.service.InvoiceService;
+import com.supermarket.salesmanagement.service.SalesOrderService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoicePaymentServiceTest extends EmbeddedPostgresTest {
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoicePaymentService invoicePaymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void recordPayment_Concurrently_BalanceIsSumOfLedger() throws Exception {
+        // 40 x 2.50 due
+        InvoiceResponse invoice = createInvoice(40, "2.50");
+        List<Callable<PaymentResponse>> payments = new ArrayList<>();
+        for (int i = 0; i < 39; i++) {
+            payments.add(() -> invoicePaymentService.recordPayment(invoice.getId(), payment("2.50")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        try {
+            for (Future<PaymentResponse> future : executor.invokeAll(payments)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        InvoiceResponse partiallyPaid = invoiceService.getInvoiceById(invoice.getId());
+        assertEquals(new BigDecimal("100.00"), partiallyPaid.getAmountDue());
+        assertEquals(new BigDecimal("97.50"), partiallyPaid.getAmountPaid());
+        assertEquals(PaymentStatus.PARTIALLY_PAID, partiallyPaid.getPaymentStatus());
+        List<PaymentResponse> ledger = invoicePaymentService.getPayments(invoice.getId());
+        assertEquals(39, ledger.size());
+        // Each entry saw a distinct balance, so no increment was lost
+        assertEquals(39, ledger.stream().map(PaymentResponse::getAmountPaidAfter).distinct().count());
+
+        invoicePaymentService.recordPayment(invoice.getId(), payment("2.50"));
+        assertEquals(PaymentStatus.PAID, invoiceService.getInvoiceById(invoice.getId()).getPaymentStatus());
+    }
+
+    @Test
+    void recordPayment_BeyondBalance_IsRejectedAndNothingRecorded() {
+        InvoiceResponse invoice = createInvoice(1, "10.00");
+        invoicePaymentService.recordPayment(invoice.getId(), payment("6.00"));
+
+        CustomException overpaid = assertThrows(CustomException.class,
+                () -> invoicePaymentService.recordPayment(invoice.getId(), payment("4.01")));
+        assertEquals("Payment of 4.01 exceeds the outstanding amount 4.00 of invoice with ID " + invoice.getId(),
+                overpaid.getMessage());
+        assertThrows(CustomException.class, () -> invoicePaymentService.recordPayment(invoice.getId(), payment("-6.01")));
+
+        invoicePaymentService.recordPayment(invoice.getId(), payment("-6.00"));
+        InvoiceResponse reversed = invoiceService.getInvoiceById(invoice.getId());
+        assertEquals(new BigDecimal("0.00"), reversed.getAmountPaid());
+        assertEquals(PaymentStatus.UNPAID, reversed.getPaymentStatus());
+        assertEquals(2, invoicePaymentService.getPayments(invoice.getId()).size());
+    }
+
+    @Test
+    void updateInvoice_ToPaid_SettlesOutstandingAmount() {
+        InvoiceResponse invoice = createInvoice(3, "1.20");
+        invoicePaymentService.recordPayment(invoice.getId(), payment("1.00"));
+        InvoiceUpdateRequest paid = new InvoiceUpdateRequest();
+        paid.setPaymentStatus(PaymentStatus.PAID);
+
+        InvoiceResponse response = invoiceService.updateInvoice(invoice.getId(), paid);
+
+        assertEquals(PaymentStatus.PAID, response.getPaymentStatus());
+        assertEquals(new BigDecimal("3.60"), response.getAmountPaid());
+        List<PaymentResponse> ledger = invoicePaymentService.getPayments(invoice.getId());
+        assertEquals(new BigDecimal("2.60"), ledger.get(1).getAmount());
+        InvoiceUpdateRequest unpaid = new InvoiceUpdateRequest();
+        unpaid.setPaymentStatus(PaymentStatus.UNPAID);
+        assertThrows(CustomException.class, () -> invoiceService.updateInvoice(invoice.getId(), unpaid));
+    }
+
+    @Test
+    void updateInvoice_ToPaid_ZeroAmountInvoiceStoresPaidWithoutPayment() {
+        InvoiceResponse invoice = createInvoice(1, "1.00");
+        jdbcTemplate.update("UPDATE invoices SET amount_due = 0 WHERE id = ?", invoice.getId());
+        InvoiceUpdateRequest paid = new InvoiceUpdateRequest();
+        paid.setPaymentStatus(PaymentStatus.PAID);
+
+        InvoiceResponse response = invoiceService.updateInvoice(invoice.getId(), paid);
+
+        assertEquals(PaymentStatus.PAID, response.getPaymentStatus());
+        assertEquals("PAID", jdbcTemplate.queryForObject("SELECT payment_status FROM invoices WHERE id = ?",
+                String.class, invoice.getId()));
+        assertTrue(invoicePaymentService.getPayments(invoice.getId()).isEmpty());
+    }
+
+    @Test
+    void recordPayment_OneUpdateAndOneInsert() {
+        InvoiceResponse invoice = createInvoice(1, "5.00");
+
+        List<String> statements = budget.record(() -> invoicePaymentService.recordPayment(invoice.getId(), payment("2.00")));
+
+        assertEquals(2, statements.size(), String.join(System.lineSeparator(), statements));
+        assertTrue(statements.get(0).startsWith("UPDATE invoices"));
+        assertTrue(statements.get(1).startsWith("insert into invoice_payments"));
+    }
+
+    @Test
+    void ledger_IsAppendOnly() {
+        InvoiceResponse invoice = createInvoice(1, "5.00");
+        PaymentResponse payment = invoicePaymentService.recordPayment(invoice.getId(), payment("5.00"));
+
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "UPDATE invoice_payments SET amount = 1 WHERE id = ?", payment.getId()));
+        assertThrows(Exception.class, () -> jdbcTemplate.update(
+                "DELETE FROM invoice_payments WHERE id = ?", payment.getId()));
+        assertEquals(1, invoicePaymentService.getPayments(invoice.getId()).size());
+    }
+
+    private static PaymentCreateRequest payment(String amount) {
+        PaymentCreateRequest request = new PaymentCreateRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setMethod("CARD");
+        return request;
+    }
+
+    private InvoiceResponse createInvoice(int quantity, String unitPrice) {
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(quantity);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        SalesOrderCreateRequest order = new SalesOrderCreateRequest();
+        order.setCustomerId(UUID.randomUUID());
+        order.setShopId(UUID.randomUUID());
+        order.setOrderDate(LocalDate.now());
+        order.setItems(List.of(item));
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(salesOrderService.createSalesOrder(order).getId());
+        request.setInvoiceDate(LocalDate.now());
+        return invoiceService.createInvoice(request);
+    }
+}
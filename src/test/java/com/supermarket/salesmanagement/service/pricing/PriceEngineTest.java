@@ -0,0 +1,149 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceEngineTest {
+
+    private StubPriceListClient priceListClient;
+    private PriceEngine priceEngine;
+    private UUID productId;
+    private LocalDateTime loadedAt;
+
+    @BeforeEach
+    void setUp() {
+        priceListClient = new StubPriceListClient();
+        priceEngine = new PriceEngine(priceListClient);
+        ReflectionTestUtils.setField(priceEngine, "enabled", true);
+        ReflectionTestUtils.setField(priceEngine, "defaultCustomerCategory", "STANDARD");
+
+        productId = UUID.randomUUID();
+        loadedAt = LocalDateTime.of(2025, 1, 1, 8, 0);
+        priceListClient.addPrice(productId, "STANDARD", "10.00", LocalDate.of(2025, 1, 1), loadedAt);
+        priceListClient.addPrice(productId, "STANDARD", "12.50", LocalDate.of(2025, 3, 1), loadedAt);
+        priceListClient.addPrice(productId, "WHOLESALE", "8.00", LocalDate.of(2025, 1, 1), loadedAt);
+        priceEngine.loadAll();
+    }
+
+    @Test
+    void priceFor_UsesPriceInEffectOnDate() {
+        assertNull(priceEngine.priceFor(productId, "STANDARD", LocalDate.of(2024, 12, 31)));
+        assertEquals(Money.of("10.00"), priceEngine.priceFor(productId, "STANDARD", LocalDate.of(2025, 2, 28)));
+        assertEquals(Money.of("12.50"), priceEngine.priceFor(productId, "standard", LocalDate.of(2025, 3, 1)));
+        assertEquals(Money.of("8.00"), priceEngine.priceFor(productId, "WHOLESALE", LocalDate.of(2025, 6, 1)));
+    }
+
+    @Test
+    void priceFor_UnknownCategory_FallsBackToDefault() {
+        assertEquals(Money.of("12.50"), priceEngine.priceFor(productId, "VIP", LocalDate.of(2025, 6, 1)));
+    }
+
+    @Test
+    void priceBasket_TotalsListPrices() {
+        UUID otherProductId = UUID.randomUUID();
+        priceListClient.addPrice(otherProductId, "STANDARD", "1.25", LocalDate.of(2025, 1, 1), loadedAt);
+        priceEngine.loadAll();
+
+        PricedBasket basket = priceEngine.priceBasket(null, LocalDate.of(2025, 2, 1), List.of(
+                new BasketLine(productId, 3, Money.of("10.00")),
+                new BasketLine(otherProductId, 4, Money.of("1.25"))));
+
+        assertTrue(basket.isValid());
+        assertEquals(Money.of("35.00"), basket.getTotalAmount());
+    }
+
+    @Test
+    void verifyBasket_PriceMismatch_ThrowsException() {
+        List<BasketLine> lines = List.of(new BasketLine(productId, 1, Money.of("9.99")));
+
+        CustomException exception = assertThrows(CustomException.class,
+                () -> priceEngine.verifyBasket(LocalDate.of(2025, 2, 1), lines));
+        assertEquals("Unit price 9.99 for product " + productId + " does not match price list price 10.00", exception.getMessage());
+    }
+
+    @Test
+    void verifyBasket_UnknownProduct_ThrowsException() {
+        UUID unknownProductId = UUID.randomUUID();
+        List<BasketLine> lines = List.of(new BasketLine(unknownProductId, 1, Money.of("1.00")));
+
+        CustomException exception = assertThrows(CustomException.class,
+                () -> priceEngine.verifyBasket(LocalDate.of(2025, 2, 1), lines));
+        assertEquals("No price list entry for product " + unknownProductId + " on 2025-02-01", exception.getMessage());
+    }
+
+    @Test
+    void verifyBasket_Disabled_SkipsVerification() {
+        ReflectionTestUtils.setField(priceEngine, "enabled", false);
+
+        assertDoesNotThrow(() -> priceEngine.verifyBasket(LocalDate.of(2025, 2, 1),
+                List.of(new BasketLine(UUID.randomUUID(), 1, Money.of("1.00")))));
+    }
+
+    @Test
+    void refresh_AppliesOnlyChangedEntries() {
+        priceListClient.addPrice(productId, "STANDARD", "11.00", LocalDate.of(2025, 2, 15), loadedAt.plusHours(1));
+
+        priceEngine.refresh();
+
+        assertEquals(1, priceListClient.getBulkCalls());
+        assertEquals(1, priceListClient.getChangeCalls());
+        assertEquals(Money.of("11.00"), priceEngine.priceFor(productId, "STANDARD", LocalDate.of(2025, 2, 20)));
+        assertEquals(4, priceEngine.getPriceIndex().size());
+    }
+
+    @Test
+    void refresh_PicksUpChangesSharingTheLastTimestamp() {
+        // Committed after the last refresh but stamped with the same time as the entries already loaded
+        priceListClient.addPrice(productId, "WHOLESALE", "7.50", LocalDate.of(2025, 4, 1), loadedAt);
+
+        priceEngine.refresh();
+        priceEngine.refresh();
+
+        assertEquals(Money.of("7.50"), priceEngine.priceFor(productId, "WHOLESALE", LocalDate.of(2025, 4, 2)));
+        assertEquals(4, priceEngine.getPriceIndex().size());
+        assertEquals(1, priceListClient.getBulkCalls());
+    }
+
+    @Test
+    void refresh_SubCentPriceRoundedAndOutOfRangePriceSkipped() {
+        UUID otherProductId = UUID.randomUUID();
+        priceListClient.addPrice(otherProductId, "STANDARD", "2.345", LocalDate.of(2025, 1, 1), loadedAt.plusHours(1));
+        priceListClient.addPrice(productId, "STANDARD", "1E+20", LocalDate.of(2025, 2, 1), loadedAt.plusHours(1));
+
+        priceEngine.refresh();
+
+        assertEquals(Money.of("2.35"), priceEngine.priceFor(otherProductId, "STANDARD", LocalDate.of(2025, 2, 1)));
+        assertEquals(Money.of("10.00"), priceEngine.priceFor(productId, "STANDARD", LocalDate.of(2025, 2, 1)));
+        assertEquals(4, priceEngine.getPriceIndex().size());
+    }
+
+    @Test
+    void loadOnStartup_ServiceDown_LoadsOnFirstVerification() {
+        StubPriceListClient downClient = new StubPriceListClient();
+        downClient.addPrice(productId, "STANDARD", "10.00", LocalDate.of(2025, 1, 1), loadedAt);
+        downClient.setAvailable(false);
+        PriceEngine engine = new PriceEngine(downClient);
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "defaultCustomerCategory", "STANDARD");
+        List<BasketLine> lines = List.of(new BasketLine(productId, 1, Money.of("10.00")));
+
+        assertDoesNotThrow(engine::loadOnStartup);
+        CustomException exception = assertThrows(CustomException.class,
+                () -> engine.verifyBasket(LocalDate.of(2025, 2, 1), lines));
+        assertTrue(exception.getMessage().startsWith("Price list is unavailable"));
+
+        downClient.setAvailable(true);
+        assertDoesNotThrow(() -> engine.verifyBasket(LocalDate.of(2025, 2, 1), lines));
+        assertEquals(1, engine.getPriceIndex().size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.supermarket.salesmanagement.service.pricing;
+
+import com.supermarket.salesmanagement.dto.response.PriceListResponse;
+import com.supermarket.salesmanagement.service.client.PriceListClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stand-in for the price list service, used to feed the price engine in tests.
+ */
+public class StubPriceListClient implements PriceListClient {
+    private final List<PriceListResponse> prices = new CopyOnWriteArrayList<>();
+    private int bulkCalls;
+    private int changeCalls;
+    private volatile boolean available = true;
+
+    public PriceListResponse addPrice(UUID productId, String customerCategory, String price, LocalDate effectiveDate,
+                                      LocalDateTime updatedAt) {
+        PriceListResponse response = new PriceListResponse();
+        response.setId(UUID.randomUUID());
+        response.setProductId(productId);
+        response.setCustomerCategory(customerCategory);
+        response.setPrice(new BigDecimal(price));
+        response.setEffectiveDate(effectiveDate);
+        response.setCreatedAt(updatedAt);
+        response.setUpdatedAt(updatedAt);
+        prices.add(response);
+        return response;
+    }
+
+    @Override
+    public List<PriceListResponse> getAllPrices() {
+        bulkCalls++;
+        checkAvailable();
+        return new ArrayList<>(prices);
+    }
+
+    @Override
+    public List<PriceListResponse> getPricesUpdatedSince(LocalDateTime updatedSince) {
+        changeCalls++;
+        checkAvailable();
+        return prices.stream()
+                .filter(price -> price.getUpdatedAt().isAfter(updatedSince))
+                .collect(Collectors.toList());
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    private void checkAvailable() {
+        if (!available) {
+            throw new IllegalStateException("Price list service unavailable");
+        }
+    }
+
+    public int getBulkCalls() {
+        return bulkCalls;
+    }
+
+    public int getChangeCalls() {
+        return changeCalls;
+    }
+}
@@ -0,0 +1,323 @@
+package com.supermarket.salesmanagement.sharding;
+
+import com.supermarket.salesmanagement.controller.CheckoutController;
+import com.supermarket.salesmanagement.controller.InvoiceController;
+import com.supermarket.salesmanagement.controller.SalesOrderController;
+import com.supermarket.salesmanagement.dto.request.CheckoutRequest;
+import com.supermarket.salesmanagement.dto.request.InvoiceCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderBulkStatusRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderCreateRequest;
+import com.supermarket.salesmanagement.dto.request.SalesOrderUpdateRequest;
+import com.supermarket.salesmanagement.dto.response.CheckoutResponse;
+import com.supermarket.salesmanagement.dto.response.InvoiceResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderBulkStatusResponse;
+import com.supermarket.salesmanagement.dto.response.SalesOrderResponse;
+import com.supermarket.salesmanagement.exception.CustomException;
+import com.supermarket.salesmanagement.model.enums.OrderStatus;
+import com.supermarket.salesmanagement.service.SalesOrderBulkStatusService;
+import com.supermarket.salesmanagement.support.EmbeddedPostgresTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the application over three databases: the default one as shard 0 and two more
+ * on the same embedded server, with one test shop pinned to each shard.
+ */
+class ShardRoutingTest extends EmbeddedPostgresTest {
+    private static final UUID SHOP_0 = UUID.fromString("00000000-0000-0000-0000-00000000a000");
+    private static final UUID SHOP_1 = UUID.fromString("00000000-0000-0000-0000-00000000a001");
+    private static final UUID SHOP_2 = UUID.fromString("00000000-0000-0000-0000-00000000a002");
+    private static final String[] DATABASES = {"postgres", "sales_shard_1", "sales_shard_2"};
+
+    @Autowired
+    private SalesOrderController salesOrderController;
+
+    @Autowired
+    private InvoiceController invoiceController;
+
+    @Autowired
+    private CheckoutController checkoutController;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private SalesOrderBulkStatusService salesOrderBulkStatusService;
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        registry.add("application.sharding.enabled", () -> "true");
+        for (int shard = 1; shard < DATABASES.length; shard++) {
+            String database = DATABASES[shard];
+            registry.add("application.sharding.shards[" + (shard - 1) + "].url", () -> databaseUrl(database));
+            registry.add("application.sharding.shards[" + (shard - 1) + "].username", () -> "postgres");
+            registry.add("application.sharding.shards[" + (shard - 1) + "].password", () -> "postgres");
+        }
+        registry.add("application.sharding.shop-shards." + SHOP_0, () -> "0");
+        registry.add("application.sharding.shop-shards." + SHOP_1, () -> "1");
+        registry.add("application.sharding.shop-shards." + SHOP_2, () -> "2");
+    }
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("test", null,
+                "CREATE_SALES_ORDER", "READ_SALES_ORDER", "UPDATE_SALES_ORDER", "CREATE_INVOICE", "READ_INVOICE",
+                "UPDATE_INVOICE", "CONFIRM_SALES_ORDER"));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createSalesOrder_StoredOnShopShardAndFoundById() {
+        SalesOrderResponse onShard1 = create(SHOP_1);
+        SalesOrderResponse onShard2 = create(SHOP_2);
+
+        assertEquals(List.of(1), shardsContaining("sales_orders", onShard1.getId()));
+        assertEquals(List.of(2), shardsContaining("sales_orders", onShard2.getId()));
+        assertEquals(SHOP_1, salesOrderController.getSalesOrderById(onShard1.getId(), null).getBody().getShopId());
+        assertEquals(SHOP_2, salesOrderController.getSalesOrderById(onShard2.getId(), null).getBody().getShopId());
+    }
+
+    @Test
+    void createInvoice_StoredWithItsOrder() {
+        SalesOrderResponse order = create(SHOP_2);
+        InvoiceCreateRequest request = new InvoiceCreateRequest();
+        request.setSalesOrderId(order.getId());
+        request.setInvoiceDate(LocalDate.now());
+
+        InvoiceResponse invoice = invoiceController.createInvoice(request).getBody();
+
+        assertEquals(List.of(2), shardsContaining("invoices", invoice.getId()));
+        assertEquals(order.getId(), invoiceController.getInvoiceById(invoice.getId()).getBody().getSalesOrderId());
+    }
+
+    @Test
+    void checkout_ChecksShopBeforeOpeningShardTransaction() {
+        AtomicBoolean checkedInTransaction = new AtomicBoolean(true);
+        when(shopClient.getShopById(SHOP_2)).thenAnswer(invocation -> {
+            checkedInTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        });
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("3.10"));
+        CheckoutRequest request = new CheckoutRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(SHOP_2);
+        request.setItems(List.of(item));
+
+        CheckoutResponse response = checkoutController.checkout(request).getBody();
+
+        assertFalse(checkedInTransaction.get());
+        assertEquals(List.of(2), shardsContaining("sales_orders", response.getOrder().getId()));
+        assertEquals(List.of(2), shardsContaining("invoices", response.getInvoice().getId()));
+        assertEquals(response.getOrder().getId(),
+                invoiceController.getInvoiceById(response.getInvoice().getId()).getBody().getSalesOrderId());
+    }
+
+    @Test
+    void getSalesOrderById_MissingDirectoryEntry_LocatedAndRecorded() {
+        SalesOrderResponse order = create(SHOP_1);
+        shard(0).update("DELETE FROM shard_directory WHERE entity_id = ?", order.getId());
+
+        // The router's cache still knows it; a fresh directory has to search the shards
+        ShardDirectory directory = new ShardDirectory(
+                new DriverManagerDataSource(databaseUrl(DATABASES[0]), "postgres", "postgres"),
+                Map.of(0, dataSource(0), 1, dataSource(1), 2, dataSource(2)), 10, 10, Duration.ofMinutes(1));
+
+        assertEquals(1, directory.find(ShardedEntity.SALES_ORDER, order.getId()).orElseThrow());
+        assertEquals(1, shard(0).queryForObject("SELECT shard_id FROM shard_directory WHERE entity_id = ?",
+                Integer.class, order.getId()));
+    }
+
+    @Test
+    void find_UnknownId_SearchesShardsOnlyOnce() {
+        AtomicInteger shardConnections = new AtomicInteger();
+        Map<Integer, DataSource> shards = new TreeMap<>();
+        for (int shard = 0; shard < DATABASES.length; shard++) {
+            shards.put(shard, new DriverManagerDataSource(databaseUrl(DATABASES[shard]), "postgres", "postgres") {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    shardConnections.incrementAndGet();
+                    return super.getConnection();
+                }
+            });
+        }
+        ShardDirectory directory = new ShardDirectory(dataSource(0), shards, 10, 10, Duration.ofMinutes(1));
+        UUID unknown = UUID.randomUUID();
+
+        assertTrue(directory.find(ShardedEntity.SALES_ORDER, unknown).isEmpty());
+        assertEquals(DATABASES.length, shardConnections.get());
+        assertTrue(directory.find(ShardedEntity.SALES_ORDER, unknown).isEmpty());
+        assertEquals(DATABASES.length, shardConnections.get());
+
+        // Registered after all, e.g. by another instance, and found through the directory table
+        shard(0).update("INSERT INTO shard_directory (entity_id, entity_type, shard_id) VALUES (?, 'SALES_ORDER', 2)",
+                unknown);
+        assertEquals(2, directory.find(ShardedEntity.SALES_ORDER, unknown).orElseThrow());
+    }
+
+    @Test
+    void checkShardCount_DifferentCount_Rejected() {
+        assertDoesNotThrow(() -> shardDirectory.checkShardCount(DATABASES.length));
+        assertThrows(IllegalStateException.class, () -> shardDirectory.checkShardCount(DATABASES.length + 1));
+    }
+
+    @Test
+    void getAllSalesOrders_MergesPagesAcrossShards() {
+        LocalDate day = LocalDate.now().minusDays(400);
+        for (UUID shop : List.of(SHOP_0, SHOP_1, SHOP_2, SHOP_1, SHOP_2)) {
+            create(shop, day);
+        }
+
+        Page<SalesOrderResponse> first = salesOrderController.getAllSalesOrders(null, day, day,
+                PageRequest.of(0, 2, Sort.by("shopId"))).getBody();
+        Page<SalesOrderResponse> last = salesOrderController.getAllSalesOrders(null, day, day,
+                PageRequest.of(2, 2, Sort.by("shopId"))).getBody();
+        Page<SalesOrderResponse> shop2 = salesOrderController.getAllSalesOrders(SHOP_2, day, day,
+                PageRequest.of(0, 10)).getBody();
+
+        assertEquals(5, first.getTotalElements());
+        assertEquals(List.of(SHOP_0, SHOP_1), first.getContent().stream().map(SalesOrderResponse::getShopId).toList());
+        assertEquals(List.of(SHOP_2), last.getContent().stream().map(SalesOrderResponse::getShopId).toList());
+        assertEquals(2, shop2.getTotalElements());
+    }
+
+    @Test
+    void getAllSalesOrders_RandomIds_MergedInDatabaseOrder() {
+        LocalDate day = LocalDate.now().minusDays(500);
+        // v4 ids either side of 8000..., which UUID.compareTo would put first
+        List<UUID> ids = List.of(
+                UUID.fromString("10000000-0000-4000-8000-000000000000"),
+                UUID.fromString("20000000-0000-4000-8000-000000000000"),
+                UUID.fromString("80000000-0000-4000-8000-000000000000"),
+                UUID.fromString("c0000000-0000-4000-8000-000000000000"));
+        insertOrder(1, SHOP_1, ids.get(0), day);
+        insertOrder(2, SHOP_2, ids.get(1), day);
+        insertOrder(2, SHOP_2, ids.get(2), day);
+        insertOrder(1, SHOP_1, ids.get(3), day);
+
+        List<UUID> listed = IntStream.range(0, ids.size())
+                .mapToObj(page -> salesOrderController.getAllSalesOrders(null, day, day, PageRequest.of(page, 1))
+                        .getBody().getContent().get(0).getId())
+                .toList();
+
+        assertEquals(ids, listed);
+    }
+
+    @Test
+    void routeToEachShard_SelectsEachShardWithoutTransaction() {
+        List<Integer> shards = new ArrayList<>();
+        AtomicBoolean inTransaction = new AtomicBoolean();
+
+        shardRouter.routeToEachShard(() -> {
+            shards.add(ShardContext.current());
+            inTransaction.compareAndSet(false, TransactionSynchronizationManager.isActualTransactionActive());
+        });
+
+        assertEquals(List.of(0, 1, 2), shards);
+        assertFalse(inTransaction.get());
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    void transition_OrdersOnSeveralShards_EachUpdatedInItsOwnChunk() {
+        SalesOrderResponse onShard1 = create(SHOP_1);
+        SalesOrderResponse onShard2 = create(SHOP_2);
+        SalesOrderBulkStatusRequest request = new SalesOrderBulkStatusRequest();
+        request.setTargetStatus(OrderStatus.PENDING);
+        request.setOrderIds(List.of(onShard1.getId(), onShard2.getId()));
+
+        SalesOrderBulkStatusResponse response = salesOrderBulkStatusService.transition(request);
+
+        assertEquals(2, response.getUpdated());
+        assertEquals("PENDING", shard(1).queryForObject("SELECT status FROM sales_orders WHERE id = ?",
+                String.class, onShard1.getId()));
+        assertEquals("PENDING", shard(2).queryForObject("SELECT status FROM sales_orders WHERE id = ?",
+                String.class, onShard2.getId()));
+    }
+
+    @Test
+    void updateSalesOrder_ShopOnAnotherShard_Rejected() {
+        SalesOrderResponse order = create(SHOP_1);
+        SalesOrderUpdateRequest request = new SalesOrderUpdateRequest();
+        request.setShopId(SHOP_2);
+
+        assertThrows(CustomException.class, () -> salesOrderController.updateSalesOrder(order.getId(), request));
+    }
+
+    private SalesOrderResponse create(UUID shopId) {
+        return create(shopId, LocalDate.now());
+    }
+
+    private SalesOrderResponse create(UUID shopId, LocalDate orderDate) {
+        SalesOrderCreateRequest.OrderItemRequest item = new SalesOrderCreateRequest.OrderItemRequest();
+        item.setProductId(UUID.randomUUID());
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("1.25"));
+        SalesOrderCreateRequest request = new SalesOrderCreateRequest();
+        request.setCustomerId(UUID.randomUUID());
+        request.setShopId(shopId);
+        request.setOrderDate(orderDate);
+        request.setItems(List.of(item));
+        return salesOrderController.createSalesOrder(request).getBody();
+    }
+
+    private static void insertOrder(int shard, UUID shopId, UUID id, LocalDate orderDate) {
+        shard(shard).update("INSERT INTO sales_orders (id, customer_id, shop_id, order_date, status, total_amount) "
+                + "VALUES (?, ?, ?, ?, 'CONFIRMED', 1.00)", id, UUID.randomUUID(), shopId, orderDate);
+    }
+
+    private List<Integer> shardsContaining(String table, UUID id) {
+        return IntStream.range(0, DATABASES.length)
+                .filter(shard -> shard(shard).queryForObject(
+                        "SELECT count(*) FROM " + table + " WHERE id = ?", Integer.class, id) > 0)
+                .boxed()
+                .toList();
+    }
+
+    private static JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(dataSource(shard));
+    }
+
+    private static DriverManagerDataSource dataSource(int shard) {
+        return new DriverManagerDataSource(databaseUrl(DATABASES[shard]), "postgres", "postgres");
+    }
+}
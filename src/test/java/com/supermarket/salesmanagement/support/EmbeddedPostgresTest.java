@@ -0,0 +1,118 @@
+package com.supermarket.salesmanagement.support;
+
+import com.supermarket.salesmanagement.service.client.CustomerClient;
+import com.supermarket.salesmanagement.service.client.PriceListClient;
+import com.supermarket.salesmanagement.service.client.ProductClient;
+import com.supermarket.salesmanagement.service.client.ShopClient;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Base for integration tests running the full application against an embedded
+ * PostgreSQL migrated by Flyway. Downstream services are mocked and the
+ * second-level cache is off so statement counts are deterministic.
+ */
+@SpringBootTest(properties = {
+        "application.security.jwt.secret-key=c3RhdGVtZW50LWJ1ZGdldC10ZXN0cy1zZWNyZXQta2V5LTAxMjM0NTY3ODk=",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@Import(StatementRecorder.Config.class)
+public abstract class EmbeddedPostgresTest {
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @MockitoBean
+    protected CustomerClient customerClient;
+
+    @MockitoBean
+    protected ProductClient productClient;
+
+    @MockitoBean
+    protected ShopClient shopClient;
+
+    @MockitoBean
+    protected PriceListClient priceListClient;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected StatementBudget budget;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @BeforeEach
+    void setUpBudget() {
+        budget = new StatementBudget(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    /**
+     * Runs the action in a read-only transaction, the way open-session-in-view
+     * keeps a session open around non-transactional reads in a request.
+     */
+    protected <T> T inSession(Supplier<T> action) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> action.get());
+    }
+
+    /**
+     * JDBC URL of another database on the embedded server, created on first use.
+     */
+    protected static String databaseUrl(String name) {
+        try (Connection connection = POSTGRES.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet exists = statement.executeQuery("SELECT 1 FROM pg_database WHERE datname = '" + name + "'")) {
+                if (!exists.next()) {
+                    statement.execute("CREATE DATABASE " + name);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return POSTGRES.getJdbcUrl("postgres", name);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException e) {
+                    // JVM is exiting anyway
+                }
+            }));
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+        }
+    }
+}
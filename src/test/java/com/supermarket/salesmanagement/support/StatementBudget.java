@@ -0,0 +1,72 @@
+package com.supermarket.salesmanagement.support;
+
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs an operation and fails if it issued more SQL statements than its declared
+ * budget, listing the statements so the offending query is visible in the report.
+ */
+public class StatementBudget {
+    private final Statistics statistics;
+
+    StatementBudget(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public <T> T expect(String operation, int maxStatements, Supplier<T> action) {
+        statistics.clear();
+        StatementRecorder.start();
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            List<String> statements = StatementRecorder.stop();
+            if (statements.size() > maxStatements) {
+                fail(report(operation, maxStatements, statements));
+            }
+        }
+        return result;
+    }
+
+    public void expect(String operation, int maxStatements, Runnable action) {
+        expect(operation, maxStatements, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action and returns the SQL it issued, for tests that assert on which
+     * tables an operation reads rather than how many statements it takes.
+     */
+    public List<String> record(Runnable action) {
+        StatementRecorder.start();
+        List<String> statements;
+        try {
+            action.run();
+        } finally {
+            statements = StatementRecorder.stop();
+        }
+        return statements;
+    }
+
+    private String report(String operation, int maxStatements, List<String> statements) {
+        StringBuilder report = new StringBuilder()
+                .append(operation).append(" ran ").append(statements.size())
+                .append(" SQL statements, budget is ").append(maxStatements)
+                .append(" (entities loaded ").append(statistics.getEntityLoadCount())
+                .append(", collections fetched ").append(statistics.getCollectionFetchCount())
+                .append(", queries ").append(statistics.getQueryExecutionCount())
+                .append(", JDBC statements prepared ").append(statistics.getPrepareStatementCount())
+                .append("):");
+        for (int i = 0; i < statements.size(); i++) {
+            report.append(System.lineSeparator()).append(String.format("%3d. ", i + 1)).append(statements.get(i));
+        }
+        return report.toString();
+    }
+}
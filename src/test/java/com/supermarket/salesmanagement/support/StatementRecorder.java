@@ -0,0 +1,127 @@
+package com.supermarket.salesmanagement.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every SQL statement sent through the application DataSource while
+ * recording is switched on, so Hibernate, JdbcTemplate and plain JDBC all count.
+ * {@link EmbeddedPostgresTest} imports {@link Config}, which wraps the connections
+ * the DataSource bean hands out.
+ */
+public final class StatementRecorder {
+    private static final List<String> STATEMENTS = new ArrayList<>();
+    private static volatile boolean recording;
+
+    private StatementRecorder() {
+    }
+
+    static void start() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+        recording = true;
+    }
+
+    static List<String> stop() {
+        recording = false;
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static void record(String sql) {
+        if (recording) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // A prepared statement is recorded once when prepared, however many times it is batched or run
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> record((String) args[0]);
+                case "createStatement" -> {
+                    Statement statement = (Statement) StatementRecorder.invoke(target, method, args);
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                            new Class<?>[]{Statement.class}, new StatementHandler(statement));
+                }
+                default -> {
+                }
+            }
+            return StatementRecorder.invoke(target, method, args);
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                    && args != null && args.length > 0 && args[0] instanceof String sql) {
+                record(sql);
+            }
+            return StatementRecorder.invoke(target, method, args);
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+        @Bean
+        public static BeanPostProcessor statementRecorderPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    MethodInterceptor recording = invocation -> {
+                        Object result = invocation.proceed();
+                        return result instanceof Connection connection
+                                && invocation.getMethod().getName().equals("getConnection")
+                                ? wrap(connection)
+                                : result;
+                    };
+                    // The deadline post-processor may already have proxied the bean; add to that proxy
+                    if (bean instanceof Advised advised) {
+                        advised.addAdvice(0, recording);
+                        return bean;
+                    }
+                    ProxyFactory proxy = new ProxyFactory(bean);
+                    proxy.setProxyTargetClass(true);
+                    proxy.addAdvice(recording);
+                    return proxy.getProxy();
+                }
+            };
+        }
+    }
+}